@@ -0,0 +1,32 @@
+package kz.readhub.book_management_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for the in-process cache of books by id, used by multi-get only.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "readhub.books.cache")
+public class BookCacheProperties {
+
+    /**
+     * Whether multi-get reads are served from the cache.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached books.
+     */
+    private long maxEntries = 10_000;
+
+    /**
+     * How long a cached book is served. Writes through this instance update the cache at once;
+     * the TTL bounds how stale a book changed by another instance can be.
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+}
@@ -0,0 +1,49 @@
+package kz.readhub.book_management_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for the optional MongoDB change-stream CDC mode.
+ * When enabled, CDC events are produced from the {@code books} change stream
+ * instead of the {@link kz.readhub.book_management_service.service.BookService} hooks.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "readhub.cdc.change-stream")
+public class ChangeStreamProperties {
+
+    /**
+     * Whether the change-stream publisher is active.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Identifier of the checkpoint document holding the last published resume token.
+     */
+    private String checkpointId = "books-cdc";
+
+    /**
+     * Maximum number of change events published per batch.
+     */
+    private int batchSize = 200;
+
+    /**
+     * Maximum time a partially filled batch waits before being published.
+     */
+    private Duration batchTimeout = Duration.ofMillis(500);
+
+    /**
+     * Maximum number of in-flight sends per batch.
+     */
+    private int maxInFlight = 32;
+
+    /**
+     * Whether to request pre-images so deletes and updates carry the previous book state.
+     * Requires MongoDB 6.0+; the collection is switched to {@code changeStreamPreAndPostImages} on start.
+     */
+    private boolean preImages = true;
+}
@@ -0,0 +1,49 @@
+package kz.readhub.book_management_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * CBOR and Smile codecs for the book API, built from the application's Jackson settings so binary bodies
+ * carry exactly the fields and date formats of the JSON ones.
+ * <p>
+ * Smile replaces the default codec in place, after JSON. CBOR has no default codec and must be a custom
+ * one, and Spring puts custom codecs ahead of the defaults, so JSON is registered as a custom codec first
+ * to stay the format chosen for wildcard {@code Accept} headers.
+ */
+@Configuration
+public class CodecConfig implements WebFluxConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> mapperBuilders;
+
+    public CodecConfig(ObjectProvider<Jackson2ObjectMapperBuilder> mapperBuilders) {
+        this.mapperBuilders = mapperBuilders;
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        ObjectMapper jsonMapper = mapperBuilders.getObject().build();
+        configurer.customCodecs().register(new Jackson2JsonEncoder(jsonMapper));
+        configurer.customCodecs().register(new Jackson2JsonDecoder(jsonMapper));
+
+        ObjectMapper cborMapper = mapperBuilders.getObject().factory(new CBORFactory()).build();
+        configurer.customCodecs().register(new Jackson2CborEncoder(cborMapper));
+        configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper));
+
+        ObjectMapper smileMapper = mapperBuilders.getObject().factory(new SmileFactory()).build();
+        configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper));
+        configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper));
+    }
+}
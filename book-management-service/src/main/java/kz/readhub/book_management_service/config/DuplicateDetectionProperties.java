@@ -0,0 +1,52 @@
+package kz.readhub.book_management_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings for near-duplicate detection by SimHash when books are created or updated.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "readhub.duplicates")
+public class DuplicateDetectionProperties {
+
+    /**
+     * Whether fingerprints are computed and compared.
+     */
+    private boolean enabled = true;
+
+    /**
+     * What to do with a near-duplicate.
+     */
+    private Mode mode = Mode.FLAG;
+
+    /**
+     * Largest number of differing fingerprint bits still considered a duplicate, between 1 and 7.
+     * The fingerprint is split into this many bands plus one, so larger values catch looser copies but
+     * make every band shorter and the candidate lists longer.
+     */
+    private int maxDistance = 3;
+
+    /**
+     * Books with fewer tokens get no fingerprint, as short texts collide too easily.
+     */
+    private int minTokens = 8;
+
+    /**
+     * Most books sharing a band that are compared per check.
+     */
+    private int maxCandidates = 100;
+
+    public enum Mode {
+        /**
+         * Save the book and record the book it duplicates in {@code duplicateOf}.
+         */
+        FLAG,
+        /**
+         * Refuse the book with a conflict.
+         */
+        REJECT
+    }
+}
@@ -0,0 +1,24 @@
+package kz.readhub.book_management_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings for coalescing identical concurrent book reads into one MongoDB query.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "readhub.books.coalescing")
+public class ReadCoalescingProperties {
+
+    /**
+     * Whether concurrent identical reads share one query.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Most distinct reads tracked at once; reads beyond it run on their own.
+     */
+    private int maxInFlight = 10_000;
+}
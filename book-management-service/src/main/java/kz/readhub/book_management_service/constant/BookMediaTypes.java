@@ -0,0 +1,22 @@
+package kz.readhub.book_management_service.constant;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Body formats of the book API. Internal callers may use a binary encoding of the same Jackson model;
+ * everyone else gets JSON.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class BookMediaTypes {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    public static final List<MediaType> BINARY = List.of(MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
+    public static final MediaType[] REQUEST_BODIES = {
+            MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE};
+}
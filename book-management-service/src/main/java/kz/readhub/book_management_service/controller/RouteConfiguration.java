@@ -7,9 +7,12 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import kz.readhub.book_management_service.constant.BookMediaTypes;
 import kz.readhub.book_management_service.dto.BookCreateDto;
+import kz.readhub.book_management_service.dto.BookMultiGetDto;
 import kz.readhub.book_management_service.dto.BookSearchDto;
 import kz.readhub.book_management_service.dto.BookUpdateDto;
+import kz.readhub.book_management_service.dto.response.BookMultiGetResponseDto;
 import kz.readhub.book_management_service.handler.BookErrorRequestHandler;
 import kz.readhub.book_management_service.handler.BookHandler;
 import kz.readhub.book_management_service.handler.ErrorRequestHandler;
@@ -118,10 +121,10 @@ public class RouteConfiguration {
     })
     public RouterFunction<ServerResponse> searchRoutes(BookHandler handler) {
         return RouterFunctions.route()
-                .POST("/search", contentType(MediaType.APPLICATION_JSON), handler::searchBooks)
-                .POST("/search/by-category", contentType(MediaType.APPLICATION_JSON), handler::getBooksByCategory)
-                .POST("/search/by-language", contentType(MediaType.APPLICATION_JSON), handler::getBooksByLanguage)
-                .POST("/search/by-uploader", contentType(MediaType.APPLICATION_JSON), handler::getBooksByUploadedBy)
+                .POST("/search", contentType(BookMediaTypes.REQUEST_BODIES), handler::searchBooks)
+                .POST("/search/by-category", contentType(BookMediaTypes.REQUEST_BODIES), handler::getBooksByCategory)
+                .POST("/search/by-language", contentType(BookMediaTypes.REQUEST_BODIES), handler::getBooksByLanguage)
+                .POST("/search/by-uploader", contentType(BookMediaTypes.REQUEST_BODIES), handler::getBooksByUploadedBy)
                 .build();
     }
 
@@ -138,6 +141,19 @@ public class RouteConfiguration {
                             )
                     )
             ),
+            @RouterOperation(
+                    path = "/books/export",
+                    method = RequestMethod.GET,
+                    operation = @Operation(
+                            operationId = "exportBooks", summary = "Stream all active books as NDJSON",
+                            tags = {"Books - Meta"},
+                            responses = @ApiResponse(
+                                    responseCode = "200",
+                                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                            schema = @Schema(implementation = Book.class))
+                            )
+                    )
+            ),
             @RouterOperation(
                     path = "/books/{id}/exists",
                     method = RequestMethod.GET,
@@ -156,6 +172,7 @@ public class RouteConfiguration {
     public RouterFunction<ServerResponse> metaRoutes(BookHandler handler) {
         return RouterFunctions.route()
                 .GET("/books/count", handler::getTotalBookCount)
+                .GET("/books/export", handler::exportBooks)
                 .GET("/books/{id}/exists", handler::bookExists)
                 .build();
     }
@@ -186,6 +203,30 @@ public class RouteConfiguration {
                                             responseCode = "400", content = @Content(schema = @Schema(implementation = BookErrorRequestHandler.class))
                                     )
                             })),
+            @RouterOperation(
+                    path = "/books/multiget",
+                    method = RequestMethod.POST,
+                    operation = @Operation(
+                            operationId = "multiGetBooks", summary = "Get many books by ID in request order",
+                            tags = {"Books - Core"},
+                            requestBody = @RequestBody(
+                                    content = @Content(
+                                            schema = @Schema(
+                                                    implementation = BookMultiGetDto.class
+                                            )
+                                    )
+                            ),
+                            responses = {
+                                    @ApiResponse(
+                                            responseCode = "200", content = @Content(
+                                            schema = @Schema(
+                                                    implementation = BookMultiGetResponseDto.class
+                                            )
+                                    )),
+                                    @ApiResponse(
+                                            responseCode = "400", content = @Content(schema = @Schema(implementation = BookErrorRequestHandler.class))
+                                    )
+                            })),
             @RouterOperation(path = "/books", method = RequestMethod.GET,
                     operation = @Operation(
                             operationId = "getAllBooks", summary = "Get all books with pagination",
@@ -194,7 +235,9 @@ public class RouteConfiguration {
                                     @Parameter(name = "page", in = ParameterIn.QUERY, schema = @Schema(type = "integer", defaultValue = "0")),
                                     @Parameter(name = "size", in = ParameterIn.QUERY, schema = @Schema(type = "integer", defaultValue = "20")),
                                     @Parameter(name = "sortBy", in = ParameterIn.QUERY, schema = @Schema(type = "string", defaultValue = "createdAt")),
-                                    @Parameter(name = "sortDirection", in = ParameterIn.QUERY, schema = @Schema(type = "string", defaultValue = "desc"))
+                                    @Parameter(name = "sortDirection", in = ParameterIn.QUERY, schema = @Schema(type = "string", defaultValue = "desc")),
+                                    @Parameter(name = "ids", in = ParameterIn.QUERY, description = "Comma-separated ids; answers like POST /books/multiget instead of a page",
+                                            schema = @Schema(type = "string"))
                             },
                             responses = @ApiResponse(
                                     responseCode = "200", content = @Content(
@@ -279,10 +322,12 @@ public class RouteConfiguration {
     })
     public RouterFunction<ServerResponse> coreRoutes(BookHandler handler) {
         return RouterFunctions.route()
-                .POST("/books", contentType(MediaType.APPLICATION_JSON), handler::createBook)
+                .POST("/books", contentType(BookMediaTypes.REQUEST_BODIES), handler::createBook)
+                .POST("/books/multiget", contentType(BookMediaTypes.REQUEST_BODIES), handler::multiGetBooks)
+                .GET("/books", queryParam("ids", ids -> true), handler::getBooksByIds)
                 .GET("/books", handler::getAllBooks)
                 .GET("/books/{id}", handler::getBookById)
-                .PUT("/books/{id}", contentType(MediaType.APPLICATION_JSON), handler::updateBook)
+                .PUT("/books/{id}", contentType(BookMediaTypes.REQUEST_BODIES), handler::updateBook)
                 .DELETE("/books/{id}", handler::deleteBook)
                 .build();
     }
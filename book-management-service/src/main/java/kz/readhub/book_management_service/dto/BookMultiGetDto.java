@@ -0,0 +1,27 @@
+package kz.readhub.book_management_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for fetching many books by id in one request.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookMultiGetDto {
+
+    /**
+     * Ids of the books to fetch; books are returned in this order.
+     */
+    @NotEmpty(message = "At least one id is required")
+    private List<String> ids;
+}
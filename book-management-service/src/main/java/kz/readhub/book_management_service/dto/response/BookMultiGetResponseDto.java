@@ -0,0 +1,31 @@
+package kz.readhub.book_management_service.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import kz.readhub.book_management_service.model.Book;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for a multi-get: the books found, in request order, and the ids that were not.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookMultiGetResponseDto {
+
+    /**
+     * Books found, in the order their ids were requested, each once.
+     */
+    private List<Book> books;
+
+    /**
+     * Requested ids with no book, in request order.
+     */
+    private List<String> missing;
+}
@@ -0,0 +1,8 @@
+package kz.readhub.book_management_service.exception;
+
+public class DuplicateBookException extends BookManagementException {
+
+    public DuplicateBookException(String title, String duplicateOf) {
+        super("Book '" + title + "' is a near-duplicate of book " + duplicateOf);
+    }
+}
@@ -38,6 +38,17 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(error));
     }
 
+    @ExceptionHandler(DuplicateBookException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleDuplicateBook(DuplicateBookException ex) {
+        log.error("Duplicate book error: {}", ex.getMessage());
+        ErrorResponse error = ErrorResponse.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .error("Duplicate Book")
+                .message(ex.getMessage())
+                .build();
+        return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(error));
+    }
+
     @ExceptionHandler(BookManagementException.class)
     public Mono<ResponseEntity<ErrorResponse>> handleBookManagementException(BookManagementException ex) {
         log.error("Book management error: {}", ex.getMessage(), ex);
@@ -2,6 +2,7 @@ package kz.readhub.book_management_service.handler;
 
 import kz.readhub.book_management_service.exception.BookManagementException;
 import kz.readhub.book_management_service.exception.BookNotFoundException;
+import kz.readhub.book_management_service.exception.DuplicateBookException;
 import kz.readhub.book_management_service.exception.DuplicateIsbnException;
 import kz.readhub.book_management_service.exception.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
@@ -35,7 +36,7 @@ public class BookErrorRequestHandler implements ErrorRequestHandler {
         if (throwable instanceof BookNotFoundException) {
             return HttpStatus.NOT_FOUND;
         }
-        if (throwable instanceof DuplicateIsbnException) {
+        if (throwable instanceof DuplicateIsbnException || throwable instanceof DuplicateBookException) {
             return HttpStatus.CONFLICT;
         }
         if (throwable instanceof BookManagementException) {
@@ -1,17 +1,30 @@
 package kz.readhub.book_management_service.handler;
 
+import kz.readhub.book_management_service.constant.BookMediaTypes;
 import kz.readhub.book_management_service.dto.BookCreateDto;
+import kz.readhub.book_management_service.dto.BookMultiGetDto;
 import kz.readhub.book_management_service.dto.BookUpdateDto;
 import kz.readhub.book_management_service.model.Book;
 import kz.readhub.book_management_service.service.BookService;
+import kz.readhub.search_telemetry.SearchStage;
+import kz.readhub.search_telemetry.SearchTrace;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -24,20 +37,52 @@ public class BookHandler {
     public Mono<ServerResponse> createBook(ServerRequest request) {
         return validationHandler.validateBody(request, BookCreateDto.class)
                 .flatMap(bookService::createBook)
-                .flatMap(book -> ServerResponse.ok()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .bodyValue(book))
+                .flatMap(book -> okBook(request, book))
                 .onErrorResume(errorRequestHandler::handleError);
     }
 
+    /**
+     * Answers a matching {@code If-None-Match} with {@code 304} after reading only the book's version,
+     * from the {@code _id}/{@code version} index; the book itself is loaded only when it has changed.
+     */
     public Mono<ServerResponse> getBookById(ServerRequest request) {
         String id = request.pathVariable("id");
         log.info("Handler: Getting book by id: {}", id);
-        
-        return bookService.getBookById(id)
-                .flatMap(book -> ServerResponse.ok()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .bodyValue(book))
+
+        Mono<ServerResponse> full = bookService.getBookById(id)
+                .flatMap(book -> okBook(request, book));
+        if (request.headers().header(HttpHeaders.IF_NONE_MATCH).isEmpty()) {
+            return full.onErrorResume(errorRequestHandler::handleError);
+        }
+        MediaType type = responseType(request);
+        return bookService.getBookVersion(id)
+                .flatMap(version -> notModified(request, bookTag(id, version, type)))
+                .switchIfEmpty(full)
+                .onErrorResume(errorRequestHandler::handleError);
+    }
+
+    /**
+     * {@code GET /books?ids=a,b,c}; ids may also be given as repeated parameters.
+     */
+    public Mono<ServerResponse> getBooksByIds(ServerRequest request) {
+        List<String> ids = request.queryParams().getOrDefault("ids", List.of()).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .toList();
+        if (ids.isEmpty()) {
+            return errorRequestHandler.handleError(new IllegalArgumentException("At least one id is required"));
+        }
+
+        return bookService.getBooksByIds(ids)
+                .flatMap(result -> ok(request, result))
+                .onErrorResume(errorRequestHandler::handleError);
+    }
+
+    public Mono<ServerResponse> multiGetBooks(ServerRequest request) {
+        return validationHandler.validateBody(request, BookMultiGetDto.class)
+                .flatMap(body -> bookService.getBooksByIds(body.getIds()))
+                .flatMap(result -> ok(request, result))
                 .onErrorResume(errorRequestHandler::handleError);
     }
 
@@ -53,9 +98,7 @@ public class BookHandler {
         
         log.info("Handler: Getting all books - page: {}, size: {}", page, size);
         
-        return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(bookService.getAllBooks(page, size, sortBy, sortDirection), Book.class)
+        return okPage(request, bookService.getAllBooks(page, size, sortBy, sortDirection))
                 .onErrorResume(errorRequestHandler::handleError);
     }
 
@@ -70,9 +113,10 @@ public class BookHandler {
         
         log.info("Handler: Searching books with query: {}", query);
         
-        return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(bookService.searchBooks(query, page, size), Book.class)
+        return Mono.deferContextual(context -> {
+                    SearchTrace.of(context).end(SearchStage.PARSE);
+                    return okPage(request, bookService.searchBooks(query, page, size));
+                })
                 .onErrorResume(errorRequestHandler::handleError);
     }
 
@@ -88,9 +132,7 @@ public class BookHandler {
         
         log.info("Handler: Getting books by categories: {}", String.join(",", categories));
         
-        return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(bookService.getBooksByCategory(categories, page, size), Book.class)
+        return okPage(request, bookService.getBooksByCategory(categories, page, size))
                 .onErrorResume(errorRequestHandler::handleError);
     }
 
@@ -105,9 +147,7 @@ public class BookHandler {
         
         log.info("Handler: Getting books by language: {}", language);
         
-        return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(bookService.getBooksByLanguage(language, page, size), Book.class)
+        return okPage(request, bookService.getBooksByLanguage(language, page, size))
                 .onErrorResume(errorRequestHandler::handleError);
     }
 
@@ -122,9 +162,7 @@ public class BookHandler {
         
         log.info("Handler: Getting books by uploader: {}", uploadedBy);
         
-        return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(bookService.getBooksByUploadedBy(uploadedBy, page, size), Book.class)
+        return okPage(request, bookService.getBooksByUploadedBy(uploadedBy, page, size))
                 .onErrorResume(errorRequestHandler::handleError);
     }
 
@@ -134,9 +172,7 @@ public class BookHandler {
         
         return validationHandler.validateBody(request, BookUpdateDto.class)
                 .flatMap(updateDto -> bookService.updateBook(id, updateDto))
-                .flatMap(book -> ServerResponse.ok()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .bodyValue(book))
+                .flatMap(book -> okBook(request, book))
                 .onErrorResume(errorRequestHandler::handleError);
     }
 
@@ -153,9 +189,16 @@ public class BookHandler {
         log.info("Handler: Getting total book count");
         
         return bookService.getTotalBookCount()
-                .flatMap(count -> ServerResponse.ok()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .bodyValue(count))
+                .flatMap(count -> ok(request, count))
+                .onErrorResume(errorRequestHandler::handleError);
+    }
+
+    public Mono<ServerResponse> exportBooks(ServerRequest request) {
+        log.info("Handler: Exporting catalog");
+
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bookService.exportActiveBooks(), Book.class)
                 .onErrorResume(errorRequestHandler::handleError);
     }
 
@@ -164,10 +207,100 @@ public class BookHandler {
         log.info("Handler: Checking if book exists: {}", id);
         
         return bookService.bookExists(id)
-                .flatMap(exists -> ServerResponse.ok()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .bodyValue(exists))
+                .flatMap(exists -> ok(request, exists))
                 .onErrorResume(errorRequestHandler::handleError);
     }
 
-}
\ No newline at end of file
+    private Mono<ServerResponse> ok(ServerRequest request, Object body) {
+        return ServerResponse.ok()
+                .contentType(responseType(request))
+                .varyBy(HttpHeaders.ACCEPT)
+                .bodyValue(body);
+    }
+
+    /**
+     * {@code 304} when {@code If-None-Match} matches the tag. It varies by {@code Accept} like the full
+     * response, so a shared cache never answers a request for one format with another format's validator.
+     */
+    private static Mono<ServerResponse> notModified(ServerRequest request, String tag) {
+        return request.checkNotModified(tag)
+                .flatMap(response -> ServerResponse.from(response)
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .build());
+    }
+
+    /**
+     * A book with its strong ETag, or without one if it has no version yet.
+     */
+    private Mono<ServerResponse> okBook(ServerRequest request, Book book) {
+        MediaType type = responseType(request);
+        ServerResponse.BodyBuilder response = ServerResponse.ok()
+                .contentType(type)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (book.getId() != null && book.getVersion() != null) {
+            response.eTag(bookTag(book.getId(), book.getVersion(), type));
+        }
+        return response.bodyValue(book);
+    }
+
+    /**
+     * A page or list of books with a weak ETag over the ids and versions on it. The books have to be read
+     * to know the members, so even JSON is written only once the last book arrives, but an unchanged
+     * page is answered with {@code 304} and never serialized.
+     */
+    private Mono<ServerResponse> okPage(ServerRequest request, Flux<Book> books) {
+        MediaType type = responseType(request);
+        return books.collectList().flatMap(page -> {
+            String tag = "W/" + pageTag(page, type);
+            return notModified(request, tag)
+                    .switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                            .contentType(type)
+                            .varyBy(HttpHeaders.ACCEPT)
+                            .eTag(tag)
+                            .bodyValue(page)));
+        });
+    }
+
+    /**
+     * Entity tags differ per body format, since the same version has a different representation in each.
+     */
+    private static String bookTag(String id, long version, MediaType type) {
+        return "\"" + id + "-" + version + formatSuffix(type) + "\"";
+    }
+
+    private static String pageTag(List<Book> page, MediaType type) {
+        StringBuilder members = new StringBuilder();
+        for (Book book : page) {
+            members.append(book.getId()).append(':').append(book.getVersion()).append(',');
+        }
+        String digest = DigestUtils.md5DigestAsHex(members.toString().getBytes(StandardCharsets.UTF_8));
+        return "\"" + digest + formatSuffix(type) + "\"";
+    }
+
+    private static String formatSuffix(MediaType type) {
+        return MediaType.APPLICATION_JSON.equals(type) ? "" : "-" + type.getSubtype();
+    }
+
+    /**
+     * A binary format when the client names one in {@code Accept} ahead of JSON, JSON otherwise.
+     * Wildcards never select a binary format, so browsers and generic clients keep getting JSON.
+     */
+    private static MediaType responseType(ServerRequest request) {
+        List<MediaType> accepted = new ArrayList<>(request.headers().accept());
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.isWildcardType() || type.isWildcardSubtype() || type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            for (MediaType binary : BookMediaTypes.BINARY) {
+                if (type.isCompatibleWith(binary)) {
+                    return binary;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
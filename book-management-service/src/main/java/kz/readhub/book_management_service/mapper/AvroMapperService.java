@@ -47,6 +47,35 @@ public class AvroMapperService {
                 .build();
     }
 
+    /**
+     * Creates an event for a change captured directly from the database.
+     * The book id comes from the document key, so hard deletes without a pre-image still carry it.
+     */
+    public BookEvent createChangeStreamEvent(
+            String bookId,
+            EventType eventType,
+            kz.readhub.book_management_service.model.Book domainBook,
+            kz.readhub.book_management_service.model.Book previousBook,
+            Map<String, String> metadata) {
+
+        kz.readhub.book_management_service.model.Book source = domainBook != null ? domainBook : previousBook;
+
+        return BookEvent.newBuilder()
+                .setEventId(UUID.randomUUID().toString())
+                .setEventType(eventType)
+                .setBookId(bookId)
+                .setBookData(mapDomainBookToAvro(domainBook))
+                .setPreviousBookData(mapDomainBookToAvro(previousBook))
+                .setTriggeredBy(source != null ? source.getUploadedBy() : null)
+                .setEventTimestamp(LocalDateTime.now().format(ISO_DATETIME_FORMATTER))
+                .setSource("book-management-service")
+                .setServiceVersion("1.0.0")
+                .setMetadata(metadata)
+                .setCorrelationId(generateCorrelationId())
+                .setSchemaVersion("v1")
+                .build();
+    }
+
     public Book mapDomainBookToAvro(kz.readhub.book_management_service.model.Book domainBook) {
         if (domainBook == null) {
             return null;
@@ -75,6 +104,7 @@ public class AvroMapperService {
                 .setCreatedAt(formatDateTime(domainBook.getCreatedAt()))
                 .setUpdatedAt(formatDateTime(domainBook.getUpdatedAt()))
                 .setVersion(domainBook.getVersion())
+                .setDuplicateOf(domainBook.getDuplicateOf())
                 .build();
     }
 
@@ -1,5 +1,6 @@
 package kz.readhub.book_management_service.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
@@ -33,6 +34,7 @@ import java.util.Set;
 @Document(collection = "books")
 @CompoundIndex(def = "{'isbn': 1, 'status': 1}", unique = true)
 @CompoundIndex(def = "{'title': 'text', 'description': 'text', 'authors.name': 'text'}")
+@CompoundIndex(name = "id_version", def = "{'_id': 1, 'version': 1}")
 public class Book {
     
     @Id
@@ -115,6 +117,27 @@ public class Book {
     @Builder.Default
     private BookStatus status = BookStatus.DRAFT;
     
+    /**
+     * SimHash fingerprint of the normalized title, authors and description; absent for texts too short.
+     */
+    @JsonIgnore
+    @Field("sim_hash")
+    private Long simHash;
+
+    /**
+     * Band keys of {@link #simHash}; a multikey index on them finds near-duplicates by exact match.
+     */
+    @JsonIgnore
+    @Indexed
+    @Field("sim_hash_bands")
+    private List<Long> simHashBands;
+
+    /**
+     * Id of the earlier book this one is a near-duplicate of.
+     */
+    @Field("duplicate_of")
+    private String duplicateOf;
+    
     @CreatedDate
     @Field("created_at")
     private LocalDateTime createdAt;
@@ -0,0 +1,35 @@
+package kz.readhub.book_management_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last change-stream position that was fully published to Kafka.
+ * The resume token is kept as extended JSON so it can be restored verbatim.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "cdc_checkpoints")
+public class ChangeStreamCheckpoint {
+
+    @Id
+    private String id;
+
+    @Field("resume_token")
+    private String resumeToken;
+
+    @Field("published_events")
+    private long publishedEvents;
+
+    @Field("updated_at")
+    private LocalDateTime updatedAt;
+}
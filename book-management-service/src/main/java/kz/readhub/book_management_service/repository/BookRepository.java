@@ -2,17 +2,23 @@ package kz.readhub.book_management_service.repository;
 
 import kz.readhub.book_management_service.model.Book;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.Hint;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Repository
 public interface BookRepository extends ReactiveMongoRepository<Book, String> {
 
     Flux<Book> findByStatus(Book.BookStatus status, Pageable pageable);
 
+    Flux<Book> findByStatus(Book.BookStatus status, Sort sort);
+
     Flux<Book> findByTitleContainingIgnoreCase(String title, Pageable pageable);
 
     Flux<Book> findByAuthorsNameContainingIgnoreCase(String authorName, Pageable pageable);
@@ -34,6 +40,18 @@ public interface BookRepository extends ReactiveMongoRepository<Book, String> {
 
     Mono<Boolean> existsByIsbn(String isbn);
 
+    /**
+     * Only {@code _id} and {@code version}, both in the {@code id_version} index, so the query is covered.
+     * The hint keeps the planner off the plain {@code _id} index, which would fetch the document.
+     */
+    @Hint("id_version")
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1 }")
+    Mono<Book> findVersionById(String id);
+
+    @Query(value = "{ 'sim_hash_bands': { $in: ?0 }, 'status': { $ne: 'DELETED' } }",
+            fields = "{ 'sim_hash': 1, 'duplicate_of': 1, 'title': 1 }")
+    Flux<Book> findBySimHashBandsIn(List<Long> bands, Pageable pageable);
+
     Mono<Long> countByStatus(Book.BookStatus status);
 
     Mono<Long> countByLanguage(String language);
@@ -0,0 +1,9 @@
+package kz.readhub.book_management_service.repository;
+
+import kz.readhub.book_management_service.model.ChangeStreamCheckpoint;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChangeStreamCheckpointRepository extends ReactiveMongoRepository<ChangeStreamCheckpoint, String> {
+}
@@ -0,0 +1,71 @@
+package kz.readhub.book_management_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.readhub.book_management_service.config.BookCacheProperties;
+import kz.readhub.book_management_service.model.Book;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Size- and TTL-bounded cache of books by id for multi-get, where a book up to the TTL old is acceptable.
+ * Single-book reads go to the database, since their ETags must reflect the current version.
+ * <p>
+ * A cached book never replaces one with a higher version, so a read that loaded a book just before an
+ * update cannot put the old version back after the update has cached the new one. Callers must not
+ * modify cached books.
+ */
+@Component
+public class BookCache {
+
+    private final BookCacheProperties settings;
+    private final Cache<String, Book> cache;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public BookCache(BookCacheProperties settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxEntries())
+                .expireAfterWrite(settings.getTtl())
+                .build();
+        this.hitCounter = meterRegistry.counter("books.cache.requests", "result", "hit");
+        this.missCounter = meterRegistry.counter("books.cache.requests", "result", "miss");
+        Gauge.builder("books.cache.size", cache, Cache::estimatedSize)
+                .description("Cached books")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached books among {@code ids}, by id.
+     */
+    public Map<String, Book> getAll(Collection<String> ids) {
+        if (!settings.isEnabled()) {
+            return Map.of();
+        }
+        Map<String, Book> found = new HashMap<>(cache.getAllPresent(ids));
+        hitCounter.increment(found.size());
+        missCounter.increment(ids.size() - found.size());
+        return found;
+    }
+
+    public void put(Book book) {
+        if (!settings.isEnabled() || book.getId() == null) {
+            return;
+        }
+        cache.asMap().merge(book.getId(), book, BookCache::newer);
+    }
+
+    private static Book newer(Book cached, Book loaded) {
+        if (cached.getVersion() == null || loaded.getVersion() == null) {
+            return loaded;
+        }
+        return loaded.getVersion() >= cached.getVersion() ? loaded : cached;
+    }
+}
@@ -0,0 +1,199 @@
+package kz.readhub.book_management_service.service;
+
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import jakarta.annotation.PreDestroy;
+import kz.readhub.book_management_service.avro.BookEvent;
+import kz.readhub.book_management_service.avro.EventType;
+import kz.readhub.book_management_service.config.ChangeStreamProperties;
+import kz.readhub.book_management_service.mapper.AvroMapperService;
+import kz.readhub.book_management_service.model.Book;
+import kz.readhub.book_management_service.model.ChangeStreamCheckpoint;
+import kz.readhub.book_management_service.repository.ChangeStreamCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Tails the MongoDB change stream of the {@code books} collection and publishes every change to the CDC topic.
+ * Captures writes that bypass {@link BookService} (scripts, batch jobs, other instances).
+ * The resume token of the last published batch is checkpointed, so a restart continues without gaps or rescans.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "readhub.cdc.change-stream", name = "enabled", havingValue = "true")
+public class BookChangeStreamPublisher {
+
+    private static final String BOOKS_COLLECTION = "books";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ChangeStreamCheckpointRepository checkpointRepository;
+    private final AvroMapperService avroMapperService;
+    private final KafkaPublisherService kafkaPublisherService;
+    private final ChangeStreamProperties properties;
+
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Starting change stream CDC publisher on collection '{}'", BOOKS_COLLECTION);
+
+        subscription = enablePreImages()
+                .thenMany(Flux.defer(this::watchFromCheckpoint))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Change stream failed, resuming from last checkpoint: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Publishes the change stream from the checkpointed resume token, or from the current position without one.
+     * Batches are buffered with fair back-pressure: {@code concatMap} asks for the next batch only once the
+     * previous one is published, so a batch timeout that fires during a slow publish holds its batch until
+     * then instead of failing the stream.
+     */
+    Flux<ChangeStreamCheckpoint> watchFromCheckpoint() {
+        return checkpointRepository.findById(properties.getCheckpointId())
+                .doOnNext(checkpoint -> log.info("Resuming change stream from checkpoint '{}' updated at {}",
+                        checkpoint.getId(), checkpoint.getUpdatedAt()))
+                .map(checkpoint -> listen(BsonDocument.parse(checkpoint.getResumeToken())))
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    log.info("No change stream checkpoint found, starting from the current position");
+                    return listen(null);
+                }))
+                .flatMapMany(events -> events
+                        .bufferTimeout(properties.getBatchSize(), properties.getBatchTimeout(), true)
+                        .concatMap(this::publishBatch));
+    }
+
+    private Flux<ChangeStreamEvent<Book>> listen(BsonValue resumeToken) {
+        return reactiveMongoTemplate.changeStream(Book.class)
+                .watchCollection(BOOKS_COLLECTION)
+                .withOptions(options -> {
+                    options.fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+                    if (properties.isPreImages()) {
+                        options.fullDocumentBeforeChangeLookup(FullDocumentBeforeChange.WHEN_AVAILABLE);
+                    }
+                    if (resumeToken != null) {
+                        options.resumeAfter(resumeToken);
+                    }
+                })
+                .listen();
+    }
+
+    /**
+     * Publishes a batch in stream order and checkpoints its last resume token once every send is acknowledged.
+     */
+    private Mono<ChangeStreamCheckpoint> publishBatch(List<ChangeStreamEvent<Book>> batch) {
+        List<BookEvent> events = batch.stream()
+                .map(this::toBookEvent)
+                .filter(Objects::nonNull)
+                .toList();
+
+        BsonValue lastToken = batch.get(batch.size() - 1).getResumeToken();
+
+        return Flux.fromIterable(events)
+                .flatMapSequential(kafkaPublisherService::publishChangeStreamEvent, properties.getMaxInFlight())
+                .then(checkpoint(lastToken, events.size()))
+                .doOnSuccess(checkpoint -> log.debug("Published {} change stream events, checkpoint advanced", events.size()));
+    }
+
+    private Mono<ChangeStreamCheckpoint> checkpoint(BsonValue resumeToken, int publishedEvents) {
+        if (resumeToken == null) {
+            return Mono.empty();
+        }
+
+        return checkpointRepository.findById(properties.getCheckpointId())
+                .defaultIfEmpty(ChangeStreamCheckpoint.builder().id(properties.getCheckpointId()).build())
+                .map(checkpoint -> checkpoint.toBuilder()
+                        .resumeToken(resumeToken.asDocument().toJson())
+                        .publishedEvents(checkpoint.getPublishedEvents() + publishedEvents)
+                        .updatedAt(LocalDateTime.now())
+                        .build())
+                .flatMap(checkpointRepository::save);
+    }
+
+    private BookEvent toBookEvent(ChangeStreamEvent<Book> change) {
+        if (change.getOperationType() == null || change.getRaw() == null) {
+            return null;
+        }
+
+        EventType eventType = switch (change.getOperationType()) {
+            case INSERT -> EventType.INSERT;
+            case UPDATE, REPLACE -> EventType.UPDATE;
+            case DELETE -> EventType.DELETE;
+            default -> null;
+        };
+
+        if (eventType == null) {
+            log.warn("Ignoring change stream operation {}", change.getOperationType());
+            return null;
+        }
+
+        String bookId = extractBookId(change.getRaw().getDocumentKey());
+        Map<String, String> metadata = Map.of(
+                "operation", eventType.name().toLowerCase(),
+                "trigger", "change_stream",
+                "source_service", "book-management-service"
+        );
+
+        return avroMapperService.createChangeStreamEvent(
+                bookId, eventType, change.getBody(), change.getBodyBeforeChange(), metadata);
+    }
+
+    private String extractBookId(BsonDocument documentKey) {
+        BsonValue id = documentKey != null ? documentKey.get("_id") : null;
+        if (id == null) {
+            return "unknown";
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private Mono<Void> enablePreImages() {
+        if (!properties.isPreImages()) {
+            return Mono.empty();
+        }
+
+        Document command = new Document("collMod", BOOKS_COLLECTION)
+                .append("changeStreamPreAndPostImages", new Document("enabled", true));
+
+        return reactiveMongoTemplate.executeCommand(command)
+                .doOnSuccess(result -> log.info("Enabled change stream pre-images on '{}'", BOOKS_COLLECTION))
+                .onErrorResume(error -> {
+                    log.warn("Could not enable change stream pre-images, previous book data will be absent: {}",
+                            error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
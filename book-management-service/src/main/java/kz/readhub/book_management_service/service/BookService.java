@@ -5,10 +5,15 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import kz.readhub.book_management_service.dto.BookCreateDto;
 import kz.readhub.book_management_service.dto.BookUpdateDto;
+import kz.readhub.book_management_service.dto.response.BookMultiGetResponseDto;
 import kz.readhub.book_management_service.exception.BookNotFoundException;
 import kz.readhub.book_management_service.exception.DuplicateIsbnException;
 import kz.readhub.book_management_service.model.Book;
 import kz.readhub.book_management_service.repository.BookRepository;
+import kz.readhub.book_management_service.service.duplicate.DuplicateDetectionService;
+import kz.readhub.search_telemetry.SearchStage;
+import kz.readhub.search_telemetry.SearchTrace;
+import kz.readhub.search_telemetry.SlowQueryText;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
@@ -23,8 +28,17 @@ import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
  import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Service layer for book management operations.
@@ -37,9 +51,14 @@ import java.util.Set;
 @Transactional(readOnly = true)
 public class BookService {
 
+    public static final int MAX_MULTIGET_IDS = 500;
+
     private final BookRepository bookRepository;
     private final ModelMapper modelMapper;
     private final KafkaPublisherService kafkaPublisherService;
+    private final DuplicateDetectionService duplicateDetectionService;
+    private final BookCache bookCache;
+    private final ReadCoalescer readCoalescer;
 
     /**
      * Creates a new book with validation and event publishing.
@@ -53,17 +72,21 @@ public class BookService {
         
         return validateIsbnUniqueness(createDto.getIsbn())
                 .then(Mono.fromCallable(() -> mapToNewBook(createDto)))
+                .flatMap(duplicateDetectionService::inspect)
                 .flatMap(bookRepository::save)
                 .publishOn(Schedulers.boundedElastic())
                 .doOnSuccess(savedBook -> {
                     log.info("Successfully created book with id: {}", savedBook.getId());
+                    bookCache.put(savedBook);
                     kafkaPublisherService.publishBookCreatedEvent(savedBook).subscribe();
                 })
                 .doOnError(error -> log.error("Failed to create book: {}", createDto.getTitle(), error));
     }
 
     /**
-     * Retrieves a book by its ID.
+     * Retrieves a book by its ID, always from the database: the result carries the version its ETag is
+     * built from, and a cached copy could be an old one changed by another instance. Concurrent reads of
+     * the same book share one query.
      * 
      * @param id the book ID
      * @return Mono containing the book
@@ -71,10 +94,62 @@ public class BookService {
      */
     public Mono<Book> getBookById(@NotBlank String id) {
         log.info("Getting book by id: {}", id);
-        return bookRepository.findById(id)
+        return readCoalescer.execute("id", id, () -> bookRepository.findById(id))
                 .switchIfEmpty(Mono.error(new BookNotFoundException(id)));
     }
 
+    /**
+     * Retrieves many books by id: cached books first, the rest with a single {@code $in} query.
+     * Duplicate ids are fetched and returned once.
+     *
+     * @param ids the book IDs, in the order the books are returned
+     * @return Mono containing the books found and the ids that were not
+     */
+    public Mono<BookMultiGetResponseDto> getBooksByIds(List<String> ids) {
+        Set<String> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > MAX_MULTIGET_IDS) {
+            return Mono.error(new IllegalArgumentException(
+                    "At most " + MAX_MULTIGET_IDS + " ids can be fetched at once"));
+        }
+        log.info("Getting {} books by id", requested.size());
+
+        Map<String, Book> found = new HashMap<>(bookCache.getAll(requested));
+        List<String> uncached = requested.stream()
+                .filter(id -> !found.containsKey(id))
+                .toList();
+        Flux<Book> loaded = uncached.isEmpty()
+                ? Flux.empty()
+                : bookRepository.findAllById(uncached).doOnNext(bookCache::put);
+
+        return loaded
+                .doOnNext(book -> found.put(book.getId(), book))
+                .then(Mono.fromSupplier(() -> {
+                    List<Book> books = new ArrayList<>(found.size());
+                    List<String> missing = new ArrayList<>();
+                    for (String id : requested) {
+                        Book book = found.get(id);
+                        if (book != null) {
+                            books.add(book);
+                        } else {
+                            missing.add(id);
+                        }
+                    }
+                    return BookMultiGetResponseDto.builder()
+                            .books(books)
+                            .missing(missing)
+                            .build();
+                }));
+    }
+
+    /**
+     * The version of a book, read from the {@code _id}/{@code version} index without loading the document;
+     * empty if the book does not exist or has no version.
+     */
+    public Mono<Long> getBookVersion(@NotBlank String id) {
+        return readCoalescer.execute("version", id, () -> bookRepository.findVersionById(id)
+                .mapNotNull(Book::getVersion));
+    }
+
     public Flux<Book> getAllBooks(int page, int size, String sortBy, String sortDirection) {
         log.info("Getting all books - page: {}, size: {}, sortBy: {}", page, size, sortBy);
         
@@ -83,39 +158,58 @@ public class BookService {
                 : Sort.Direction.ASC;
         
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        return bookRepository.findByStatus(Book.BookStatus.ACTIVE, pageable);
+        return coalesce("list", sortBy + "," + direction + "|" + page + "|" + size,
+                () -> bookRepository.findByStatus(Book.BookStatus.ACTIVE, pageable));
     }
 
     public Flux<Book> searchBooks(String query, int page, int size) {
         log.info("Searching books with query: {}", query);
-        Pageable pageable = PageRequest.of(page, size);
-        
-        if (query == null || query.trim().isEmpty()) {
-            return bookRepository.findByStatus(Book.BookStatus.ACTIVE, pageable);
-        }
-        
-        return bookRepository.findByTitleContainingIgnoreCase(query, pageable)
-                .mergeWith(bookRepository.findByAuthorsNameContainingIgnoreCase(query, pageable))
-                .distinct()
-                .take(size);
+        return Flux.deferContextual(context -> {
+            SearchTrace trace = SearchTrace.of(context);
+            Pageable pageable = PageRequest.of(page, size);
+            boolean blank = query == null || query.trim().isEmpty();
+            trace.shape((blank ? "all" : "text") + (page == 0 ? "/first" : "/next"));
+            trace.describe(() -> "query=" + SlowQueryText.normalize(query) + ", page=" + page + ", size=" + size);
+
+            String key = (blank ? "" : query.toLowerCase(Locale.ROOT)) + "|" + page + "|" + size;
+            Flux<Book> books = coalesce("search", key, () -> blank
+                    ? bookRepository.findByStatus(Book.BookStatus.ACTIVE, pageable)
+                    : bookRepository.findByTitleContainingIgnoreCase(query, pageable)
+                            .mergeWith(bookRepository.findByAuthorsNameContainingIgnoreCase(query, pageable))
+                            .distinct()
+                            .take(size));
+            trace.end(SearchStage.PLAN);
+
+            AtomicLong hits = new AtomicLong();
+            return books
+                    .doOnNext(book -> hits.incrementAndGet())
+                    .doOnComplete(() -> {
+                        trace.end(SearchStage.BACKEND);
+                        trace.hits(hits.get());
+                    });
+        });
     }
 
     public Flux<Book> getBooksByCategory(String[] categories, int page, int size) {
         log.info("Getting books by categories: {}", String.join(",", categories));
         Pageable pageable = PageRequest.of(page, size);
-        return bookRepository.findByCategoriesIn(categories, pageable);
+        String key = Arrays.stream(categories).sorted().distinct().collect(Collectors.joining(","))
+                + "|" + page + "|" + size;
+        return coalesce("category", key, () -> bookRepository.findByCategoriesIn(categories, pageable));
     }
 
     public Flux<Book> getBooksByLanguage(String language, int page, int size) {
         log.info("Getting books by language: {}", language);
         Pageable pageable = PageRequest.of(page, size);
-        return bookRepository.findByLanguage(language, pageable);
+        return coalesce("language", language + "|" + page + "|" + size,
+                () -> bookRepository.findByLanguage(language, pageable));
     }
 
     public Flux<Book> getBooksByUploadedBy(String uploadedBy, int page, int size) {
         log.info("Getting books uploaded by: {}", uploadedBy);
         Pageable pageable = PageRequest.of(page, size);
-        return bookRepository.findByUploadedBy(uploadedBy, pageable);
+        return coalesce("uploader", uploadedBy + "|" + page + "|" + size,
+                () -> bookRepository.findByUploadedBy(uploadedBy, pageable));
     }
 
     public Mono<Book> updateBook(String id, BookUpdateDto updateDto) {
@@ -131,9 +225,11 @@ public class BookService {
                     return Mono.just(existingBook);
                 })
                 .map(existingBook -> applyUpdates(existingBook, updateDto))
+                .flatMap(duplicateDetectionService::inspect)
                 .flatMap(bookRepository::save)
                 .doOnSuccess(updatedBook -> {
                     log.info("Successfully updated book with id: {}", updatedBook.getId());
+                    bookCache.put(updatedBook);
                     kafkaPublisherService.publishBookUpdatedEvent(updatedBook).subscribe();
                 })
                 .doOnError(error -> log.error("Failed to update book: {}", id, error));
@@ -148,12 +244,21 @@ public class BookService {
                 .flatMap(bookRepository::save)
                 .doOnSuccess(deletedBook -> {
                     log.info("Successfully deleted book with id: {}", deletedBook.getId());
+                    bookCache.put(deletedBook);
                     kafkaPublisherService.publishBookDeletedEvent(deletedBook).subscribe();
                 })
                 .doOnError(error -> log.error("Failed to delete book: {}", id, error))
                 .then();
     }
 
+    /**
+     * Streams every active book in id order, for consumers that rebuild a full copy of the catalog.
+     */
+    public Flux<Book> exportActiveBooks() {
+        log.info("Exporting all active books");
+        return bookRepository.findByStatus(Book.BookStatus.ACTIVE, Sort.by(Sort.Direction.ASC, "id"));
+    }
+
     public Mono<Long> getTotalBookCount() {
         return bookRepository.countByStatus(Book.BookStatus.ACTIVE);
     }
@@ -162,6 +267,14 @@ public class BookService {
         return bookRepository.existsById(id);
     }
 
+    /**
+     * Shares one page query among concurrent identical reads; the page is collected so every caller
+     * gets all of it.
+     */
+    private Flux<Book> coalesce(String operation, String key, Supplier<Flux<Book>> query) {
+        return readCoalescer.execute(operation, key, () -> query.get().collectList())
+                .flatMapIterable(books -> books);
+    }
 
     private Mono<Void> validateIsbnUniqueness(String isbn) {
         if (isbn == null || isbn.trim().isEmpty()) {
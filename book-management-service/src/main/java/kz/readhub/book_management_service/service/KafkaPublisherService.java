@@ -3,6 +3,7 @@ package kz.readhub.book_management_service.service;
 import kz.concord.concord_kafka_producer.service.ConcordKafkaProducer;
 import kz.readhub.book_management_service.avro.BookEvent;
 import kz.readhub.book_management_service.avro.EventType;
+import kz.readhub.book_management_service.config.ChangeStreamProperties;
 import kz.readhub.book_management_service.constant.KafkaTopics;
 import kz.readhub.book_management_service.mapper.AvroMapperService;
 import kz.readhub.book_management_service.model.Book;
@@ -21,6 +22,7 @@ public class KafkaPublisherService {
 
     private final ConcordKafkaProducer concordKafkaProducer;
     private final AvroMapperService avroMapperService;
+    private final ChangeStreamProperties changeStreamProperties;
 
     /**
      * Publishes book created event to CDC topic for change data capture.
@@ -85,11 +87,25 @@ public class KafkaPublisherService {
         return Mono.when(cdcEvent);
     }
 
+    /**
+     * Publishes an event captured from the MongoDB change stream to the CDC topic.
+     */
+    public Mono<Void> publishChangeStreamEvent(BookEvent event) {
+        return concordKafkaProducer.send(KafkaTopics.BOOK_CDC_EVENTS, event.getBookId(), event)
+                .doOnSuccess(result -> log.debug("Published change stream {} event for book: {}", event.getEventType(), event.getBookId()))
+                .doOnError(error -> log.error("Failed to publish change stream {} event for book: {}", event.getEventType(), event.getBookId(), error));
+    }
+
     /**
      * Core method to publish book events to specified topic using Concord EventPublisher.
+     * CDC events are skipped here when the change stream publisher owns the CDC topic.
      */
     private Mono<Void> publishBookEvent(Book book, EventType eventType, 
                                        Book previousBook, Map<String, String> metadata, String topic) {
+        if (isCapturedByChangeStream(topic)) {
+            return Mono.empty();
+        }
+
         log.info("Publishing {} event for book id: {}", eventType, book.getId());
 
         BookEvent event = avroMapperService.createBookEvent(
@@ -110,6 +126,10 @@ public class KafkaPublisherService {
      * Publishes domain event for business-level processing.
      */
     private Mono<Void> publishEvent(Book book, Map<String, String> metadata) {
+        if (isCapturedByChangeStream(KafkaTopics.BOOK_CDC_EVENTS)) {
+            return Mono.empty();
+        }
+
         BookEvent event = avroMapperService.createBookEvent(
                 book, 
                 EventType.INSERT,
@@ -146,4 +166,8 @@ public class KafkaPublisherService {
                 .doOnSuccess(result -> log.info("Successfully published analytics event {} for book: {}", metricName, book.getId()))
                 .doOnError(error -> log.error("Failed to publish analytics event {} for book: {}", metricName, book.getId(), error));
     }
+
+    private boolean isCapturedByChangeStream(String topic) {
+        return changeStreamProperties.isEnabled() && KafkaTopics.BOOK_CDC_EVENTS.equals(topic);
+    }
 }
\ No newline at end of file
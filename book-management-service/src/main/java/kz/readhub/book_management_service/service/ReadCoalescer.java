@@ -0,0 +1,72 @@
+package kz.readhub.book_management_service.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.readhub.book_management_service.config.ReadCoalescingProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of reads: while a read for a key is running, every identical read joins it
+ * instead of querying again, so a burst of requests for one hot book costs one query.
+ * <p>
+ * A read is tracked only while it runs and is forgotten as soon as it completes or fails; later callers
+ * start a new one, so nothing is ever served stale. The shared read is not cancelled when one caller goes
+ * away, since the others still wait for it.
+ */
+@Component
+public class ReadCoalescer {
+
+    private final ReadCoalescingProperties settings;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+    public ReadCoalescer(ReadCoalescingProperties settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("books.reads.in.flight", inFlight, ConcurrentHashMap::size)
+                .description("Distinct book reads running, each shared by all its callers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code loader}, or joins the running read of the same operation and key. {@code operation}
+     * must be one of a small fixed set, as it tags the metric, and must always load the same type.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(String operation, String key, Supplier<Mono<T>> loader) {
+        if (!settings.isEnabled()) {
+            return Mono.defer(loader);
+        }
+        return Mono.defer(() -> {
+            String flightKey = operation + ":" + key;
+            Mono<?> running = inFlight.get(flightKey);
+            if (running == null && inFlight.size() >= settings.getMaxInFlight()) {
+                return loader.get();
+            }
+
+            boolean[] started = {false};
+            Mono<?> flight = inFlight.computeIfAbsent(flightKey, ignored -> {
+                started[0] = true;
+                return start(flightKey, loader);
+            });
+            if (!started[0]) {
+                meterRegistry.counter("books.reads.coalesced", "operation", operation).increment();
+            }
+            return (Mono<T>) flight;
+        });
+    }
+
+    private <T> Mono<T> start(String flightKey, Supplier<Mono<T>> loader) {
+        AtomicReference<Mono<T>> self = new AtomicReference<>();
+        Mono<T> flight = Mono.defer(loader)
+                .doFinally(signal -> inFlight.remove(flightKey, self.get()))
+                .share();
+        self.set(flight);
+        return flight;
+    }
+}
@@ -0,0 +1,106 @@
+package kz.readhub.book_management_service.service.duplicate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.readhub.book_management_service.config.DuplicateDetectionProperties;
+import kz.readhub.book_management_service.exception.DuplicateBookException;
+import kz.readhub.book_management_service.model.Author;
+import kz.readhub.book_management_service.model.Book;
+import kz.readhub.book_management_service.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Finds near-duplicate books by SimHash before they are saved.
+ * <p>
+ * The fingerprint covers the normalized title, author names and description. Candidates are the books
+ * sharing at least one band key, found through the multikey index on {@code sim_hash_bands}, and a
+ * candidate is a duplicate when its fingerprint is at most {@code maxDistance} bits away. The closest
+ * one wins, and a duplicate of a duplicate points at the original, so an original is never flagged as a
+ * duplicate of its own copies.
+ * <p>
+ * Two books saved at the same moment do not see each other; the later update of either will.
+ */
+@Slf4j
+@Service
+public class DuplicateDetectionService {
+
+    private final DuplicateDetectionProperties settings;
+    private final BookRepository bookRepository;
+    private final Counter flaggedCounter;
+    private final Counter rejectedCounter;
+
+    public DuplicateDetectionService(DuplicateDetectionProperties settings,
+                                     BookRepository bookRepository,
+                                     MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.bookRepository = bookRepository;
+        this.flaggedCounter = meterRegistry.counter("books.duplicates", "outcome", "flagged");
+        this.rejectedCounter = meterRegistry.counter("books.duplicates", "outcome", "rejected");
+    }
+
+    /**
+     * Returns the book with its fingerprint and {@code duplicateOf} brought up to date, or fails with
+     * {@link DuplicateBookException} in reject mode. A book whose fingerprint did not change keeps its flag.
+     */
+    public Mono<Book> inspect(Book book) {
+        if (!settings.isEnabled()) {
+            return Mono.just(book);
+        }
+
+        SimHash simHash = new SimHash()
+                .add(book.getTitle())
+                .add(authorNames(book.getAuthors()))
+                .add(book.getDescription());
+        if (simHash.features() < settings.getMinTokens()) {
+            return Mono.just(book.toBuilder().simHash(null).simHashBands(null).duplicateOf(null).build());
+        }
+
+        long fingerprint = simHash.fingerprint();
+        List<Long> bands = SimHash.bands(fingerprint, settings.getMaxDistance());
+        if (Objects.equals(book.getSimHash(), fingerprint) && bands.equals(book.getSimHashBands())) {
+            return Mono.just(book);
+        }
+
+        Book fingerprinted = book.toBuilder().simHash(fingerprint).simHashBands(bands).build();
+        return bookRepository.findBySimHashBandsIn(bands, PageRequest.of(0, settings.getMaxCandidates()))
+                .filter(candidate -> candidate.getSimHash() != null && !candidate.getId().equals(book.getId()))
+                .filter(candidate -> SimHash.distance(candidate.getSimHash(), fingerprint) <= settings.getMaxDistance())
+                .sort(Comparator.comparingInt(candidate -> SimHash.distance(candidate.getSimHash(), fingerprint)))
+                .next()
+                .map(original -> original.getDuplicateOf() != null ? original.getDuplicateOf() : original.getId())
+                .filter(duplicateOf -> !duplicateOf.equals(book.getId()))
+                .flatMap(duplicateOf -> duplicate(fingerprinted, duplicateOf))
+                .defaultIfEmpty(fingerprinted.toBuilder().duplicateOf(null).build());
+    }
+
+    private Mono<Book> duplicate(Book book, String duplicateOf) {
+        if (settings.getMode() == DuplicateDetectionProperties.Mode.REJECT) {
+            rejectedCounter.increment();
+            log.info("Rejecting book '{}' as a near-duplicate of {}", book.getTitle(), duplicateOf);
+            return Mono.error(new DuplicateBookException(book.getTitle(), duplicateOf));
+        }
+        flaggedCounter.increment();
+        log.info("Flagging book '{}' as a near-duplicate of {}", book.getTitle(), duplicateOf);
+        return Mono.just(book.toBuilder().duplicateOf(duplicateOf).build());
+    }
+
+    private static String authorNames(List<Author> authors) {
+        if (authors == null) {
+            return null;
+        }
+        StringBuilder names = new StringBuilder();
+        for (Author author : authors) {
+            if (author != null && author.getName() != null) {
+                names.append(author.getName()).append(' ');
+            }
+        }
+        return names.toString();
+    }
+}
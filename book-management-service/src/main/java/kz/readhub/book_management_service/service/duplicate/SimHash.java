@@ -0,0 +1,108 @@
+package kz.readhub.book_management_service.service.duplicate;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 64-bit SimHash fingerprints of book text, and the band keys used to look them up.
+ * <p>
+ * Every normalized token votes on each of the 64 bits, so books that share most of their words get
+ * fingerprints a few bits apart; case, punctuation, accents and word order make no difference at all.
+ * Splitting a fingerprint into {@code maxDistance + 1} bands guarantees, by the pigeonhole principle,
+ * that two fingerprints within {@code maxDistance} bits agree on at least one whole band, so an
+ * exact-match lookup on band keys finds every candidate.
+ */
+public final class SimHash {
+
+    public static final int MIN_DISTANCE = 1;
+    public static final int MAX_DISTANCE = 7;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final int[] votes = new int[Long.SIZE];
+    private int features;
+
+    /**
+     * Adds every token of {@code text}; {@code null} adds nothing.
+     */
+    public SimHash add(String text) {
+        if (text == null) {
+            return this;
+        }
+        for (String token : tokenize(text)) {
+            long hash = hash(token);
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                votes[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+            }
+            features++;
+        }
+        return this;
+    }
+
+    /**
+     * Number of tokens added; fingerprints of very short texts collide too easily to be trusted.
+     */
+    public int features() {
+        return features;
+    }
+
+    public long fingerprint() {
+        long fingerprint = 0L;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (votes[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * The {@code maxDistance + 1} band keys of a fingerprint; each key holds the band number in its high
+     * half so equal bits in different bands never match.
+     */
+    public static List<Long> bands(long fingerprint, int maxDistance) {
+        if (maxDistance < MIN_DISTANCE || maxDistance > MAX_DISTANCE) {
+            throw new IllegalArgumentException(
+                    "maxDistance must be between " + MIN_DISTANCE + " and " + MAX_DISTANCE);
+        }
+        int count = maxDistance + 1;
+        Long[] keys = new Long[count];
+        for (int band = 0; band < count; band++) {
+            int from = band * Long.SIZE / count;
+            int to = (band + 1) * Long.SIZE / count;
+            long bits = (fingerprint >>> from) & ((1L << (to - from)) - 1);
+            keys[band] = ((long) band << 32) | bits;
+        }
+        return List.of(keys);
+    }
+
+    static String[] tokenize(String text) {
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("");
+        String normalized = SEPARATORS.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    /**
+     * FNV-1a followed by the MurmurHash3 finalizer, so every bit depends on every character.
+     */
+    static long hash(String token) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            hash ^= token.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
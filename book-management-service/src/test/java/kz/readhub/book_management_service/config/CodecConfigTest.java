@@ -0,0 +1,141 @@
+package kz.readhub.book_management_service.config;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import kz.readhub.book_management_service.constant.BookMediaTypes;
+import kz.readhub.book_management_service.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.DecoderHttpMessageReader;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2CodecSupport;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CodecConfig registering the binary codecs without taking JSON's place as the default.
+ */
+@DisplayName("CodecConfig Tests")
+class CodecConfigTest {
+
+    private static final ResolvableType BOOK = ResolvableType.forClass(Book.class);
+
+    private ServerCodecConfigurer configurer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<Jackson2ObjectMapperBuilder> mapperBuilders = mock(ObjectProvider.class);
+        when(mapperBuilders.getObject()).thenAnswer(invocation -> Jackson2ObjectMapperBuilder.json()
+                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE));
+        configurer = ServerCodecConfigurer.create();
+        new CodecConfig(mapperBuilders).configureHttpMessageCodecs(configurer);
+    }
+
+    @Nested
+    @DisplayName("Ordering Tests")
+    class OrderingTests {
+
+        @Test
+        @DisplayName("Should offer JSON first when no format is asked for")
+        void shouldWriteJsonFirst() {
+            // When
+            HttpMessageWriter<?> first = configurer.getWriters().stream()
+                    .filter(writer -> writer.canWrite(BOOK, null))
+                    .findFirst()
+                    .orElseThrow();
+
+            // Then
+            assertThat(first.getWritableMediaTypes()).contains(MediaType.APPLICATION_JSON);
+            assertThat(first.getWritableMediaTypes()).doesNotContain(MediaType.APPLICATION_CBOR);
+        }
+
+        @Test
+        @DisplayName("Should read JSON first when no content type is given")
+        void shouldReadJsonFirst() {
+            // When
+            HttpMessageReader<?> first = configurer.getReaders().stream()
+                    .filter(reader -> reader.canRead(BOOK, null))
+                    .findFirst()
+                    .orElseThrow();
+
+            // Then
+            assertThat(first.getReadableMediaTypes()).contains(MediaType.APPLICATION_JSON);
+        }
+    }
+
+    @Nested
+    @DisplayName("Binary Codec Tests")
+    class BinaryCodecTests {
+
+        @Test
+        @DisplayName("Should write and read CBOR with the application's Jackson settings")
+        void shouldRegisterCbor() {
+            // When
+            Object encoder = encoderFor(MediaType.APPLICATION_CBOR);
+            Object decoder = decoderFor(MediaType.APPLICATION_CBOR);
+
+            // Then
+            assertThat(encoder).isInstanceOf(Jackson2CborEncoder.class);
+            assertThat(decoder).isInstanceOf(Jackson2CborDecoder.class);
+            assertSnakeCase(encoder);
+            assertSnakeCase(decoder);
+        }
+
+        @Test
+        @DisplayName("Should replace the default Smile codecs with ones using the application's Jackson settings")
+        void shouldReplaceSmile() {
+            // When
+            Object encoder = encoderFor(BookMediaTypes.APPLICATION_SMILE);
+            Object decoder = decoderFor(BookMediaTypes.APPLICATION_SMILE);
+
+            // Then
+            assertThat(encoder).isInstanceOf(Jackson2SmileEncoder.class);
+            assertThat(decoder).isInstanceOf(Jackson2SmileDecoder.class);
+            assertSnakeCase(encoder);
+            assertSnakeCase(decoder);
+        }
+
+        @Test
+        @DisplayName("Should write JSON with the application's Jackson settings")
+        void shouldUseApplicationJsonMapper() {
+            // When & Then
+            assertSnakeCase(encoderFor(MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private Object encoderFor(MediaType type) {
+        HttpMessageWriter<?> writer = configurer.getWriters().stream()
+                .filter(candidate -> candidate.canWrite(BOOK, type))
+                .findFirst()
+                .orElseThrow();
+        return ((EncoderHttpMessageWriter<?>) writer).getEncoder();
+    }
+
+    private Object decoderFor(MediaType type) {
+        HttpMessageReader<?> reader = configurer.getReaders().stream()
+                .filter(candidate -> candidate.canRead(BOOK, type))
+                .findFirst()
+                .orElseThrow();
+        return ((DecoderHttpMessageReader<?>) reader).getDecoder();
+    }
+
+    private static void assertSnakeCase(Object codec) {
+        assertThat(((Jackson2CodecSupport) codec).getObjectMapper().getPropertyNamingStrategy())
+                .isSameAs(PropertyNamingStrategies.SNAKE_CASE);
+    }
+}
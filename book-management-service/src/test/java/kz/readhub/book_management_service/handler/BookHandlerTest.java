@@ -0,0 +1,335 @@
+package kz.readhub.book_management_service.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import kz.readhub.book_management_service.config.CodecConfig;
+import kz.readhub.book_management_service.constant.BookMediaTypes;
+import kz.readhub.book_management_service.controller.RouteConfiguration;
+import kz.readhub.book_management_service.dto.BookCreateDto;
+import kz.readhub.book_management_service.dto.BookSearchDto;
+import kz.readhub.book_management_service.model.Author;
+import kz.readhub.book_management_service.model.Book;
+import kz.readhub.book_management_service.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for BookHandler content negotiation and conditional requests, with the routes and codecs
+ * the application registers.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("BookHandler Tests")
+class BookHandlerTest {
+
+    private static final String BOOK_ID = "book-1";
+
+    @Mock
+    private BookService bookService;
+
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+    private Book book;
+    private WebTestClient client;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<Jackson2ObjectMapperBuilder> mapperBuilders = mock(ObjectProvider.class);
+        when(mapperBuilders.getObject()).thenAnswer(invocation -> Jackson2ObjectMapperBuilder.json());
+        CodecConfig codecConfig = new CodecConfig(mapperBuilders);
+
+        BookHandler handler = new BookHandler(bookService,
+                new ValidationHandler(Validation.buildDefaultValidatorFactory().getValidator()),
+                new BookErrorRequestHandler());
+        RouteConfiguration routes = new RouteConfiguration();
+        client = WebTestClient.bindToRouterFunction(routes.coreRoutes(handler).and(routes.searchRoutes(handler)))
+                .handlerStrategies(HandlerStrategies.builder()
+                        .codecs(codecConfig::configureHttpMessageCodecs)
+                        .build())
+                .build();
+
+        book = Book.builder()
+                .id(BOOK_ID)
+                .title("Dune")
+                .language("en")
+                .status(Book.BookStatus.ACTIVE)
+                .version(3L)
+                .build();
+        when(bookService.getBookById(BOOK_ID)).thenReturn(Mono.just(book));
+    }
+
+    @Nested
+    @DisplayName("Content Negotiation Tests")
+    class ContentNegotiationTests {
+
+        @Test
+        @DisplayName("Should answer in CBOR when the client asks for it")
+        void shouldAnswerInCbor() throws IOException {
+            // When
+            byte[] body = client.get()
+                    .uri("/books/{id}", BOOK_ID)
+                    .accept(MediaType.APPLICATION_CBOR)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, "\"book-1-3-cbor\"")
+                    .expectBody(byte[].class)
+                    .returnResult()
+                    .getResponseBody();
+
+            // Then
+            assertThat(cborMapper.readValue(body, Book.class).getTitle()).isEqualTo("Dune");
+        }
+
+        @Test
+        @DisplayName("Should answer in Smile when the client asks for it")
+        void shouldAnswerInSmile() throws IOException {
+            // When
+            byte[] body = client.get()
+                    .uri("/books/{id}", BOOK_ID)
+                    .accept(BookMediaTypes.APPLICATION_SMILE)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(BookMediaTypes.APPLICATION_SMILE)
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, "\"book-1-3-x-jackson-smile\"")
+                    .expectBody(byte[].class)
+                    .returnResult()
+                    .getResponseBody();
+
+            // Then
+            assertThat(smileMapper.readValue(body, Book.class).getTitle()).isEqualTo("Dune");
+        }
+
+        @Test
+        @DisplayName("Should answer in JSON for wildcards and for no Accept header")
+        void shouldAnswerWildcardsInJson() {
+            // When & Then
+            client.get()
+                    .uri("/books/{id}", BOOK_ID)
+                    .accept(MediaType.ALL)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, "\"book-1-3\"")
+                    .expectBody().jsonPath("$.title").isEqualTo("Dune");
+            client.get()
+                    .uri("/books/{id}", BOOK_ID)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(MediaType.APPLICATION_JSON);
+        }
+
+        @Test
+        @DisplayName("Should pick the format with the higher quality")
+        void shouldFollowQualityValues() {
+            // When & Then
+            client.get()
+                    .uri("/books/{id}", BOOK_ID)
+                    .header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, application/json")
+                    .exchange()
+                    .expectHeader().contentType(MediaType.APPLICATION_JSON);
+            client.get()
+                    .uri("/books/{id}", BOOK_ID)
+                    .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/x-jackson-smile")
+                    .exchange()
+                    .expectHeader().contentType(BookMediaTypes.APPLICATION_SMILE);
+        }
+
+        @Test
+        @DisplayName("Should read a CBOR request body")
+        void shouldReadCborBody() throws IOException {
+            // Given
+            BookCreateDto create = BookCreateDto.builder()
+                    .title("Dune")
+                    .authors(List.of(Author.builder().name("Frank Herbert").build()))
+                    .categories(List.of("Science Fiction"))
+                    .language("en")
+                    .filePath("/books/dune.epub")
+                    .userId("user-1")
+                    .build();
+            when(bookService.createBook(any(BookCreateDto.class))).thenReturn(Mono.just(book));
+
+            // When
+            client.post()
+                    .uri("/books")
+                    .contentType(MediaType.APPLICATION_CBOR)
+                    .bodyValue(cborMapper.writeValueAsBytes(create))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(MediaType.APPLICATION_JSON);
+
+            // Then
+            ArgumentCaptor<BookCreateDto> received = ArgumentCaptor.forClass(BookCreateDto.class);
+            verify(bookService).createBook(received.capture());
+            assertThat(received.getValue().getTitle()).isEqualTo("Dune");
+            assertThat(received.getValue().getAuthors()).extracting(Author::getName).containsExactly("Frank Herbert");
+        }
+
+        @Test
+        @DisplayName("Should accept a Smile body on the search routes")
+        void shouldAcceptSmileOnSearchRoutes() throws IOException {
+            // Given
+            when(bookService.searchBooks(anyString(), anyInt(), anyInt())).thenReturn(Flux.just(book));
+
+            // When & Then
+            client.post()
+                    .uri("/search?query=dune")
+                    .contentType(BookMediaTypes.APPLICATION_SMILE)
+                    .bodyValue(smileMapper.writeValueAsBytes(BookSearchDto.builder().build()))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                    .expectBody().jsonPath("$[0].id").isEqualTo(BOOK_ID);
+        }
+    }
+
+    @Nested
+    @DisplayName("Conditional Request Tests")
+    class ConditionalRequestTests {
+
+        @Test
+        @DisplayName("Should answer a matching If-None-Match with 304 without loading the book")
+        void shouldAnswerNotModifiedFromVersion() {
+            // Given
+            when(bookService.getBookVersion(BOOK_ID)).thenReturn(Mono.just(3L));
+
+            // When & Then
+            client.get()
+                    .uri("/books/{id}", BOOK_ID)
+                    .ifNoneMatch("\"book-1-3\"")
+                    .exchange()
+                    .expectStatus().isNotModified()
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, "\"book-1-3\"")
+                    .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                    .expectBody().isEmpty();
+            verify(bookService, never()).getBookById(BOOK_ID);
+        }
+
+        @Test
+        @DisplayName("Should send the book with its new tag when the version moved on")
+        void shouldSendChangedBook() {
+            // Given
+            when(bookService.getBookVersion(BOOK_ID)).thenReturn(Mono.just(3L));
+
+            // When & Then
+            client.get()
+                    .uri("/books/{id}", BOOK_ID)
+                    .ifNoneMatch("\"book-1-2\"")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, "\"book-1-3\"")
+                    .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                    .expectBody().jsonPath("$.title").isEqualTo("Dune");
+        }
+
+        @Test
+        @DisplayName("Should not match a JSON tag on a request for CBOR")
+        void shouldKeepTagsPerFormat() {
+            // Given
+            when(bookService.getBookVersion(BOOK_ID)).thenReturn(Mono.just(3L));
+
+            // When & Then
+            client.get()
+                    .uri("/books/{id}", BOOK_ID)
+                    .accept(MediaType.APPLICATION_CBOR)
+                    .ifNoneMatch("\"book-1-3\"")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, "\"book-1-3-cbor\"");
+        }
+
+        @Test
+        @DisplayName("Should send a book without a version untagged")
+        void shouldNotTagUnversionedBook() {
+            // Given
+            book.setVersion(null);
+
+            // When & Then
+            client.get()
+                    .uri("/books/{id}", BOOK_ID)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().doesNotExist(HttpHeaders.ETAG);
+        }
+
+        @Test
+        @DisplayName("Should tag a page weakly and answer the same tag with 304")
+        void shouldAnswerUnchangedPageWithNotModified() {
+            // Given
+            when(bookService.getAllBooks(anyInt(), anyInt(), anyString(), anyString()))
+                    .thenAnswer(invocation -> Flux.just(book));
+            String tag = client.get()
+                    .uri("/books")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                    .returnResult(String.class)
+                    .getResponseHeaders()
+                    .getETag();
+
+            // When & Then
+            assertThat(tag).startsWith("W/\"");
+            client.get()
+                    .uri("/books")
+                    .ifNoneMatch(tag)
+                    .exchange()
+                    .expectStatus().isNotModified()
+                    .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                    .expectBody().isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should send a page again once a book on it changed version")
+        void shouldSendChangedPage() {
+            // Given
+            when(bookService.getAllBooks(anyInt(), anyInt(), anyString(), anyString()))
+                    .thenAnswer(invocation -> Flux.just(book));
+            String tag = client.get()
+                    .uri("/books")
+                    .exchange()
+                    .returnResult(String.class)
+                    .getResponseHeaders()
+                    .getETag();
+            book.setVersion(4L);
+
+            // When & Then
+            client.get()
+                    .uri("/books")
+                    .ifNoneMatch(tag)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().value(HttpHeaders.ETAG, value -> assertThat(value).isNotEqualTo(tag))
+                    .expectBody().jsonPath("$[0].version").isEqualTo(4);
+        }
+    }
+}
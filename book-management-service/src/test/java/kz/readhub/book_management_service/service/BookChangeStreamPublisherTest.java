@@ -0,0 +1,245 @@
+package kz.readhub.book_management_service.service;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import kz.readhub.book_management_service.avro.BookEvent;
+import kz.readhub.book_management_service.config.ChangeStreamProperties;
+import kz.readhub.book_management_service.mapper.AvroMapperService;
+import kz.readhub.book_management_service.model.Book;
+import kz.readhub.book_management_service.model.ChangeStreamCheckpoint;
+import kz.readhub.book_management_service.repository.ChangeStreamCheckpointRepository;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for BookChangeStreamPublisher resuming from its checkpoint and publishing in batches.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("BookChangeStreamPublisher Tests")
+class BookChangeStreamPublisherTest {
+
+    private static final String BOOKS_COLLECTION = "books";
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Mock
+    private ChangeStreamCheckpointRepository checkpointRepository;
+
+    @Mock
+    private AvroMapperService avroMapperService;
+
+    @Mock
+    private KafkaPublisherService kafkaPublisherService;
+
+    private final AtomicReference<ChangeStreamCheckpoint> stored = new AtomicReference<>();
+    private final Map<String, BookEvent> bookEvents = new ConcurrentHashMap<>();
+    private final List<BookEvent> published = new CopyOnWriteArrayList<>();
+    private ChangeStreamProperties properties;
+    private BookChangeStreamPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ChangeStreamProperties();
+        properties.setBatchSize(2);
+        publisher = new BookChangeStreamPublisher(reactiveMongoTemplate, checkpointRepository, avroMapperService,
+                kafkaPublisherService, properties);
+
+        when(checkpointRepository.findById(properties.getCheckpointId()))
+                .thenAnswer(invocation -> Mono.justOrEmpty(stored.get()));
+        when(checkpointRepository.save(any(ChangeStreamCheckpoint.class))).thenAnswer(invocation -> {
+            stored.set(invocation.getArgument(0));
+            return Mono.just(stored.get());
+        });
+        when(avroMapperService.createChangeStreamEvent(anyString(), any(), any(), any(), anyMap()))
+                .thenAnswer(invocation -> bookEvent(invocation.getArgument(0)));
+        when(kafkaPublisherService.publishChangeStreamEvent(any()))
+                .thenAnswer(invocation -> Mono.fromRunnable(() -> published.add(invocation.getArgument(0))));
+    }
+
+    @Nested
+    @DisplayName("Resume Tests")
+    class ResumeTests {
+
+        @Test
+        @DisplayName("Should resume after the checkpointed resume token")
+        void shouldResumeAfterCheckpointedToken() {
+            // Given
+            stored.set(ChangeStreamCheckpoint.builder()
+                    .id(properties.getCheckpointId())
+                    .resumeToken(token(7).toJson())
+                    .publishedEvents(7)
+                    .build());
+            stubChangeStream(Flux.empty());
+
+            // When
+            StepVerifier.create(publisher.watchFromCheckpoint())
+                    .verifyComplete();
+
+            // Then
+            assertThat(options().getResumeToken()).contains(token(7));
+        }
+
+        @Test
+        @DisplayName("Should start from the current position without a checkpoint")
+        void shouldStartFromCurrentPositionWithoutCheckpoint() {
+            // Given
+            stubChangeStream(Flux.empty());
+
+            // When
+            StepVerifier.create(publisher.watchFromCheckpoint())
+                    .verifyComplete();
+
+            // Then
+            assertThat(options().getResumeToken()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Publish Tests")
+    class PublishTests {
+
+        @Test
+        @DisplayName("Should publish batches in stream order and checkpoint the last token of each")
+        void shouldPublishBatchesInOrder() {
+            // Given
+            List<ChangeStreamEvent<Book>> events = new ArrayList<>();
+            for (int i = 1; i <= 5; i++) {
+                events.add(change(i, OperationType.INSERT));
+            }
+            stubChangeStream(Flux.fromIterable(events));
+
+            // When & Then
+            StepVerifier.create(publisher.watchFromCheckpoint())
+                    .assertNext(checkpoint -> assertThat(checkpoint.getResumeToken()).isEqualTo(token(2).toJson()))
+                    .assertNext(checkpoint -> assertThat(checkpoint.getResumeToken()).isEqualTo(token(4).toJson()))
+                    .assertNext(checkpoint -> assertThat(checkpoint.getResumeToken()).isEqualTo(token(5).toJson()))
+                    .verifyComplete();
+            assertThat(published).containsExactly(bookEvent("book-1"), bookEvent("book-2"), bookEvent("book-3"),
+                    bookEvent("book-4"), bookEvent("book-5"));
+            assertThat(stored.get().getPublishedEvents()).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("Should advance the checkpoint past operations that are not published")
+        void shouldCheckpointPastIgnoredOperations() {
+            // Given
+            stubChangeStream(Flux.just(change(1, OperationType.INSERT), change(2, OperationType.DROP)));
+
+            // When & Then
+            StepVerifier.create(publisher.watchFromCheckpoint())
+                    .expectNextCount(1)
+                    .verifyComplete();
+            assertThat(published).containsExactly(bookEvent("book-1"));
+            assertThat(stored.get().getResumeToken()).isEqualTo(token(2).toJson());
+            assertThat(stored.get().getPublishedEvents()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should hold timed-out batches while publishing outlasts the batch timeout")
+        void shouldSurvivePublishSlowerThanBatchTimeout() {
+            // Given
+            properties.setBatchTimeout(Duration.ofMillis(5));
+            when(kafkaPublisherService.publishChangeStreamEvent(any()))
+                    .thenAnswer(invocation -> Mono.delay(Duration.ofMillis(50))
+                            .then(Mono.fromRunnable(() -> published.add(invocation.getArgument(0)))));
+            Sinks.Many<ChangeStreamEvent<Book>> events = Sinks.many().unicast().onBackpressureBuffer();
+            stubChangeStream(events.asFlux());
+
+            // When & Then
+            StepVerifier.create(publisher.watchFromCheckpoint())
+                    .then(() -> {
+                        for (int i = 1; i <= 20; i++) {
+                            events.tryEmitNext(change(i, OperationType.UPDATE));
+                            LockSupport.parkNanos(Duration.ofMillis(5).toNanos());
+                        }
+                        events.tryEmitComplete();
+                    })
+                    .thenConsumeWhile(checkpoint -> true)
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(10));
+            assertThat(published).hasSize(20);
+            assertThat(stored.get().getResumeToken()).isEqualTo(token(20).toJson());
+        }
+    }
+
+    private void stubChangeStream(Flux<ChangeStreamEvent<Book>> events) {
+        when(reactiveMongoTemplate.changeStream(Book.class)
+                .watchCollection(BOOKS_COLLECTION)
+                .withOptions(any())
+                .listen())
+                .thenReturn(events);
+    }
+
+    /**
+     * Options the stream was opened with; the stubbing call above also reaches the mock, with no consumer.
+     */
+    @SuppressWarnings("unchecked")
+    private ChangeStreamOptions options() {
+        ArgumentCaptor<Consumer<ChangeStreamOptions.ChangeStreamOptionsBuilder>> captor =
+                ArgumentCaptor.forClass(Consumer.class);
+        verify(reactiveMongoTemplate.changeStream(Book.class).watchCollection(BOOKS_COLLECTION), atLeastOnce())
+                .withOptions(captor.capture());
+        ChangeStreamOptions.ChangeStreamOptionsBuilder builder = ChangeStreamOptions.builder();
+        captor.getValue().accept(builder);
+        return builder.build();
+    }
+
+    private BookEvent bookEvent(String bookId) {
+        return bookEvents.computeIfAbsent(bookId, id -> mock(BookEvent.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeStreamEvent<Book> change(int sequence, OperationType operationType) {
+        ChangeStreamDocument<Document> raw = mock(ChangeStreamDocument.class);
+        when(raw.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonString("book-" + sequence)));
+        ChangeStreamEvent<Book> change = mock(ChangeStreamEvent.class);
+        when(change.getRaw()).thenReturn(raw);
+        when(change.getOperationType()).thenReturn(operationType);
+        when(change.getResumeToken()).thenReturn(token(sequence));
+        return change;
+    }
+
+    private static BsonDocument token(int sequence) {
+        return new BsonDocument("_data", new BsonString("token-" + sequence));
+    }
+}
@@ -1,5 +1,7 @@
 package kz.readhub.book_management_service.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.readhub.book_management_service.config.ReadCoalescingProperties;
 import kz.readhub.book_management_service.dto.BookCreateDto;
 import kz.readhub.book_management_service.dto.BookUpdateDto;
 import kz.readhub.book_management_service.exception.BookNotFoundException;
@@ -7,6 +9,7 @@ import kz.readhub.book_management_service.exception.DuplicateIsbnException;
 import kz.readhub.book_management_service.model.Author;
 import kz.readhub.book_management_service.model.Book;
 import kz.readhub.book_management_service.repository.BookRepository;
+import kz.readhub.book_management_service.service.duplicate.DuplicateDetectionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,6 +17,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.PageRequest;
@@ -26,9 +30,14 @@ import reactor.test.StepVerifier;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -48,6 +57,15 @@ class BookServiceTest {
     @Mock
     private KafkaPublisherService kafkaPublisherService;
 
+    @Mock
+    private DuplicateDetectionService duplicateDetectionService;
+
+    @Mock
+    private BookCache bookCache;
+
+    @Spy
+    private ReadCoalescer readCoalescer = new ReadCoalescer(new ReadCoalescingProperties(), new SimpleMeterRegistry());
+
     @InjectMocks
     private BookService bookService;
 
@@ -106,6 +124,7 @@ class BookServiceTest {
             // Given
             when(bookRepository.existsByIsbn(anyString())).thenReturn(Mono.just(false));
             when(modelMapper.map(any(BookCreateDto.class), eq(Book.class))).thenReturn(testBook);
+            when(duplicateDetectionService.inspect(any(Book.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
             when(bookRepository.save(any(Book.class))).thenReturn(Mono.just(testBook));
             when(kafkaPublisherService.publishBookCreatedEvent(any(Book.class))).thenReturn(Mono.empty());
 
@@ -142,6 +161,7 @@ class BookServiceTest {
             StepVerifier.create(bookService.getBookById("test-id"))
                     .expectNext(testBook)
                     .verifyComplete();
+            verifyNoInteractions(bookCache);
         }
 
         @Test
@@ -157,6 +177,96 @@ class BookServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Multi-Get Tests")
+    class MultiGetTests {
+
+        @Test
+        @DisplayName("Should return books in request order, loading only uncached ones in one query")
+        void shouldReturnBooksInRequestOrder() {
+            // Given
+            Book first = book("b-1");
+            Book second = book("b-2");
+            Book third = book("b-3");
+            when(bookCache.getAll(Set.of("b-3", "b-1", "b-2", "b-4"))).thenReturn(Map.of("b-1", first));
+            when(bookRepository.findAllById(List.of("b-3", "b-2", "b-4"))).thenReturn(Flux.just(second, third));
+
+            // When & Then
+            StepVerifier.create(bookService.getBooksByIds(List.of("b-3", "b-1", "b-2", "b-4")))
+                    .assertNext(result -> {
+                        assertThat(result.getBooks()).containsExactly(third, first, second);
+                        assertThat(result.getMissing()).containsExactly("b-4");
+                    })
+                    .verifyComplete();
+            verify(bookCache).put(second);
+            verify(bookCache).put(third);
+        }
+
+        @Test
+        @DisplayName("Should fetch and return a repeated id once")
+        void shouldReturnDuplicateIdOnce() {
+            // Given
+            Book first = book("b-1");
+            when(bookCache.getAll(Set.of("b-1"))).thenReturn(Map.of());
+            when(bookRepository.findAllById(List.of("b-1"))).thenReturn(Flux.just(first));
+
+            // When & Then
+            StepVerifier.create(bookService.getBooksByIds(List.of("b-1", "b-1", "b-1")))
+                    .assertNext(result -> {
+                        assertThat(result.getBooks()).containsExactly(first);
+                        assertThat(result.getMissing()).isEmpty();
+                    })
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should not query the database when every book is cached")
+        void shouldServeCachedBooksOnly() {
+            // Given
+            when(bookCache.getAll(Set.of("b-1", "b-2"))).thenReturn(Map.of("b-1", book("b-1"), "b-2", book("b-2")));
+
+            // When & Then
+            StepVerifier.create(bookService.getBooksByIds(List.of("b-2", "b-1")))
+                    .assertNext(result -> assertThat(result.getBooks()).extracting(Book::getId)
+                            .containsExactly("b-2", "b-1"))
+                    .verifyComplete();
+            verifyNoInteractions(bookRepository);
+        }
+
+        @Test
+        @DisplayName("Should reject more distinct ids than the multi-get limit")
+        void shouldRejectTooManyIds() {
+            // Given
+            List<String> ids = IntStream.rangeClosed(0, BookService.MAX_MULTIGET_IDS)
+                    .mapToObj(i -> "b-" + i)
+                    .toList();
+
+            // When & Then
+            StepVerifier.create(bookService.getBooksByIds(ids))
+                    .expectErrorSatisfies(error -> assertThat(error)
+                            .isInstanceOf(IllegalArgumentException.class)
+                            .hasMessageContaining(String.valueOf(BookService.MAX_MULTIGET_IDS)))
+                    .verify();
+            verifyNoInteractions(bookCache, bookRepository);
+        }
+
+        @Test
+        @DisplayName("Should count repeated ids once against the multi-get limit")
+        void shouldAllowRepeatedIdsBeyondLimit() {
+            // Given
+            List<String> ids = IntStream.range(0, BookService.MAX_MULTIGET_IDS + 10)
+                    .mapToObj(i -> "b-" + (i % 10))
+                    .toList();
+            when(bookCache.getAll(anyCollection())).thenReturn(Map.of());
+            when(bookRepository.findAllById(anyIterable())).thenReturn(Flux.empty());
+
+            // When & Then
+            StepVerifier.create(bookService.getBooksByIds(ids))
+                    .assertNext(result -> assertThat(result.getMissing()).hasSize(10))
+                    .verifyComplete();
+        }
+    }
+
     @Nested
     @DisplayName("Search and Filter Tests")
     class SearchAndFilterTests {
@@ -206,6 +316,7 @@ class BookServiceTest {
                     .build();
 
             when(bookRepository.findById(anyString())).thenReturn(Mono.just(testBook));
+            when(duplicateDetectionService.inspect(any(Book.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
             when(bookRepository.save(any(Book.class))).thenReturn(Mono.just(updatedBook));
             when(kafkaPublisherService.publishBookUpdatedEvent(any(Book.class))).thenReturn(Mono.empty());
 
@@ -266,4 +377,13 @@ class BookServiceTest {
                     .verifyComplete();
         }
     }
-}
\ No newline at end of file
+
+    private static Book book(String id) {
+        return Book.builder()
+                .id(id)
+                .title("Book " + id)
+                .status(Book.BookStatus.ACTIVE)
+                .version(1L)
+                .build();
+    }
+}
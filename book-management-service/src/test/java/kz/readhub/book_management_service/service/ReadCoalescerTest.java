@@ -0,0 +1,172 @@
+package kz.readhub.book_management_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.readhub.book_management_service.config.ReadCoalescingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ReadCoalescer sharing concurrent identical reads and forgetting them once they end.
+ */
+@DisplayName("ReadCoalescer Tests")
+class ReadCoalescerTest {
+
+    private ReadCoalescingProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ReadCoalescer readCoalescer;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<Sinks.One<String>> pending = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReadCoalescingProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        readCoalescer = new ReadCoalescer(properties, meterRegistry);
+    }
+
+    @Nested
+    @DisplayName("Sharing Tests")
+    class SharingTests {
+
+        @Test
+        @DisplayName("Should run one query for concurrent reads of the same key")
+        void shouldShareConcurrentReads() {
+            // Given
+            AtomicReference<String> first = new AtomicReference<>();
+            AtomicReference<String> second = new AtomicReference<>();
+
+            // When
+            readCoalescer.execute("id", "book-1", loader()).subscribe(first::set);
+            readCoalescer.execute("id", "book-1", loader()).subscribe(second::set);
+            pending.get(0).tryEmitValue("Dune");
+
+            // Then
+            assertThat(loads).hasValue(1);
+            assertThat(first).hasValue("Dune");
+            assertThat(second).hasValue("Dune");
+            assertThat(meterRegistry.counter("books.reads.coalesced", "operation", "id").count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should run separate queries for different keys and operations")
+        void shouldNotShareDifferentReads() {
+            // When
+            readCoalescer.execute("id", "book-1", loader()).subscribe();
+            readCoalescer.execute("id", "book-2", loader()).subscribe();
+            readCoalescer.execute("version", "book-1", loader()).subscribe();
+
+            // Then
+            assertThat(loads).hasValue(3);
+            pending.forEach(sink -> sink.tryEmitValue("done"));
+        }
+
+        @Test
+        @DisplayName("Should keep the shared read running when one caller cancels")
+        void shouldKeepReadForRemainingCallers() {
+            // Given
+            AtomicReference<String> remaining = new AtomicReference<>();
+            Disposable cancelled = readCoalescer.execute("id", "book-1", loader()).subscribe();
+            readCoalescer.execute("id", "book-1", loader()).subscribe(remaining::set);
+
+            // When
+            cancelled.dispose();
+            pending.get(0).tryEmitValue("Dune");
+
+            // Then
+            assertThat(loads).hasValue(1);
+            assertThat(remaining).hasValue("Dune");
+        }
+    }
+
+    @Nested
+    @DisplayName("Lifetime Tests")
+    class LifetimeTests {
+
+        @Test
+        @DisplayName("Should start a new query once the previous one completed")
+        void shouldForgetCompletedRead() {
+            // Given
+            StepVerifier.create(readCoalescer.execute("id", "book-1", () -> Mono.just("Dune")))
+                    .expectNext("Dune")
+                    .verifyComplete();
+
+            // When & Then
+            StepVerifier.create(readCoalescer.execute("id", "book-1", () -> Mono.just("Dune Messiah")))
+                    .expectNext("Dune Messiah")
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should fail every waiting caller and start over after a failed query")
+        void shouldForgetFailedRead() {
+            // Given
+            AtomicReference<Throwable> first = new AtomicReference<>();
+            AtomicReference<Throwable> second = new AtomicReference<>();
+            readCoalescer.execute("id", "book-1", loader()).subscribe(value -> { }, first::set);
+            readCoalescer.execute("id", "book-1", loader()).subscribe(value -> { }, second::set);
+
+            // When
+            pending.get(0).tryEmitError(new IllegalStateException("connection reset"));
+
+            // Then
+            assertThat(first.get()).isInstanceOf(IllegalStateException.class);
+            assertThat(second.get()).isSameAs(first.get());
+            readCoalescer.execute("id", "book-1", loader()).subscribe();
+            assertThat(loads).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("Should run each read on its own when disabled")
+        void shouldNotShareWhenDisabled() {
+            // Given
+            properties.setEnabled(false);
+
+            // When
+            readCoalescer.execute("id", "book-1", loader()).subscribe();
+            readCoalescer.execute("id", "book-1", loader()).subscribe();
+
+            // Then
+            assertThat(loads).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("Should run reads beyond the in-flight limit on their own")
+        void shouldBypassWhenFull() {
+            // Given
+            properties.setMaxInFlight(1);
+            readCoalescer.execute("id", "book-1", loader()).subscribe();
+
+            // When
+            readCoalescer.execute("id", "book-2", loader()).subscribe();
+            readCoalescer.execute("id", "book-2", loader()).subscribe();
+            readCoalescer.execute("id", "book-1", loader()).subscribe();
+
+            // Then
+            assertThat(loads).hasValue(3);
+        }
+    }
+
+    private Supplier<Mono<String>> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            Sinks.One<String> sink = Sinks.one();
+            pending.add(sink);
+            return sink.asMono();
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package kz.readhub.book_management_service.service.duplicate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.readhub.book_management_service.config.DuplicateDetectionProperties;
+import kz.readhub.book_management_service.exception.DuplicateBookException;
+import kz.readhub.book_management_service.model.Author;
+import kz.readhub.book_management_service.model.Book;
+import kz.readhub.book_management_service.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for DuplicateDetectionService candidate matching.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DuplicateDetectionService Tests")
+class DuplicateDetectionServiceTest {
+
+    private static final String DESCRIPTION = "A lone human envoy travels to the icy world of Gethen to persuade "
+            + "its ambiguously gendered inhabitants to join a galactic union of worlds";
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private DuplicateDetectionProperties settings;
+    private DuplicateDetectionService duplicateDetectionService;
+    private Book book;
+    private long fingerprint;
+
+    @BeforeEach
+    void setUp() {
+        settings = new DuplicateDetectionProperties();
+        duplicateDetectionService = new DuplicateDetectionService(settings, bookRepository, new SimpleMeterRegistry());
+        book = Book.builder()
+                .id("new-book")
+                .title("The Left Hand of Darkness")
+                .authors(List.of(Author.builder().name("Ursula K. Le Guin").build()))
+                .description(DESCRIPTION)
+                .build();
+        fingerprint = new SimHash()
+                .add(book.getTitle())
+                .add("Ursula K. Le Guin")
+                .add(DESCRIPTION)
+                .fingerprint();
+    }
+
+    @Nested
+    @DisplayName("Inspect Tests")
+    class InspectTests {
+
+        @Test
+        @DisplayName("Should flag the closest candidate within the distance")
+        void shouldFlagClosestCandidate() {
+            // Given
+            when(bookRepository.findBySimHashBandsIn(anyList(), any())).thenReturn(Flux.just(
+                    candidate("farther", fingerprint ^ 0b11L, null),
+                    candidate("closest", fingerprint ^ 0b1L, null)));
+
+            // When & Then
+            StepVerifier.create(duplicateDetectionService.inspect(book))
+                    .assertNext(inspected -> {
+                        assertThat(inspected.getDuplicateOf()).isEqualTo("closest");
+                        assertThat(inspected.getSimHash()).isEqualTo(fingerprint);
+                        assertThat(inspected.getSimHashBands()).isEqualTo(SimHash.bands(fingerprint, 3));
+                    })
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should point a copy of a copy at the original")
+        void shouldPointAtOriginal() {
+            // Given
+            when(bookRepository.findBySimHashBandsIn(anyList(), any()))
+                    .thenReturn(Flux.just(candidate("copy", fingerprint, "original")));
+
+            // When & Then
+            StepVerifier.create(duplicateDetectionService.inspect(book))
+                    .assertNext(inspected -> assertThat(inspected.getDuplicateOf()).isEqualTo("original"))
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should ignore candidates beyond the distance")
+        void shouldIgnoreDistantCandidate() {
+            // Given
+            when(bookRepository.findBySimHashBandsIn(anyList(), any()))
+                    .thenReturn(Flux.just(candidate("distant", fingerprint ^ 0b1111L, null)));
+
+            // When & Then
+            StepVerifier.create(duplicateDetectionService.inspect(book))
+                    .assertNext(inspected -> {
+                        assertThat(inspected.getDuplicateOf()).isNull();
+                        assertThat(inspected.getSimHash()).isEqualTo(fingerprint);
+                    })
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should not flag a book as a duplicate of its own copy")
+        void shouldNotFlagOriginalAsItsCopy() {
+            // Given
+            when(bookRepository.findBySimHashBandsIn(anyList(), any()))
+                    .thenReturn(Flux.just(candidate("copy", fingerprint, "new-book")));
+
+            // When & Then
+            StepVerifier.create(duplicateDetectionService.inspect(book))
+                    .assertNext(inspected -> assertThat(inspected.getDuplicateOf()).isNull())
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should reject a near-duplicate in reject mode")
+        void shouldRejectInRejectMode() {
+            // Given
+            settings.setMode(DuplicateDetectionProperties.Mode.REJECT);
+            when(bookRepository.findBySimHashBandsIn(anyList(), any()))
+                    .thenReturn(Flux.just(candidate("original", fingerprint, null)));
+
+            // When & Then
+            StepVerifier.create(duplicateDetectionService.inspect(book))
+                    .expectError(DuplicateBookException.class)
+                    .verify();
+        }
+
+        @Test
+        @DisplayName("Should not fingerprint books with too few tokens")
+        void shouldSkipShortBooks() {
+            // Given
+            Book shortBook = Book.builder().id("short").title("Dune").simHash(42L).duplicateOf("other").build();
+
+            // When & Then
+            StepVerifier.create(duplicateDetectionService.inspect(shortBook))
+                    .assertNext(inspected -> {
+                        assertThat(inspected.getSimHash()).isNull();
+                        assertThat(inspected.getDuplicateOf()).isNull();
+                    })
+                    .verifyComplete();
+            verify(bookRepository, never()).findBySimHashBandsIn(anyList(), any());
+        }
+    }
+
+    private static Book candidate(String id, long simHash, String duplicateOf) {
+        return Book.builder().id(id).simHash(simHash).duplicateOf(duplicateOf).build();
+    }
+}
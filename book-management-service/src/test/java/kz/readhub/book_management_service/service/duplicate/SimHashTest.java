@@ -0,0 +1,136 @@
+package kz.readhub.book_management_service.service.duplicate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for SimHash fingerprints, distances and band keys.
+ */
+@DisplayName("SimHash Tests")
+class SimHashTest {
+
+    private static final String TEXT = "The Left Hand of Darkness Ursula K. Le Guin A lone human envoy travels to the icy "
+            + "world of Gethen to persuade its ambiguously gendered inhabitants to join a galactic union of worlds";
+
+    @Nested
+    @DisplayName("Fingerprint Tests")
+    class FingerprintTests {
+
+        @Test
+        @DisplayName("Should ignore case, punctuation, accents and word order")
+        void shouldIgnoreCasePunctuationAccentsAndOrder() {
+            // Given
+            String variant = "darkness of hand left THE ursula k le guin, a lone human envoy travels to the icy "
+                    + "world of Géthen to persuade its ambiguously gendered inhabitants to join a galactic union of worlds!";
+
+            // When
+            long original = new SimHash().add(TEXT).fingerprint();
+            long copy = new SimHash().add(variant).fingerprint();
+
+            // Then
+            assertThat(copy).isEqualTo(original);
+        }
+
+        @Test
+        @DisplayName("Should keep a one-word edit within the default distance")
+        void shouldKeepSmallEditClose() {
+            // Given
+            String edited = TEXT.replace("travels", "journeys");
+
+            // When
+            int distance = SimHash.distance(new SimHash().add(TEXT).fingerprint(), new SimHash().add(edited).fingerprint());
+
+            // Then
+            assertThat(distance).isBetween(1, 3);
+        }
+
+        @Test
+        @DisplayName("Should put unrelated books beyond the largest distance")
+        void shouldKeepUnrelatedTextsApart() {
+            // Given
+            String other = "Pride and Prejudice Jane Austen Elizabeth Bennet navigates manners upbringing morality "
+                    + "and marriage among the landed gentry of early nineteenth century England";
+
+            // When
+            int distance = SimHash.distance(new SimHash().add(TEXT).fingerprint(), new SimHash().add(other).fingerprint());
+
+            // Then
+            assertThat(distance).isGreaterThan(SimHash.MAX_DISTANCE);
+        }
+
+        @Test
+        @DisplayName("Should count tokens and skip null text")
+        void shouldCountFeatures() {
+            // When
+            SimHash simHash = new SimHash().add("Le Guin").add(null).add("  --  ");
+
+            // Then
+            assertThat(simHash.features()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Band Tests")
+    class BandTests {
+
+        private static final long FINGERPRINT = 0x5a3c_96f0_0ff0_c3a5L;
+
+        @Test
+        @DisplayName("Should share a band with every fingerprint within the distance")
+        void shouldShareBandWithinDistance() {
+            // Given
+            long close = FINGERPRINT ^ (1L << 3) ^ (1L << 21) ^ (1L << 40);
+
+            // When
+            List<Long> bands = SimHash.bands(FINGERPRINT, 3);
+            List<Long> closeBands = SimHash.bands(close, 3);
+
+            // Then
+            assertThat(bands).hasSize(4);
+            assertThat(SimHash.distance(FINGERPRINT, close)).isEqualTo(3);
+            assertThat(closeBands).containsAnyElementsOf(bands);
+        }
+
+        @Test
+        @DisplayName("Should share no band when every band differs")
+        void shouldShareNoBandWhenEveryBandDiffers() {
+            // Given
+            long far = FINGERPRINT ^ 1L ^ (1L << 16) ^ (1L << 32) ^ (1L << 48);
+
+            // When
+            List<Long> bands = SimHash.bands(FINGERPRINT, 3);
+            List<Long> farBands = SimHash.bands(far, 3);
+
+            // Then
+            assertThat(farBands).doesNotContainAnyElementsOf(bands);
+        }
+
+        @Test
+        @DisplayName("Should keep equal bits in different bands apart")
+        void shouldTagKeysWithBandNumber() {
+            // When
+            List<Long> bands = SimHash.bands(0L, SimHash.MAX_DISTANCE);
+
+            // Then
+            Set<Long> distinct = new HashSet<>(bands);
+            assertThat(distinct).hasSize(SimHash.MAX_DISTANCE + 1);
+        }
+
+        @Test
+        @DisplayName("Should reject distances outside the supported range")
+        void shouldRejectUnsupportedDistance() {
+            assertThatThrownBy(() -> SimHash.bands(FINGERPRINT, SimHash.MIN_DISTANCE - 1))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> SimHash.bands(FINGERPRINT, SimHash.MAX_DISTANCE + 1))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package kz.readhub.content_engine_service.config;
 
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.MatchingStrategies;
 import org.springframework.context.annotation.Bean;
@@ -23,4 +26,14 @@ public class BeanConfig {
 
         return mapper;
     }
+
+    /**
+     * Elasticsearch JSON mapper backed by the application {@link ObjectMapper}, so java.time fields
+     * of {@code BookDocument} are written as ISO strings.
+     */
+    @Bean
+    public JacksonJsonpMapper jacksonJsonpMapper(ObjectMapper objectMapper) {
+        return new JacksonJsonpMapper(objectMapper.copy()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+    }
 }
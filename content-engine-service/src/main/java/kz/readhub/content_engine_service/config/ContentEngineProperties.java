@@ -0,0 +1,402 @@
+package kz.readhub.content_engine_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Content engine settings bound from the {@code content-engine} prefix.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "content-engine")
+public class ContentEngineProperties {
+
+    private Kafka kafka = new Kafka();
+    private Ingestion ingestion = new Ingestion();
+    private Snapshot snapshot = new Snapshot();
+    private Search search = new Search();
+    private SearchCache searchCache = new SearchCache();
+    private QueryLanguage queryLanguage = new QueryLanguage();
+    private Ranking ranking = new Ranking();
+    private Fallback fallback = new Fallback();
+    private Reindex reindex = new Reindex();
+    private Spelling spelling = new Spelling();
+    private Related related = new Related();
+    private Facets facets = new Facets();
+    private Trending trending = new Trending();
+    private Vector vector = new Vector();
+    private Embedding embedding = new Embedding();
+
+    @Data
+    public static class Kafka {
+
+        private String bootstrapServers = "localhost:9092";
+        private String schemaRegistryUrl = "http://localhost:8081";
+        private String groupId = "content-engine-indexer";
+        private int maxPollRecords = 1000;
+
+        /**
+         * How often acknowledged offsets are committed back to Kafka.
+         */
+        private Duration commitInterval = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Ingestion {
+
+        private boolean enabled = true;
+
+        /**
+         * Changes sent in one bulk request; the starting point when {@code adaptive} is on.
+         */
+        private int bulkSize = 500;
+
+        /**
+         * Maximum time a partition waits to fill a bulk request before flushing it.
+         */
+        private Duration bulkMaxWait = Duration.ofMillis(500);
+
+        /**
+         * Retries for bulk requests and for items rejected with a retryable status.
+         */
+        private int maxRetries = 5;
+        private Duration retryBackoff = Duration.ofMillis(200);
+
+        /**
+         * Adapt bulk size and the number of concurrent bulk requests to bulk latency and rejections (AIMD),
+         * and pause Kafka consumption while Elasticsearch is saturated. When off, every partition sends
+         * {@code bulkSize} changes at a time, one request after another.
+         */
+        private boolean adaptive = true;
+        private int minBulkSize = 50;
+        private int maxBulkSize = 5000;
+        private int bulkSizeStep = 100;
+        private int initialConcurrency = 2;
+        private int maxConcurrency = 16;
+
+        /**
+         * Bulk requests slower than this count as overload, like rejections do.
+         */
+        private Duration targetLatency = Duration.ofSeconds(1);
+        private double decreaseFactor = 0.5;
+
+        /**
+         * Kafka consumption stays paused at least this long after a rejection, and saturation is checked this often.
+         */
+        private Duration saturationHold = Duration.ofSeconds(5);
+        private Duration saturationCheckInterval = Duration.ofMillis(500);
+    }
+
+    @Data
+    public static class Snapshot {
+
+        /**
+         * Write in-memory state to disk and restore it on startup, replaying only the CDC records after it.
+         */
+        private boolean enabled = true;
+        private String directory = "data/snapshot";
+
+        /**
+         * How often a snapshot is written, if ingestion has moved since the previous one.
+         */
+        private Duration interval = Duration.ofMinutes(5);
+
+        /**
+         * Read partitions no snapshot covers from the beginning of the topic, rebuilding in-memory state
+         * from the full history, instead of from the committed offset.
+         */
+        private boolean replayWithoutSnapshot = true;
+    }
+
+    @Data
+    public static class Search {
+
+        /**
+         * How long a point-in-time stays open between two page requests.
+         */
+        private Duration pitKeepAlive = Duration.ofMinutes(2);
+
+        /**
+         * Hits read per point-in-time page when streaming a whole match set.
+         */
+        private int streamPageSize = 1000;
+
+        /**
+         * Leave books flagged as near-duplicates of another book out of search results.
+         */
+        private boolean collapseDuplicates = true;
+    }
+
+    @Data
+    public static class SearchCache {
+
+        private boolean enabled = true;
+        private long maxEntries = 10_000;
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * Indexed batches at least this large clear the whole cache instead of invalidating selectively.
+         */
+        private int fullInvalidationThreshold = 1000;
+    }
+
+    @Data
+    public static class QueryLanguage {
+
+        /**
+         * Compiled plans kept, both by query text and by canonical form.
+         */
+        private long planCacheSize = 10_000;
+
+        /**
+         * Largest number of field, phrase and word clauses in one query.
+         */
+        private int maxClauses = 64;
+    }
+
+    @Data
+    public static class Ranking {
+
+        /**
+         * Re-rank relevance-sorted text searches by the blended score.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Top hits re-ranked together; pages walk this window, then continue in Elasticsearch order.
+         */
+        private int windowSize = 100;
+
+        private double textWeight = 1.0;
+        private double vectorWeight = 0.5;
+        private double popularityWeight = 0.2;
+
+        /**
+         * Downloads (plus weighted reviews) at which the popularity signal saturates.
+         */
+        private long popularityReference = 100_000;
+
+        /**
+         * How many downloads a single review counts as.
+         */
+        private double reviewWeight = 10;
+    }
+
+    @Data
+    public static class Fallback {
+
+        private boolean enabled = true;
+
+        /**
+         * Directory holding the segment files of the local index.
+         */
+        private String directory = "data/fallback-index";
+
+        /**
+         * Pending changes that trigger a memtable flush; older changes are flushed every {@code flushInterval}.
+         */
+        private int flushDocuments = 10_000;
+        private Duration flushInterval = Duration.ofSeconds(30);
+
+        /**
+         * Segments kept before adjacent runs of {@code mergeFactor} segments are merged.
+         */
+        private int maxSegments = 8;
+        private int mergeFactor = 4;
+        private Duration maintenanceInterval = Duration.ofSeconds(5);
+
+        /**
+         * Top-scored candidates loaded per requested result, to leave room for filters.
+         */
+        private int candidateFactor = 5;
+
+        /**
+         * Moving-average Elasticsearch latency above which searches switch to the local index.
+         */
+        private Duration latencyThreshold = Duration.ofMillis(500);
+        private double latencyAlpha = 0.2;
+
+        /**
+         * Elasticsearch searches slower than this are abandoned and answered locally.
+         */
+        private Duration requestTimeout = Duration.ofSeconds(2);
+
+        /**
+         * How long degraded mode lasts before Elasticsearch is tried again.
+         */
+        private Duration cooldown = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Reindex {
+
+        /**
+         * Base URL of book-management-service, which streams the catalog from {@code /books/export}.
+         */
+        private String catalogUrl = "http://localhost:8080";
+
+        /**
+         * Bulk requests in flight while loading the catalog, and books per request.
+         */
+        private int workers = 4;
+        private int bulkSize = 1000;
+
+        /**
+         * Delete the indices the alias pointed to once it has been swapped.
+         */
+        private boolean deletePrevious = false;
+    }
+
+    @Data
+    public static class Spelling {
+
+        private boolean enabled = true;
+
+        /**
+         * Largest edit distance of a suggestion, and length of the term prefix the delete variants are built from.
+         * Memory grows quickly with the distance; the prefix must be longer than it.
+         */
+        private int maxEditDistance = 2;
+        private int prefixLength = 7;
+
+        /**
+         * Shorter terms are neither added to the dictionary nor corrected.
+         */
+        private int minTermLength = 3;
+    }
+
+    @Data
+    public static class Related {
+
+        private boolean enabled = true;
+
+        /**
+         * MinHash signature layout: {@code bands * rows} hashes. Books are likely to meet in a bucket once their
+         * Jaccard similarity exceeds about {@code (1/bands)^(1/rows)}, 0.31 with the defaults.
+         */
+        private int bands = 32;
+        private int rows = 3;
+
+        /**
+         * Bound on candidates re-scored per lookup, so buckets of very common tag sets stay cheap.
+         */
+        private int maxCandidates = 1000;
+        private double minSimilarity = 0.1;
+    }
+
+    @Data
+    public static class Facets {
+
+        private boolean enabled = true;
+
+        /**
+         * Values returned per facet unless the request asks for another number, up to {@code maxSize}.
+         */
+        private int defaultSize = 10;
+        private int maxSize = 100;
+    }
+
+    @Data
+    public static class Trending {
+
+        private boolean enabled = true;
+
+        /**
+         * Time for an event's contribution to a trending score to halve.
+         */
+        private Duration halfLife = Duration.ofHours(6);
+
+        /**
+         * Score contributed by one download and by one update of a book.
+         */
+        private double downloadWeight = 1.0;
+        private double updateWeight = 0.1;
+
+        /**
+         * Books whose decayed score falls below this are forgotten.
+         */
+        private double minScore = 0.01;
+
+        /**
+         * How many top books carry {@code trendingScore} in the index, and how often it is refreshed.
+         */
+        private int publishSize = 1000;
+        private Duration publishInterval = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Vector {
+
+        private boolean enabled = true;
+
+        /**
+         * Embedding dimension; vectors of any other length are not indexed.
+         */
+        private int dimension = 256;
+
+        /**
+         * HNSW links per node on upper layers (twice as many on the base layer).
+         */
+        private int m = 16;
+        private int efConstruction = 200;
+
+        /**
+         * Default candidate list size for queries, overridable per request up to {@code maxEfSearch}.
+         */
+        private int efSearch = 64;
+        private int maxEfSearch = 1000;
+
+        /**
+         * Number of vectors per off-heap page.
+         */
+        private int pageSize = 16384;
+
+        /**
+         * Independent HNSW graphs the books are hashed over, searched in parallel and merged. Part of the
+         * snapshot fingerprint, so it is set here rather than taken from the host's core count.
+         */
+        private int shards = 8;
+
+        /**
+         * Keep vectors int8 scalar-quantized with a per-vector scale and offset, a quarter of the memory of floats.
+         */
+        private boolean quantized = true;
+
+        /**
+         * Re-score the best {@code rescoreFactor * k} quantized candidates against full-precision vectors,
+         * kept in a memory-mapped scratch file under {@code directory}.
+         */
+        private boolean rescore = true;
+        private int rescoreFactor = 3;
+        private String directory = "data/vector-index";
+
+        /**
+         * Share of tombstoned nodes at which a shard's graph is rebuilt from its live vectors.
+         */
+        private double compactionThreshold = 0.25;
+
+        /**
+         * Fraction of queries re-run as an exact scan to measure recall.
+         */
+        private double recallSampleRate = 0.01;
+    }
+
+    @Data
+    public static class Embedding {
+
+        private boolean enabled = true;
+
+        /**
+         * Size of the dedicated embedding pool.
+         */
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Documents embedded per task.
+         */
+        private int batchSize = 64;
+    }
+}
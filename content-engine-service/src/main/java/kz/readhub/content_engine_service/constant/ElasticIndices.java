@@ -0,0 +1,10 @@
+package kz.readhub.content_engine_service.constant;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ElasticIndices {
+
+    public static final String BOOKS = "books";
+}
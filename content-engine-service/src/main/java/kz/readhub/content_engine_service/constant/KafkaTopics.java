@@ -0,0 +1,11 @@
+package kz.readhub.content_engine_service.constant;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class KafkaTopics {
+
+    public static final String BOOK_CDC_EVENTS = "content.catalog.book.cdc.v1";
+    public static final String BOOK_CDC_DEAD_LETTERS = "content.catalog.book.cdc.v1.dlq";
+}
@@ -0,0 +1,39 @@
+package kz.readhub.content_engine_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import kz.readhub.content_engine_service.model.Author;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A book as streamed by the book-management catalog export.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CatalogBookDto {
+    private String id;
+    private String title;
+    private String description;
+    private List<Author> authors;
+    private List<String> tags;
+    private List<String> categories;
+    private String language;
+    private LocalDate publicationDate;
+    private String uploadedBy;
+    private String coverUrl;
+    private Double averageRating;
+    private Integer reviewCount;
+    private Integer downloadCount;
+    private LocalDateTime createdAt;
+    private Long version;
+    private String duplicateOf;
+}
@@ -1,19 +1,79 @@
 package kz.readhub.content_engine_service.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import kz.readhub.content_engine_service.model.SearchSort;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
-@Valid
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder(toBuilder = true)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class ContentSearchRequestDto {
 
-    // TODO
+    /**
+     * Free text matched against title, author names, description, tags and categories.
+     */
+    @Size(max = 500, message = "Query must not exceed 500 characters")
+    private String query;
+
+    /**
+     * Query in the content query language, e.g. {@code author:"Jane Doe" AND tag:fantasy -lang:en rating>=4};
+     * combined with every other criterion of the request.
+     */
+    @Size(max = 1000, message = "Query expression must not exceed 1000 characters")
+    private String q;
+
+    /**
+     * Books written by any of these authors (exact name).
+     */
+    private List<String> authors;
+
+    /**
+     * Books carrying any of these tags.
+     */
+    private List<String> tags;
+
+    /**
+     * Books in any of these categories.
+     */
+    private List<String> categories;
+
+    /**
+     * ISO 639-1 language code.
+     */
+    private String language;
+
+    @DecimalMin(value = "0.0", message = "Minimum rating must be between 0 and 5")
+    @DecimalMax(value = "5.0", message = "Minimum rating must be between 0 and 5")
+    private Float minRating;
+
+    @Builder.Default
+    private SearchSort sort = SearchSort.RELEVANCE;
+
+    @Min(value = 1, message = "Size must be at least 1")
+    @Max(value = 100, message = "Size must not exceed 100")
+    @Builder.Default
+    private Integer size = 20;
+
+    /**
+     * Opaque cursor returned with the previous page; absent for the first page.
+     */
+    private String cursor;
+
+    /**
+     * Read this page and the ones following it from one point-in-time, so index changes between page requests
+     * cannot shift them; set on the first page. Without it, pages continue on the live index.
+     */
+    private Boolean pointInTime;
 }
@@ -0,0 +1,45 @@
+package kz.readhub.content_engine_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.SearchResult;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ContentSearchResponseDto {
+
+    private List<BookDocument> items;
+
+    /**
+     * Cursor for the next page, absent on the last page.
+     */
+    private String nextCursor;
+
+    /**
+     * Total number of matches, reported on the first page only.
+     */
+    private Long totalHits;
+
+    /**
+     * Spelling-corrected query when some of its terms are unknown, reported on the first page only.
+     */
+    private String suggestion;
+
+    public static ContentSearchResponseDto fromResult(SearchResult result) {
+        return ContentSearchResponseDto.builder()
+                .items(result.getDocuments())
+                .nextCursor(result.getNextCursor())
+                .totalHits(result.getTotalHits())
+                .suggestion(result.getSuggestion())
+                .build();
+    }
+}
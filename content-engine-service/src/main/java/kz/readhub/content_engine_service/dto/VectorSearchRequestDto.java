@@ -0,0 +1,32 @@
+package kz.readhub.content_engine_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class VectorSearchRequestDto {
+
+    @NotNull(message = "Vector is required")
+    private float[] vector;
+
+    @Min(value = 1, message = "k must be at least 1")
+    @Max(value = 100, message = "k must not exceed 100")
+    @Builder.Default
+    private Integer k = 10;
+
+    /**
+     * Candidate list size; defaults to the configured value when absent.
+     */
+    @Min(value = 1, message = "efSearch must be at least 1")
+    private Integer efSearch;
+}
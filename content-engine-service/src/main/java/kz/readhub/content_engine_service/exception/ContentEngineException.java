@@ -0,0 +1,12 @@
+package kz.readhub.content_engine_service.exception;
+
+public class ContentEngineException extends RuntimeException {
+
+    public ContentEngineException(String message) {
+        super(message);
+    }
+
+    public ContentEngineException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,137 @@
+package kz.readhub.content_engine_service.mapper;
+
+import kz.readhub.book_management_service.avro.Book;
+import kz.readhub.book_management_service.avro.BookEvent;
+import kz.readhub.book_management_service.avro.BookStatus;
+import kz.readhub.book_management_service.avro.EventType;
+import kz.readhub.content_engine_service.dto.CatalogBookDto;
+import kz.readhub.content_engine_service.model.Author;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Maps CDC {@link BookEvent}s into index changes.
+ * Only active books are searchable; any other status removes the book from the index.
+ */
+@Slf4j
+@Component
+public class BookEventMapper {
+
+    public BookChange toChange(BookEvent event) {
+        if (event == null || event.getBookId() == null) {
+            return null;
+        }
+
+        BookDocument previous = toDocument(event.getPreviousBookData());
+        Book book = event.getBookData();
+
+        if (event.getEventType() == EventType.DELETE || book == null || book.getStatus() != BookStatus.ACTIVE) {
+            return BookChange.builder()
+                    .type(BookChange.Type.DELETE)
+                    .bookId(event.getBookId())
+                    .document(toDocument(book))
+                    .previous(previous)
+                    .build();
+        }
+
+        return BookChange.builder()
+                .type(BookChange.Type.UPSERT)
+                .bookId(event.getBookId())
+                .document(toDocument(book).toBuilder().id(event.getBookId()).build())
+                .previous(previous)
+                .build();
+    }
+
+    public BookDocument toDocument(Book book) {
+        if (book == null) {
+            return null;
+        }
+
+        return BookDocument.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .description(book.getDescription())
+                .authors(toAuthors(book.getAuthors()))
+                .tags(book.getTags())
+                .categories(book.getCategories())
+                .language(book.getLanguage())
+                .publicationDate(parseDate(book.getPublicationDate()))
+                .uploadDate(parseDateTime(book.getCreatedAt()))
+                .uploadedBy(book.getUploadedBy())
+                .coverUrl(book.getCoverUrl())
+                .averageRating(book.getAverageRating() != null ? book.getAverageRating().floatValue() : 0f)
+                .reviewCount(book.getReviewCount() != null ? book.getReviewCount() : 0)
+                .downloadCount(book.getDownloadCount() != null ? book.getDownloadCount() : 0)
+                .version(book.getVersion())
+                .duplicateOf(book.getDuplicateOf())
+                .build();
+    }
+
+    /**
+     * Maps a book from the catalog export; the export only contains active books.
+     */
+    public BookChange toChange(CatalogBookDto book) {
+        BookDocument document = BookDocument.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .description(book.getDescription())
+                .authors(book.getAuthors() != null ? book.getAuthors() : List.of())
+                .tags(book.getTags())
+                .categories(book.getCategories())
+                .language(book.getLanguage())
+                .publicationDate(book.getPublicationDate())
+                .uploadDate(book.getCreatedAt())
+                .uploadedBy(book.getUploadedBy())
+                .coverUrl(book.getCoverUrl())
+                .averageRating(book.getAverageRating() != null ? book.getAverageRating().floatValue() : 0f)
+                .reviewCount(book.getReviewCount() != null ? book.getReviewCount() : 0)
+                .downloadCount(book.getDownloadCount() != null ? book.getDownloadCount() : 0)
+                .version(book.getVersion())
+                .duplicateOf(book.getDuplicateOf())
+                .build();
+
+        return BookChange.builder()
+                .type(BookChange.Type.UPSERT)
+                .bookId(book.getId())
+                .document(document)
+                .build();
+    }
+
+    private List<Author> toAuthors(List<kz.readhub.book_management_service.avro.Author> authors) {
+        if (authors == null) {
+            return List.of();
+        }
+
+        return authors.stream()
+                .map(author -> Author.builder()
+                        .id(author.getId())
+                        .name(author.getName())
+                        .build())
+                .toList();
+    }
+
+    private LocalDate parseDate(String value) {
+        try {
+            return value != null ? LocalDate.parse(value) : null;
+        } catch (DateTimeParseException e) {
+            log.warn("Ignoring malformed publication date: {}", value);
+            return null;
+        }
+    }
+
+    private LocalDateTime parseDateTime(String value) {
+        try {
+            return value != null ? LocalDateTime.parse(value) : null;
+        } catch (DateTimeParseException e) {
+            log.warn("Ignoring malformed timestamp: {}", value);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package kz.readhub.content_engine_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Index-level change derived from a CDC event.
+ * {@code previous} is only present when the event carried the prior book state; {@code timestamp} is the
+ * time the change was written to the CDC topic, when known.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookChange {
+
+    public enum Type {
+        UPSERT, DELETE
+    }
+
+    private Type type;
+    private String bookId;
+    private BookDocument document;
+    private BookDocument previous;
+    private Instant timestamp;
+
+    public boolean isDelete() {
+        return type == Type.DELETE;
+    }
+}
@@ -1,9 +1,12 @@
 package kz.readhub.content_engine_service.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import kz.readhub.content_engine_service.util.EmbeddingJsonCodec;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -29,5 +32,27 @@ public class BookDocument {
     private float averageRating;
     private int reviewCount;
     private int downloadCount;
+
+    /**
+     * Version of the source book; used as the external document version so older writes never win.
+     */
+    private Long version;
+
+    /**
+     * Id of the book this one is a near-duplicate of, as flagged by book-management; such books are
+     * left out of searches when duplicates are collapsed.
+     */
+    private String duplicateOf;
+
+    /**
+     * Log of the time-decayed activity score, comparable between books only; set for the top trending books.
+     */
+    private Double trendingScore;
+
+    /**
+     * Unit-length text embedding; serialized int8-quantized as base64, see {@link EmbeddingJsonCodec}.
+     */
+    @JsonSerialize(using = EmbeddingJsonCodec.Serializer.class)
+    @JsonDeserialize(using = EmbeddingJsonCodec.Deserializer.class)
     private float[] embedding;
 }
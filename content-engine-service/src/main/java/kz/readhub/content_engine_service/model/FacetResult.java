@@ -0,0 +1,20 @@
+package kz.readhub.content_engine_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facet counts for a set of filters. {@code total} is the number of books matching every filter;
+ * {@code facets} maps each facet name to its most frequent values, counted without that facet's own filter.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetResult {
+    private long total;
+    private Map<String, List<FacetCount>> facets;
+}
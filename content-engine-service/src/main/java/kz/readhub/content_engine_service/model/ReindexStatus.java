@@ -0,0 +1,37 @@
+package kz.readhub.content_engine_service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Progress of the latest reindex run.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReindexStatus {
+
+    public enum State {
+        CREATING_INDEX, LOADING, FINALIZING, COMPLETED, FAILED
+    }
+
+    private State state;
+    private String index;
+    private String previousIndex;
+    private long loaded;
+    private long failed;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+
+    public boolean isRunning() {
+        return state != State.COMPLETED && state != State.FAILED;
+    }
+}
@@ -0,0 +1,13 @@
+package kz.readhub.content_engine_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoredId {
+    private String id;
+    private double score;
+}
@@ -0,0 +1,21 @@
+package kz.readhub.content_engine_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Position of a paged search: the point-in-time it reads from, if any, and the sort values of the last hit returned.
+ * Within a re-ranked window, {@code offset} is the position in the window and {@code searchAfter} the position
+ * after the window, {@code null} when the window holds every hit.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchCursor {
+    private String pitId;
+    private List<Object> searchAfter;
+    private Integer offset;
+}
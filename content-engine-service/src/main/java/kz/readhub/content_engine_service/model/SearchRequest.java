@@ -4,10 +4,21 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class SearchRequest {
-    private Integer page;
+    private String query;
+    private String q;
+    private List<String> authors;
+    private List<String> tags;
+    private List<String> categories;
+    private String language;
+    private Float minRating;
+    private SearchSort sort;
     private Integer size;
+    private String cursor;
+    private Boolean pointInTime;
 }
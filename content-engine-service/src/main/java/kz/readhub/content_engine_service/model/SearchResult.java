@@ -0,0 +1,26 @@
+package kz.readhub.content_engine_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of search results. {@code scores} is parallel to {@code documents};
+ * {@code searchAfter} holds the sort values of the last hit when there is a next page.
+ * {@code suggestion} is a corrected query, set on first pages only.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResult {
+    private List<BookDocument> documents;
+    private double[] scores;
+    private String nextCursor;
+    private List<Object> searchAfter;
+    private Long totalHits;
+    private String suggestion;
+}
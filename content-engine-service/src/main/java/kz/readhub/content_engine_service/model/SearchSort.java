@@ -0,0 +1,8 @@
+package kz.readhub.content_engine_service.model;
+
+/**
+ * Supported result orderings. Every ordering ends with the book id, which makes it total.
+ */
+public enum SearchSort {
+    RELEVANCE, RATING, DOWNLOADS, TRENDING
+}
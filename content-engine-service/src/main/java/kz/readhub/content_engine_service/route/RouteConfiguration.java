@@ -0,0 +1,37 @@
+package kz.readhub.content_engine_service.route;
+
+import kz.readhub.content_engine_service.route.handler.AdminHandler;
+import kz.readhub.content_engine_service.route.handler.RequestHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+
+@Configuration
+public class RouteConfiguration {
+
+    @Bean
+    public RouterFunction<ServerResponse> searchRoutes(RequestHandler handler) {
+        return RouterFunctions.route()
+                .POST("/search", contentType(MediaType.APPLICATION_JSON), handler::search)
+                .POST("/search/stream", contentType(MediaType.APPLICATION_JSON), handler::streamSearch)
+                .POST("/search/vector", contentType(MediaType.APPLICATION_JSON), handler::vectorSearch)
+                .GET("/books/{id}/similar", handler::similar)
+                .GET("/books/{id}/related", handler::related)
+                .GET("/trending", handler::trending)
+                .GET("/facets", handler::facets)
+                .build();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> adminRoutes(AdminHandler handler) {
+        return RouterFunctions.route()
+                .POST("/admin/reindex", handler::startReindex)
+                .GET("/admin/reindex", handler::reindexStatus)
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package kz.readhub.content_engine_service.route.handler;
+
+import kz.readhub.content_engine_service.exception.ErrorResponse;
+import kz.readhub.content_engine_service.model.ReindexStatus;
+import kz.readhub.content_engine_service.service.reindex.ReindexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdminHandler {
+
+    private final ReindexService reindexService;
+
+    public Mono<ServerResponse> startReindex(ServerRequest request) {
+        return Mono.fromCallable(reindexService::start)
+                .flatMap(status -> ServerResponse.accepted()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(status))
+                .onErrorResume(IllegalStateException.class, error -> errorResponse(HttpStatus.CONFLICT, error.getMessage()));
+    }
+
+    public Mono<ServerResponse> reindexStatus(ServerRequest request) {
+        ReindexStatus status = reindexService.status();
+        if (status == null) {
+            return errorResponse(HttpStatus.NOT_FOUND, "No reindex has been started");
+        }
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(status);
+    }
+
+    private Mono<ServerResponse> errorResponse(HttpStatus status, String message) {
+        log.warn("Rejected admin request: {}", message);
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ErrorResponse.builder()
+                        .status(status.value())
+                        .error(status.getReasonPhrase())
+                        .message(message)
+                        .build());
+    }
+}
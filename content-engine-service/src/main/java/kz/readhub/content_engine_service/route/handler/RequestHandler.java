@@ -1,19 +1,182 @@
 package kz.readhub.content_engine_service.route.handler;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import kz.readhub.content_engine_service.dto.ContentSearchRequestDto;
+import kz.readhub.content_engine_service.dto.ContentSearchResponseDto;
+import kz.readhub.content_engine_service.dto.VectorSearchRequestDto;
+import kz.readhub.content_engine_service.exception.ErrorResponse;
+import kz.readhub.content_engine_service.mapper.ContentRequestMapper;
+import kz.readhub.content_engine_service.model.BookDocument;
 import kz.readhub.content_engine_service.service.ContentEngineService;
+import kz.readhub.content_engine_service.service.facet.Facet;
+import kz.readhub.search_telemetry.SearchStage;
+import kz.readhub.search_telemetry.SearchTrace;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Mono;
 
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class RequestHandler {
 
     private final ContentEngineService contentEngineService;
+    private final ContentRequestMapper contentRequestMapper;
+    private final Validator validator;
 
     public Mono<ServerResponse> search(ServerRequest request) {
-        return Mono.empty();
+        return request.bodyToMono(ContentSearchRequestDto.class)
+                .defaultIfEmpty(ContentSearchRequestDto.builder().build())
+                .flatMap(this::validate)
+                .map(contentRequestMapper::toModel)
+                .transformDeferredContextual((parsed, context) -> parsed
+                        .doOnNext(searchRequest -> SearchTrace.of(context).end(SearchStage.PARSE)))
+                .flatMap(contentEngineService::search)
+                .map(ContentSearchResponseDto::fromResult)
+                .flatMap(response -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(response))
+                .onErrorResume(this::handleError);
+    }
+
+    /**
+     * Streams every match as newline-delimited JSON. Pages are read only as fast as the client takes
+     * them; a failure after the first book can only end the stream, so it is logged.
+     */
+    public Mono<ServerResponse> streamSearch(ServerRequest request) {
+        return request.bodyToMono(ContentSearchRequestDto.class)
+                .defaultIfEmpty(ContentSearchRequestDto.builder().build())
+                .flatMap(this::validate)
+                .filter(body -> body.getCursor() == null || body.getCursor().isBlank())
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("cursor is not supported when streaming")))
+                .map(contentRequestMapper::toModel)
+                .flatMap(searchRequest -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .body(contentEngineService.stream(searchRequest)
+                                .doOnError(error -> log.error("Search stream failed: {}", error.getMessage(), error)),
+                                BookDocument.class))
+                .onErrorResume(this::handleError);
+    }
+
+    public Mono<ServerResponse> similar(ServerRequest request) {
+        String id = request.pathVariable("id");
+
+        return Mono.defer(() -> {
+                    int k = request.queryParam("k").map(Integer::parseInt).orElse(10);
+                    Integer efSearch = request.queryParam("efSearch").map(Integer::valueOf).orElse(null);
+                    if (k < 1 || k > 100) {
+                        return Mono.error(new IllegalArgumentException("k must be between 1 and 100"));
+                    }
+                    return contentEngineService.findSimilar(id, k, efSearch);
+                })
+                .flatMap(results -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(results))
+                .onErrorResume(this::handleError);
+    }
+
+    public Mono<ServerResponse> related(ServerRequest request) {
+        String id = request.pathVariable("id");
+
+        return Mono.defer(() -> {
+                    int k = request.queryParam("k").map(Integer::parseInt).orElse(10);
+                    if (k < 1 || k > 100) {
+                        return Mono.error(new IllegalArgumentException("k must be between 1 and 100"));
+                    }
+                    return contentEngineService.findRelated(id, k);
+                })
+                .flatMap(results -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(results))
+                .onErrorResume(this::handleError);
+    }
+
+    public Mono<ServerResponse> trending(ServerRequest request) {
+        return Mono.defer(() -> {
+                    int k = request.queryParam("k").map(Integer::parseInt).orElse(20);
+                    if (k < 1 || k > 100) {
+                        return Mono.error(new IllegalArgumentException("k must be between 1 and 100"));
+                    }
+                    return contentEngineService.findTrending(request.queryParam("category").orElse(null), k);
+                })
+                .flatMap(results -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(results))
+                .onErrorResume(this::handleError);
+    }
+
+    public Mono<ServerResponse> facets(ServerRequest request) {
+        return Mono.defer(() -> {
+                    Map<Facet, List<String>> filters = new EnumMap<>(Facet.class);
+                    for (Facet facet : Facet.values()) {
+                        List<String> values = request.queryParams().get(facet.parameter());
+                        if (values != null && !values.isEmpty()) {
+                            filters.put(facet, values);
+                        }
+                    }
+                    Integer size = request.queryParam("size").map(Integer::valueOf).orElse(null);
+                    return contentEngineService.facets(filters, size);
+                })
+                .flatMap(result -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(result))
+                .onErrorResume(this::handleError);
+    }
+
+    public Mono<ServerResponse> vectorSearch(ServerRequest request) {
+        return request.bodyToMono(VectorSearchRequestDto.class)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Request body is required")))
+                .flatMap(this::validate)
+                .flatMap(body -> contentEngineService.searchByVector(body.getVector(), body.getK(), body.getEfSearch()))
+                .flatMap(results -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(results))
+                .onErrorResume(this::handleError);
+    }
+
+    private <T> Mono<T> validate(T body) {
+        Set<ConstraintViolation<T>> violations = validator.validate(body);
+        if (violations.isEmpty()) {
+            return Mono.just(body);
+        }
+
+        String errors = violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining(", "));
+        return Mono.error(new IllegalArgumentException("Validation failed: " + errors));
+    }
+
+    private Mono<ServerResponse> handleError(Throwable throwable) {
+        HttpStatus status = throwable instanceof IllegalArgumentException
+                ? HttpStatus.BAD_REQUEST
+                : HttpStatus.INTERNAL_SERVER_ERROR;
+
+        if (status.is5xxServerError()) {
+            log.error("Search request failed: {}", throwable.getMessage(), throwable);
+        } else {
+            log.warn("Rejected search request: {}", throwable.getMessage());
+        }
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(throwable.getMessage() != null ? throwable.getMessage() : "An error occurred")
+                .build();
+
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(errorResponse);
     }
 }
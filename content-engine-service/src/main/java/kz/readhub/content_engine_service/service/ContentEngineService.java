@@ -1,8 +1,502 @@
 package kz.readhub.content_engine_service.service;
 
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.get.GetResult;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.ResponseBody;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.constant.ElasticIndices;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.FacetResult;
+import kz.readhub.content_engine_service.model.ScoredDocument;
+import kz.readhub.content_engine_service.model.ScoredId;
+import kz.readhub.content_engine_service.model.SearchCursor;
+import kz.readhub.content_engine_service.model.SearchRequest;
+import kz.readhub.content_engine_service.model.SearchResult;
+import kz.readhub.content_engine_service.model.SearchSort;
+import kz.readhub.content_engine_service.service.facet.Facet;
+import kz.readhub.content_engine_service.service.facet.FacetService;
+import kz.readhub.content_engine_service.service.fallback.ElasticLatencyGuard;
+import kz.readhub.content_engine_service.service.fallback.FallbackIndexService;
+import kz.readhub.content_engine_service.service.query.QueryPlan;
+import kz.readhub.content_engine_service.service.query.QueryPlanCache;
+import kz.readhub.content_engine_service.service.related.RelatedBooksService;
+import kz.readhub.content_engine_service.service.search.BookQueryBuilder;
+import kz.readhub.content_engine_service.service.search.CachedPage;
+import kz.readhub.content_engine_service.service.search.HybridRanker;
+import kz.readhub.content_engine_service.service.search.SearchCacheKey;
+import kz.readhub.content_engine_service.service.search.SearchCursorCodec;
+import kz.readhub.content_engine_service.service.search.SearchResultCache;
+import kz.readhub.content_engine_service.service.spelling.SpellingService;
+import kz.readhub.content_engine_service.service.trending.TrendingService;
+import kz.readhub.content_engine_service.service.vector.VectorIndexService;
+import kz.readhub.search_telemetry.SearchStage;
+import kz.readhub.search_telemetry.SearchTrace;
+import kz.readhub.search_telemetry.SlowQueryText;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Search over the books index.
+ * <p>
+ * Pages are read with {@code search_after}: every following page continues from the cursor. Cost per page
+ * stays constant however deep the client pages, and the {@code index.max_result_window} limit of
+ * {@code from/size} never applies. Every sort ends with the book id, so pages continue consistently on the
+ * live index. Only a search that asks for a point-in-time opens one, on its first page; it is closed after
+ * the last page, or by Elasticsearch once the client stops paging for {@code pit-keep-alive}.
+ * <p>
+ * First pages read without a point-in-time are cached as ids and scores. A cached page is hydrated with
+ * a multi-get and its cursor continues on the live index like any other.
+ * <p>
+ * Relevance-sorted text searches are re-ranked with {@link HybridRanker} over one fixed window of the top
+ * {@code window-size} hits, and pages are slices of that window: its cursor carries the offset and the window is
+ * read again, from the cache or the point-in-time, for every page within it. Past the window, pages continue in
+ * Elasticsearch order. The cache holds the Elasticsearch order, so cached windows are ranked against the
+ * current documents too.
+ * <p>
+ * First pages of text searches carry a spelling suggestion from {@link SpellingService}.
+ * <p>
+ * Query-language expressions are compiled once per canonical form by {@link QueryPlanCache}; the plan is
+ * reused for the Elasticsearch query, the cache key and the fallback index.
+ * <p>
+ * First pages fall back to the local {@link FallbackIndexService} when an Elasticsearch search fails or
+ * times out, and for as long as {@link ElasticLatencyGuard} reports Elasticsearch as degraded.
+ * <p>
+ * Searches mark their stages on the {@link SearchTrace} of the request, if any.
+ * <p>
+ * {@link #stream(SearchRequest)} walks the whole match set through one point-in-time, a page at a time
+ * as the consumer asks for more, so a slow reader slows the scroll instead of filling memory.
+ */
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class ContentEngineService {
 
+    private final ReactiveElasticsearchClient elasticsearchClient;
+    private final BookQueryBuilder queryBuilder;
+    private final QueryPlanCache queryPlans;
+    private final SearchCursorCodec cursorCodec;
+    private final SearchResultCache resultCache;
+    private final HybridRanker hybridRanker;
+    private final FallbackIndexService fallbackIndex;
+    private final ElasticLatencyGuard latencyGuard;
+    private final VectorIndexService vectorIndexService;
+    private final SpellingService spellingService;
+    private final RelatedBooksService relatedBooksService;
+    private final TrendingService trendingService;
+    private final FacetService facetService;
+    private final ContentEngineProperties properties;
+
+    public Mono<SearchResult> search(SearchRequest request) {
+        return Mono.deferContextual(context -> {
+            SearchTrace trace = SearchTrace.of(context);
+            int size = request.getSize() != null ? request.getSize() : 20;
+            QueryPlan plan = queryPlans.plan(request.getQ());
+            SearchSort sort = request.getSort() != null ? request.getSort() : SearchSort.RELEVANCE;
+            trace.shape(shapeOf(request, plan), sort.name().toLowerCase(Locale.ROOT));
+            trace.describe(() -> SlowQueryText.normalize(SearchCacheKey.of(request, plan, size).toString()));
+
+            SearchCursor cursor = request.getCursor() != null && !request.getCursor().isBlank()
+                    ? cursorCodec.decode(request.getCursor())
+                    : null;
+            boolean rerank = shouldRerank(request) && (cursor == null || cursor.getOffset() != null);
+            int fetchSize = rerank ? Math.max(size, properties.getRanking().getWindowSize()) : size;
+
+            Mono<SearchResult> page = fetch(request, plan, cursor, fetchSize, trace)
+                    .doOnNext(result -> {
+                        trace.end(SearchStage.BACKEND);
+                        if (result.getTotalHits() != null) {
+                            trace.hits(result.getTotalHits());
+                        } else if (result.getDocuments() != null) {
+                            trace.hits(result.getDocuments().size());
+                        }
+                    });
+            boolean suggest = shouldSuggest(request);
+            if (rerank) {
+                int offset = cursor != null ? cursor.getOffset() : 0;
+                page = page.map(window -> slice(hybridRanker.rerank(request.getQuery(), window), offset, size));
+            }
+            if (suggest) {
+                page = page.map(result -> result.toBuilder()
+                        .suggestion(spellingService.suggest(request.getQuery()))
+                        .build());
+            }
+            if (rerank || suggest) {
+                page = page.doOnNext(result -> trace.end(SearchStage.RERANK));
+            }
+            return page;
+        });
+    }
+
+    /**
+     * Every book matching the request, in the requested order without re-ranking. The next page is only
+     * read once the previous one has been consumed, and the point-in-time is closed however the stream ends.
+     */
+    public Flux<BookDocument> stream(SearchRequest request) {
+        return Flux.defer(() -> {
+            QueryPlan plan = queryPlans.plan(request.getQ());
+            Query query = queryBuilder.buildQuery(request, plan);
+            List<SortOptions> sort = queryBuilder.buildSort(request.getSort());
+            int pageSize = properties.getSearch().getStreamPageSize();
+
+            return Flux.usingWhen(
+                    openPointInTime().map(AtomicReference::new),
+                    pit -> searchPage(pit.get(), query, sort, null, pageSize, false)
+                            .expand(response -> {
+                                if (response.pitId() != null) {
+                                    pit.set(response.pitId());
+                                }
+                                List<Hit<BookDocument>> hits = response.hits().hits();
+                                if (hits.size() < pageSize) {
+                                    return Mono.empty();
+                                }
+                                return searchPage(pit.get(), query, sort, hits.get(hits.size() - 1).sort(),
+                                        pageSize, false);
+                            })
+                            .concatMapIterable(response -> response.hits().hits(), 1)
+                            .mapNotNull(Hit::source),
+                    pit -> releasePointInTime(pit.get()),
+                    (pit, error) -> releasePointInTime(pit.get()),
+                    pit -> releasePointInTime(pit.get()));
+        });
+    }
+
+    /**
+     * The page after the cursor, or the first page when there is no cursor. A cursor inside a re-ranked window
+     * reads the window again from its start: from its point-in-time if it still has one, else as a first page.
+     */
+    private Mono<SearchResult> fetch(SearchRequest request, QueryPlan plan, SearchCursor cursor, int size,
+                                     SearchTrace trace) {
+        if (cursor != null && (cursor.getOffset() == null || cursor.getPitId() != null)) {
+            Query query = queryBuilder.buildQuery(request, plan);
+            List<SortOptions> sort = queryBuilder.buildSort(request.getSort());
+            trace.end(SearchStage.PLAN);
+            List<FieldValue> searchAfter = cursor.getOffset() == null
+                    ? cursorCodec.toFieldValues(cursor.getSearchAfter())
+                    : null;
+            return guarded(fetchPage(cursor.getPitId(), query, sort, searchAfter, size));
+        }
+
+        boolean pointInTime = cursor == null && Boolean.TRUE.equals(request.getPointInTime());
+        if (!fallbackIndex.isEnabled()) {
+            return fetchFirstPage(request, plan, size, pointInTime, trace);
+        }
+        if (latencyGuard.isDegraded()) {
+            trace.end(SearchStage.PLAN);
+            return fallbackIndex.search(request, plan, size);
+        }
+        return guarded(fetchFirstPage(request, plan, size, pointInTime, trace))
+                .onErrorResume(error -> !(error instanceof IllegalArgumentException), error -> {
+                    log.warn("Elasticsearch search failed, answering from the fallback index: {}", error.toString());
+                    return fallbackIndex.search(request, plan, size);
+                });
+    }
+
+    /**
+     * Kind of search for the latency timers: which of free text, a query-language expression and filters
+     * it has, and whether it is a first or a following page.
+     */
+    private static String shapeOf(SearchRequest request, QueryPlan plan) {
+        List<String> parts = new ArrayList<>(3);
+        if (request.getQuery() != null && !request.getQuery().isBlank()) {
+            parts.add("text");
+        }
+        if (plan != null) {
+            parts.add("q");
+        }
+        if (hasFilters(request)) {
+            parts.add("filter");
+        }
+        String page = request.getCursor() != null && !request.getCursor().isBlank() ? "next" : "first";
+        return (parts.isEmpty() ? "all" : String.join("+", parts)) + "/" + page;
+    }
+
+    private static boolean hasFilters(SearchRequest request) {
+        return (request.getAuthors() != null && !request.getAuthors().isEmpty())
+                || (request.getTags() != null && !request.getTags().isEmpty())
+                || (request.getCategories() != null && !request.getCategories().isEmpty())
+                || (request.getLanguage() != null && !request.getLanguage().isBlank())
+                || request.getMinRating() != null;
+    }
+
+    private Mono<SearchResult> fetchFirstPage(SearchRequest request, QueryPlan plan, int size, boolean pointInTime,
+                                              SearchTrace trace) {
+        Query query = queryBuilder.buildQuery(request, plan);
+        List<SortOptions> sort = queryBuilder.buildSort(request.getSort());
+
+        if (pointInTime) {
+            trace.end(SearchStage.PLAN);
+            return openPointInTime()
+                    .flatMap(pitId -> fetchPage(pitId, query, sort, null, size));
+        }
+        if (!resultCache.isEnabled() || request.getSort() == SearchSort.TRENDING) {
+            trace.end(SearchStage.PLAN);
+            return fetchPage(null, query, sort, null, size);
+        }
+
+        SearchCacheKey key = SearchCacheKey.of(request, plan, size);
+        trace.end(SearchStage.PLAN);
+        CachedPage cached = resultCache.get(key);
+        if (cached != null) {
+            return fromCache(cached);
+        }
+
+        long readStamp = resultCache.readStamp();
+        return fetchPage(null, query, sort, null, size)
+                .doOnNext(result -> cache(key, readStamp, result));
+    }
+
+    /**
+     * Reports latency and failures of an Elasticsearch call to the guard and bounds it by the request timeout.
+     */
+    private <T> Mono<T> guarded(Mono<T> call) {
+        if (!fallbackIndex.isEnabled()) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.timeout(latencyGuard.requestTimeout())
+                    .doOnSuccess(result -> latencyGuard.onSuccess(System.nanoTime() - start))
+                    .doOnError(error -> !(error instanceof IllegalArgumentException), latencyGuard::onFailure);
+        });
+    }
+
+    /**
+     * Books whose embeddings are closest to the given book's embedding.
+     */
+    public Mono<List<ScoredDocument>> findSimilar(String bookId, int k, Integer efSearch) {
+        return Mono.defer(() -> vectorIndexService.similar(bookId, k, efSearch))
+                .flatMap(this::hydrate);
+    }
+
+    /**
+     * Books sharing the most tags and categories with the given book, scored by Jaccard similarity.
+     */
+    public Mono<List<ScoredDocument>> findRelated(String bookId, int k) {
+        return Mono.fromCallable(() -> relatedBooksService.related(bookId, k))
+                .flatMap(this::hydrate);
+    }
+
+    /**
+     * Books with the highest time-decayed activity, optionally within one category.
+     */
+    public Mono<List<ScoredDocument>> findTrending(String category, int k) {
+        return Mono.fromCallable(() -> trendingService.trending(category, k))
+                .flatMap(this::hydrate);
+    }
+
+    /**
+     * Facet value counts among books matching the filters, from the in-memory bitmap index.
+     */
+    public Mono<FacetResult> facets(Map<Facet, List<String>> filters, Integer size) {
+        return Mono.fromCallable(() -> facetService.facets(filters,
+                size != null ? size : properties.getFacets().getDefaultSize()));
+    }
+
+    /**
+     * Books whose embeddings are closest to an arbitrary query vector.
+     */
+    public Mono<List<ScoredDocument>> searchByVector(float[] vector, int k, Integer efSearch) {
+        return Mono.defer(() -> vectorIndexService.search(vector, k, efSearch))
+                .flatMap(this::hydrate);
+    }
+
+    /**
+     * Loads documents by id in one multi-get, preserving the requested order and skipping missing ids.
+     */
+    public Mono<List<BookDocument>> findByIds(List<String> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        return elasticsearchClient.mget(mget -> mget
+                        .index(ElasticIndices.BOOKS)
+                        .ids(ids), BookDocument.class)
+                .map(response -> {
+                    Map<String, BookDocument> found = new HashMap<>();
+                    for (MultiGetResponseItem<BookDocument> item : response.docs()) {
+                        if (item.isResult()) {
+                            GetResult<BookDocument> result = item.result();
+                            if (result.found() && result.source() != null) {
+                                found.put(result.id(), result.source());
+                            }
+                        }
+                    }
+                    return ids.stream()
+                            .map(found::get)
+                            .filter(document -> document != null)
+                            .toList();
+                });
+    }
+
+    private Mono<List<ScoredDocument>> hydrate(List<ScoredId> scoredIds) {
+        List<String> ids = scoredIds.stream().map(ScoredId::getId).toList();
+        return findByIds(ids).map(documents -> {
+            Map<String, Double> scores = new HashMap<>();
+            scoredIds.forEach(scored -> scores.put(scored.getId(), scored.getScore()));
+            return documents.stream()
+                    .map(document -> new ScoredDocument(document, scores.getOrDefault(document.getId(), 0d)))
+                    .toList();
+        });
+    }
+
+    private boolean shouldSuggest(SearchRequest request) {
+        return spellingService.isEnabled()
+                && (request.getCursor() == null || request.getCursor().isBlank())
+                && request.getQuery() != null
+                && !request.getQuery().isBlank();
+    }
+
+    private boolean shouldRerank(SearchRequest request) {
+        SearchSort sort = request.getSort() != null ? request.getSort() : SearchSort.RELEVANCE;
+        return hybridRanker.isEnabled()
+                && sort == SearchSort.RELEVANCE
+                && request.getQuery() != null
+                && !request.getQuery().isBlank();
+    }
+
+    /**
+     * One page of a re-ranked window. Within the window the cursor holds the next offset along with the
+     * position after the window, if any; the last slice hands over the window's own cursor.
+     */
+    private SearchResult slice(SearchResult window, int offset, int size) {
+        List<BookDocument> documents = window.getDocuments();
+        int from = Math.min(offset, documents.size());
+        int to = Math.min(documents.size(), from + size);
+        if (to == documents.size()) {
+            return window.toBuilder()
+                    .documents(new ArrayList<>(documents.subList(from, to)))
+                    .scores(Arrays.copyOfRange(window.getScores(), from, to))
+                    .build();
+        }
+
+        SearchCursor after = window.getNextCursor() != null ? cursorCodec.decode(window.getNextCursor()) : null;
+        return window.toBuilder()
+                .documents(new ArrayList<>(documents.subList(from, to)))
+                .scores(Arrays.copyOfRange(window.getScores(), from, to))
+                .nextCursor(cursorCodec.encode(after != null ? after.getPitId() : null,
+                        after != null ? after.getSearchAfter() : null, to))
+                .searchAfter(null)
+                .build();
+    }
+
+    private Mono<SearchResult> fromCache(CachedPage page) {
+        List<String> ids = List.of(page.getIds());
+        Map<String, Double> scores = new HashMap<>();
+        for (int i = 0; i < page.getIds().length; i++) {
+            scores.put(page.getIds()[i], page.getScores()[i]);
+        }
+
+        return findByIds(ids).map(documents -> SearchResult.builder()
+                .documents(documents)
+                .scores(documents.stream().mapToDouble(document -> scores.getOrDefault(document.getId(), 0d)).toArray())
+                .nextCursor(page.getSearchAfter() != null ? cursorCodec.encode(null, page.getSearchAfter()) : null)
+                .searchAfter(page.getSearchAfter())
+                .totalHits(page.getTotalHits())
+                .build());
+    }
+
+    private void cache(SearchCacheKey key, long readStamp, SearchResult result) {
+        String[] ids = result.getDocuments().stream()
+                .map(BookDocument::getId)
+                .toArray(String[]::new);
+        resultCache.put(key, readStamp, ids, result.getScores(), result.getSearchAfter(), result.getTotalHits());
+    }
+
+    private Mono<String> openPointInTime() {
+        return elasticsearchClient.openPointInTime(open -> open
+                        .index(ElasticIndices.BOOKS)
+                        .keepAlive(time -> time.time(keepAlive())))
+                .map(response -> response.id());
+    }
+
+    private Mono<SearchResult> fetchPage(String pitId, Query query, List<SortOptions> sort,
+                                         List<FieldValue> searchAfter, int size) {
+        return searchPage(pitId, query, sort, searchAfter, size, searchAfter == null)
+                .map(response -> toResult(response, size, pitId));
+    }
+
+    private Mono<SearchResponse<BookDocument>> searchPage(String pitId, Query query, List<SortOptions> sort,
+                                                          List<FieldValue> searchAfter, int size,
+                                                          boolean trackTotalHits) {
+        return elasticsearchClient.search(search -> {
+                    if (pitId != null) {
+                        search.pit(pit -> pit.id(pitId).keepAlive(time -> time.time(keepAlive())));
+                    } else {
+                        search.index(ElasticIndices.BOOKS);
+                    }
+                    search.query(query)
+                            .sort(sort)
+                            .size(size)
+                            .trackTotalHits(total -> total.enabled(trackTotalHits));
+                    if (searchAfter != null) {
+                        search.searchAfter(searchAfter);
+                    }
+                    return search;
+                }, BookDocument.class);
+    }
+
+    private SearchResult toResult(ResponseBody<BookDocument> response, int size, String requestPitId) {
+        List<Hit<BookDocument>> hits = response.hits().hits();
+        List<BookDocument> documents = new ArrayList<>(hits.size());
+        double[] scores = new double[hits.size()];
+
+        for (int i = 0; i < hits.size(); i++) {
+            Hit<BookDocument> hit = hits.get(i);
+            documents.add(hit.source());
+            scores[i] = hit.score() != null ? hit.score() : 0d;
+        }
+
+        String pitId = response.pitId() != null ? response.pitId() : requestPitId;
+        List<Object> searchAfter = null;
+        String nextCursor = null;
+        if (hits.size() == size) {
+            searchAfter = cursorCodec.fromFieldValues(hits.get(hits.size() - 1).sort());
+            nextCursor = cursorCodec.encode(pitId, searchAfter);
+        } else if (pitId != null) {
+            closePointInTime(pitId);
+        }
+
+        return SearchResult.builder()
+                .documents(documents)
+                .scores(scores)
+                .nextCursor(nextCursor)
+                .searchAfter(searchAfter)
+                .totalHits(response.hits().total() != null ? response.hits().total().value() : null)
+                .build();
+    }
+
+    private Mono<Void> releasePointInTime(String pitId) {
+        return elasticsearchClient.closePointInTime(close -> close.id(pitId))
+                .doOnError(error -> log.debug("Failed to close point-in-time: {}", error.getMessage()))
+                .onErrorComplete()
+                .then();
+    }
+
+    private void closePointInTime(String pitId) {
+        elasticsearchClient.closePointInTime(close -> close.id(pitId))
+                .subscribe(
+                        response -> log.debug("Closed point-in-time after last page"),
+                        error -> log.debug("Failed to close point-in-time: {}", error.getMessage()));
+    }
+
+    private String keepAlive() {
+        return properties.getSearch().getPitKeepAlive().toSeconds() + "s";
+    }
 }
@@ -0,0 +1,136 @@
+package kz.readhub.content_engine_service.service.embedding;
+
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.util.Hashing;
+import kz.readhub.content_engine_service.util.Tokenizer;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns a book's text into a fixed-dimension, L2-normalised vector using signed feature hashing.
+ * <p>
+ * Every token and adjacent-token pair is hashed to a coordinate and a sign; its weight is the field boost
+ * with sublinear term frequency. The result is deterministic and needs no vocabulary or model, so any
+ * instance embeds the same book to the same vector. Stateless and thread-safe.
+ */
+@Component
+public class BookEmbedder {
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float TAG_WEIGHT = 2f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float BIGRAM_WEIGHT = 0.5f;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "in", "is", "it",
+            "its", "of", "on", "or", "that", "the", "this", "to", "was", "were", "with");
+
+    private final int dimension;
+
+    public BookEmbedder(ContentEngineProperties properties) {
+        this.dimension = properties.getVector().getDimension();
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Embeds a book, or returns {@code null} when it has no indexable text.
+     */
+    public float[] embed(BookDocument document) {
+        Map<String, Float> features = new HashMap<>();
+        addText(features, document.getTitle(), TITLE_WEIGHT);
+        addText(features, document.getDescription(), DESCRIPTION_WEIGHT);
+        addTerms(features, document.getTags(), TAG_WEIGHT);
+        addTerms(features, document.getCategories(), CATEGORY_WEIGHT);
+        return toVector(features);
+    }
+
+    /**
+     * Embeds free text, such as a search query, into the same space as books.
+     * Returns {@code null} when the text has no indexable tokens.
+     */
+    public float[] embedText(String text) {
+        Map<String, Float> features = new HashMap<>();
+        addText(features, text, DESCRIPTION_WEIGHT);
+        return toVector(features);
+    }
+
+    /**
+     * Stable hash of exactly the fields {@link #embed} reads; equal fingerprints give equal embeddings.
+     */
+    public long fingerprint(BookDocument document) {
+        StringBuilder text = new StringBuilder(256)
+                .append(dimension).append('\u0001')
+                .append(nullToEmpty(document.getTitle())).append('\u0001')
+                .append(nullToEmpty(document.getDescription())).append('\u0001');
+        if (document.getTags() != null) {
+            document.getTags().forEach(tag -> text.append(tag).append('\u0002'));
+        }
+        text.append('\u0001');
+        if (document.getCategories() != null) {
+            document.getCategories().forEach(category -> text.append(category).append('\u0002'));
+        }
+        return Hashing.hash64(text);
+    }
+
+    private float[] toVector(Map<String, Float> features) {
+        float[] vector = new float[dimension];
+        features.forEach((feature, weight) -> {
+            long hash = Hashing.hash64(feature);
+            int index = (int) ((hash >>> 1) % dimension);
+            float value = 1f + (float) Math.log(weight);
+            vector[index] += (hash & 1L) == 0 ? value : -value;
+        });
+        return normalize(vector) ? vector : null;
+    }
+
+    private void addText(Map<String, Float> features, String text, float weight) {
+        String previous = null;
+        for (String token : Tokenizer.tokenize(text)) {
+            if (STOP_WORDS.contains(token)) {
+                continue;
+            }
+            features.merge(token, weight, Float::sum);
+            if (previous != null) {
+                features.merge(previous + ' ' + token, weight * BIGRAM_WEIGHT, Float::sum);
+            }
+            previous = token;
+        }
+    }
+
+    private void addTerms(Map<String, Float> features, List<String> terms, float weight) {
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            addText(features, term, weight);
+        }
+    }
+
+    private static boolean normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            return false;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return true;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,111 @@
+package kz.readhub.content_engine_service.service.embedding;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.service.vector.VectorIndexService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fills {@link BookDocument#getEmbedding()} before documents are indexed.
+ * <p>
+ * Documents are embedded in chunks on a dedicated, bounded pool so a large batch (or a full re-embed of
+ * the catalog) is limited by CPU throughput rather than per-document dispatch. A book whose text fields
+ * are unchanged since it was last embedded reuses its indexed vector instead of being recomputed.
+ */
+@Slf4j
+@Service
+public class EmbeddingService {
+
+    private final BookEmbedder embedder;
+    private final VectorIndexService vectorIndexService;
+    private final ContentEngineProperties.Embedding settings;
+    private final Scheduler scheduler;
+    private final Map<String, Long> fingerprints = new ConcurrentHashMap<>();
+
+    private final Counter computedCounter;
+    private final Counter reusedCounter;
+
+    public EmbeddingService(BookEmbedder embedder,
+                            VectorIndexService vectorIndexService,
+                            ContentEngineProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.embedder = embedder;
+        this.vectorIndexService = vectorIndexService;
+        this.settings = properties.getEmbedding();
+        this.scheduler = Schedulers.newParallel("embedding", settings.getThreads());
+        this.computedCounter = meterRegistry.counter("content.embedding.documents", "result", "computed");
+        this.reusedCounter = meterRegistry.counter("content.embedding.documents", "result", "reused");
+    }
+
+    /**
+     * Embeds the upserted documents of a batch in place and completes when all of them are done.
+     */
+    public Mono<List<BookChange>> embed(List<BookChange> changes) {
+        if (!settings.isEnabled()) {
+            return Mono.just(changes);
+        }
+
+        changes.stream()
+                .filter(BookChange::isDelete)
+                .forEach(change -> fingerprints.remove(change.getBookId()));
+
+        List<BookDocument> documents = changes.stream()
+                .filter(change -> !change.isDelete())
+                .map(BookChange::getDocument)
+                .toList();
+
+        return embedDocuments(documents).thenReturn(changes);
+    }
+
+    /**
+     * Embeds documents in place, {@code batchSize} per task, with at most {@code threads} tasks running.
+     */
+    public Mono<Void> embedDocuments(List<BookDocument> documents) {
+        if (documents.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return Flux.fromIterable(documents)
+                .buffer(settings.getBatchSize())
+                .flatMap(chunk -> Mono.fromRunnable(() -> embedChunk(chunk)).subscribeOn(scheduler),
+                        settings.getThreads())
+                .then();
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.dispose();
+    }
+
+    private void embedChunk(List<BookDocument> chunk) {
+        for (BookDocument document : chunk) {
+            long fingerprint = embedder.fingerprint(document);
+            Long previous = fingerprints.get(document.getId());
+            if (previous != null && previous == fingerprint) {
+                float[] existing = vectorIndexService.vectorOf(document.getId());
+                if (existing != null) {
+                    document.setEmbedding(existing);
+                    reusedCounter.increment();
+                    continue;
+                }
+            }
+
+            document.setEmbedding(embedder.embed(document));
+            fingerprints.put(document.getId(), fingerprint);
+            computedCounter.increment();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package kz.readhub.content_engine_service.service.facet;
+
+import kz.readhub.content_engine_service.model.BookDocument;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Dimensions faceted navigation can count and filter on, with the values a book contributes to each.
+ */
+public enum Facet {
+
+    CATEGORY("category"),
+    TAG("tag"),
+    LANGUAGE("language"),
+    RATING("rating");
+
+    private static final int RATING_BANDS = 5;
+
+    private final String parameter;
+
+    Facet(String parameter) {
+        this.parameter = parameter;
+    }
+
+    /**
+     * Name of the facet in requests and responses.
+     */
+    public String parameter() {
+        return parameter;
+    }
+
+    List<String> valuesOf(BookDocument document) {
+        return switch (this) {
+            case CATEGORY -> document.getCategories() != null ? document.getCategories() : List.of();
+            case TAG -> document.getTags() != null ? document.getTags() : List.of();
+            case LANGUAGE -> document.getLanguage() != null
+                    ? List.of(document.getLanguage().toLowerCase(Locale.ROOT))
+                    : List.of();
+            case RATING -> List.of(ratingBand(document.getAverageRating()));
+        };
+    }
+
+    /**
+     * A requested value in the form it is stored under.
+     */
+    String normalize(String value) {
+        String trimmed = value.trim();
+        return this == LANGUAGE ? trimmed.toLowerCase(Locale.ROOT) : trimmed;
+    }
+
+    /**
+     * Whole-star band of a rating, e.g. {@code "3-4"}; a perfect 5 belongs to {@code "4-5"}.
+     */
+    static String ratingBand(float rating) {
+        int band = Math.max(0, Math.min(RATING_BANDS - 1, (int) Math.floor(rating)));
+        return band + "-" + (band + 1);
+    }
+}
@@ -0,0 +1,200 @@
+package kz.readhub.content_engine_service.service.facet;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import kz.readhub.content_engine_service.model.FacetCount;
+import kz.readhub.content_engine_service.model.FacetResult;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * One compressed bitmap of dense document ids per facet value, plus a bitmap of all live documents.
+ * <p>
+ * Filters are unions of value bitmaps within a facet and intersections across facets. Counts are
+ * disjunctive, as multi-select navigation expects: the counts of a facet ignore that facet's own filter,
+ * so selecting one category still shows how many books every other category holds.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+final class FacetIndex {
+
+    private static final Comparator<FacetCount> BY_COUNT = Comparator
+            .comparingLong(FacetCount::getCount)
+            .thenComparing(FacetCount::getValue, Comparator.reverseOrder());
+
+    private final EnumMap<Facet, Map<String, RoaringBitmap>> postings = new EnumMap<>(Facet.class);
+    private final Int2ObjectOpenHashMap<String[][]> valuesByDocument = new Int2ObjectOpenHashMap<>();
+    private final RoaringBitmap live = new RoaringBitmap();
+
+    FacetIndex() {
+        for (Facet facet : Facet.values()) {
+            postings.put(facet, new HashMap<>());
+        }
+    }
+
+    int size() {
+        return live.getCardinality();
+    }
+
+    int valueCount() {
+        int count = 0;
+        for (Map<String, RoaringBitmap> values : postings.values()) {
+            count += values.size();
+        }
+        return count;
+    }
+
+    /**
+     * Replaces the facet values of a document; {@code values} is indexed by {@link Facet#ordinal()}.
+     */
+    void put(int id, String[][] values) {
+        remove(id);
+        Facet[] facets = Facet.values();
+        for (int f = 0; f < facets.length; f++) {
+            Map<String, RoaringBitmap> facetPostings = postings.get(facets[f]);
+            for (String value : values[f]) {
+                facetPostings.computeIfAbsent(value, ignored -> new RoaringBitmap()).add(id);
+            }
+        }
+        valuesByDocument.put(id, values);
+        live.add(id);
+    }
+
+    void remove(int id) {
+        String[][] previous = valuesByDocument.remove(id);
+        if (previous == null) {
+            return;
+        }
+        Facet[] facets = Facet.values();
+        for (int f = 0; f < facets.length; f++) {
+            Map<String, RoaringBitmap> facetPostings = postings.get(facets[f]);
+            for (String value : previous[f]) {
+                RoaringBitmap bitmap = facetPostings.get(value);
+                if (bitmap != null) {
+                    bitmap.remove(id);
+                    if (bitmap.isEmpty()) {
+                        facetPostings.remove(value);
+                    }
+                }
+            }
+        }
+        live.remove(id);
+    }
+
+    /**
+     * Writes the values of every document; the bitmaps are rebuilt from them on restore.
+     */
+    void writeTo(SnapshotOutput out) throws IOException {
+        out.writeInt(valuesByDocument.size());
+        for (Int2ObjectMap.Entry<String[][]> document : valuesByDocument.int2ObjectEntrySet()) {
+            out.writeInt(document.getIntKey());
+            for (String[] values : document.getValue()) {
+                out.writeStrings(values);
+            }
+        }
+    }
+
+    void readFrom(SnapshotInput in) throws IOException {
+        int documents = in.readInt();
+        int facets = Facet.values().length;
+        for (int i = 0; i < documents; i++) {
+            int id = in.readInt();
+            String[][] values = new String[facets][];
+            for (int f = 0; f < facets; f++) {
+                values[f] = in.readStrings();
+            }
+            put(id, values);
+        }
+    }
+
+    /**
+     * Documents matching all filters, and the {@code size} values of each facet with the most documents,
+     * most first, counted against the filters of all other facets.
+     */
+    FacetResult counts(Map<Facet, List<String>> filters, int size) {
+        EnumMap<Facet, RoaringBitmap> selections = selections(filters);
+        RoaringBitmap all = matching(selections, null);
+
+        Map<String, List<FacetCount>> counts = new LinkedHashMap<>();
+        for (Facet facet : Facet.values()) {
+            RoaringBitmap base = selections.containsKey(facet) ? matching(selections, facet) : all;
+            counts.put(facet.parameter(), top(postings.get(facet), base, base == live, size));
+        }
+        return new FacetResult(all.getLongCardinality(), counts);
+    }
+
+    private static List<FacetCount> top(Map<String, RoaringBitmap> values, RoaringBitmap base,
+                                        boolean unfiltered, int size) {
+        PriorityQueue<FacetCount> best = new PriorityQueue<>(size + 1, BY_COUNT);
+        for (Map.Entry<String, RoaringBitmap> entry : values.entrySet()) {
+            long count = unfiltered
+                    ? entry.getValue().getLongCardinality()
+                    : RoaringBitmap.andCardinality(entry.getValue(), base);
+            if (count == 0) {
+                continue;
+            }
+            if (best.size() < size) {
+                best.add(new FacetCount(entry.getKey(), count));
+            } else if (count > best.peek().getCount()) {
+                best.poll();
+                best.add(new FacetCount(entry.getKey(), count));
+            }
+        }
+
+        List<FacetCount> result = new ArrayList<>(best);
+        result.sort(BY_COUNT.reversed());
+        return result;
+    }
+
+    /**
+     * Union of the selected value bitmaps per filtered facet; a facet whose values are all unknown
+     * selects nothing.
+     */
+    private EnumMap<Facet, RoaringBitmap> selections(Map<Facet, List<String>> filters) {
+        EnumMap<Facet, RoaringBitmap> selections = new EnumMap<>(Facet.class);
+        for (Map.Entry<Facet, List<String>> filter : filters.entrySet()) {
+            if (filter.getValue() == null || filter.getValue().isEmpty()) {
+                continue;
+            }
+            Map<String, RoaringBitmap> facetPostings = postings.get(filter.getKey());
+            RoaringBitmap union = new RoaringBitmap();
+            for (String value : filter.getValue()) {
+                RoaringBitmap bitmap = facetPostings.get(filter.getKey().normalize(value));
+                if (bitmap != null) {
+                    union.or(bitmap);
+                }
+            }
+            selections.put(filter.getKey(), union);
+        }
+        return selections;
+    }
+
+    /**
+     * Live documents in every selection except the one of {@code excluded}.
+     */
+    private RoaringBitmap matching(EnumMap<Facet, RoaringBitmap> selections, Facet excluded) {
+        RoaringBitmap result = null;
+        for (Map.Entry<Facet, RoaringBitmap> selection : selections.entrySet()) {
+            if (selection.getKey() == excluded) {
+                continue;
+            }
+            if (result == null) {
+                result = selection.getValue().clone();
+            } else {
+                result.and(selection.getValue());
+            }
+        }
+        return result != null ? result : live;
+    }
+}
@@ -0,0 +1,148 @@
+package kz.readhub.content_engine_service.service.facet;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.FacetResult;
+import kz.readhub.content_engine_service.service.index.DocumentIdMap;
+import kz.readhub.content_engine_service.service.ingestion.IngestionListener;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+import kz.readhub.content_engine_service.service.snapshot.Snapshottable;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Faceted navigation over categories, tags, language and rating bands from in-memory bitmaps kept current
+ * by CDC ingestion. Filtering is a bitmap intersection and every count a cardinality, so a browse page
+ * needs no Elasticsearch aggregation.
+ */
+@Service
+public class FacetService implements IngestionListener, Snapshottable {
+
+    private final ContentEngineProperties.Facets settings;
+    private final DocumentIdMap documentIdMap;
+    private final FacetIndex index = new FacetIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Timer lookupTimer;
+
+    public FacetService(ContentEngineProperties properties,
+                        DocumentIdMap documentIdMap,
+                        MeterRegistry meterRegistry) {
+        this.settings = properties.getFacets();
+        this.documentIdMap = documentIdMap;
+        this.lookupTimer = Timer.builder("content.facets.lookup")
+                .description("Facet count latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("content.facets.documents", this, service -> service.read(FacetIndex::size))
+                .description("Books in the facet index")
+                .register(meterRegistry);
+        Gauge.builder("content.facets.values", this, service -> service.read(FacetIndex::valueCount))
+                .description("Distinct facet values")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onIndexed(List<BookChange> changes) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (BookChange change : changes) {
+                if (change.isDelete()) {
+                    int id = documentIdMap.get(change.getBookId());
+                    if (id >= 0) {
+                        index.remove(id);
+                    }
+                } else {
+                    index.put(documentIdMap.getOrAssign(change.getBookId()), valuesOf(change.getDocument()));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String snapshotSection() {
+        return "facets";
+    }
+
+    @Override
+    public String snapshotFingerprint() {
+        return "enabled=" + settings.isEnabled() + ",facets=" + Arrays.toString(Facet.values());
+    }
+
+    @Override
+    public void writeSnapshot(SnapshotOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            index.writeTo(out);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(SnapshotInput in) throws IOException {
+        lock.writeLock().lock();
+        try {
+            index.readFrom(in);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts of the {@code size} most frequent values of every facet among books matching the filters.
+     * Values of one facet are alternatives; different facets must all match.
+     */
+    public FacetResult facets(Map<Facet, List<String>> filters, int size) {
+        if (size < 1 || size > settings.getMaxSize()) {
+            throw new IllegalArgumentException("size must be between 1 and " + settings.getMaxSize());
+        }
+        if (!settings.isEnabled()) {
+            return new FacetResult(0, Map.of());
+        }
+        return lookupTimer.record(() -> read(facetIndex -> facetIndex.counts(filters, size)));
+    }
+
+    private <T> T read(Function<FacetIndex, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String[][] valuesOf(BookDocument document) {
+        Facet[] facets = Facet.values();
+        String[][] values = new String[facets.length][];
+        for (int f = 0; f < facets.length; f++) {
+            Set<String> distinct = new LinkedHashSet<>();
+            for (String value : facets[f].valuesOf(document)) {
+                if (value != null && !value.isBlank()) {
+                    distinct.add(facets[f].normalize(value));
+                }
+            }
+            values[f] = distinct.toArray(new String[0]);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,75 @@
+package kz.readhub.content_engine_service.service.fallback;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Decides when search should bypass Elasticsearch.
+ * <p>
+ * Tracks an exponentially weighted moving average of search latency. When the average passes the
+ * configured threshold, or a search fails or times out, the guard trips into degraded mode for a cooldown
+ * period; the first search after the cooldown goes to Elasticsearch again and either closes the guard or
+ * trips it anew.
+ */
+@Slf4j
+@Component
+public class ElasticLatencyGuard {
+
+    /**
+     * After tripping, the average restarts at this fraction of the threshold, so one slow probe
+     * does not immediately trip the guard again.
+     */
+    private static final double RECOVERY_FACTOR = 0.5;
+
+    private final ContentEngineProperties.Fallback settings;
+    private final long thresholdNanos;
+
+    private volatile double averageNanos;
+    private volatile long degradedUntil;
+
+    public ElasticLatencyGuard(ContentEngineProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getFallback();
+        this.thresholdNanos = settings.getLatencyThreshold().toNanos();
+        this.degradedUntil = System.nanoTime();
+        Gauge.builder("content.search.degraded", this, guard -> guard.isDegraded() ? 1 : 0)
+                .description("Whether searches are served by the local fallback index")
+                .register(meterRegistry);
+        Gauge.builder("content.search.elastic.latency.average", this, guard -> guard.averageNanos / 1_000_000d)
+                .description("Moving average of Elasticsearch search latency")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public boolean isDegraded() {
+        return System.nanoTime() - degradedUntil < 0;
+    }
+
+    public Duration requestTimeout() {
+        return settings.getRequestTimeout();
+    }
+
+    public synchronized void onSuccess(long latencyNanos) {
+        double alpha = settings.getLatencyAlpha();
+        averageNanos = averageNanos == 0 ? latencyNanos : alpha * latencyNanos + (1 - alpha) * averageNanos;
+        if (averageNanos > thresholdNanos) {
+            trip("average latency " + Duration.ofNanos((long) averageNanos).toMillis() + " ms");
+        }
+    }
+
+    public synchronized void onFailure(Throwable error) {
+        trip(error.getClass().getSimpleName() + ": " + error.getMessage());
+    }
+
+    private void trip(String reason) {
+        if (!isDegraded()) {
+            log.warn("Serving searches from the fallback index for {} ({})", settings.getCooldown(), reason);
+        }
+        degradedUntil = System.nanoTime() + settings.getCooldown().toNanos();
+        averageNanos = thresholdNanos * RECOVERY_FACTOR;
+    }
+}
@@ -0,0 +1,42 @@
+package kz.readhub.content_engine_service.service.fallback;
+
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+import kz.readhub.content_engine_service.service.snapshot.Snapshottable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Snapshot section that makes the fallback index durable up to the offsets a snapshot covers.
+ * <p>
+ * The index keeps its own segment files, so the section holds no data: writing it flushes the memtable
+ * while ingestion is held, and a restart that replays from the snapshot's offsets finds every earlier
+ * change in a segment. A failed flush fails the snapshot. The section is separate from
+ * {@link FallbackIndexService}, which only opens after the snapshot has been restored.
+ */
+@Component
+@RequiredArgsConstructor
+public class FallbackFlushSection implements Snapshottable {
+
+    private final ObjectProvider<FallbackIndexService> fallbackIndex;
+
+    @Override
+    public String snapshotSection() {
+        return "fallback-flush";
+    }
+
+    @Override
+    public void writeSnapshot(SnapshotOutput out) throws IOException {
+        FallbackIndexService index = fallbackIndex.getIfAvailable();
+        if (index != null && index.isEnabled()) {
+            index.flushMemTable();
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(SnapshotInput in) {
+    }
+}
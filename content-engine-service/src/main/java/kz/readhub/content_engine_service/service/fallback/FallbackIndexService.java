@@ -0,0 +1,607 @@
+package kz.readhub.content_engine_service.service.fallback;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.unimi.dsi.fastutil.ints.Int2FloatOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.exception.ContentEngineException;
+import kz.readhub.content_engine_service.model.Author;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.SearchRequest;
+import kz.readhub.content_engine_service.model.SearchResult;
+import kz.readhub.content_engine_service.model.SearchSort;
+import kz.readhub.content_engine_service.service.index.DocumentIdMap;
+import kz.readhub.content_engine_service.service.ingestion.IngestionListener;
+import kz.readhub.content_engine_service.service.query.QueryPlan;
+import kz.readhub.content_engine_service.util.ScoredHeap;
+import kz.readhub.content_engine_service.util.Tokenizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Local inverted index over title, author names, tags and categories, used when Elasticsearch is slow or down.
+ * <p>
+ * Works like a small log-structured index: changes from CDC ingestion go into a {@link MemTable}, which is
+ * flushed to an immutable, memory-mapped {@link Segment} file when it grows large or old. A background task
+ * merges the adjacent run of segments with the smallest total size whenever there are too many of them.
+ * Each book's newest version is tracked by dense id, so postings of replaced or deleted versions are
+ * skipped at query time and dropped by the next merge. Segments are reloaded on startup; deletions are
+ * recorded in the segment of the generation that saw them so older versions stay deleted.
+ * <p>
+ * Searches are scored by summed IDF of the matched query terms. Filters and non-relevance sorts are applied
+ * to the best candidates only, and results are never paged: this is a degraded mode, not a replica.
+ * <p>
+ * Opening segments assigns dense ids, so the index opens only after a snapshot has restored them. The
+ * memtable is flushed whenever a snapshot is written, see {@link FallbackFlushSection}.
+ */
+@Slf4j
+@Service
+@DependsOn("snapshotService")
+public class FallbackIndexService implements IngestionListener {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final long MEMTABLE_ORDINAL = 0xFFFFFFFFL;
+    private static final int NOT_LIVE = -1;
+
+    private final ContentEngineProperties.Fallback settings;
+    private final boolean collapseDuplicates;
+    private final DocumentIdMap documentIdMap;
+    private final ObjectMapper objectMapper;
+    private final Counter searchCounter;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private int[] latest = new int[1024];
+    private MemTable memTable;
+    private MemTable flushing;
+    private int nextSegmentId;
+
+    private Scheduler scheduler;
+    private Disposable maintenance;
+    private volatile long lastFlushNanos = System.nanoTime();
+
+    public FallbackIndexService(ContentEngineProperties properties,
+                                DocumentIdMap documentIdMap,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.settings = properties.getFallback();
+        this.collapseDuplicates = properties.getSearch().isCollapseDuplicates();
+        this.documentIdMap = documentIdMap;
+        this.objectMapper = objectMapper;
+        this.searchCounter = meterRegistry.counter("content.search.fallback");
+        Arrays.fill(latest, NOT_LIVE);
+        Gauge.builder("content.fallback.segments", this, service -> service.segmentCount())
+                .description("Segments of the local fallback index")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        Path directory = Path.of(settings.getDirectory());
+        try {
+            open(directory);
+        } catch (IOException e) {
+            throw new ContentEngineException("Failed to open fallback index in " + directory, e);
+        }
+        memTable = new MemTable(nextSegmentId++);
+
+        scheduler = Schedulers.newSingle("fallback-index");
+        long period = settings.getMaintenanceInterval().toMillis();
+        maintenance = scheduler.schedulePeriodically(this::maintain, period, period, TimeUnit.MILLISECONDS);
+        log.info("Fallback index opened with {} segments from {}", segments.size(), directory);
+    }
+
+    private void open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    int id = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(id, Segment.open(id, file, documentIdMap::getOrAssign));
+                }
+            }
+        }
+
+        for (Segment segment : segments.values()) {
+            for (int ordinal = 0; ordinal < segment.documentCount(); ordinal++) {
+                setLatest(segment.denseId(ordinal), segment.id());
+            }
+            for (String bookId : segment.deletes()) {
+                setLatest(documentIdMap.getOrAssign(bookId), NOT_LIVE);
+            }
+        }
+        nextSegmentId = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        if (maintenance != null) {
+            maintenance.dispose();
+        }
+        flush();
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+    }
+
+    @Override
+    public void onIndexed(List<BookChange> changes) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        int pending;
+        lock.writeLock().lock();
+        try {
+            for (BookChange change : changes) {
+                int denseId = documentIdMap.getOrAssign(change.getBookId());
+                if (change.isDelete()) {
+                    memTable.delete(change.getBookId());
+                    setLatest(denseId, NOT_LIVE);
+                } else {
+                    BookDocument stored = change.getDocument().toBuilder().embedding(null).build();
+                    memTable.upsert(change.getBookId(), stored, termsOf(stored));
+                    setLatest(denseId, memTable.id());
+                }
+            }
+            pending = memTable.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (pending >= settings.getFlushDocuments()) {
+            scheduler.schedule(this::flush);
+        }
+    }
+
+    /**
+     * Best matches for the request and its compiled query-language plan, if any, from the local index;
+     * the result has no cursor and no total.
+     */
+    public Mono<SearchResult> search(SearchRequest request, QueryPlan plan, int size) {
+        return Mono.fromCallable(() -> doSearch(request, plan, size))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private SearchResult doSearch(SearchRequest request, QueryPlan plan, int size) {
+        searchCounter.increment();
+        Set<String> queryTerms = queryTermsOf(request, plan);
+        if (queryTerms.isEmpty()) {
+            return emptyResult();
+        }
+
+        lock.readLock().lock();
+        try {
+            Int2FloatOpenHashMap scores = new Int2FloatOpenHashMap();
+            Int2LongOpenHashMap locations = new Int2LongOpenHashMap();
+            int documentCount = Math.max(1, documentIdMap.size());
+
+            for (String term : queryTerms) {
+                byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+                int docFreq = 0;
+                List<Segment> matchedSegments = new ArrayList<>();
+                List<Integer> entries = new ArrayList<>();
+                for (Segment segment : segments.values()) {
+                    int entry = segment.findTerm(bytes);
+                    if (entry >= 0) {
+                        matchedSegments.add(segment);
+                        entries.add(entry);
+                        docFreq += segment.docFreq(entry);
+                    }
+                }
+                List<MemTable> tables = memTables();
+                List<Set<String>> tableMatches = new ArrayList<>(tables.size());
+                for (MemTable table : tables) {
+                    Set<String> matches = table.matching(term);
+                    tableMatches.add(matches);
+                    docFreq += matches.size();
+                }
+                if (docFreq == 0) {
+                    continue;
+                }
+
+                float idf = (float) Math.log(1 + (double) documentCount / docFreq);
+                for (int i = 0; i < matchedSegments.size(); i++) {
+                    Segment segment = matchedSegments.get(i);
+                    segment.forEachPosting(entries.get(i), ordinal -> {
+                        int denseId = segment.denseId(ordinal);
+                        if (latestOf(denseId) == segment.id()) {
+                            scores.addTo(denseId, idf);
+                            locations.put(denseId, ((long) segment.id() << 32) | ordinal);
+                        }
+                    });
+                }
+                for (int i = 0; i < tables.size(); i++) {
+                    MemTable table = tables.get(i);
+                    for (String bookId : tableMatches.get(i)) {
+                        int denseId = documentIdMap.get(bookId);
+                        if (denseId >= 0 && latestOf(denseId) == table.id()) {
+                            scores.addTo(denseId, idf);
+                            locations.put(denseId, ((long) table.id() << 32) | MEMTABLE_ORDINAL);
+                        }
+                    }
+                }
+            }
+
+            int candidates = Math.max(size, size * settings.getCandidateFactor());
+            ScoredHeap heap = ScoredHeap.minHeap(candidates);
+            scores.int2FloatEntrySet().fastForEach(entry -> heap.offer(entry.getIntKey(), entry.getFloatValue(), candidates));
+            int[] ids = new int[heap.size()];
+            float[] topScores = new float[heap.size()];
+            heap.drainDescending(ids, topScores);
+
+            List<BookDocument> documents = new ArrayList<>(ids.length);
+            List<Float> documentScores = new ArrayList<>(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                BookDocument document = load(locations.get(ids[i]), ids[i]);
+                if (document != null && matchesFilters(request, document) && (plan == null || plan.matches(document))) {
+                    documents.add(document);
+                    documentScores.add(topScores[i]);
+                }
+            }
+            return toResult(request, documents, documentScores, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void maintain() {
+        try {
+            if (System.nanoTime() - lastFlushNanos >= settings.getFlushInterval().toNanos()) {
+                flush();
+            }
+            merge();
+        } catch (RuntimeException e) {
+            log.error("Fallback index maintenance failed", e);
+        }
+    }
+
+    void flush() {
+        try {
+            flushMemTable();
+        } catch (IOException e) {
+            log.error("Failed to flush fallback index memtable", e);
+        }
+    }
+
+    /**
+     * Writes the current memtable as a segment. A memtable whose write failed stays searchable and is
+     * written again on the next flush.
+     */
+    void flushMemTable() throws IOException {
+        maintenanceLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                if (flushing == null) {
+                    if (memTable.isEmpty()) {
+                        lastFlushNanos = System.nanoTime();
+                        return;
+                    }
+                    flushing = memTable;
+                    memTable = new MemTable(nextSegmentId++);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<SegmentDocument> documents = new ArrayList<>(flushing.documents().size());
+            for (Map.Entry<String, BookDocument> entry : flushing.documents().entrySet()) {
+                documents.add(new SegmentDocument(entry.getKey(), toJson(entry.getValue()), flushing.terms(entry.getKey())));
+            }
+            Path path = segmentPath(flushing.id());
+            SegmentWriter.write(path, documents, flushing.deletes());
+            Segment segment = Segment.open(flushing.id(), path, documentIdMap::getOrAssign);
+
+            lock.writeLock().lock();
+            try {
+                segments.put(segment.id(), segment);
+                flushing = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            lastFlushNanos = System.nanoTime();
+            log.debug("Flushed fallback {}", segment);
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * Merges the adjacent run of {@code mergeFactor} segments with the smallest total size into one segment
+     * that takes the id of the newest member, so replay order on startup is unchanged.
+     */
+    void merge() {
+        maintenanceLock.lock();
+        try {
+            List<Segment> window;
+            lock.readLock().lock();
+            try {
+                if (segments.size() <= settings.getMaxSegments()) {
+                    return;
+                }
+                window = smallestRun(new ArrayList<>(segments.values()), Math.min(settings.getMergeFactor(), segments.size()));
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            Set<Integer> windowIds = new HashSet<>();
+            window.forEach(segment -> windowIds.add(segment.id()));
+            int mergedId = window.get(window.size() - 1).id();
+
+            List<SegmentDocument> documents = new ArrayList<>();
+            Set<String> written = new HashSet<>();
+            for (Segment segment : window) {
+                for (int ordinal = 0; ordinal < segment.documentCount(); ordinal++) {
+                    if (latestOf(segment.denseId(ordinal)) != segment.id()) {
+                        continue;
+                    }
+                    byte[] json = segment.documentJson(ordinal);
+                    BookDocument document = objectMapper.readValue(json, BookDocument.class);
+                    documents.add(new SegmentDocument(segment.bookId(ordinal), json, termsOf(document)));
+                    written.add(segment.bookId(ordinal));
+                }
+            }
+            Set<String> deletes = new LinkedHashSet<>();
+            window.forEach(segment -> segment.deletes().stream()
+                    .filter(bookId -> !written.contains(bookId))
+                    .forEach(deletes::add));
+
+            Path path = segmentPath(mergedId);
+            SegmentWriter.write(path, documents, deletes);
+            Segment merged = Segment.open(mergedId, path, documentIdMap::getOrAssign);
+
+            lock.writeLock().lock();
+            try {
+                for (int ordinal = 0; ordinal < merged.documentCount(); ordinal++) {
+                    int denseId = merged.denseId(ordinal);
+                    if (windowIds.contains(latestOf(denseId))) {
+                        setLatest(denseId, mergedId);
+                    }
+                }
+                windowIds.forEach(segments::remove);
+                segments.put(mergedId, merged);
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            for (Segment segment : window) {
+                if (segment.id() != mergedId) {
+                    Files.deleteIfExists(segment.path());
+                }
+            }
+            log.info("Merged {} fallback segments into {}", window.size(), merged);
+        } catch (IOException e) {
+            log.error("Failed to merge fallback index segments", e);
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    private static List<Segment> smallestRun(List<Segment> ordered, int length) {
+        int bestStart = 0;
+        long bestSize = Long.MAX_VALUE;
+        for (int start = 0; start + length <= ordered.size(); start++) {
+            long size = 0;
+            for (int i = start; i < start + length; i++) {
+                size += ordered.get(i).sizeInBytes();
+            }
+            if (size < bestSize) {
+                bestSize = size;
+                bestStart = start;
+            }
+        }
+        return ordered.subList(bestStart, bestStart + length);
+    }
+
+    private BookDocument load(long location, int denseId) {
+        int sourceId = (int) (location >>> 32);
+        long ordinal = location & MEMTABLE_ORDINAL;
+        if (ordinal == MEMTABLE_ORDINAL) {
+            String bookId = documentIdMap.bookId(denseId);
+            for (MemTable table : memTables()) {
+                if (table.id() == sourceId) {
+                    return table.document(bookId);
+                }
+            }
+            return null;
+        }
+
+        Segment segment = segments.get(sourceId);
+        if (segment == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(segment.documentJson((int) ordinal), BookDocument.class);
+        } catch (IOException e) {
+            throw new ContentEngineException("Corrupt document in fallback " + segment, e);
+        }
+    }
+
+    private boolean matchesFilters(SearchRequest request, BookDocument document) {
+        if (collapseDuplicates && document.getDuplicateOf() != null) {
+            return false;
+        }
+        if (!anyMatch(request.getTags(), document.getTags())
+                || !anyMatch(request.getCategories(), document.getCategories())) {
+            return false;
+        }
+        if (request.getAuthors() != null && !request.getAuthors().isEmpty()) {
+            List<String> names = document.getAuthors() == null ? List.of()
+                    : document.getAuthors().stream().map(Author::getName).toList();
+            if (!anyMatch(request.getAuthors(), names)) {
+                return false;
+            }
+        }
+        if (request.getLanguage() != null && !request.getLanguage().isBlank()
+                && !request.getLanguage().trim().equalsIgnoreCase(document.getLanguage())) {
+            return false;
+        }
+        return request.getMinRating() == null || document.getAverageRating() >= request.getMinRating();
+    }
+
+    private static boolean anyMatch(List<String> required, List<String> values) {
+        if (required == null || required.isEmpty()) {
+            return true;
+        }
+        if (values == null) {
+            return false;
+        }
+        for (String value : required) {
+            if (value != null && values.contains(value.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private SearchResult toResult(SearchRequest request, List<BookDocument> documents,
+                                  List<Float> documentScores, int size) {
+        List<Integer> order = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            order.add(i);
+        }
+        SearchSort sort = request.getSort() != null ? request.getSort() : SearchSort.RELEVANCE;
+        if (sort == SearchSort.RATING) {
+            order.sort(Comparator.comparingDouble((Integer i) -> documents.get(i).getAverageRating()).reversed());
+        } else if (sort == SearchSort.DOWNLOADS) {
+            order.sort(Comparator.comparingInt((Integer i) -> documents.get(i).getDownloadCount()).reversed());
+        } else if (sort == SearchSort.TRENDING) {
+            order.sort(Comparator.comparingDouble((Integer i) -> documents.get(i).getTrendingScore() != null
+                    ? documents.get(i).getTrendingScore() : Double.NEGATIVE_INFINITY).reversed());
+        }
+
+        int count = Math.min(size, order.size());
+        List<BookDocument> page = new ArrayList<>(count);
+        double[] scores = new double[count];
+        for (int i = 0; i < count; i++) {
+            page.add(documents.get(order.get(i)));
+            scores[i] = documentScores.get(order.get(i));
+        }
+        return SearchResult.builder()
+                .documents(page)
+                .scores(scores)
+                .build();
+    }
+
+    private static SearchResult emptyResult() {
+        return SearchResult.builder()
+                .documents(List.of())
+                .scores(new double[0])
+                .build();
+    }
+
+    /**
+     * Query tokens, or the tokens of the term filters when the request has no text, or else those of the
+     * plan's anchors.
+     */
+    private static Set<String> queryTermsOf(SearchRequest request, QueryPlan plan) {
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(request.getQuery()));
+        if (terms.isEmpty()) {
+            Stream.of(request.getTags(), request.getCategories(), request.getAuthors())
+                    .filter(values -> values != null)
+                    .flatMap(List::stream)
+                    .forEach(value -> terms.addAll(Tokenizer.tokenize(value)));
+        }
+        if (terms.isEmpty() && plan != null && plan.getAnchors() != null) {
+            plan.getAnchors().forEach(anchor -> terms.addAll(Tokenizer.tokenize(anchor.getValue())));
+        }
+        return terms;
+    }
+
+    static Set<String> termsOf(BookDocument document) {
+        Set<String> terms = new HashSet<>(Tokenizer.tokenize(document.getTitle()));
+        if (document.getAuthors() != null) {
+            document.getAuthors().forEach(author -> terms.addAll(Tokenizer.tokenize(author.getName())));
+        }
+        if (document.getTags() != null) {
+            document.getTags().forEach(tag -> terms.addAll(Tokenizer.tokenize(tag)));
+        }
+        if (document.getCategories() != null) {
+            document.getCategories().forEach(category -> terms.addAll(Tokenizer.tokenize(category)));
+        }
+        return terms;
+    }
+
+    private List<MemTable> memTables() {
+        return flushing != null ? List.of(memTable, flushing) : List.of(memTable);
+    }
+
+    private int latestOf(int denseId) {
+        int[] current = latest;
+        return denseId < current.length ? current[denseId] : NOT_LIVE;
+    }
+
+    private void setLatest(int denseId, int segmentId) {
+        if (denseId >= latest.length) {
+            int previousLength = latest.length;
+            latest = Arrays.copyOf(latest, Math.max(denseId + 1, previousLength * 2));
+            Arrays.fill(latest, previousLength, latest.length, NOT_LIVE);
+        }
+        latest[denseId] = segmentId;
+    }
+
+    private byte[] toJson(BookDocument document) throws IOException {
+        return objectMapper.writeValueAsBytes(document);
+    }
+
+    private Path segmentPath(int id) {
+        return Path.of(settings.getDirectory(), String.format(Locale.ROOT, "%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package kz.readhub.content_engine_service.service.fallback;
+
+import kz.readhub.content_engine_service.model.BookDocument;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Changes received since the last flush, searchable until they are written as segment {@link #id()}.
+ * Postings are append-only; a posting is valid only while the document still carries the term.
+ * Not thread-safe; {@link FallbackIndexService} guards it.
+ */
+final class MemTable {
+
+    private final int id;
+    private final Map<String, BookDocument> documents = new LinkedHashMap<>();
+    private final Map<String, Set<String>> documentTerms = new HashMap<>();
+    private final Map<String, Set<String>> postings = new HashMap<>();
+    private final Set<String> deletes = new LinkedHashSet<>();
+
+    MemTable(int id) {
+        this.id = id;
+    }
+
+    int id() {
+        return id;
+    }
+
+    boolean isEmpty() {
+        return documents.isEmpty() && deletes.isEmpty();
+    }
+
+    int size() {
+        return documents.size() + deletes.size();
+    }
+
+    void upsert(String bookId, BookDocument document, Set<String> terms) {
+        deletes.remove(bookId);
+        documents.put(bookId, document);
+        documentTerms.put(bookId, terms);
+        for (String term : terms) {
+            postings.computeIfAbsent(term, ignored -> new HashSet<>()).add(bookId);
+        }
+    }
+
+    void delete(String bookId) {
+        documents.remove(bookId);
+        documentTerms.remove(bookId);
+        deletes.add(bookId);
+    }
+
+    /**
+     * Book ids currently indexed under the term.
+     */
+    Set<String> matching(String term) {
+        Set<String> candidates = postings.get(term);
+        if (candidates == null) {
+            return Set.of();
+        }
+        Set<String> matches = new HashSet<>();
+        for (String bookId : candidates) {
+            Set<String> terms = documentTerms.get(bookId);
+            if (terms != null && terms.contains(term)) {
+                matches.add(bookId);
+            }
+        }
+        return matches;
+    }
+
+    BookDocument document(String bookId) {
+        return documents.get(bookId);
+    }
+
+    Map<String, BookDocument> documents() {
+        return documents;
+    }
+
+    Set<String> terms(String bookId) {
+        return documentTerms.get(bookId);
+    }
+
+    Collection<String> deletes() {
+        return deletes;
+    }
+}
@@ -0,0 +1,183 @@
+package kz.readhub.content_engine_service.service.fallback;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Read-only view of a segment file mapped into memory; see {@link SegmentWriter} for the layout.
+ * Only the ordinal-to-document-id table lives on the heap, everything else is read from the mapping.
+ * Safe for concurrent readers.
+ */
+final class Segment {
+
+    private final int id;
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int termIndexOffset;
+    private final int documentIndexOffset;
+    private final int termCount;
+    private final String[] bookIds;
+    private final int[] denseIds;
+    private final List<String> deletes;
+
+    private Segment(int id, Path path, ByteBuffer buffer, ToIntFunction<String> denseIdOf) throws IOException {
+        this.id = id;
+        this.path = path;
+        this.buffer = buffer;
+
+        int footer = buffer.capacity() - SegmentWriter.FOOTER_BYTES;
+        if (footer < 0 || buffer.getInt(footer + 24) != SegmentWriter.MAGIC) {
+            throw new IOException("Not a segment file: " + path);
+        }
+        if (buffer.getInt(footer + 20) != SegmentWriter.VERSION) {
+            throw new IOException("Unsupported segment version in " + path);
+        }
+
+        this.termIndexOffset = buffer.getInt(footer);
+        this.documentIndexOffset = buffer.getInt(footer + 4);
+        int deletesOffset = buffer.getInt(footer + 8);
+        this.termCount = buffer.getInt(footer + 12);
+        int documentCount = buffer.getInt(footer + 16);
+
+        this.bookIds = new String[documentCount];
+        this.denseIds = new int[documentCount];
+        for (int ordinal = 0; ordinal < documentCount; ordinal++) {
+            int offset = buffer.getInt(documentIndexOffset + ordinal * Integer.BYTES);
+            bookIds[ordinal] = readString(offset);
+            denseIds[ordinal] = denseIdOf.applyAsInt(bookIds[ordinal]);
+        }
+
+        int deleteCount = buffer.getInt(deletesOffset);
+        this.deletes = new ArrayList<>(deleteCount);
+        int position = deletesOffset + Integer.BYTES;
+        for (int i = 0; i < deleteCount; i++) {
+            String bookId = readString(position);
+            deletes.add(bookId);
+            position += Short.BYTES + (buffer.getShort(position) & 0xFFFF);
+        }
+    }
+
+    static Segment open(int id, Path path, ToIntFunction<String> denseIdOf) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Segment(id, path, mapped, denseIdOf);
+        }
+    }
+
+    int id() {
+        return id;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    int documentCount() {
+        return bookIds.length;
+    }
+
+    String bookId(int ordinal) {
+        return bookIds[ordinal];
+    }
+
+    int denseId(int ordinal) {
+        return denseIds[ordinal];
+    }
+
+    List<String> deletes() {
+        return deletes;
+    }
+
+    /**
+     * Returns the offset of the term's dictionary entry, or -1 when the segment does not contain it.
+     */
+    int findTerm(byte[] term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = buffer.getInt(termIndexOffset + mid * Integer.BYTES);
+            int comparison = compareTerm(entry, term);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    int docFreq(int entry) {
+        return buffer.getInt(entry + Short.BYTES + termLength(entry));
+    }
+
+    void forEachPosting(int entry, IntConsumer consumer) {
+        int metadata = entry + Short.BYTES + termLength(entry);
+        int count = buffer.getInt(metadata);
+        int position = buffer.getInt(metadata + Integer.BYTES);
+        int ordinal = 0;
+        for (int i = 0; i < count; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            ordinal += delta;
+            consumer.accept(ordinal);
+        }
+    }
+
+    byte[] documentJson(int ordinal) {
+        int offset = buffer.getInt(documentIndexOffset + ordinal * Integer.BYTES);
+        int position = offset + Short.BYTES + (buffer.getShort(offset) & 0xFFFF);
+        byte[] json = new byte[buffer.getInt(position)];
+        buffer.get(position + Integer.BYTES, json);
+        return json;
+    }
+
+    private int termLength(int entry) {
+        return buffer.getShort(entry) & 0xFFFF;
+    }
+
+    private int compareTerm(int entry, byte[] term) {
+        int length = termLength(entry);
+        int start = entry + Short.BYTES;
+        int common = Math.min(length, term.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = Integer.compare(buffer.get(start + i) & 0xFF, term[i] & 0xFF);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, term.length);
+    }
+
+    private String readString(int offset) {
+        byte[] bytes = new byte[buffer.getShort(offset) & 0xFFFF];
+        buffer.get(offset + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "Segment{id=" + id + ", documents=" + bookIds.length + ", bytes=" + buffer.capacity() + "}";
+    }
+}
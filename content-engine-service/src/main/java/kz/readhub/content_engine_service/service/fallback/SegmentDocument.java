@@ -0,0 +1,17 @@
+package kz.readhub.content_engine_service.service.fallback;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Set;
+
+/**
+ * A document as written to a segment: its stored JSON and the terms it is indexed under.
+ */
+@Data
+@AllArgsConstructor
+class SegmentDocument {
+    private final String bookId;
+    private final byte[] json;
+    private final Set<String> terms;
+}
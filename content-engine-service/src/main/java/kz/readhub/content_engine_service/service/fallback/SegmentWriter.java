@@ -0,0 +1,129 @@
+package kz.readhub.content_engine_service.service.fallback;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes an immutable segment file.
+ * <p>
+ * Layout, in order: delta/varint-encoded posting lists of document ordinals; the term dictionary sorted by
+ * UTF-8 bytes ({@code u16 length, bytes, i32 docFreq, i32 postingsOffset}); a table of term entry offsets;
+ * the stored documents ({@code u16 length, book id, i32 length, JSON}); a table of document offsets; the
+ * book ids deleted in this segment's generation; and a fixed-size footer with the section offsets.
+ * The file is written next to its target and atomically moved into place.
+ */
+final class SegmentWriter {
+
+    static final int MAGIC = 0x52485846;
+    static final int VERSION = 1;
+    static final int FOOTER_BYTES = 7 * Integer.BYTES;
+
+    private SegmentWriter() {
+    }
+
+    static void write(Path target, List<SegmentDocument> documents, Collection<String> deletes) throws IOException {
+        Map<byte[], IntArrayList> postings = new TreeMap<>(Arrays::compareUnsigned);
+        Map<String, byte[]> encodedTerms = new HashMap<>();
+        for (int ordinal = 0; ordinal < documents.size(); ordinal++) {
+            for (String term : documents.get(ordinal).getTerms()) {
+                byte[] bytes = encodedTerms.computeIfAbsent(term, value -> value.getBytes(StandardCharsets.UTF_8));
+                if (bytes.length > 0xFFFF) {
+                    continue;
+                }
+                postings.computeIfAbsent(bytes, ignored -> new IntArrayList()).add(ordinal);
+            }
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            int[] postingOffsets = new int[postings.size()];
+            int index = 0;
+            for (IntArrayList ordinals : postings.values()) {
+                postingOffsets[index++] = out.size();
+                int previous = 0;
+                for (int i = 0; i < ordinals.size(); i++) {
+                    int ordinal = ordinals.getInt(i);
+                    writeVarInt(out, ordinal - previous);
+                    previous = ordinal;
+                }
+            }
+
+            int[] termOffsets = new int[postings.size()];
+            index = 0;
+            for (Map.Entry<byte[], IntArrayList> entry : postings.entrySet()) {
+                termOffsets[index] = out.size();
+                out.writeShort(entry.getKey().length);
+                out.write(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                out.writeInt(postingOffsets[index]);
+                index++;
+            }
+
+            int termIndexOffset = out.size();
+            for (int offset : termOffsets) {
+                out.writeInt(offset);
+            }
+
+            int[] documentOffsets = new int[documents.size()];
+            for (int ordinal = 0; ordinal < documents.size(); ordinal++) {
+                SegmentDocument document = documents.get(ordinal);
+                documentOffsets[ordinal] = out.size();
+                writeString(out, document.getBookId());
+                out.writeInt(document.getJson().length);
+                out.write(document.getJson());
+            }
+
+            int documentIndexOffset = out.size();
+            for (int offset : documentOffsets) {
+                out.writeInt(offset);
+            }
+
+            int deletesOffset = out.size();
+            out.writeInt(deletes.size());
+            for (String bookId : deletes) {
+                writeString(out, bookId);
+            }
+
+            if (out.size() == Integer.MAX_VALUE) {
+                throw new IOException("Segment exceeds 2 GB: " + target);
+            }
+
+            out.writeInt(termIndexOffset);
+            out.writeInt(documentIndexOffset);
+            out.writeInt(deletesOffset);
+            out.writeInt(postings.size());
+            out.writeInt(documents.size());
+            out.writeInt(VERSION);
+            out.writeInt(MAGIC);
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
@@ -0,0 +1,97 @@
+package kz.readhub.content_engine_service.service.index;
+
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+import kz.readhub.content_engine_service.service.snapshot.Snapshottable;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every book id a dense, stable int id so in-memory structures can use primitive arrays and
+ * int-keyed maps. Ids are never reused: a deleted and re-added book gets its previous id back.
+ * <p>
+ * Every other snapshot section refers to these ids, so this one is written and restored first.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DocumentIdMap implements Snapshottable {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] bookIds = new String[1024];
+    private int size;
+
+    /**
+     * Returns the dense id of a book, or -1 when the book was never seen.
+     */
+    public int get(String bookId) {
+        Integer id = ids.get(bookId);
+        return id != null ? id : -1;
+    }
+
+    public int getOrAssign(String bookId) {
+        Integer id = ids.get(bookId);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            return ids.computeIfAbsent(bookId, this::assign);
+        }
+    }
+
+    public String bookId(int id) {
+        String[] current = bookIds;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    @Override
+    public String snapshotSection() {
+        return "document-ids";
+    }
+
+    @Override
+    public void writeSnapshot(SnapshotOutput out) throws IOException {
+        String[] current;
+        int count;
+        synchronized (this) {
+            current = bookIds;
+            count = size;
+        }
+        out.writeInt(count);
+        for (int id = 0; id < count; id++) {
+            out.writeString(current[id]);
+        }
+    }
+
+    @Override
+    public synchronized void restoreSnapshot(SnapshotInput in) throws IOException {
+        if (size > 0) {
+            throw new IllegalStateException("Document ids must be restored before any is assigned");
+        }
+        int count = in.readInt();
+        String[] restored = new String[Math.max(1024, Integer.highestOneBit(Math.max(1, count)) << 1)];
+        for (int id = 0; id < count; id++) {
+            restored[id] = in.readString();
+            ids.put(restored[id], id);
+        }
+        size = count;
+        bookIds = restored;
+    }
+
+    private int assign(String bookId) {
+        int id = size++;
+        if (id == bookIds.length) {
+            bookIds = Arrays.copyOf(bookIds, bookIds.length * 2);
+        }
+        bookIds[id] = bookId;
+        return id;
+    }
+}
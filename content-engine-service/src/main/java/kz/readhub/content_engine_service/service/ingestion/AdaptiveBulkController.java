@@ -0,0 +1,236 @@
+package kz.readhub.content_engine_service.service.ingestion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+/**
+ * Sizes CDC bulk requests and limits how many run at once, using additive-increase/multiplicative-decrease
+ * on what Elasticsearch reports back.
+ * <p>
+ * A bulk request that was rejected (429/503 items), failed, or took longer than {@code targetLatency} halves
+ * both the bulk size and the concurrency limit; at most once per {@code targetLatency}, so one overload episode
+ * counts once. A fast, full request grows the bulk size by {@code bulkSizeStep}, and every {@code limit}
+ * fast requests that had to queue for a slot raise the limit by one. Growth only happens while the current
+ * setting is actually the bottleneck, so a quiet period does not inflate them before the next catch-up.
+ * <p>
+ * {@link #isSaturated()} tells the consumer to stop fetching from Kafka: more batches are queued than can run,
+ * or Elasticsearch rejected writes within the last {@code saturationHold}.
+ */
+@Slf4j
+@Component
+public class AdaptiveBulkController {
+
+    private final ContentEngineProperties.Ingestion settings;
+    private final Counter latencyDecreases;
+    private final Counter rejectionDecreases;
+
+    private final Deque<MonoSink<Boolean>> waiters = new ArrayDeque<>();
+    private volatile int bulkSize;
+    private int limit;
+    private int inFlight;
+    private int fastSinceIncrease;
+    private long lastDecreaseNanos;
+    private volatile long lastRejectionNanos;
+    private volatile double averageLatencyMillis;
+
+    public AdaptiveBulkController(ContentEngineProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getIngestion();
+        this.bulkSize = settings.isAdaptive()
+                ? clamp(settings.getBulkSize(), settings.getMinBulkSize(), settings.getMaxBulkSize())
+                : settings.getBulkSize();
+        this.limit = clamp(settings.getInitialConcurrency(), 1, settings.getMaxConcurrency());
+        this.lastDecreaseNanos = System.nanoTime();
+        this.lastRejectionNanos = System.nanoTime() - settings.getSaturationHold().toNanos();
+
+        this.latencyDecreases = meterRegistry.counter("content.ingestion.adaptive.decreases", "reason", "latency");
+        this.rejectionDecreases = meterRegistry.counter("content.ingestion.adaptive.decreases", "reason", "rejection");
+        Gauge.builder("content.ingestion.adaptive.bulk.size", this, controller -> controller.bulkSize)
+                .description("Current target size of CDC bulk requests")
+                .register(meterRegistry);
+        Gauge.builder("content.ingestion.adaptive.concurrency", this, AdaptiveBulkController::limit)
+                .description("Current limit on concurrent CDC bulk requests")
+                .register(meterRegistry);
+        Gauge.builder("content.ingestion.adaptive.inflight", this, AdaptiveBulkController::inFlight)
+                .description("CDC bulk requests in flight")
+                .register(meterRegistry);
+        Gauge.builder("content.ingestion.adaptive.waiting", this, AdaptiveBulkController::waiting)
+                .description("CDC bulk requests waiting for a slot")
+                .register(meterRegistry);
+        Gauge.builder("content.ingestion.adaptive.latency", this, controller -> controller.averageLatencyMillis)
+                .description("Moving average of CDC bulk latency")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Changes per bulk request right now.
+     */
+    public int bulkSize() {
+        return bulkSize;
+    }
+
+    /**
+     * Largest batch worth buffering per partition; batches are cut to {@link #bulkSize()} when sent.
+     */
+    public int maxBatchSize() {
+        return settings.isAdaptive() ? settings.getMaxBulkSize() : settings.getBulkSize();
+    }
+
+    /**
+     * Runs a bulk request once a slot is free and feeds its latency and rejections back into the limits.
+     */
+    public Mono<BulkResult> execute(Supplier<Mono<BulkResult>> request, int documents) {
+        if (!settings.isAdaptive()) {
+            return Mono.defer(request);
+        }
+
+        return Mono.usingWhen(
+                acquire(),
+                queued -> {
+                    long start = System.nanoTime();
+                    return Mono.defer(request)
+                            .doOnSuccess(result -> onCompleted(System.nanoTime() - start, documents, result, queued))
+                            .doOnError(error -> onFailed());
+                },
+                queued -> Mono.fromRunnable(this::release),
+                (queued, error) -> Mono.fromRunnable(this::release),
+                queued -> Mono.fromRunnable(this::release));
+    }
+
+    public boolean isSaturated() {
+        if (!settings.isAdaptive()) {
+            return false;
+        }
+        if (System.nanoTime() - lastRejectionNanos < settings.getSaturationHold().toNanos()) {
+            return true;
+        }
+        synchronized (this) {
+            return waiters.size() > limit;
+        }
+    }
+
+    /**
+     * Completes with {@code true} when the request had to queue for its slot.
+     */
+    private Mono<Boolean> acquire() {
+        return Mono.create(sink -> {
+            boolean granted;
+            synchronized (this) {
+                granted = inFlight < limit;
+                if (granted) {
+                    inFlight++;
+                } else {
+                    waiters.addLast(sink);
+                }
+            }
+            if (granted) {
+                sink.success(false);
+            } else {
+                sink.onCancel(() -> {
+                    boolean removed;
+                    synchronized (this) {
+                        removed = waiters.remove(sink);
+                    }
+                    if (!removed) {
+                        // granted concurrently with the cancel; usingWhen will not release it
+                        release();
+                    }
+                });
+            }
+        });
+    }
+
+    private void release() {
+        MonoSink<Boolean> next = null;
+        synchronized (this) {
+            inFlight--;
+            if (inFlight < limit && !waiters.isEmpty()) {
+                inFlight++;
+                next = waiters.pollFirst();
+            }
+        }
+        if (next != null) {
+            next.success(true);
+        }
+    }
+
+    private void onCompleted(long latencyNanos, int documents, BulkResult result, boolean queued) {
+        double latencyMillis = latencyNanos / 1_000_000.0;
+        averageLatencyMillis = averageLatencyMillis == 0 ? latencyMillis : 0.8 * averageLatencyMillis + 0.2 * latencyMillis;
+
+        if (result != null && result.getRejected() > 0) {
+            lastRejectionNanos = System.nanoTime();
+            decrease(rejectionDecreases, "rejections");
+        } else if (latencyNanos > settings.getTargetLatency().toNanos()) {
+            decrease(latencyDecreases, "latency");
+        } else {
+            increase(documents >= bulkSize, queued);
+        }
+    }
+
+    private void onFailed() {
+        lastRejectionNanos = System.nanoTime();
+        decrease(rejectionDecreases, "failure");
+    }
+
+    private void decrease(Counter counter, String reason) {
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - lastDecreaseNanos < settings.getTargetLatency().toNanos()) {
+                return;
+            }
+            lastDecreaseNanos = now;
+            bulkSize = Math.max(settings.getMinBulkSize(), (int) (bulkSize * settings.getDecreaseFactor()));
+            limit = Math.max(1, (int) (limit * settings.getDecreaseFactor()));
+            fastSinceIncrease = 0;
+        }
+        counter.increment();
+        log.info("Backing off CDC bulk writes on {}: bulk size {}, concurrency {}", reason, bulkSize, limit());
+    }
+
+    private void increase(boolean fullBatch, boolean queued) {
+        MonoSink<Boolean> next = null;
+        synchronized (this) {
+            if (fullBatch) {
+                bulkSize = Math.min(settings.getMaxBulkSize(), bulkSize + settings.getBulkSizeStep());
+            }
+            if (queued && ++fastSinceIncrease >= limit && limit < settings.getMaxConcurrency()) {
+                limit++;
+                fastSinceIncrease = 0;
+                if (inFlight < limit && !waiters.isEmpty()) {
+                    inFlight++;
+                    next = waiters.pollFirst();
+                }
+            }
+        }
+        if (next != null) {
+            next.success(true);
+        }
+    }
+
+    private synchronized int limit() {
+        return limit;
+    }
+
+    private synchronized int inFlight() {
+        return inFlight;
+    }
+
+    private synchronized int waiting() {
+        return waiters.size();
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
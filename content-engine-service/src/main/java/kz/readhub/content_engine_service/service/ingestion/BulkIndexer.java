@@ -0,0 +1,194 @@
+package kz.readhub.content_engine_service.service.ingestion;
+
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.constant.ElasticIndices;
+import kz.readhub.content_engine_service.exception.ContentEngineException;
+import kz.readhub.content_engine_service.model.BookChange;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes book changes to Elasticsearch as bulk requests.
+ * Whole requests are retried on transport failures; items rejected with 429/503 are retried individually,
+ * any other item failure is logged, counted and reported by book id.
+ * <p>
+ * Documents carrying a source version are written with external versioning, so a replayed or out-of-order
+ * change is rejected with a version conflict, which is treated as success. While a shadow index is set,
+ * every change to the books alias is also written to it in the same bulk request.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkIndexer {
+
+    private final ReactiveElasticsearchClient elasticsearchClient;
+    private final ContentEngineProperties properties;
+
+    private volatile String shadowIndex;
+    private final Map<String, BookChange> shadowDeletes = new ConcurrentHashMap<>();
+
+    public Mono<BulkResult> index(List<BookChange> changes) {
+        String shadow = shadowIndex;
+        if (shadow == null || changes.isEmpty()) {
+            return index(ElasticIndices.BOOKS, changes);
+        }
+
+        List<String> indices = new ArrayList<>(changes.size() * 2);
+        List<BookChange> targets = new ArrayList<>(changes.size() * 2);
+        for (BookChange change : changes) {
+            if (change.isDelete()) {
+                shadowDeletes.put(change.getBookId(), change);
+            }
+            indices.add(ElasticIndices.BOOKS);
+            targets.add(change);
+            indices.add(shadow);
+            targets.add(change);
+        }
+        return execute(ElasticIndices.BOOKS, indices, targets, 0);
+    }
+
+    public Mono<BulkResult> index(String index, List<BookChange> changes) {
+        if (changes.isEmpty()) {
+            return Mono.just(BulkResult.empty());
+        }
+        return execute(index, Collections.nCopies(changes.size(), index), changes, 0);
+    }
+
+    /**
+     * Starts mirroring every change written through {@link #index(List)} into the given index.
+     */
+    public void startShadowWrites(String index) {
+        shadowIndex = index;
+        log.info("Mirroring indexed changes into '{}'", index);
+    }
+
+    public void stopShadowWrites() {
+        if (shadowIndex != null) {
+            log.info("Stopped mirroring indexed changes into '{}'", shadowIndex);
+            shadowIndex = null;
+        }
+    }
+
+    /**
+     * Returns and forgets the latest delete per book mirrored since shadow writes started.
+     */
+    public List<BookChange> drainShadowDeletes() {
+        List<BookChange> deletes = new ArrayList<>(shadowDeletes.values());
+        deletes.forEach(change -> shadowDeletes.remove(change.getBookId(), change));
+        return deletes;
+    }
+
+    /**
+     * Writes every change to the index beside it; only failures in {@code primary} are reported by book id,
+     * a failed mirror write is left to the reindex that uses the mirror.
+     */
+    private Mono<BulkResult> execute(String primary, List<String> indices, List<BookChange> changes, int attempt) {
+        ContentEngineProperties.Ingestion ingestion = properties.getIngestion();
+
+        return Mono.defer(() -> elasticsearchClient.bulk(toRequest(indices, changes)))
+                .retryWhen(Retry.backoff(ingestion.getMaxRetries(), ingestion.getRetryBackoff())
+                        .doBeforeRetry(signal -> log.warn("Bulk request to '{}' failed, retrying: {}",
+                                indices.get(0), signal.failure().getMessage())))
+                .flatMap(response -> {
+                    List<String> retryableIndices = new ArrayList<>();
+                    List<BookChange> retryable = new ArrayList<>();
+                    Map<String, String> failures = new HashMap<>();
+                    int failed = collectFailures(response, primary, indices, changes, retryableIndices, retryable,
+                            failures);
+                    BulkResult result = new BulkResult(changes.size() - retryable.size() - failed, failed,
+                            response.took(), retryable.size(), failures);
+
+                    if (retryable.isEmpty()) {
+                        return Mono.just(result);
+                    }
+                    if (attempt >= ingestion.getMaxRetries()) {
+                        return Mono.error(new ContentEngineException(
+                                "Bulk items still rejected after " + attempt + " retries: " + retryable.size()));
+                    }
+
+                    Duration backoff = ingestion.getRetryBackoff().multipliedBy(1L << Math.min(attempt, 10));
+                    return Mono.delay(backoff)
+                            .then(execute(primary, retryableIndices, retryable, attempt + 1))
+                            .map(result::plus);
+                });
+    }
+
+    private int collectFailures(BulkResponse response, String primary, List<String> indices, List<BookChange> changes,
+                                List<String> retryableIndices, List<BookChange> retryable,
+                                Map<String, String> failures) {
+        if (!response.errors()) {
+            return 0;
+        }
+
+        int failed = 0;
+        List<BulkResponseItem> items = response.items();
+        for (int i = 0; i < items.size(); i++) {
+            BulkResponseItem item = items.get(i);
+            if (item.error() == null) {
+                continue;
+            }
+            if (item.status() == 409) {
+                log.debug("Skipped stale change for book {} in '{}'", item.id(), item.index());
+            } else if (isRetryable(item.status())) {
+                retryableIndices.add(indices.get(i));
+                retryable.add(changes.get(i));
+            } else {
+                failed++;
+                log.error("Failed to index book {} in '{}': {}", item.id(), item.index(), item.error().reason());
+                if (indices.get(i).equals(primary)) {
+                    failures.put(changes.get(i).getBookId(), item.error().type() + ": " + item.error().reason());
+                }
+            }
+        }
+        return failed;
+    }
+
+    private boolean isRetryable(int status) {
+        return status == 429 || status == 503;
+    }
+
+    private BulkRequest toRequest(List<String> indices, List<BookChange> changes) {
+        List<BulkOperation> operations = new ArrayList<>(changes.size());
+        for (int i = 0; i < changes.size(); i++) {
+            operations.add(toOperation(indices.get(i), changes.get(i)));
+        }
+        return BulkRequest.of(bulk -> bulk.operations(operations));
+    }
+
+    private BulkOperation toOperation(String index, BookChange change) {
+        Long version = change.getDocument() != null ? change.getDocument().getVersion() : null;
+        if (change.isDelete()) {
+            return BulkOperation.of(op -> op.delete(delete -> {
+                delete.index(index).id(change.getBookId());
+                if (version != null) {
+                    delete.version(version).versionType(VersionType.External);
+                }
+                return delete;
+            }));
+        }
+        return BulkOperation.of(op -> op.index(doc -> {
+            doc.index(index).id(change.getBookId()).document(change.getDocument());
+            if (version != null) {
+                doc.version(version).versionType(VersionType.External);
+            }
+            return doc;
+        }));
+    }
+}
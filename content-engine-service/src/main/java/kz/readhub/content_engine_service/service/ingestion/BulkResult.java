@@ -0,0 +1,37 @@
+package kz.readhub.content_engine_service.service.ingestion;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk write. {@code rejected} counts item rejections with 429/503 that were retried,
+ * over all attempts; those items end up in {@code succeeded} or {@code failed} like any other.
+ * {@code failures} maps the book id of every failed write to the primary index to its error reason.
+ */
+@Data
+@AllArgsConstructor
+public class BulkResult {
+
+    private int succeeded;
+    private int failed;
+    private long tookMillis;
+    private int rejected;
+    private Map<String, String> failures;
+
+    public static BulkResult empty() {
+        return new BulkResult(0, 0, 0, 0, Map.of());
+    }
+
+    public BulkResult plus(BulkResult other) {
+        Map<String, String> merged = failures;
+        if (!other.failures.isEmpty()) {
+            merged = new HashMap<>(failures);
+            merged.putAll(other.failures);
+        }
+        return new BulkResult(succeeded + other.succeeded, failed + other.failed,
+                tookMillis + other.tookMillis, rejected + other.rejected, merged);
+    }
+}
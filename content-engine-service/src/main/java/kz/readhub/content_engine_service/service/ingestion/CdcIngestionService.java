@@ -0,0 +1,362 @@
+package kz.readhub.content_engine_service.service.ingestion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import kz.readhub.book_management_service.avro.BookEvent;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.mapper.BookEventMapper;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.service.embedding.EmbeddingService;
+import kz.readhub.content_engine_service.service.trending.TrendingService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.GroupedFlux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverPartition;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Consumes the book CDC topic and keeps the Elasticsearch index in sync.
+ * <p>
+ * Records are grouped by partition: each partition is processed sequentially, preserving per-book order,
+ * while partitions run in parallel. Every partition batches its records into bulk requests bounded by
+ * size and time, and an offset is acknowledged only after the bulk request containing it succeeded.
+ * Changes Elasticsearch refuses for good are sent to the dead-letter topic before their batch is
+ * acknowledged, and only changes it accepted, or rejected as stale, reach the {@link IngestionListener}s.
+ * A partition's group completes when the partition is revoked, so the groups in flight follow the current
+ * assignment however often the consumer group rebalances.
+ * <p>
+ * Bulk size and the number of bulk requests in flight across partitions follow {@link AdaptiveBulkController};
+ * while it reports Elasticsearch as saturated, fetching from Kafka is paused.
+ * <p>
+ * Applied offsets are tracked in {@link IngestionCheckpoint}, which also seeks every assigned partition to
+ * the offset this instance has applied it up to, starting from the offsets of a restored snapshot.
+ */
+@Slf4j
+@Service
+public class CdcIngestionService {
+
+    private final ReceiverOptions<String, BookEvent> receiverOptions;
+    private final BookEventMapper bookEventMapper;
+    private final EmbeddingService embeddingService;
+    private final TrendingService trendingService;
+    private final AdaptiveBulkController bulkController;
+    private final BulkIndexer bulkIndexer;
+    private final DeadLetterPublisher deadLetterPublisher;
+    private final IngestionCheckpoint checkpoint;
+    private final ObjectProvider<IngestionListener> listeners;
+    private final ContentEngineProperties properties;
+
+    private final Counter upsertCounter;
+    private final Counter deleteCounter;
+    private final Counter failureCounter;
+    private final Timer bulkTimer;
+
+    private Scheduler scheduler;
+    private Disposable subscription;
+    private Disposable flowControl;
+    private volatile KafkaReceiver<String, BookEvent> receiver;
+    private final Set<TopicPartition> pausedPartitions = ConcurrentHashMap.newKeySet();
+    private final Map<TopicPartition, Sinks.One<TopicPartition>> revocations = new ConcurrentHashMap<>();
+
+    public CdcIngestionService(ReceiverOptions<String, BookEvent> receiverOptions,
+                               BookEventMapper bookEventMapper,
+                               EmbeddingService embeddingService,
+                               TrendingService trendingService,
+                               AdaptiveBulkController bulkController,
+                               BulkIndexer bulkIndexer,
+                               DeadLetterPublisher deadLetterPublisher,
+                               IngestionCheckpoint checkpoint,
+                               ObjectProvider<IngestionListener> listeners,
+                               ContentEngineProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.receiverOptions = receiverOptions;
+        this.bookEventMapper = bookEventMapper;
+        this.embeddingService = embeddingService;
+        this.trendingService = trendingService;
+        this.bulkController = bulkController;
+        this.bulkIndexer = bulkIndexer;
+        this.deadLetterPublisher = deadLetterPublisher;
+        this.checkpoint = checkpoint;
+        this.listeners = listeners;
+        this.properties = properties;
+        this.upsertCounter = meterRegistry.counter("content.ingestion.documents", "operation", "upsert");
+        this.deleteCounter = meterRegistry.counter("content.ingestion.documents", "operation", "delete");
+        this.failureCounter = meterRegistry.counter("content.ingestion.documents", "operation", "failed");
+        this.bulkTimer = Timer.builder("content.ingestion.bulk")
+                .description("Latency of acknowledged bulk requests")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("content.ingestion.paused.partitions", pausedPartitions, Set::size)
+                .description("Partitions paused while Elasticsearch is saturated")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ContentEngineProperties.Ingestion ingestion = properties.getIngestion();
+        if (!ingestion.isEnabled()) {
+            log.info("CDC ingestion is disabled");
+            return;
+        }
+
+        scheduler = Schedulers.newParallel("cdc-ingestion", Runtime.getRuntime().availableProcessors());
+        ReceiverOptions<String, BookEvent> options = receiverOptions
+                .addAssignListener(this::onAssigned)
+                .addRevokeListener(this::onRevoked);
+        subscription = Flux.defer(() -> {
+                    receiver = KafkaReceiver.create(options);
+                    pausedPartitions.clear();
+                    revocations.clear();
+                    return receiver.receive();
+                })
+                .transform(this::process)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("CDC ingestion failed, restarting from committed offsets: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+
+        if (ingestion.isAdaptive()) {
+            Duration interval = ingestion.getSaturationCheckInterval();
+            flowControl = Flux.interval(interval, interval)
+                    .onBackpressureDrop()
+                    .concatMap(tick -> applyFlowControl())
+                    .subscribe();
+        }
+
+        log.info("CDC ingestion started with bulk size {} and max wait {}",
+                ingestion.getBulkSize(), ingestion.getBulkMaxWait());
+    }
+
+    /**
+     * Pauses every assigned partition while Elasticsearch is saturated and resumes them once it is not.
+     * Only partitions paused here are resumed; the receiver's own back-pressure pauses are left alone.
+     */
+    private Mono<Void> applyFlowControl() {
+        KafkaReceiver<String, BookEvent> current = receiver;
+        if (current == null) {
+            return Mono.empty();
+        }
+
+        boolean saturated = bulkController.isSaturated();
+        if (saturated == !pausedPartitions.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return current.doOnConsumer(consumer -> {
+                    if (saturated) {
+                        Set<TopicPartition> assigned = consumer.assignment();
+                        consumer.pause(assigned);
+                        pausedPartitions.addAll(assigned);
+                        log.info("Paused CDC consumption of {} partitions while Elasticsearch is saturated", assigned.size());
+                    } else {
+                        Set<TopicPartition> resumable = new HashSet<>(pausedPartitions);
+                        resumable.retainAll(consumer.assignment());
+                        consumer.resume(resumable);
+                        pausedPartitions.clear();
+                        log.info("Resumed CDC consumption");
+                    }
+                    return saturated;
+                })
+                .onErrorResume(error -> {
+                    log.warn("Failed to {} CDC consumption: {}", saturated ? "pause" : "resume", error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flowControl != null) {
+            flowControl.dispose();
+        }
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+    }
+
+    /**
+     * Indexes received records partition by partition. Groups are bounded by the assignment rather than by a
+     * concurrency limit: each one completes when its partition is revoked.
+     */
+    Flux<BulkResult> process(Flux<ReceiverRecord<String, BookEvent>> records) {
+        return records
+                .groupBy(record -> record.receiverOffset().topicPartition())
+                .flatMap(this::processPartition, Integer.MAX_VALUE);
+    }
+
+    void onAssigned(Collection<ReceiverPartition> partitions) {
+        for (ReceiverPartition partition : partitions) {
+            revocations.put(partition.topicPartition(), Sinks.one());
+            checkpoint.position(partition);
+        }
+    }
+
+    void onRevoked(Collection<ReceiverPartition> partitions) {
+        for (ReceiverPartition partition : partitions) {
+            Sinks.One<TopicPartition> revoked = revocations.remove(partition.topicPartition());
+            if (revoked != null) {
+                revoked.tryEmitValue(partition.topicPartition());
+            }
+        }
+    }
+
+    /**
+     * Batches and indexes one partition until it is revoked; records already buffered are still indexed.
+     * Records fetched before a revocation that reach a new group are dropped, the next owner reads them again.
+     * <p>
+     * The buffer uses fair back-pressure: {@code concatMap} requests the next batch only once the previous
+     * one is indexed, and a max-wait timeout that fires during a slow bulk request must hold its batch
+     * until then rather than fail the stream.
+     */
+    private Flux<BulkResult> processPartition(GroupedFlux<TopicPartition, ReceiverRecord<String, BookEvent>> partition) {
+        Sinks.One<TopicPartition> revoked = revocations.get(partition.key());
+        if (revoked == null) {
+            log.debug("Dropping records of revoked partition {}", partition.key());
+            return partition.take(0).thenMany(Flux.empty());
+        }
+
+        ContentEngineProperties.Ingestion ingestion = properties.getIngestion();
+        log.info("Processing partition {}", partition.key());
+
+        return partition
+                .takeUntilOther(revoked.asMono())
+                .publishOn(scheduler)
+                .bufferTimeout(bulkController.maxBatchSize(), ingestion.getBulkMaxWait(), true)
+                .concatMap(records -> indexBatch(partition.key(), records))
+                .doOnComplete(() -> log.info("Stopped processing revoked partition {}", partition.key()));
+    }
+
+    /**
+     * Writes a buffered batch as bulk requests of the controller's current size, one after another so
+     * per-book order holds, and acknowledges the batch's last offset once all of them succeeded and the
+     * records of failed changes are dead-lettered.
+     */
+    private Mono<BulkResult> indexBatch(TopicPartition partition, List<ReceiverRecord<String, BookEvent>> records) {
+        Map<String, ConsumerRecord<String, BookEvent>> sources = new HashMap<>();
+        List<BookChange> changes = collapse(records, sources);
+        trendingService.annotate(changes);
+
+        int chunkSize = bulkController.bulkSize();
+        List<List<BookChange>> chunks = new ArrayList<>();
+        for (int from = 0; from < changes.size(); from += chunkSize) {
+            chunks.add(changes.subList(from, Math.min(changes.size(), from + chunkSize)));
+        }
+
+        return Flux.fromIterable(chunks)
+                .concatMap(this::indexChunk)
+                .reduce(BulkResult.empty(), BulkResult::plus)
+                .flatMap(result -> deadLetter(result, sources).thenReturn(result))
+                .doOnSuccess(result -> {
+                    ReceiverOffset last = records.get(records.size() - 1).receiverOffset();
+                    checkpoint.applied(partition, last.offset() + 1);
+                    last.acknowledge();
+                    log.debug("Indexed {} changes from {} in {} requests ({} failed)",
+                            changes.size(), partition, chunks.size(), result.getFailed());
+                });
+    }
+
+    private Mono<BulkResult> indexChunk(List<BookChange> chunk) {
+        return embeddingService.embed(chunk)
+                .flatMap(embedded -> bulkController.execute(() -> {
+                    Timer.Sample sample = Timer.start();
+                    return bulkIndexer.index(embedded)
+                            .doOnSuccess(result -> sample.stop(bulkTimer));
+                }, embedded.size()))
+                .doOnSuccess(result -> {
+                    recordMetrics(chunk, result);
+                    notifyListeners(accepted(chunk, result));
+                });
+    }
+
+    private static List<BookChange> accepted(List<BookChange> chunk, BulkResult result) {
+        if (result.getFailures().isEmpty()) {
+            return chunk;
+        }
+        return chunk.stream()
+                .filter(change -> !result.getFailures().containsKey(change.getBookId()))
+                .toList();
+    }
+
+    private Mono<Void> deadLetter(BulkResult result, Map<String, ConsumerRecord<String, BookEvent>> sources) {
+        Map<String, ConsumerRecord<String, BookEvent>> failed = new LinkedHashMap<>();
+        for (String bookId : result.getFailures().keySet()) {
+            failed.put(bookId, sources.get(bookId));
+        }
+        return deadLetterPublisher.publish(failed, result.getFailures());
+    }
+
+    /**
+     * Keeps only the latest change per book within a batch, in the order of its last occurrence, stamped
+     * with its record's timestamp; {@code sources} receives the record each kept change came from.
+     */
+    private List<BookChange> collapse(List<ReceiverRecord<String, BookEvent>> records,
+                                      Map<String, ConsumerRecord<String, BookEvent>> sources) {
+        Map<String, BookChange> latest = new LinkedHashMap<>();
+        for (ReceiverRecord<String, BookEvent> record : records) {
+            BookChange change = bookEventMapper.toChange(record.value());
+            if (change != null) {
+                if (record.timestamp() >= 0) {
+                    change.setTimestamp(Instant.ofEpochMilli(record.timestamp()));
+                }
+                latest.remove(change.getBookId());
+                latest.put(change.getBookId(), change);
+                sources.put(change.getBookId(), record);
+            }
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    private void notifyListeners(List<BookChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        checkpoint.apply(() -> listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onIndexed(changes);
+            } catch (RuntimeException e) {
+                log.error("Ingestion listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }));
+    }
+
+    private void recordMetrics(List<BookChange> changes, BulkResult result) {
+        long deletes = changes.stream().filter(BookChange::isDelete).count();
+        deleteCounter.increment(deletes);
+        upsertCounter.increment(changes.size() - deletes);
+        failureCounter.increment(result.getFailed());
+    }
+}
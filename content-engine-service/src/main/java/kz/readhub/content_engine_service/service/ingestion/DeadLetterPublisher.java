@@ -0,0 +1,74 @@
+package kz.readhub.content_engine_service.service.ingestion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import kz.readhub.book_management_service.avro.BookEvent;
+import kz.readhub.content_engine_service.constant.KafkaTopics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.SenderRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Sends CDC records whose change Elasticsearch refused for good to {@link KafkaTopics#BOOK_CDC_DEAD_LETTERS},
+ * unchanged, with the error and the source position in headers, so they can be inspected and replayed once
+ * the cause is fixed. {@code content.ingestion.dead.letters} counts them for alerting.
+ */
+@Slf4j
+@Component
+public class DeadLetterPublisher {
+
+    static final String REASON_HEADER = "dlq.reason";
+    static final String SOURCE_HEADER = "dlq.source";
+
+    private final KafkaSender<String, BookEvent> sender;
+    private final Counter deadLetterCounter;
+
+    public DeadLetterPublisher(SenderOptions<String, BookEvent> senderOptions, MeterRegistry meterRegistry) {
+        this.sender = KafkaSender.create(senderOptions);
+        this.deadLetterCounter = meterRegistry.counter("content.ingestion.dead.letters");
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.close();
+    }
+
+    /**
+     * Completes once every record is written to the dead-letter topic; {@code reasons} maps book ids to errors.
+     */
+    public Mono<Void> publish(Map<String, ConsumerRecord<String, BookEvent>> records, Map<String, String> reasons) {
+        if (records.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return sender.send(Flux.fromIterable(records.entrySet())
+                        .map(entry -> SenderRecord.create(toDeadLetter(entry.getValue(), reasons.get(entry.getKey())),
+                                entry.getKey())))
+                .doOnNext(result -> {
+                    deadLetterCounter.increment();
+                    log.warn("Dead-lettered change of book {}: {}", result.correlationMetadata(),
+                            reasons.get(result.correlationMetadata()));
+                })
+                .then();
+    }
+
+    private static ProducerRecord<String, BookEvent> toDeadLetter(ConsumerRecord<String, BookEvent> record,
+                                                                  String reason) {
+        ProducerRecord<String, BookEvent> deadLetter = new ProducerRecord<>(KafkaTopics.BOOK_CDC_DEAD_LETTERS,
+                record.key(), record.value());
+        deadLetter.headers().add(REASON_HEADER, String.valueOf(reason).getBytes(StandardCharsets.UTF_8));
+        deadLetter.headers().add(SOURCE_HEADER, (record.topic() + "-" + record.partition() + "@" + record.offset())
+                .getBytes(StandardCharsets.UTF_8));
+        return deadLetter;
+    }
+}
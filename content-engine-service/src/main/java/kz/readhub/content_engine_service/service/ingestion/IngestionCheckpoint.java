@@ -0,0 +1,93 @@
+package kz.readhub.content_engine_service.service.ingestion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Component;
+import reactor.kafka.receiver.ReceiverPartition;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Kafka offsets up to which {@link IngestionListener}s have applied the CDC topic, and the offsets
+ * consumption starts from after a restart.
+ * <p>
+ * Listeners are notified under the read side of a lock and snapshots hold the write side, so a snapshot
+ * never sees a chunk half applied. Offsets advance once a whole batch is applied: a snapshot taken between
+ * the chunks of a batch records the offset before it, and replaying the batch re-applies changes the
+ * snapshot already holds, which listeners handle like any repeated upsert or delete.
+ * <p>
+ * Every instance of the consumer group keeps its own in-memory state, so a partition is always resumed
+ * from the offset this instance applied, never from the group's committed offset: while the partition was
+ * assigned elsewhere another member may have committed past records that were never applied here.
+ * Re-reading them costs a replay of the partition's tail; Elasticsearch rejects the repeated writes as stale.
+ */
+@Slf4j
+@Component
+public class IngestionCheckpoint {
+
+    private final ReadWriteLock gate = new ReentrantReadWriteLock();
+    private final Map<TopicPartition, Long> applied = new ConcurrentHashMap<>();
+    private volatile boolean replayUncovered;
+
+    /**
+     * Starts consumption from restored offsets; partitions without one are read from the beginning of the
+     * topic when {@code replayUncovered} is set and from the committed offset otherwise.
+     */
+    public void resumeFrom(Map<TopicPartition, Long> offsets, boolean replayUncovered) {
+        applied.putAll(offsets);
+        this.replayUncovered = replayUncovered;
+    }
+
+    /**
+     * Blocks listener notifications and returns the offsets the current in-memory state covers.
+     * The caller must {@link #release()} on the same thread.
+     */
+    public Map<TopicPartition, Long> hold() {
+        gate.writeLock().lock();
+        return Map.copyOf(applied);
+    }
+
+    public void release() {
+        gate.writeLock().unlock();
+    }
+
+    void apply(Runnable notification) {
+        gate.readLock().lock();
+        try {
+            notification.run();
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records that every record of the partition before {@code nextOffset} has been applied.
+     */
+    void applied(TopicPartition partition, long nextOffset) {
+        applied.merge(partition, nextOffset, Math::max);
+    }
+
+    /**
+     * Seeks an assigned partition to the offset the in-memory state has applied it up to. A partition this
+     * process has no offset for yet is read from the beginning when {@code replayUncovered} is set and from
+     * the committed offset otherwise, and that starting position is remembered for later assignments.
+     */
+    void position(ReceiverPartition partition) {
+        TopicPartition topicPartition = partition.topicPartition();
+        Long offset = applied.get(topicPartition);
+        if (offset != null) {
+            partition.seek(offset);
+            log.info("Resuming {} from applied offset {}", topicPartition, offset);
+            return;
+        }
+
+        if (replayUncovered) {
+            partition.seekToBeginning();
+            log.info("Replaying {} from the beginning, no snapshot covers it", topicPartition);
+        }
+        applied.putIfAbsent(topicPartition, partition.position());
+    }
+}
@@ -0,0 +1,14 @@
+package kz.readhub.content_engine_service.service.ingestion;
+
+import kz.readhub.content_engine_service.model.BookChange;
+
+import java.util.List;
+
+/**
+ * Callback for in-memory structures that follow the index.
+ * Invoked after a bulk request has been acknowledged, in partition order, before offsets are committed.
+ */
+public interface IngestionListener {
+
+    void onIndexed(List<BookChange> changes);
+}
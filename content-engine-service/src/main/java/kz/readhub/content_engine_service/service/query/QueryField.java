@@ -0,0 +1,94 @@
+package kz.readhub.content_engine_service.service.query;
+
+import kz.readhub.content_engine_service.model.Author;
+import kz.readhub.content_engine_service.model.BookDocument;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fields addressable in the query language, with the index field each one maps to.
+ */
+public enum QueryField {
+
+    AUTHOR("author", "authors.name.keyword", Kind.KEYWORD),
+    TAG("tag", "tags", Kind.KEYWORD),
+    CATEGORY("category", "categories", Kind.KEYWORD),
+    LANGUAGE("language", "language", Kind.KEYWORD),
+    TITLE("title", "title", Kind.TEXT),
+    RATING("rating", "averageRating", Kind.NUMBER),
+    REVIEWS("reviews", "reviewCount", Kind.NUMBER),
+    DOWNLOADS("downloads", "downloadCount", Kind.NUMBER);
+
+    enum Kind {
+        KEYWORD, TEXT, NUMBER
+    }
+
+    private static final Map<String, QueryField> BY_NAME = Map.ofEntries(
+            Map.entry("author", AUTHOR), Map.entry("authors", AUTHOR),
+            Map.entry("tag", TAG), Map.entry("tags", TAG),
+            Map.entry("category", CATEGORY), Map.entry("categories", CATEGORY),
+            Map.entry("lang", LANGUAGE), Map.entry("language", LANGUAGE),
+            Map.entry("title", TITLE),
+            Map.entry("rating", RATING),
+            Map.entry("reviews", REVIEWS),
+            Map.entry("downloads", DOWNLOADS));
+
+    private final String queryName;
+    private final String indexField;
+    private final Kind kind;
+
+    QueryField(String name, String indexField, Kind kind) {
+        this.queryName = name;
+        this.indexField = indexField;
+        this.kind = kind;
+    }
+
+    /**
+     * The field written as {@code name} in a query, or {@code null} when there is none.
+     */
+    static QueryField of(String name) {
+        return BY_NAME.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    String queryName() {
+        return queryName;
+    }
+
+    String indexField() {
+        return indexField;
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Canonical form of a value: trimmed, inner whitespace collapsed, analyzed text and languages lower-cased.
+     */
+    String normalize(String value) {
+        String normalized = value.trim().replaceAll("\\s+", " ");
+        return this == LANGUAGE || kind == Kind.TEXT ? normalized.toLowerCase(Locale.ROOT) : normalized;
+    }
+
+    List<String> keywordValues(BookDocument document) {
+        return switch (this) {
+            case AUTHOR -> document.getAuthors() == null ? List.of()
+                    : document.getAuthors().stream().map(Author::getName).toList();
+            case TAG -> document.getTags() != null ? document.getTags() : List.of();
+            case CATEGORY -> document.getCategories() != null ? document.getCategories() : List.of();
+            case LANGUAGE -> document.getLanguage() != null ? List.of(document.getLanguage()) : List.of();
+            default -> List.of();
+        };
+    }
+
+    double numberValue(BookDocument document) {
+        return switch (this) {
+            case RATING -> document.getAverageRating();
+            case REVIEWS -> document.getReviewCount();
+            case DOWNLOADS -> document.getDownloadCount();
+            default -> throw new IllegalStateException(queryName + " is not numeric");
+        };
+    }
+}
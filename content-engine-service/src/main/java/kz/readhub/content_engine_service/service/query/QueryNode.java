@@ -0,0 +1,611 @@
+package kz.readhub.content_engine_service.service.query;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import kz.readhub.content_engine_service.model.Author;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.service.search.BookQueryBuilder;
+import kz.readhub.content_engine_service.util.Tokenizer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable syntax tree of a parsed query. Nodes are equal when their canonical forms are, and
+ * {@link #normalize()} rewrites a tree so that equivalent queries end up with the same canonical form.
+ */
+abstract class QueryNode {
+
+    private String canonical;
+
+    /**
+     * Unambiguous rendering of the node; children of {@code AND} and {@code OR} appear in sorted order.
+     */
+    final String canonical() {
+        if (canonical == null) {
+            canonical = render();
+        }
+        return canonical;
+    }
+
+    protected abstract String render();
+
+    QueryNode normalize() {
+        return this;
+    }
+
+    /**
+     * Whether the node contributes to the relevance score rather than only filtering.
+     */
+    abstract boolean scoring();
+
+    abstract Query toQuery();
+
+    abstract boolean matches(BookDocument document, DocumentTerms terms);
+
+    /**
+     * Values at least one of which every matching book contains, or {@code null} when no such set exists.
+     */
+    abstract Set<QueryPlan.Anchor> anchors();
+
+    @Override
+    public final boolean equals(Object other) {
+        return other instanceof QueryNode node && canonical().equals(node.canonical());
+    }
+
+    @Override
+    public final int hashCode() {
+        return canonical().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return canonical();
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private static Set<QueryPlan.Anchor> textAnchors(String text) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        Set<QueryPlan.Anchor> anchors = new HashSet<>();
+        tokens.forEach(token -> anchors.add(new QueryPlan.Anchor(null, token)));
+        return anchors;
+    }
+
+    /**
+     * Bare words, matched like the free-text {@code query}: a book matches when it contains any of them.
+     */
+    static final class Words extends QueryNode {
+
+        private final List<String> words;
+
+        Words(Collection<String> words) {
+            TreeSet<String> sorted = new TreeSet<>();
+            words.forEach(word -> sorted.add(word.toLowerCase(Locale.ROOT)));
+            this.words = List.copyOf(sorted);
+        }
+
+        Words merge(Words other) {
+            List<String> merged = new ArrayList<>(words);
+            merged.addAll(other.words);
+            return new Words(merged);
+        }
+
+        @Override
+        protected String render() {
+            return "words:" + quote(String.join(" ", words));
+        }
+
+        @Override
+        boolean scoring() {
+            return true;
+        }
+
+        @Override
+        Query toQuery() {
+            return Query.of(query -> query.multiMatch(match -> match
+                    .query(String.join(" ", words))
+                    .fields(BookQueryBuilder.TEXT_FIELDS)
+                    .type(TextQueryType.BestFields)));
+        }
+
+        @Override
+        boolean matches(BookDocument document, DocumentTerms terms) {
+            for (String word : words) {
+                for (String token : Tokenizer.tokenize(word)) {
+                    if (terms.all().contains(token)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        @Override
+        Set<QueryPlan.Anchor> anchors() {
+            return textAnchors(String.join(" ", words));
+        }
+    }
+
+    /**
+     * A quoted phrase searched across the text fields.
+     */
+    static final class Phrase extends QueryNode {
+
+        private final String phrase;
+
+        Phrase(String phrase) {
+            this.phrase = phrase.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        }
+
+        @Override
+        QueryNode normalize() {
+            return Tokenizer.tokenize(phrase).size() <= 1 ? new Words(List.of(phrase)) : this;
+        }
+
+        @Override
+        protected String render() {
+            return "phrase:" + quote(phrase);
+        }
+
+        @Override
+        boolean scoring() {
+            return true;
+        }
+
+        @Override
+        Query toQuery() {
+            return Query.of(query -> query.multiMatch(match -> match
+                    .query(phrase)
+                    .fields(BookQueryBuilder.TEXT_FIELDS)
+                    .type(TextQueryType.Phrase)));
+        }
+
+        @Override
+        boolean matches(BookDocument document, DocumentTerms terms) {
+            return terms.all().containsAll(Tokenizer.tokenize(phrase));
+        }
+
+        @Override
+        Set<QueryPlan.Anchor> anchors() {
+            return textAnchors(phrase);
+        }
+    }
+
+    /**
+     * {@code field:value}. Keyword fields match the exact value; the title matches all words of a bare
+     * value, or the phrase of a quoted one.
+     */
+    static final class Term extends QueryNode {
+
+        private final QueryField field;
+        private final String value;
+        private final boolean phrase;
+
+        Term(QueryField field, String value, boolean phrase) {
+            this.field = field;
+            this.value = field.normalize(value);
+            this.phrase = phrase && field.kind() == QueryField.Kind.TEXT;
+        }
+
+        @Override
+        QueryNode normalize() {
+            return phrase && Tokenizer.tokenize(value).size() <= 1 ? new Term(field, value, false) : this;
+        }
+
+        @Override
+        protected String render() {
+            return field.queryName() + (phrase ? ":=" : ":") + quote(value);
+        }
+
+        @Override
+        boolean scoring() {
+            return field.kind() == QueryField.Kind.TEXT;
+        }
+
+        @Override
+        Query toQuery() {
+            if (field.kind() == QueryField.Kind.KEYWORD) {
+                return Query.of(query -> query.term(term -> term.field(field.indexField()).value(value)));
+            }
+            if (phrase) {
+                return Query.of(query -> query.matchPhrase(match -> match.field(field.indexField()).query(value)));
+            }
+            return Query.of(query -> query.match(match -> match
+                    .field(field.indexField())
+                    .query(value)
+                    .operator(Operator.And)));
+        }
+
+        @Override
+        boolean matches(BookDocument document, DocumentTerms terms) {
+            if (field.kind() == QueryField.Kind.TEXT) {
+                return terms.title().containsAll(Tokenizer.tokenize(value));
+            }
+            for (String candidate : field.keywordValues(document)) {
+                if (candidate != null && (field == QueryField.LANGUAGE
+                        ? candidate.equalsIgnoreCase(value)
+                        : candidate.trim().equals(value))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        Set<QueryPlan.Anchor> anchors() {
+            if (field.kind() == QueryField.Kind.TEXT) {
+                return textAnchors(value);
+            }
+            return Set.of(new QueryPlan.Anchor(field, value));
+        }
+    }
+
+    /**
+     * A comparison on a numeric field.
+     */
+    static final class Range extends QueryNode {
+
+        enum Comparison {
+            GT(">"), GTE(">="), LT("<"), LTE("<="), EQ("=");
+
+            private final String symbol;
+
+            Comparison(String symbol) {
+                this.symbol = symbol;
+            }
+
+            static Comparison of(String symbol) {
+                for (Comparison operator : values()) {
+                    if (operator.symbol.equals(symbol)) {
+                        return operator;
+                    }
+                }
+                return null;
+            }
+        }
+
+        private final QueryField field;
+        private final Comparison operator;
+        private final double bound;
+
+        Range(QueryField field, Comparison operator, double bound) {
+            this.field = field;
+            this.operator = operator;
+            this.bound = bound;
+        }
+
+        @Override
+        protected String render() {
+            return field.queryName() + operator.symbol + BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString();
+        }
+
+        @Override
+        boolean scoring() {
+            return false;
+        }
+
+        @Override
+        Query toQuery() {
+            if (operator == Comparison.EQ) {
+                return Query.of(query -> query.term(term -> term.field(field.indexField()).value(FieldValue.of(bound))));
+            }
+            return Query.of(query -> query.range(range -> range.number(number -> {
+                number.field(field.indexField());
+                return switch (operator) {
+                    case GT -> number.gt(bound);
+                    case GTE -> number.gte(bound);
+                    case LT -> number.lt(bound);
+                    default -> number.lte(bound);
+                };
+            })));
+        }
+
+        @Override
+        boolean matches(BookDocument document, DocumentTerms terms) {
+            double value = field.numberValue(document);
+            return switch (operator) {
+                case GT -> value > bound;
+                case GTE -> value >= bound;
+                case LT -> value < bound;
+                case LTE -> value <= bound;
+                case EQ -> value == bound;
+            };
+        }
+
+        @Override
+        Set<QueryPlan.Anchor> anchors() {
+            return null;
+        }
+    }
+
+    static final class Not extends QueryNode {
+
+        private final QueryNode operand;
+
+        Not(QueryNode operand) {
+            this.operand = operand;
+        }
+
+        QueryNode operand() {
+            return operand;
+        }
+
+        @Override
+        QueryNode normalize() {
+            QueryNode normalized = operand.normalize();
+            return normalized instanceof Not not ? not.operand : new Not(normalized);
+        }
+
+        @Override
+        protected String render() {
+            return "NOT(" + operand.canonical() + ")";
+        }
+
+        @Override
+        boolean scoring() {
+            return false;
+        }
+
+        @Override
+        Query toQuery() {
+            return Query.of(query -> query.bool(bool -> bool.mustNot(operand.toQuery())));
+        }
+
+        @Override
+        boolean matches(BookDocument document, DocumentTerms terms) {
+            return !operand.matches(document, terms);
+        }
+
+        @Override
+        Set<QueryPlan.Anchor> anchors() {
+            return null;
+        }
+    }
+
+    /**
+     * Common base of {@code AND} and {@code OR}: normalizing flattens nested nodes of the same kind,
+     * drops duplicate children and sorts the rest, so operand order and repetition do not matter.
+     */
+    abstract static class Compound extends QueryNode {
+
+        protected final List<QueryNode> children;
+
+        Compound(List<QueryNode> children) {
+            this.children = List.copyOf(children);
+        }
+
+        protected abstract Compound create(List<QueryNode> children);
+
+        protected abstract String operator();
+
+        protected List<QueryNode> normalizeChildren() {
+            Map<String, QueryNode> unique = new LinkedHashMap<>();
+            for (QueryNode child : children) {
+                QueryNode normalized = child.normalize();
+                if (normalized.getClass() == getClass()) {
+                    ((Compound) normalized).children.forEach(nested -> unique.putIfAbsent(nested.canonical(), nested));
+                } else {
+                    unique.putIfAbsent(normalized.canonical(), normalized);
+                }
+            }
+            List<QueryNode> sorted = new ArrayList<>(unique.values());
+            sorted.sort(Comparator.comparing(QueryNode::canonical));
+            return sorted;
+        }
+
+        @Override
+        QueryNode normalize() {
+            List<QueryNode> normalized = normalizeChildren();
+            return normalized.size() == 1 ? normalized.get(0) : create(normalized);
+        }
+
+        @Override
+        protected String render() {
+            StringBuilder rendered = new StringBuilder(operator()).append('(');
+            for (int i = 0; i < children.size(); i++) {
+                if (i > 0) {
+                    rendered.append(',');
+                }
+                rendered.append(children.get(i).canonical());
+            }
+            return rendered.append(')').toString();
+        }
+
+        @Override
+        boolean scoring() {
+            for (QueryNode child : children) {
+                if (child.scoring()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    static final class And extends Compound {
+
+        And(List<QueryNode> children) {
+            super(children);
+        }
+
+        @Override
+        protected Compound create(List<QueryNode> children) {
+            return new And(children);
+        }
+
+        @Override
+        protected String operator() {
+            return "AND";
+        }
+
+        @Override
+        Query toQuery() {
+            BoolQuery.Builder bool = new BoolQuery.Builder();
+            for (QueryNode child : children) {
+                if (child instanceof Not not) {
+                    bool.mustNot(not.operand().toQuery());
+                } else if (child.scoring()) {
+                    bool.must(child.toQuery());
+                } else {
+                    bool.filter(child.toQuery());
+                }
+            }
+            return Query.of(query -> query.bool(bool.build()));
+        }
+
+        @Override
+        boolean matches(BookDocument document, DocumentTerms terms) {
+            for (QueryNode child : children) {
+                if (!child.matches(document, terms)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * The smallest anchor set of any child, since every child has to match.
+         */
+        @Override
+        Set<QueryPlan.Anchor> anchors() {
+            Set<QueryPlan.Anchor> best = null;
+            for (QueryNode child : children) {
+                Set<QueryPlan.Anchor> anchors = child.anchors();
+                if (anchors != null && (best == null || anchors.size() < best.size())) {
+                    best = anchors;
+                }
+            }
+            return best;
+        }
+    }
+
+    static final class Or extends Compound {
+
+        Or(List<QueryNode> children) {
+            super(children);
+        }
+
+        @Override
+        protected Compound create(List<QueryNode> children) {
+            return new Or(children);
+        }
+
+        @Override
+        protected String operator() {
+            return "OR";
+        }
+
+        /**
+         * Alternatives of bare words collapse into one word list, which already matches any of its words.
+         */
+        @Override
+        protected List<QueryNode> normalizeChildren() {
+            List<QueryNode> normalized = super.normalizeChildren();
+            Words words = null;
+            List<QueryNode> merged = new ArrayList<>(normalized.size());
+            for (QueryNode child : normalized) {
+                if (child instanceof Words childWords) {
+                    words = words == null ? childWords : words.merge(childWords);
+                } else {
+                    merged.add(child);
+                }
+            }
+            if (words != null) {
+                merged.add(words);
+                merged.sort(Comparator.comparing(QueryNode::canonical));
+            }
+            return merged;
+        }
+
+        @Override
+        Query toQuery() {
+            BoolQuery.Builder bool = new BoolQuery.Builder().minimumShouldMatch("1");
+            children.forEach(child -> bool.should(child.toQuery()));
+            return Query.of(query -> query.bool(bool.build()));
+        }
+
+        @Override
+        boolean matches(BookDocument document, DocumentTerms terms) {
+            for (QueryNode child : children) {
+                if (child.matches(document, terms)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * The union of all children's anchors; none when any alternative has none.
+         */
+        @Override
+        Set<QueryPlan.Anchor> anchors() {
+            Set<QueryPlan.Anchor> union = new HashSet<>();
+            for (QueryNode child : children) {
+                Set<QueryPlan.Anchor> anchors = child.anchors();
+                if (anchors == null) {
+                    return null;
+                }
+                union.addAll(anchors);
+            }
+            return union;
+        }
+    }
+
+    /**
+     * Tokens of a book's text fields, computed once per book and only when a text clause needs them.
+     */
+    static final class DocumentTerms {
+
+        private final BookDocument document;
+        private Set<String> all;
+        private Set<String> title;
+
+        DocumentTerms(BookDocument document) {
+            this.document = document;
+        }
+
+        Set<String> title() {
+            if (title == null) {
+                title = new HashSet<>(Tokenizer.tokenize(document.getTitle()));
+            }
+            return title;
+        }
+
+        Set<String> all() {
+            if (all == null) {
+                all = new HashSet<>(title());
+                all.addAll(Tokenizer.tokenize(document.getDescription()));
+                if (document.getAuthors() != null) {
+                    for (Author author : document.getAuthors()) {
+                        all.addAll(Tokenizer.tokenize(author.getName()));
+                    }
+                }
+                if (document.getTags() != null) {
+                    document.getTags().forEach(tag -> all.addAll(Tokenizer.tokenize(tag)));
+                }
+                if (document.getCategories() != null) {
+                    document.getCategories().forEach(category -> all.addAll(Tokenizer.tokenize(category)));
+                }
+            }
+            return all;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package kz.readhub.content_engine_service.service.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive-descent parser of the query language.
+ * <pre>
+ * query   = and { "OR" and }
+ * and     = unary { ["AND"] unary }
+ * unary   = ("-" | "NOT") unary | primary
+ * primary = "(" query ")" | field ":" value | field op number | '"' phrase '"' | word
+ * op      = ">=" | ">" | "<=" | "<" | "="
+ * </pre>
+ * Bare words joined without an explicit {@code AND} form one free-text clause, matched like the
+ * {@code query} field; {@code AND}, {@code OR} and {@code NOT} are operators only in upper case.
+ * A word that looks like {@code name:value} with an unknown name is an ordinary word.
+ * Errors are reported as {@link IllegalArgumentException} with the position of the offending character.
+ */
+final class QueryParser {
+
+    private static final int MAX_DEPTH = 32;
+
+    private final String text;
+    private final int maxClauses;
+    private int position;
+    private int clauses;
+    private int depth;
+
+    private QueryParser(String text, int maxClauses) {
+        this.text = text;
+        this.maxClauses = maxClauses;
+    }
+
+    /**
+     * Parses and normalizes a query.
+     */
+    static QueryNode parse(String text, int maxClauses) {
+        QueryParser parser = new QueryParser(text, maxClauses);
+        QueryNode root = parser.parseOr();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw parser.error("unexpected '" + parser.peek() + "'");
+        }
+        return root.normalize();
+    }
+
+    private QueryNode parseOr() {
+        List<QueryNode> alternatives = new ArrayList<>();
+        alternatives.add(parseAnd());
+        while (acceptKeyword("OR")) {
+            alternatives.add(parseAnd());
+        }
+        return alternatives.size() == 1 ? alternatives.get(0) : new QueryNode.Or(alternatives);
+    }
+
+    private QueryNode parseAnd() {
+        List<QueryNode> operands = new ArrayList<>();
+        int words = -1;
+        while (true) {
+            skipWhitespace();
+            if (atEnd() || peek() == ')' || atKeyword("OR")) {
+                break;
+            }
+            boolean explicit = acceptKeyword("AND");
+            if (explicit && operands.isEmpty()) {
+                throw error("AND without a left operand");
+            }
+
+            QueryNode operand = parseUnary();
+            if (explicit) {
+                words = -1;
+            }
+            if (operand instanceof QueryNode.Words operandWords && words >= 0) {
+                operands.set(words, ((QueryNode.Words) operands.get(words)).merge(operandWords));
+            } else {
+                operands.add(operand);
+                if (operand instanceof QueryNode.Words) {
+                    words = operands.size() - 1;
+                }
+            }
+        }
+
+        if (operands.isEmpty()) {
+            throw error("expected a search term");
+        }
+        return operands.size() == 1 ? operands.get(0) : new QueryNode.And(operands);
+    }
+
+    private QueryNode parseUnary() {
+        skipWhitespace();
+        boolean negated = false;
+        if (!atEnd() && peek() == '-' && position + 1 < text.length() && !Character.isWhitespace(text.charAt(position + 1))) {
+            position++;
+            negated = true;
+        } else if (acceptKeyword("NOT")) {
+            negated = true;
+        }
+        if (!negated) {
+            return parsePrimary();
+        }
+
+        enter();
+        QueryNode operand = parseUnary();
+        depth--;
+        return new QueryNode.Not(operand);
+    }
+
+    private QueryNode parsePrimary() {
+        skipWhitespace();
+        if (atEnd()) {
+            throw error("expected a search term");
+        }
+
+        char next = peek();
+        if (next == '(') {
+            position++;
+            enter();
+            QueryNode group = parseOr();
+            skipWhitespace();
+            if (atEnd() || peek() != ')') {
+                throw error("missing ')'");
+            }
+            position++;
+            depth--;
+            return group;
+        }
+        if (next == ')') {
+            throw error("unexpected ')'");
+        }
+        if (next == '"') {
+            String phrase = readQuoted();
+            return leaf(new QueryNode.Phrase(phrase));
+        }
+
+        int start = position;
+        String word = readBare();
+        int nameEnd = 0;
+        while (nameEnd < word.length() && Character.isLetter(word.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        QueryField field = nameEnd > 0 && nameEnd < word.length() ? QueryField.of(word.substring(0, nameEnd)) : null;
+        if (field == null || ":<>=".indexOf(word.charAt(nameEnd)) < 0) {
+            return leaf(new QueryNode.Words(List.of(word)));
+        }
+
+        String operator = word.startsWith(">=", nameEnd) || word.startsWith("<=", nameEnd)
+                ? word.substring(nameEnd, nameEnd + 2)
+                : word.substring(nameEnd, nameEnd + 1);
+        String value = word.substring(nameEnd + operator.length());
+        boolean quoted = false;
+        if (value.isEmpty() && !atEnd() && peek() == '"') {
+            value = readQuoted();
+            quoted = true;
+        }
+        if (value.isBlank()) {
+            position = start;
+            throw error("missing value for '" + field.queryName() + "'");
+        }
+
+        if (field.kind() == QueryField.Kind.NUMBER) {
+            QueryNode.Range.Comparison comparison = QueryNode.Range.Comparison.of(operator.equals(":") ? "=" : operator);
+            return leaf(new QueryNode.Range(field, comparison, parseNumber(value, start)));
+        }
+        if (!operator.equals(":")) {
+            position = start;
+            throw error("'" + field.queryName() + "' is not numeric and only supports ':'");
+        }
+        return leaf(new QueryNode.Term(field, value, quoted));
+    }
+
+    private QueryNode leaf(QueryNode node) {
+        if (++clauses > maxClauses) {
+            throw error("more than " + maxClauses + " clauses");
+        }
+        return node;
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error("nested deeper than " + MAX_DEPTH + " levels");
+        }
+    }
+
+    private double parseNumber(String value, int start) {
+        try {
+            double number = Double.parseDouble(value);
+            if (Double.isFinite(number)) {
+                return number;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        position = start;
+        throw error("'" + value + "' is not a number");
+    }
+
+    private String readQuoted() {
+        int start = position;
+        position++;
+        StringBuilder value = new StringBuilder();
+        while (!atEnd()) {
+            char c = text.charAt(position++);
+            if (c == '"') {
+                if (value.toString().isBlank()) {
+                    position = start;
+                    throw error("empty phrase");
+                }
+                return value.toString();
+            }
+            if (c == '\\' && !atEnd()) {
+                c = text.charAt(position++);
+            }
+            value.append(c);
+        }
+        position = start;
+        throw error("unterminated quote");
+    }
+
+    private String readBare() {
+        int start = position;
+        while (!atEnd()) {
+            char c = peek();
+            if (Character.isWhitespace(c) || c == '(' || c == ')' || c == '"') {
+                break;
+            }
+            position++;
+        }
+        return text.substring(start, position);
+    }
+
+    private boolean atKeyword(String keyword) {
+        if (!text.startsWith(keyword, position)) {
+            return false;
+        }
+        int end = position + keyword.length();
+        return end == text.length() || Character.isWhitespace(text.charAt(end))
+                || text.charAt(end) == '(' || text.charAt(end) == '"';
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        skipWhitespace();
+        if (atKeyword(keyword)) {
+            position += keyword.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (!atEnd() && Character.isWhitespace(peek())) {
+            position++;
+        }
+    }
+
+    private boolean atEnd() {
+        return position >= text.length();
+    }
+
+    private char peek() {
+        return text.charAt(position);
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid query at position " + (position + 1) + ": " + message);
+    }
+}
@@ -0,0 +1,74 @@
+package kz.readhub.content_engine_service.service.query;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import kz.readhub.content_engine_service.model.BookDocument;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Compiled form of a query: the Elasticsearch query built once from the normalized tree, and the same
+ * tree as a predicate for the local fallback index. Immutable and shared by every request whose query
+ * normalizes to the same canonical form, which is also what plans are compared by.
+ */
+@Getter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public final class QueryPlan {
+
+    @EqualsAndHashCode.Include
+    private final String canonical;
+    private final Query query;
+
+    /**
+     * Whether the query contains text clauses that score, rather than filters only.
+     */
+    private final boolean scoring;
+
+    /**
+     * Values at least one of which every matching book contains, or {@code null} when the query has no
+     * such set, e.g. a bare range or negation.
+     */
+    private final Set<Anchor> anchors;
+
+    @Getter(AccessLevel.NONE)
+    private final QueryNode root;
+
+    private QueryPlan(QueryNode root) {
+        this.root = root;
+        this.canonical = root.canonical();
+        this.query = root.toQuery();
+        this.scoring = root.scoring();
+        Set<Anchor> rootAnchors = root.anchors();
+        this.anchors = rootAnchors != null ? Set.copyOf(rootAnchors) : null;
+    }
+
+    static QueryPlan compile(QueryNode root) {
+        return new QueryPlan(root);
+    }
+
+    /**
+     * Evaluates the query against a single document, approximating phrase and text matching with tokens.
+     */
+    public boolean matches(BookDocument document) {
+        return root.matches(document, new QueryNode.DocumentTerms(document));
+    }
+
+    @Override
+    public String toString() {
+        return canonical;
+    }
+
+    /**
+     * A value of a field; a {@code null} field stands for a lower-cased token of any text field.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Anchor {
+        private final QueryField field;
+        private final String value;
+    }
+}
@@ -0,0 +1,70 @@
+package kz.readhub.content_engine_service.service.query;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of compiled {@link QueryPlan}s.
+ * <p>
+ * Plans are looked up by the exact query text first, so a repeated query skips parsing altogether.
+ * A new text is parsed and normalized, and its plan is shared with every other text of the same canonical
+ * form, so differently written equivalent queries skip planning and share one search cache key.
+ */
+@Component
+public class QueryPlanCache {
+
+    private final ContentEngineProperties.QueryLanguage settings;
+    private final Cache<String, QueryPlan> byText;
+    private final Cache<String, QueryPlan> byCanonical;
+    private final Counter hitCounter;
+    private final Counter sharedCounter;
+    private final Counter compiledCounter;
+
+    public QueryPlanCache(ContentEngineProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getQueryLanguage();
+        this.byText = Caffeine.newBuilder()
+                .maximumSize(settings.getPlanCacheSize())
+                .build();
+        this.byCanonical = Caffeine.newBuilder()
+                .maximumSize(settings.getPlanCacheSize())
+                .build();
+        this.hitCounter = meterRegistry.counter("content.query.plans", "result", "hit");
+        this.sharedCounter = meterRegistry.counter("content.query.plans", "result", "shared");
+        this.compiledCounter = meterRegistry.counter("content.query.plans", "result", "compiled");
+        Gauge.builder("content.query.plans.size", byCanonical, Cache::estimatedSize)
+                .description("Distinct compiled query plans")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The plan for a query, or {@code null} for a blank one.
+     *
+     * @throws IllegalArgumentException if the query is malformed
+     */
+    public QueryPlan plan(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+
+        QueryPlan plan = byText.getIfPresent(text);
+        if (plan != null) {
+            hitCounter.increment();
+            return plan;
+        }
+
+        QueryNode root = QueryParser.parse(text, settings.getMaxClauses());
+        boolean[] compiled = new boolean[1];
+        plan = byCanonical.get(root.canonical(), canonical -> {
+            compiled[0] = true;
+            return QueryPlan.compile(root);
+        });
+        (compiled[0] ? compiledCounter : sharedCounter).increment();
+        byText.put(text, plan);
+        return plan;
+    }
+}
@@ -0,0 +1,272 @@
+package kz.readhub.content_engine_service.service.reindex;
+
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.constant.ElasticIndices;
+import kz.readhub.content_engine_service.dto.CatalogBookDto;
+import kz.readhub.content_engine_service.exception.ContentEngineException;
+import kz.readhub.content_engine_service.mapper.BookEventMapper;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.ReindexStatus;
+import kz.readhub.content_engine_service.service.embedding.EmbeddingService;
+import kz.readhub.content_engine_service.service.ingestion.BulkIndexer;
+import kz.readhub.content_engine_service.service.ingestion.BulkResult;
+import kz.readhub.content_engine_service.service.search.SearchResultCache;
+import kz.readhub.content_engine_service.service.trending.TrendingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds the books index without downtime.
+ * <p>
+ * A new versioned index is created with replicas and refresh disabled. From that moment the CDC consumer
+ * mirrors every change into it, then the full catalog is streamed from book-management and written by
+ * parallel bulk workers. External versioning lets whichever write carries the newer book version win, so the
+ * snapshot and the live stream can overlap freely; deletes seen during the load are re-applied afterwards so
+ * a book deleted mid-load cannot be resurrected by an older snapshot copy. Finally replicas and refresh are
+ * restored and the {@code books} alias is moved to the new index in one atomic request.
+ */
+@Slf4j
+@Service
+public class ReindexService {
+
+    private static final DateTimeFormatter INDEX_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+    private static final String MAPPING_RESOURCE = "elastic/books-mapping.json";
+
+    private final ReactiveElasticsearchClient elasticsearchClient;
+    private final BulkIndexer bulkIndexer;
+    private final EmbeddingService embeddingService;
+    private final BookEventMapper bookEventMapper;
+    private final SearchResultCache resultCache;
+    private final TrendingService trendingService;
+    private final ObjectMapper objectMapper;
+    private final ContentEngineProperties.Reindex settings;
+    private final WebClient catalogClient;
+
+    private final AtomicReference<ReindexStatus> status = new AtomicReference<>();
+
+    public ReindexService(ReactiveElasticsearchClient elasticsearchClient,
+                          BulkIndexer bulkIndexer,
+                          EmbeddingService embeddingService,
+                          BookEventMapper bookEventMapper,
+                          SearchResultCache resultCache,
+                          TrendingService trendingService,
+                          ObjectMapper objectMapper,
+                          ContentEngineProperties properties,
+                          WebClient.Builder webClientBuilder) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.bulkIndexer = bulkIndexer;
+        this.embeddingService = embeddingService;
+        this.bookEventMapper = bookEventMapper;
+        this.resultCache = resultCache;
+        this.trendingService = trendingService;
+        this.objectMapper = objectMapper;
+        this.settings = properties.getReindex();
+        this.catalogClient = webClientBuilder
+                .baseUrl(settings.getCatalogUrl())
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+    }
+
+    public ReindexStatus status() {
+        return status.get();
+    }
+
+    /**
+     * Starts a reindex in the background and returns its initial status.
+     *
+     * @throws IllegalStateException if a reindex is already running
+     */
+    public ReindexStatus start() {
+        String target = ElasticIndices.BOOKS + "_" + INDEX_SUFFIX.format(Instant.now());
+        ReindexStatus initial = ReindexStatus.builder()
+                .state(ReindexStatus.State.CREATING_INDEX)
+                .index(target)
+                .startedAt(Instant.now())
+                .build();
+
+        ReindexStatus current = status.get();
+        if ((current != null && current.isRunning()) || !status.compareAndSet(current, initial)) {
+            throw new IllegalStateException("A reindex is already running");
+        }
+
+        run(target).subscribe(
+                ignored -> { },
+                error -> log.error("Reindex into '{}' failed", target, error));
+        return initial;
+    }
+
+    private Mono<Void> run(String target) {
+        return readIndexSettings()
+                .flatMap(original -> createIndex(target)
+                        .doOnSuccess(ignored -> {
+                            bulkIndexer.startShadowWrites(target);
+                            update(s -> s.toBuilder().state(ReindexStatus.State.LOADING).build());
+                        })
+                        .then(loadCatalog(target))
+                        .doOnSuccess(ignored -> update(s -> s.toBuilder().state(ReindexStatus.State.FINALIZING).build()))
+                        .then(Mono.defer(() -> bulkIndexer.index(target, bulkIndexer.drainShadowDeletes())))
+                        .then(Mono.defer(() -> restoreSettings(target, original)))
+                        .then(Mono.defer(() -> elasticsearchClient.indices().refresh(refresh -> refresh.index(target))))
+                        .then(Mono.defer(() -> swapAlias(target))))
+                .doOnSuccess(previous -> {
+                    bulkIndexer.stopShadowWrites();
+                    resultCache.invalidateAll();
+                    trendingService.resetPublished();
+                    update(s -> s.toBuilder()
+                            .state(ReindexStatus.State.COMPLETED)
+                            .previousIndex(previous.isEmpty() ? null : String.join(",", previous))
+                            .finishedAt(Instant.now())
+                            .build());
+                    log.info("Reindex completed: alias '{}' now points to '{}'", ElasticIndices.BOOKS, target);
+                })
+                .flatMap(previous -> settings.isDeletePrevious() ? deleteIndices(previous) : Mono.empty())
+                .doOnError(error -> {
+                    bulkIndexer.stopShadowWrites();
+                    bulkIndexer.drainShadowDeletes();
+                    deleteIndices(Set.of(target)).subscribe();
+                    update(s -> s.toBuilder()
+                            .state(ReindexStatus.State.FAILED)
+                            .error(error.getMessage())
+                            .finishedAt(Instant.now())
+                            .build());
+                })
+                .then();
+    }
+
+    private Mono<Void> createIndex(String target) {
+        return Mono.fromCallable(() -> {
+                    ObjectNode body = readMapping();
+                    ObjectNode indexSettings = (ObjectNode) body.get("settings");
+                    indexSettings.put("number_of_replicas", 0);
+                    indexSettings.put("refresh_interval", "-1");
+                    return objectMapper.writeValueAsString(body);
+                })
+                .flatMap(json -> elasticsearchClient.indices().create(create -> create
+                        .index(target)
+                        .withJson(new StringReader(json))))
+                .doOnSuccess(response -> log.info("Created index '{}' for reindex", target))
+                .then();
+    }
+
+    private Mono<Void> loadCatalog(String target) {
+        return catalogClient.get()
+                .uri("/books/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(CatalogBookDto.class)
+                .map(bookEventMapper::toChange)
+                .buffer(settings.getBulkSize())
+                .flatMap(batch -> writeBatch(target, batch), settings.getWorkers())
+                .doOnNext(result -> update(s -> s.toBuilder()
+                        .loaded(s.getLoaded() + result.getSucceeded())
+                        .failed(s.getFailed() + result.getFailed())
+                        .build()))
+                .then();
+    }
+
+    private Mono<BulkResult> writeBatch(String target, List<BookChange> batch) {
+        List<BookDocument> documents = batch.stream().map(BookChange::getDocument).toList();
+        return embeddingService.embedDocuments(documents)
+                .then(bulkIndexer.index(target, batch));
+    }
+
+    private Mono<Void> restoreSettings(String target, ObjectNode original) {
+        String replicas = original.path("number_of_replicas").asText("1");
+        String refreshInterval = original.path("refresh_interval").asText("1s");
+        return elasticsearchClient.indices().putSettings(put -> put
+                        .index(target)
+                        .settings(indexSettings -> indexSettings
+                                .numberOfReplicas(replicas)
+                                .refreshInterval(time -> time.time(refreshInterval))))
+                .then();
+    }
+
+    /**
+     * Points the alias at the new index, detaching it from every index it pointed to before, in a single
+     * update-aliases request. A concrete index still named like the alias is removed in the same request.
+     *
+     * @return the indices the alias pointed to before
+     */
+    private Mono<Set<String>> swapAlias(String target) {
+        Mono<Set<String>> aliased = elasticsearchClient.indices()
+                .getAlias(get -> get.name(ElasticIndices.BOOKS))
+                .map(response -> response.result().keySet())
+                .onErrorResume(error -> Mono.just(Set.of()));
+        Mono<Boolean> exists = elasticsearchClient.indices()
+                .exists(request -> request.index(ElasticIndices.BOOKS))
+                .map(response -> response.value());
+
+        return Mono.zip(aliased, exists).flatMap(state -> {
+            Set<String> previous = state.getT1();
+            boolean concreteIndex = previous.isEmpty() && state.getT2();
+
+            List<Action> actions = new ArrayList<>();
+            actions.add(Action.of(action -> action.add(add -> add.index(target).alias(ElasticIndices.BOOKS))));
+            for (String index : previous) {
+                if (!index.equals(target)) {
+                    actions.add(Action.of(action -> action.remove(remove -> remove.index(index).alias(ElasticIndices.BOOKS))));
+                }
+            }
+            if (concreteIndex) {
+                log.warn("Replacing concrete index '{}' with an alias", ElasticIndices.BOOKS);
+                actions.add(Action.of(action -> action.removeIndex(remove -> remove.index(ElasticIndices.BOOKS))));
+            }
+
+            return elasticsearchClient.indices()
+                    .updateAliases(update -> update.actions(actions))
+                    .thenReturn(previous.stream()
+                            .filter(index -> !index.equals(target))
+                            .collect(Collectors.toSet()));
+        });
+    }
+
+    private Mono<Void> deleteIndices(Set<String> indices) {
+        return Flux.fromIterable(indices)
+                .concatMap(index -> elasticsearchClient.indices().delete(delete -> delete.index(index))
+                        .doOnSuccess(response -> log.info("Deleted index '{}'", index))
+                        .onErrorResume(error -> {
+                            log.warn("Failed to delete index '{}': {}", index, error.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private Mono<ObjectNode> readIndexSettings() {
+        return Mono.fromCallable(() -> (ObjectNode) readMapping().get("settings"));
+    }
+
+    private ObjectNode readMapping() {
+        try (InputStream input = new ClassPathResource(MAPPING_RESOURCE).getInputStream()) {
+            return (ObjectNode) objectMapper.readTree(input);
+        } catch (IOException e) {
+            throw new ContentEngineException("Failed to read " + MAPPING_RESOURCE, e);
+        }
+    }
+
+    private void update(UnaryOperator<ReindexStatus> change) {
+        status.updateAndGet(change);
+    }
+}
@@ -0,0 +1,201 @@
+package kz.readhub.content_engine_service.service.related;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+import kz.readhub.content_engine_service.util.Hashing;
+import kz.readhub.content_engine_service.util.ScoredHeap;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * MinHash locality-sensitive hashing over sets of 64-bit feature hashes.
+ * <p>
+ * Each set gets a signature of {@code bands * rows} minimum hashes; the probability that two signatures
+ * agree in one position equals the Jaccard similarity of the sets. The signature is cut into bands, and
+ * every band is hashed into a bucket: sets that agree on a whole band land in the same bucket, which happens
+ * for at least one band with high probability once similarity passes roughly {@code (1/bands)^(1/rows)}.
+ * A query therefore reads {@code bands} buckets instead of scanning every set sharing a feature, and the
+ * candidates found are re-scored by their exact Jaccard similarity.
+ * <p>
+ * Not thread-safe.
+ */
+final class MinHashLsh {
+
+    private final int bands;
+    private final int rows;
+    private final long[] seeds;
+    private final Int2ObjectOpenHashMap<IntOpenHashSet>[] buckets;
+    private final Int2ObjectOpenHashMap<long[]> features = new Int2ObjectOpenHashMap<>();
+    private final Int2ObjectOpenHashMap<int[]> bandKeys = new Int2ObjectOpenHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    MinHashLsh(int bands, int rows) {
+        this.bands = bands;
+        this.rows = rows;
+        this.seeds = new long[bands * rows];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = Hashing.mix64(0x9E3779B97F4A7C15L * (i + 1));
+        }
+        this.buckets = new Int2ObjectOpenHashMap[bands];
+        for (int band = 0; band < bands; band++) {
+            buckets[band] = new Int2ObjectOpenHashMap<>();
+        }
+    }
+
+    int size() {
+        return features.size();
+    }
+
+    /**
+     * Replaces the feature set of an id; an empty set removes it.
+     */
+    void put(int id, long[] featureHashes) {
+        remove(id);
+        if (featureHashes.length == 0) {
+            return;
+        }
+
+        long[] sorted = Arrays.stream(featureHashes).sorted().distinct().toArray();
+        int[] keys = bandKeys(signature(sorted));
+        for (int band = 0; band < bands; band++) {
+            buckets[band].computeIfAbsent(keys[band], key -> new IntOpenHashSet()).add(id);
+        }
+        features.put(id, sorted);
+        bandKeys.put(id, keys);
+    }
+
+    void remove(int id) {
+        int[] keys = bandKeys.remove(id);
+        if (keys == null) {
+            return;
+        }
+        features.remove(id);
+        for (int band = 0; band < bands; band++) {
+            IntOpenHashSet bucket = buckets[band].get(keys[band]);
+            if (bucket != null && bucket.remove(id) && bucket.isEmpty()) {
+                buckets[band].remove(keys[band]);
+            }
+        }
+    }
+
+    /**
+     * Writes the features and band keys of every set; buckets are rebuilt from the keys on restore,
+     * so no signature is recomputed.
+     */
+    void writeTo(SnapshotOutput out) throws IOException {
+        out.writeInt(features.size());
+        for (Int2ObjectMap.Entry<long[]> entry : features.int2ObjectEntrySet()) {
+            out.writeInt(entry.getIntKey());
+            out.writeLongs(entry.getValue());
+            out.writeInts(bandKeys.get(entry.getIntKey()));
+        }
+    }
+
+    void readFrom(SnapshotInput in) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int id = in.readInt();
+            long[] sorted = in.readLongs();
+            int[] keys = in.readInts();
+            if (keys.length != bands) {
+                throw new IOException("Expected " + bands + " band keys but got " + keys.length);
+            }
+            remove(id);
+            for (int band = 0; band < bands; band++) {
+                buckets[band].computeIfAbsent(keys[band], key -> new IntOpenHashSet()).add(id);
+            }
+            features.put(id, sorted);
+            bandKeys.put(id, keys);
+        }
+    }
+
+    /**
+     * Most similar ids to {@code id} by Jaccard similarity, best first, reading at most
+     * {@code maxCandidates} ids from its buckets.
+     *
+     * @return number of results written to the output arrays
+     */
+    int related(int id, int k, int maxCandidates, float minSimilarity, int[] outIds, float[] outScores) {
+        int[] keys = bandKeys.get(id);
+        if (keys == null) {
+            return 0;
+        }
+
+        long[] own = features.get(id);
+        IntOpenHashSet seen = new IntOpenHashSet();
+        ScoredHeap results = ScoredHeap.minHeap(k);
+        for (int band = 0; band < bands && seen.size() < maxCandidates; band++) {
+            IntOpenHashSet bucket = buckets[band].get(keys[band]);
+            if (bucket == null) {
+                continue;
+            }
+            for (IntIterator it = bucket.iterator(); it.hasNext() && seen.size() < maxCandidates; ) {
+                int candidate = it.nextInt();
+                if (candidate == id || !seen.add(candidate)) {
+                    continue;
+                }
+                float similarity = jaccard(own, features.get(candidate));
+                if (similarity >= minSimilarity) {
+                    results.offer(candidate, similarity, k);
+                }
+            }
+        }
+
+        int count = results.size();
+        results.drainDescending(outIds, outScores);
+        return count;
+    }
+
+    private int[] signature(long[] featureHashes) {
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (long feature : featureHashes) {
+            for (int i = 0; i < seeds.length; i++) {
+                int hash = (int) (Hashing.mix64(feature ^ seeds[i]) >>> 33);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private int[] bandKeys(int[] signature) {
+        int[] keys = new int[bands];
+        for (int band = 0; band < bands; band++) {
+            long hash = band;
+            for (int row = 0; row < rows; row++) {
+                hash = hash * 0x100000001B3L + signature[band * rows + row];
+            }
+            keys[band] = (int) Hashing.mix64(hash);
+        }
+        return keys;
+    }
+
+    /**
+     * Jaccard similarity of two sorted, distinct arrays by merging them.
+     */
+    static float jaccard(long[] a, long[] b) {
+        int i = 0;
+        int j = 0;
+        int shared = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - shared;
+        return union == 0 ? 0f : (float) shared / union;
+    }
+}
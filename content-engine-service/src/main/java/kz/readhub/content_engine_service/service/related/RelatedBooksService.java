@@ -0,0 +1,170 @@
+package kz.readhub.content_engine_service.service.related;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.ScoredId;
+import kz.readhub.content_engine_service.service.index.DocumentIdMap;
+import kz.readhub.content_engine_service.service.ingestion.IngestionListener;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+import kz.readhub.content_engine_service.service.snapshot.Snapshottable;
+import kz.readhub.content_engine_service.util.Hashing;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "More like this" by tags and categories: books whose tag and category sets overlap most, found through
+ * {@link MinHashLsh} and kept current from CDC ingestion.
+ */
+@Service
+public class RelatedBooksService implements IngestionListener, Snapshottable {
+
+    private static final long TAG_SEED = 0x7461675FL;
+    private static final long CATEGORY_SEED = 0x6361745FL;
+    private static final long[] NO_FEATURES = new long[0];
+
+    private final ContentEngineProperties.Related settings;
+    private final DocumentIdMap documentIdMap;
+    private final MinHashLsh lsh;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Timer lookupTimer;
+
+    public RelatedBooksService(ContentEngineProperties properties,
+                               DocumentIdMap documentIdMap,
+                               MeterRegistry meterRegistry) {
+        this.settings = properties.getRelated();
+        this.documentIdMap = documentIdMap;
+        this.lsh = new MinHashLsh(settings.getBands(), settings.getRows());
+        this.lookupTimer = Timer.builder("content.related.lookup")
+                .description("Related-book lookup latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("content.related.size", this, RelatedBooksService::size)
+                .description("Books with a MinHash signature")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onIndexed(List<BookChange> changes) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (BookChange change : changes) {
+                if (change.isDelete()) {
+                    int id = documentIdMap.get(change.getBookId());
+                    if (id >= 0) {
+                        lsh.remove(id);
+                    }
+                } else {
+                    lsh.put(documentIdMap.getOrAssign(change.getBookId()), featuresOf(change.getDocument()));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String snapshotSection() {
+        return "related";
+    }
+
+    @Override
+    public String snapshotFingerprint() {
+        return "enabled=" + settings.isEnabled() + ",bands=" + settings.getBands() + ",rows=" + settings.getRows();
+    }
+
+    @Override
+    public void writeSnapshot(SnapshotOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            lsh.writeTo(out);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(SnapshotInput in) throws IOException {
+        lock.writeLock().lock();
+        try {
+            lsh.readFrom(in);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Books most similar to the given one by Jaccard similarity of tags and categories, best first.
+     * Empty when the book is unknown or has neither.
+     */
+    public List<ScoredId> related(String bookId, int k) {
+        if (!settings.isEnabled()) {
+            return List.of();
+        }
+        int id = documentIdMap.get(bookId);
+        if (id < 0) {
+            return List.of();
+        }
+
+        int[] ids = new int[k];
+        float[] scores = new float[k];
+        int count = lookupTimer.record(() -> {
+            lock.readLock().lock();
+            try {
+                return lsh.related(id, k, settings.getMaxCandidates(), (float) settings.getMinSimilarity(), ids, scores);
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+
+        List<ScoredId> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String relatedId = documentIdMap.bookId(ids[i]);
+            if (relatedId != null) {
+                results.add(new ScoredId(relatedId, scores[i]));
+            }
+        }
+        return results;
+    }
+
+    private long[] featuresOf(BookDocument document) {
+        List<String> tags = document.getTags() != null ? document.getTags() : List.of();
+        List<String> categories = document.getCategories() != null ? document.getCategories() : List.of();
+        if (tags.isEmpty() && categories.isEmpty()) {
+            return NO_FEATURES;
+        }
+
+        long[] features = new long[tags.size() + categories.size()];
+        int count = 0;
+        for (String tag : tags) {
+            features[count++] = Hashing.hash64(tag.toLowerCase(Locale.ROOT), TAG_SEED);
+        }
+        for (String category : categories) {
+            features[count++] = Hashing.hash64(category.toLowerCase(Locale.ROOT), CATEGORY_SEED);
+        }
+        return features;
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return lsh.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
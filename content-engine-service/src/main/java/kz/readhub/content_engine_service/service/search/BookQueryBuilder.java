@@ -0,0 +1,123 @@
+package kz.readhub.content_engine_service.service.search;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.SearchRequest;
+import kz.readhub.content_engine_service.model.SearchSort;
+import kz.readhub.content_engine_service.service.query.QueryPlan;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Translates a {@link SearchRequest} into an Elasticsearch query and sort.
+ * Text goes into a scored {@code must} clause; every filter is a non-scoring {@code filter} clause.
+ * A compiled query-language plan is added as one more clause, scored only when it contains text.
+ * Near-duplicates of other books are excluded when duplicates are collapsed.
+ * Every sort ends with the book id, so the order is total and {@code search_after} pages stay stable
+ * with or without a point-in-time.
+ */
+@Component
+public class BookQueryBuilder {
+
+    public static final List<String> TEXT_FIELDS = List.of(
+            "title^3", "authors.name^2", "tags^1.5", "categories", "description");
+
+    private final ContentEngineProperties.Search settings;
+
+    public BookQueryBuilder(ContentEngineProperties properties) {
+        this.settings = properties.getSearch();
+    }
+
+    public Query buildQuery(SearchRequest request, QueryPlan plan) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+
+        boolean scored = hasText(request.getQuery());
+        if (scored) {
+            bool.must(must -> must.multiMatch(match -> match
+                    .query(request.getQuery().trim())
+                    .fields(TEXT_FIELDS)
+                    .type(TextQueryType.BestFields)));
+        }
+        if (plan != null) {
+            if (plan.isScoring()) {
+                bool.must(plan.getQuery());
+                scored = true;
+            } else {
+                bool.filter(plan.getQuery());
+            }
+        }
+        if (!scored) {
+            bool.must(must -> must.matchAll(all -> all));
+        }
+
+        addTermsFilter(bool, "authors.name.keyword", request.getAuthors());
+        addTermsFilter(bool, "tags", request.getTags());
+        addTermsFilter(bool, "categories", request.getCategories());
+
+        if (hasText(request.getLanguage())) {
+            bool.filter(filter -> filter.term(term -> term
+                    .field("language")
+                    .value(request.getLanguage().trim().toLowerCase())));
+        }
+        if (request.getMinRating() != null) {
+            bool.filter(filter -> filter.range(range -> range.number(number -> number
+                    .field("averageRating")
+                    .gte(request.getMinRating().doubleValue()))));
+        }
+        if (settings.isCollapseDuplicates()) {
+            bool.mustNot(not -> not.exists(exists -> exists.field("duplicateOf")));
+        }
+
+        return Query.of(query -> query.bool(bool.build()));
+    }
+
+    public List<SortOptions> buildSort(SearchSort sort) {
+        SearchSort effective = sort != null ? sort : SearchSort.RELEVANCE;
+        return switch (effective) {
+            case RELEVANCE -> List.of(scoreSort(), idSort());
+            case RATING -> List.of(fieldSort("averageRating"), fieldSort("reviewCount"), scoreSort(), idSort());
+            case DOWNLOADS -> List.of(fieldSort("downloadCount"), scoreSort(), idSort());
+            case TRENDING -> List.of(fieldSort("trendingScore"), fieldSort("downloadCount"), scoreSort(), idSort());
+        };
+    }
+
+    private void addTermsFilter(BoolQuery.Builder bool, String field, List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+
+        List<FieldValue> terms = values.stream()
+                .filter(BookQueryBuilder::hasText)
+                .map(value -> FieldValue.of(value.trim()))
+                .toList();
+        if (terms.isEmpty()) {
+            return;
+        }
+
+        bool.filter(filter -> filter.terms(match -> match
+                .field(field)
+                .terms(list -> list.value(terms))));
+    }
+
+    private SortOptions scoreSort() {
+        return SortOptions.of(sort -> sort.score(score -> score.order(SortOrder.Desc)));
+    }
+
+    private SortOptions fieldSort(String field) {
+        return SortOptions.of(sort -> sort.field(value -> value.field(field).order(SortOrder.Desc)));
+    }
+
+    private SortOptions idSort() {
+        return SortOptions.of(sort -> sort.field(value -> value.field("id").order(SortOrder.Asc)));
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,20 @@
+package kz.readhub.content_engine_service.service.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A cached first page: only ids and scores are kept, documents are re-read on every hit.
+ * {@code searchAfter} holds the sort values of the last hit and is {@code null} when there is no next page.
+ */
+@Data
+@AllArgsConstructor
+public class CachedPage {
+    private final String[] ids;
+    private final double[] scores;
+    private final List<Object> searchAfter;
+    private final Long totalHits;
+    private final long generation;
+}
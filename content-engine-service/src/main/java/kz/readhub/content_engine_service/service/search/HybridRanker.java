@@ -0,0 +1,113 @@
+package kz.readhub.content_engine_service.service.search;
+
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.SearchResult;
+import kz.readhub.content_engine_service.service.embedding.BookEmbedder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Second-stage ranking of the top window of text hits.
+ * <p>
+ * The final score is a weighted sum of three signals, each scaled to {@code [0, 1]}: the BM25 score relative
+ * to the best hit of the window, the cosine similarity between the query and book embeddings, and a log-scaled
+ * popularity from downloads and reviews, damped by the average rating. Everything needed is already in the
+ * hits' sources, so ranking costs no extra request.
+ */
+@Component
+@RequiredArgsConstructor
+public class HybridRanker {
+
+    private static final float MAX_RATING = 5f;
+
+    private final BookEmbedder embedder;
+    private final ContentEngineProperties properties;
+
+    public boolean isEnabled() {
+        return properties.getRanking().isEnabled();
+    }
+
+    /**
+     * Returns the hits re-ordered by blended score; the returned scores are the blended ones.
+     * Ties keep their Elasticsearch order, so ranking the same hits again gives the same order.
+     */
+    public SearchResult rerank(String query, SearchResult result) {
+        List<BookDocument> documents = result.getDocuments();
+        int count = documents.size();
+        if (count < 2) {
+            return result;
+        }
+
+        ContentEngineProperties.Ranking ranking = properties.getRanking();
+        float[] queryVector = embedder.embedText(query);
+        double[] textScores = result.getScores();
+        double maxText = 0;
+        for (int i = 0; i < count; i++) {
+            maxText = Math.max(maxText, textScores[i]);
+        }
+        double popularityScale = 1 / Math.log1p(ranking.getPopularityReference());
+
+        double[] scores = new double[count];
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            BookDocument document = documents.get(i);
+            double text = maxText > 0 ? textScores[i] / maxText : 0;
+            double vector = cosine(queryVector, document.getEmbedding());
+            double popularity = Math.min(1, Math.log1p(document.getDownloadCount()
+                    + ranking.getReviewWeight() * document.getReviewCount()) * popularityScale);
+            popularity *= 0.5 + 0.5 * Math.min(document.getAverageRating(), MAX_RATING) / MAX_RATING;
+
+            scores[i] = ranking.getTextWeight() * text
+                    + ranking.getVectorWeight() * vector
+                    + ranking.getPopularityWeight() * popularity;
+            order[i] = i;
+        }
+        sortDescending(order, scores);
+
+        List<BookDocument> ranked = new ArrayList<>(count);
+        double[] rankedScores = new double[count];
+        for (int i = 0; i < count; i++) {
+            ranked.add(documents.get(order[i]));
+            rankedScores[i] = scores[order[i]];
+        }
+
+        return result.toBuilder()
+                .documents(ranked)
+                .scores(rankedScores)
+                .build();
+    }
+
+    /**
+     * Cosine of two L2-normalised vectors, clamped to {@code [0, 1]}; zero when either is missing.
+     */
+    private static double cosine(float[] query, float[] embedding) {
+        if (query == null || embedding == null || embedding.length != query.length) {
+            return 0;
+        }
+        float dot = 0f;
+        for (int i = 0; i < query.length; i++) {
+            dot += query[i] * embedding[i];
+        }
+        return Math.max(0, Math.min(1, dot));
+    }
+
+    /**
+     * Stable insertion sort of indices by score; windows are small and already close to score order.
+     */
+    private static void sortDescending(int[] order, double[] scores) {
+        for (int i = 1; i < order.length; i++) {
+            int current = order[i];
+            double score = scores[current];
+            int j = i - 1;
+            while (j >= 0 && scores[order[j]] < score) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = current;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package kz.readhub.content_engine_service.service.search;
+
+import kz.readhub.content_engine_service.model.SearchRequest;
+import kz.readhub.content_engine_service.model.SearchSort;
+import kz.readhub.content_engine_service.service.query.QueryPlan;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Normalised form of a first-page search request: requests that produce the same Elasticsearch query
+ * map to equal keys regardless of whitespace, filter order, duplicate filter values or language case.
+ * Query-language expressions are compared by their plan, i.e. by canonical form.
+ */
+@Data
+@AllArgsConstructor
+public class SearchCacheKey {
+
+    private final String query;
+    private final QueryPlan plan;
+    private final List<String> authors;
+    private final List<String> tags;
+    private final List<String> categories;
+    private final String language;
+    private final Float minRating;
+    private final SearchSort sort;
+    private final int size;
+
+    public static SearchCacheKey of(SearchRequest request, QueryPlan plan, int size) {
+        return new SearchCacheKey(
+                normalizeQuery(request.getQuery()),
+                plan,
+                normalizeTerms(request.getAuthors()),
+                normalizeTerms(request.getTags()),
+                normalizeTerms(request.getCategories()),
+                hasText(request.getLanguage()) ? request.getLanguage().trim().toLowerCase(Locale.ROOT) : null,
+                request.getMinRating(),
+                request.getSort() != null ? request.getSort() : SearchSort.RELEVANCE,
+                size);
+    }
+
+    private static String normalizeQuery(String query) {
+        return hasText(query) ? query.trim().replaceAll("\\s+", " ") : null;
+    }
+
+    private static List<String> normalizeTerms(List<String> values) {
+        if (values == null) {
+            return List.of();
+        }
+        return values.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,81 @@
+package kz.readhub.content_engine_service.service.search;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kz.readhub.content_engine_service.model.SearchCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encodes search cursors as URL-safe Base64 JSON so clients can treat them as opaque strings.
+ * A cursor without a point-in-time id continues on the live index.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchCursorCodec {
+
+    private final ObjectMapper objectMapper;
+
+    public String encode(String pitId, List<Object> searchAfter) {
+        return encode(pitId, searchAfter, null);
+    }
+
+    public String encode(String pitId, List<Object> searchAfter, Integer offset) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new SearchCursor(pitId, searchAfter, offset));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode search cursor", e);
+        }
+    }
+
+    public SearchCursor decode(String cursor) {
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor);
+            SearchCursor decoded = objectMapper.readValue(json, SearchCursor.class);
+            if (decoded.getOffset() == null ? decoded.getSearchAfter() == null : decoded.getOffset() < 0) {
+                throw new IllegalArgumentException("Invalid search cursor");
+            }
+            return decoded;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+    }
+
+    public List<Object> fromFieldValues(List<FieldValue> sortValues) {
+        List<Object> searchAfter = new ArrayList<>(sortValues.size());
+        for (FieldValue value : sortValues) {
+            searchAfter.add(value.isNull() ? null : value._get());
+        }
+        return searchAfter;
+    }
+
+    public List<FieldValue> toFieldValues(List<Object> searchAfter) {
+        List<FieldValue> values = new ArrayList<>(searchAfter.size());
+        for (Object value : searchAfter) {
+            values.add(toFieldValue(value));
+        }
+        return values;
+    }
+
+    private FieldValue toFieldValue(Object value) {
+        if (value == null) {
+            return FieldValue.NULL;
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return FieldValue.of(((Number) value).longValue());
+        }
+        if (value instanceof Number number) {
+            return FieldValue.of(number.doubleValue());
+        }
+        if (value instanceof Boolean bool) {
+            return FieldValue.of(bool);
+        }
+        return FieldValue.of(value.toString());
+    }
+}
@@ -0,0 +1,301 @@
+package kz.readhub.content_engine_service.service.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.Author;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.service.ingestion.IngestionListener;
+import kz.readhub.content_engine_service.service.query.QueryPlan;
+import kz.readhub.content_engine_service.util.Tokenizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size- and TTL-bounded cache of first search pages, invalidated from CDC ingestion.
+ * <p>
+ * Every cached key is registered under the terms a matching book must contain (query tokens, or filter
+ * values for filter-only queries) and under the ids of the books it returned. When books are indexed, only
+ * keys sharing a term with the old or new version of a book, or holding the book in their results, are
+ * dropped; queries with neither text nor term filters are dropped on any change. Large batches, and
+ * explicit calls to {@link #invalidateAll()}, bump a generation counter that retires every entry at once.
+ * <p>
+ * Results computed while an invalidation happened are not stored, so a page read before a book was
+ * indexed can never be cached after the invalidation that should have removed it.
+ */
+@Slf4j
+@Component
+public class SearchResultCache implements IngestionListener {
+
+    private static final String MATCH_ANY_BOOK = "*";
+
+    private final ContentEngineProperties.SearchCache settings;
+    private final Cache<SearchCacheKey, CachedPage> cache;
+    private final ConcurrentHashMap<String, Set<SearchCacheKey>> keysByTerm = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<SearchCacheKey>> keysByBook = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter invalidatedCounter;
+
+    public SearchResultCache(ContentEngineProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getSearchCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxEntries())
+                .expireAfterWrite(settings.getTtl())
+                .removalListener(this::onRemoval)
+                .build();
+        this.hitCounter = meterRegistry.counter("content.search.cache.requests", "result", "hit");
+        this.missCounter = meterRegistry.counter("content.search.cache.requests", "result", "miss");
+        this.invalidatedCounter = meterRegistry.counter("content.search.cache.invalidated");
+        Gauge.builder("content.search.cache.size", cache, Cache::estimatedSize)
+                .description("Cached search pages")
+                .register(meterRegistry);
+        Gauge.builder("content.search.cache.hit.ratio", this, SearchResultCache::hitRatio)
+                .description("Share of first-page searches served from the cache")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * Returns the cached page for a key, or {@code null} on a miss.
+     */
+    public CachedPage get(SearchCacheKey key) {
+        CachedPage page = cache.getIfPresent(key);
+        if (page != null && page.getGeneration() != generation.get()) {
+            cache.invalidate(key);
+            page = null;
+        }
+
+        if (page != null) {
+            hitCounter.increment();
+        } else {
+            missCounter.increment();
+        }
+        return page;
+    }
+
+    /**
+     * Token to pass to {@link #put}; taken before the search is sent to Elasticsearch.
+     */
+    public long readStamp() {
+        return invalidations.get();
+    }
+
+    public void put(SearchCacheKey key, long readStamp, String[] ids, double[] scores,
+                    List<Object> searchAfter, Long totalHits) {
+        CachedPage page = new CachedPage(ids, scores, searchAfter, totalHits, generation.get());
+        Set<String> terms = termsOf(key);
+        register(key, terms, ids);
+
+        if (invalidations.get() != readStamp) {
+            unregister(key, terms, ids);
+            return;
+        }
+        cache.put(key, page);
+        if (invalidations.get() != readStamp) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Retires every cached page, e.g. after the index behind the alias changed.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        generation.incrementAndGet();
+        invalidatedCounter.increment(cache.estimatedSize());
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onIndexed(List<BookChange> changes) {
+        if (!settings.isEnabled() || changes.isEmpty()) {
+            return;
+        }
+        if (changes.size() >= settings.getFullInvalidationThreshold()) {
+            invalidateAll();
+            return;
+        }
+
+        invalidations.incrementAndGet();
+        Set<SearchCacheKey> affected = new HashSet<>();
+        collect(affected, keysByTerm.get(MATCH_ANY_BOOK));
+        for (BookChange change : changes) {
+            collect(affected, keysByBook.get(change.getBookId()));
+            collectByTerms(affected, change.getDocument());
+            collectByTerms(affected, change.getPrevious());
+        }
+
+        if (!affected.isEmpty()) {
+            cache.invalidateAll(affected);
+            invalidatedCounter.increment(affected.size());
+            log.debug("Invalidated {} cached searches for {} indexed changes", affected.size(), changes.size());
+        }
+    }
+
+    private void collectByTerms(Set<SearchCacheKey> affected, BookDocument document) {
+        if (document == null) {
+            return;
+        }
+        for (String term : termsOf(document)) {
+            collect(affected, keysByTerm.get(term));
+        }
+    }
+
+    private static void collect(Set<SearchCacheKey> affected, Set<SearchCacheKey> keys) {
+        if (keys != null) {
+            affected.addAll(keys);
+        }
+    }
+
+    private void onRemoval(SearchCacheKey key, CachedPage page, RemovalCause cause) {
+        if (key == null || page == null || cache.asMap().containsKey(key)) {
+            return;
+        }
+        unregister(key, termsOf(key), page.getIds());
+    }
+
+    private void register(SearchCacheKey key, Set<String> terms, String[] ids) {
+        for (String term : terms) {
+            keysByTerm.computeIfAbsent(term, ignored -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        for (String id : ids) {
+            keysByBook.computeIfAbsent(id, ignored -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private void unregister(SearchCacheKey key, Set<String> terms, String[] ids) {
+        for (String term : terms) {
+            unregister(keysByTerm, term, key);
+        }
+        for (String id : ids) {
+            unregister(keysByBook, id, key);
+        }
+    }
+
+    private static void unregister(ConcurrentHashMap<String, Set<SearchCacheKey>> index,
+                                   String entry, SearchCacheKey key) {
+        index.computeIfPresent(entry, (ignored, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * Terms at least one of which every book matching the key must contain. A match of the multi-match
+     * query needs one query token; a filter-only query needs every filter, so any single filter's values do.
+     * Query-language plans contribute their anchors when the other criteria give no terms.
+     */
+    private static Set<String> termsOf(SearchCacheKey key) {
+        Set<String> terms = new HashSet<>();
+        if (key.getQuery() != null) {
+            Tokenizer.tokenize(key.getQuery()).forEach(token -> terms.add(textTerm(token)));
+        } else if (!key.getTags().isEmpty()) {
+            key.getTags().forEach(tag -> terms.add(tagTerm(tag)));
+        } else if (!key.getCategories().isEmpty()) {
+            key.getCategories().forEach(category -> terms.add(categoryTerm(category)));
+        } else if (!key.getAuthors().isEmpty()) {
+            key.getAuthors().forEach(author -> terms.add(authorTerm(author)));
+        } else if (key.getLanguage() != null) {
+            terms.add(languageTerm(key.getLanguage()));
+        } else if (key.getPlan() != null && key.getPlan().getAnchors() != null) {
+            key.getPlan().getAnchors().forEach(anchor -> terms.add(anchorTerm(anchor)));
+        }
+
+        if (terms.isEmpty()) {
+            terms.add(MATCH_ANY_BOOK);
+        }
+        return terms;
+    }
+
+    private static Set<String> termsOf(BookDocument document) {
+        Set<String> terms = new HashSet<>();
+        addTextTerms(terms, document.getTitle());
+        addTextTerms(terms, document.getDescription());
+        if (document.getAuthors() != null) {
+            for (Author author : document.getAuthors()) {
+                addTextTerms(terms, author.getName());
+                if (author.getName() != null) {
+                    terms.add(authorTerm(author.getName()));
+                }
+            }
+        }
+        if (document.getTags() != null) {
+            for (String tag : document.getTags()) {
+                addTextTerms(terms, tag);
+                terms.add(tagTerm(tag));
+            }
+        }
+        if (document.getCategories() != null) {
+            for (String category : document.getCategories()) {
+                addTextTerms(terms, category);
+                terms.add(categoryTerm(category));
+            }
+        }
+        if (document.getLanguage() != null) {
+            terms.add(languageTerm(document.getLanguage()));
+        }
+        return terms;
+    }
+
+    private static String anchorTerm(QueryPlan.Anchor anchor) {
+        if (anchor.getField() == null) {
+            return textTerm(anchor.getValue());
+        }
+        return switch (anchor.getField()) {
+            case AUTHOR -> authorTerm(anchor.getValue());
+            case TAG -> tagTerm(anchor.getValue());
+            case CATEGORY -> categoryTerm(anchor.getValue());
+            case LANGUAGE -> languageTerm(anchor.getValue());
+            default -> throw new IllegalArgumentException("No cache term for " + anchor);
+        };
+    }
+
+    private static void addTextTerms(Set<String> terms, String text) {
+        Tokenizer.tokenize(text).forEach(token -> terms.add(textTerm(token)));
+    }
+
+    private static String textTerm(String token) {
+        return "t:" + token;
+    }
+
+    private static String tagTerm(String tag) {
+        return "tag:" + tag;
+    }
+
+    private static String categoryTerm(String category) {
+        return "cat:" + category;
+    }
+
+    private static String authorTerm(String author) {
+        return "author:" + author;
+    }
+
+    private static String languageTerm(String language) {
+        return "lang:" + language.toLowerCase(Locale.ROOT);
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0 : hits / total;
+    }
+}
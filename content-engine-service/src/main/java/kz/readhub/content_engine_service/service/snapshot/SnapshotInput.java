@@ -0,0 +1,139 @@
+package kz.readhub.content_engine_service.service.snapshot;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Reader of a snapshot file written by {@link SnapshotOutput}, memory-mapped a window of at most 1 GB at a
+ * time so the file may exceed what a single mapping can address. Opening the file verifies its checksum.
+ */
+public final class SnapshotInput {
+
+    private static final long WINDOW_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final long end;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private SnapshotInput(FileChannel channel, long end) throws IOException {
+        this.channel = channel;
+        this.end = end;
+        map(0);
+    }
+
+    /**
+     * Opens a snapshot for reading after checking that its content matches the trailing checksum.
+     *
+     * @throws IOException if the file is truncated or corrupt
+     */
+    static SnapshotInput open(FileChannel channel) throws IOException {
+        long end = channel.size() - Long.BYTES;
+        if (end < 0) {
+            throw new EOFException("Snapshot is truncated");
+        }
+
+        CRC32C checksum = new CRC32C();
+        for (long position = 0; position < end; position += WINDOW_BYTES) {
+            checksum.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_BYTES, end - position)));
+        }
+        ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES);
+        while (trailer.hasRemaining()) {
+            if (channel.read(trailer, end + trailer.position()) < 0) {
+                throw new EOFException("Snapshot is truncated");
+            }
+        }
+        if (trailer.getLong(0) != checksum.getValue()) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        return new SnapshotInput(channel, end);
+    }
+
+    public int readInt() throws IOException {
+        return require(Integer.BYTES).getInt();
+    }
+
+    public long readLong() throws IOException {
+        return require(Long.BYTES).getLong();
+    }
+
+    public float readFloat() throws IOException {
+        return require(Float.BYTES).getFloat();
+    }
+
+    public double readDouble() throws IOException {
+        return require(Double.BYTES).getDouble();
+    }
+
+    public String readString() throws IOException {
+        byte[] bytes = new byte[readLength()];
+        readBytes(ByteBuffer.wrap(bytes));
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public String[] readStrings() throws IOException {
+        String[] values = new String[readLength()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString();
+        }
+        return values;
+    }
+
+    public int[] readInts() throws IOException {
+        int[] values = new int[readLength()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readInt();
+        }
+        return values;
+    }
+
+    public long[] readLongs() throws IOException {
+        long[] values = new long[readLength()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readLong();
+        }
+        return values;
+    }
+
+    /**
+     * Fills the remaining bytes of {@code target}.
+     */
+    public void readBytes(ByteBuffer target) throws IOException {
+        while (target.hasRemaining()) {
+            require(1);
+            int count = Math.min(window.remaining(), target.remaining());
+            ByteBuffer chunk = window.slice();
+            chunk.limit(count);
+            target.put(chunk);
+            window.position(window.position() + count);
+        }
+    }
+
+    private int readLength() throws IOException {
+        int length = readInt();
+        if (length < 0) {
+            throw new IOException("Negative length in snapshot");
+        }
+        return length;
+    }
+
+    private ByteBuffer require(int bytes) throws IOException {
+        if (window.remaining() < bytes) {
+            map(windowStart + window.position());
+            if (window.remaining() < bytes) {
+                throw new EOFException("Snapshot ended unexpectedly");
+            }
+        }
+        return window;
+    }
+
+    private void map(long position) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_BYTES, end - position));
+        windowStart = position;
+    }
+}
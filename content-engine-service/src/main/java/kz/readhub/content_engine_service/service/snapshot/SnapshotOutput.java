@@ -0,0 +1,116 @@
+package kz.readhub.content_engine_service.service.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Big-endian binary writer of a snapshot file. Everything written is covered by a CRC32C checksum,
+ * appended by {@link #finish()}. Arrays are written with their length.
+ */
+public final class SnapshotOutput {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final CRC32C checksum = new CRC32C();
+
+    SnapshotOutput(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    public void writeInt(int value) throws IOException {
+        reserve(Integer.BYTES).putInt(value);
+    }
+
+    public void writeLong(long value) throws IOException {
+        reserve(Long.BYTES).putLong(value);
+    }
+
+    public void writeFloat(float value) throws IOException {
+        reserve(Float.BYTES).putFloat(value);
+    }
+
+    public void writeDouble(double value) throws IOException {
+        reserve(Double.BYTES).putDouble(value);
+    }
+
+    public void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        writeBytes(ByteBuffer.wrap(bytes));
+    }
+
+    public void writeStrings(String[] values) throws IOException {
+        writeInt(values.length);
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    public void writeInts(int[] values) throws IOException {
+        writeInts(values, 0, values.length);
+    }
+
+    public void writeInts(int[] values, int from, int to) throws IOException {
+        writeInt(to - from);
+        for (int i = from; i < to; i++) {
+            writeInt(values[i]);
+        }
+    }
+
+    public void writeLongs(long[] values) throws IOException {
+        writeInt(values.length);
+        for (long value : values) {
+            writeLong(value);
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of {@code source} as they are, without a length.
+     */
+    public void writeBytes(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            reserve(1);
+            int count = Math.min(buffer.remaining(), source.remaining());
+            ByteBuffer chunk = source.slice();
+            chunk.limit(count);
+            buffer.put(chunk);
+            source.position(source.position() + count);
+        }
+    }
+
+    /**
+     * Writes the checksum of everything before it and syncs the file to disk.
+     */
+    void finish() throws IOException {
+        flush();
+        long value = checksum.getValue();
+        buffer.putLong(value);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        channel.force(true);
+    }
+
+    private ByteBuffer reserve(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+        return buffer;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        checksum.update(buffer.array(), 0, buffer.limit());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,242 @@
+package kz.readhub.content_engine_service.service.snapshot;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.exception.ContentEngineException;
+import kz.readhub.content_engine_service.service.ingestion.IngestionCheckpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warm restarts for the in-memory structures that follow CDC ingestion.
+ * <p>
+ * Every {@code interval} the state of all {@link Snapshottable}s is written into one checksummed binary
+ * file together with the Kafka offsets it covers. Ingestion is held while the file is written, so state
+ * and offsets agree; searches keep running. The file is written beside the previous one and renamed over
+ * it, so a crash never leaves a partial snapshot behind.
+ * <p>
+ * On startup the file is memory-mapped, its checksum verified and every section restored, and each
+ * partition is consumed from the snapshot's offset: only the tail of the topic written since is replayed.
+ * A snapshot from another format or from different settings is ignored; one that fails half-way through
+ * restoring is moved aside and fails startup, so the next start rebuilds from the topic.
+ */
+@Slf4j
+@Service
+public class SnapshotService {
+
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final int MAGIC = 0x52485350;
+    private static final int VERSION = 1;
+    private static final int SECTION_END = 0x454E4453;
+
+    private final ContentEngineProperties.Snapshot settings;
+    private final ObjectProvider<Snapshottable> participants;
+    private final IngestionCheckpoint checkpoint;
+    private final Timer writeTimer;
+    private final Counter failureCounter;
+    private final AtomicLong snapshotBytes = new AtomicLong();
+
+    private Scheduler scheduler;
+    private Disposable periodic;
+    private Map<TopicPartition, Long> lastOffsets;
+
+    public SnapshotService(ContentEngineProperties properties,
+                           ObjectProvider<Snapshottable> participants,
+                           IngestionCheckpoint checkpoint,
+                           MeterRegistry meterRegistry) {
+        this.settings = properties.getSnapshot();
+        this.participants = participants;
+        this.checkpoint = checkpoint;
+        this.writeTimer = Timer.builder("content.snapshot.write")
+                .description("Time to write a snapshot, ingestion held throughout")
+                .register(meterRegistry);
+        this.failureCounter = meterRegistry.counter("content.snapshot.failures");
+        Gauge.builder("content.snapshot.bytes", snapshotBytes, AtomicLong::get)
+                .description("Size of the latest snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        Path file = Path.of(settings.getDirectory()).resolve(SNAPSHOT_FILE);
+        Map<TopicPartition, Long> offsets = Files.exists(file) ? restore(file) : null;
+        checkpoint.resumeFrom(offsets != null ? offsets : Map.of(), settings.isReplayWithoutSnapshot());
+        lastOffsets = offsets;
+
+        scheduler = Schedulers.newSingle("snapshot");
+        long period = settings.getInterval().toMillis();
+        periodic = scheduler.schedulePeriodically(this::writeQuietly, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a final snapshot before any bean is destroyed, while ingestion is still running.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        if (periodic != null) {
+            periodic.dispose();
+        }
+        writeQuietly();
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (IOException | RuntimeException e) {
+            failureCounter.increment();
+            log.error("Failed to write snapshot", e);
+        }
+    }
+
+    /**
+     * Writes a snapshot unless nothing has been ingested since the previous one.
+     */
+    synchronized void write() throws IOException {
+        List<Snapshottable> sections = participants.orderedStream().toList();
+        Path directory = Path.of(settings.getDirectory());
+        Files.createDirectories(directory);
+        Path target = directory.resolve(SNAPSHOT_FILE);
+        Path temp = target.resolveSibling(SNAPSHOT_FILE + ".tmp");
+
+        long start = System.nanoTime();
+        long bytes;
+        Map<TopicPartition, Long> offsets = checkpoint.hold();
+        try {
+            if (offsets.equals(lastOffsets)) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                SnapshotOutput out = new SnapshotOutput(channel);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(offsets.size());
+                for (Map.Entry<TopicPartition, Long> offset : offsets.entrySet()) {
+                    out.writeString(offset.getKey().topic());
+                    out.writeInt(offset.getKey().partition());
+                    out.writeLong(offset.getValue());
+                }
+                out.writeInt(sections.size());
+                for (Snapshottable section : sections) {
+                    out.writeString(section.snapshotSection());
+                    out.writeString(section.snapshotFingerprint());
+                }
+                for (Snapshottable section : sections) {
+                    section.writeSnapshot(out);
+                    out.writeInt(SECTION_END);
+                }
+                out.finish();
+                bytes = channel.size();
+            }
+        } finally {
+            checkpoint.release();
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        snapshotBytes.set(bytes);
+        lastOffsets = offsets;
+        log.info("Wrote snapshot of {} sections, {} bytes, covering {} partitions in {} ms", sections.size(),
+                bytes, offsets.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Restores every section and returns the offsets the snapshot covers, or {@code null} when the
+     * snapshot cannot be used and nothing was restored.
+     */
+    private Map<TopicPartition, Long> restore(Path file) {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            SnapshotInput in;
+            Map<TopicPartition, Long> offsets = new HashMap<>();
+            Map<String, String> fingerprints = new LinkedHashMap<>();
+            try {
+                in = SnapshotInput.open(channel);
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    log.warn("Ignoring snapshot {} of an unknown format", file);
+                    return null;
+                }
+                in.readLong();
+                int partitions = in.readInt();
+                for (int i = 0; i < partitions; i++) {
+                    offsets.put(new TopicPartition(in.readString(), in.readInt()), in.readLong());
+                }
+                int sections = in.readInt();
+                for (int i = 0; i < sections; i++) {
+                    fingerprints.put(in.readString(), in.readString());
+                }
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable snapshot {}: {}", file, e.getMessage());
+                return null;
+            }
+
+            Map<String, Snapshottable> byName = new HashMap<>();
+            participants.orderedStream().forEach(participant -> byName.put(participant.snapshotSection(), participant));
+            if (!byName.keySet().equals(fingerprints.keySet())) {
+                log.warn("Ignoring snapshot {} with sections {}, expected {}", file, fingerprints.keySet(), byName.keySet());
+                return null;
+            }
+            for (Map.Entry<String, String> section : fingerprints.entrySet()) {
+                if (!Objects.equals(byName.get(section.getKey()).snapshotFingerprint(), section.getValue())) {
+                    log.warn("Ignoring snapshot {}: section {} was written with different settings", file, section.getKey());
+                    return null;
+                }
+            }
+
+            for (String section : fingerprints.keySet()) {
+                byName.get(section).restoreSnapshot(in);
+                if (in.readInt() != SECTION_END) {
+                    throw new IOException("Section " + section + " was not read to its end");
+                }
+            }
+            log.info("Restored snapshot of {} sections covering {} partitions in {} ms", fingerprints.size(),
+                    offsets.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return offsets;
+        } catch (IOException | RuntimeException e) {
+            Path aside = file.resolveSibling(SNAPSHOT_FILE + ".failed");
+            try {
+                Files.move(file, aside, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException moveFailure) {
+                e.addSuppressed(moveFailure);
+            }
+            throw new ContentEngineException("Failed to restore snapshot " + file + ", moved to " + aside, e);
+        }
+    }
+}
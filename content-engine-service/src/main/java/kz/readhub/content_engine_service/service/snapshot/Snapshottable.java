@@ -0,0 +1,32 @@
+package kz.readhub.content_engine_service.service.snapshot;
+
+import java.io.IOException;
+
+/**
+ * In-memory state that {@link SnapshotService} writes to disk and restores on startup, so a restart only
+ * replays the CDC records that arrived after the snapshot.
+ * <p>
+ * Snapshots are written while ingestion is held, but searches keep running: implementations take the
+ * same read lock their queries take. Restores run once, on startup, before any change is ingested.
+ */
+public interface Snapshottable {
+
+    /**
+     * Unique name of the section holding this state.
+     */
+    String snapshotSection();
+
+    /**
+     * The settings the state depends on; a section written under different ones is not restored.
+     */
+    default String snapshotFingerprint() {
+        return "";
+    }
+
+    void writeSnapshot(SnapshotOutput out) throws IOException;
+
+    /**
+     * Reads back exactly what {@link #writeSnapshot(SnapshotOutput)} wrote into empty state.
+     */
+    void restoreSnapshot(SnapshotInput in) throws IOException;
+}
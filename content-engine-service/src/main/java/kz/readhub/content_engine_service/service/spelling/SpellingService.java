@@ -0,0 +1,214 @@
+package kz.readhub.content_engine_service.service.spelling;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.Author;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.service.index.DocumentIdMap;
+import kz.readhub.content_engine_service.service.ingestion.IngestionListener;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+import kz.readhub.content_engine_service.service.snapshot.Snapshottable;
+import kz.readhub.content_engine_service.util.Tokenizer;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "Did you mean" suggestions from the vocabulary of indexed titles and author names.
+ * <p>
+ * The dictionary follows CDC ingestion: the terms of each book are remembered by dense id, so an update
+ * or delete subtracts the previous version's terms before adding the new ones, and term frequencies
+ * always reflect the books currently indexed.
+ */
+@Service
+public class SpellingService implements IngestionListener, Snapshottable {
+
+    private static final String[] NO_TERMS = new String[0];
+
+    private final ContentEngineProperties.Spelling settings;
+    private final DocumentIdMap documentIdMap;
+    private final SymSpellDictionary dictionary;
+    private final Int2ObjectOpenHashMap<String[]> termsByDocument = new Int2ObjectOpenHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Timer lookupTimer;
+
+    public SpellingService(ContentEngineProperties properties,
+                           DocumentIdMap documentIdMap,
+                           MeterRegistry meterRegistry) {
+        this.settings = properties.getSpelling();
+        this.documentIdMap = documentIdMap;
+        this.dictionary = new SymSpellDictionary(settings.getMaxEditDistance(), settings.getPrefixLength());
+        this.lookupTimer = Timer.builder("content.spelling.lookup")
+                .description("Time to compute a query suggestion")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("content.spelling.terms", this, SpellingService::size)
+                .description("Terms in the spelling dictionary")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    @Override
+    public void onIndexed(List<BookChange> changes) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (BookChange change : changes) {
+                int id = change.isDelete()
+                        ? documentIdMap.get(change.getBookId())
+                        : documentIdMap.getOrAssign(change.getBookId());
+                if (id < 0) {
+                    continue;
+                }
+                String[] terms = change.isDelete() ? NO_TERMS : termsOf(change.getDocument());
+                String[] previous = terms.length > 0 ? termsByDocument.put(id, terms) : termsByDocument.remove(id);
+                if (previous != null) {
+                    for (String term : previous) {
+                        dictionary.add(term, -1);
+                    }
+                }
+                for (String term : terms) {
+                    dictionary.add(term, 1);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String snapshotSection() {
+        return "spelling";
+    }
+
+    @Override
+    public String snapshotFingerprint() {
+        return "enabled=" + settings.isEnabled()
+                + ",maxEditDistance=" + settings.getMaxEditDistance()
+                + ",prefixLength=" + settings.getPrefixLength()
+                + ",minTermLength=" + settings.getMinTermLength();
+    }
+
+    /**
+     * Writes the dictionary and the terms of every book as dictionary term ids.
+     */
+    @Override
+    public void writeSnapshot(SnapshotOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            dictionary.writeTo(out);
+            out.writeInt(termsByDocument.size());
+            for (Int2ObjectMap.Entry<String[]> document : termsByDocument.int2ObjectEntrySet()) {
+                String[] terms = document.getValue();
+                int[] termIds = new int[terms.length];
+                for (int i = 0; i < terms.length; i++) {
+                    termIds[i] = dictionary.termId(terms[i]);
+                }
+                out.writeInt(document.getIntKey());
+                out.writeInts(termIds);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(SnapshotInput in) throws IOException {
+        lock.writeLock().lock();
+        try {
+            dictionary.readFrom(in);
+            int documents = in.readInt();
+            for (int i = 0; i < documents; i++) {
+                int id = in.readInt();
+                int[] termIds = in.readInts();
+                String[] terms = new String[termIds.length];
+                for (int t = 0; t < termIds.length; t++) {
+                    terms[t] = dictionary.term(termIds[t]);
+                }
+                termsByDocument.put(id, terms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The query with every unknown term replaced by its closest known term,
+     * or {@code null} when all terms are known or nothing close enough exists.
+     */
+    public String suggest(String query) {
+        if (!settings.isEnabled() || query == null || query.isBlank()) {
+            return null;
+        }
+        return lookupTimer.record(() -> correct(Tokenizer.tokenize(query)));
+    }
+
+    private String correct(List<String> tokens) {
+        List<String> corrected = new ArrayList<>(tokens.size());
+        boolean changed = false;
+
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                SymSpellDictionary.Suggestion suggestion = correctable(token) ? dictionary.lookup(token) : null;
+                if (suggestion != null && suggestion.getDistance() > 0) {
+                    corrected.add(suggestion.getTerm());
+                    changed = true;
+                } else {
+                    corrected.add(token);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return changed ? String.join(" ", corrected) : null;
+    }
+
+    private boolean correctable(String token) {
+        if (token.length() < settings.getMinTermLength()) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String[] termsOf(BookDocument document) {
+        List<String> terms = new ArrayList<>(Tokenizer.tokenize(document.getTitle()));
+        if (document.getAuthors() != null) {
+            for (Author author : document.getAuthors()) {
+                terms.addAll(Tokenizer.tokenize(author.getName()));
+            }
+        }
+        terms.removeIf(term -> !correctable(term));
+        return terms.toArray(NO_TERMS);
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return dictionary.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
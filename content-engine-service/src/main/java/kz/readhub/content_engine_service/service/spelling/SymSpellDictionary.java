@@ -0,0 +1,281 @@
+package kz.readhub.content_engine_service.service.spelling;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+import kz.readhub.content_engine_service.util.Hashing;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Symmetric-delete spelling dictionary.
+ * <p>
+ * Every term is registered under the hashes of all strings obtained by deleting up to {@code maxEditDistance}
+ * characters from its prefix. A lookup generates the same deletes of the misspelled word: a term within the
+ * edit distance shares at least one delete with it, so candidates come from a handful of hash probes instead
+ * of a scan of the vocabulary. Candidates are verified with an optimal-string-alignment distance, which also
+ * makes hash collisions harmless.
+ * <p>
+ * Frequencies may drop to zero as books change; such terms stay registered but are never suggested.
+ * Not thread-safe.
+ */
+final class SymSpellDictionary {
+
+    private final int maxEditDistance;
+    private final int prefixLength;
+
+    private final Object2IntOpenHashMap<String> termIds = new Object2IntOpenHashMap<>();
+    private final ObjectArrayList<String> terms = new ObjectArrayList<>();
+    private final IntArrayList frequencies = new IntArrayList();
+    private final Long2ObjectOpenHashMap<int[]> deletes = new Long2ObjectOpenHashMap<>();
+    private int maxTermLength;
+
+    SymSpellDictionary(int maxEditDistance, int prefixLength) {
+        if (prefixLength <= maxEditDistance) {
+            throw new IllegalArgumentException("prefixLength must be greater than maxEditDistance");
+        }
+        this.maxEditDistance = maxEditDistance;
+        this.prefixLength = prefixLength;
+        this.termIds.defaultReturnValue(-1);
+    }
+
+    /**
+     * Adjusts the frequency of a term by {@code delta}, registering it on first sight.
+     */
+    void add(String term, int delta) {
+        int id = termIds.getInt(term);
+        if (id < 0) {
+            if (delta <= 0) {
+                return;
+            }
+            id = register(term);
+        }
+        frequencies.set(id, Math.max(0, frequencies.getInt(id) + delta));
+    }
+
+    int frequency(String term) {
+        int id = termIds.getInt(term);
+        return id >= 0 ? frequencies.getInt(id) : 0;
+    }
+
+    /**
+     * Terms ever registered, including those whose frequency dropped to zero.
+     */
+    int size() {
+        return terms.size();
+    }
+
+    /**
+     * Id of a registered term, or -1.
+     */
+    int termId(String term) {
+        return termIds.getInt(term);
+    }
+
+    String term(int id) {
+        return terms.get(id);
+    }
+
+    /**
+     * Writes terms, frequencies and the delete index as they are, so restoring needs no delete generation.
+     */
+    void writeTo(SnapshotOutput out) throws IOException {
+        out.writeInt(terms.size());
+        for (int id = 0; id < terms.size(); id++) {
+            out.writeString(terms.get(id));
+            out.writeInt(frequencies.getInt(id));
+        }
+        out.writeInt(deletes.size());
+        for (Long2ObjectMap.Entry<int[]> entry : deletes.long2ObjectEntrySet()) {
+            out.writeLong(entry.getLongKey());
+            out.writeInts(entry.getValue());
+        }
+    }
+
+    void readFrom(SnapshotInput in) throws IOException {
+        if (!terms.isEmpty()) {
+            throw new IllegalStateException("Dictionary is not empty");
+        }
+        int termCount = in.readInt();
+        for (int id = 0; id < termCount; id++) {
+            String term = in.readString();
+            terms.add(term);
+            frequencies.add(in.readInt());
+            termIds.put(term, id);
+            maxTermLength = Math.max(maxTermLength, term.length());
+        }
+        int deleteCount = in.readInt();
+        for (int i = 0; i < deleteCount; i++) {
+            deletes.put(in.readLong(), in.readInts());
+        }
+    }
+
+    /**
+     * Closest known term to {@code word}: the smallest edit distance wins, the higher frequency breaks ties.
+     * A known word is returned as itself with distance 0; {@code null} when nothing is close enough.
+     */
+    Suggestion lookup(String word) {
+        int known = frequency(word);
+        if (known > 0) {
+            return new Suggestion(word, 0, known);
+        }
+        if (word.length() - maxEditDistance > maxTermLength) {
+            return null;
+        }
+
+        String bestTerm = null;
+        int bestDistance = maxEditDistance + 1;
+        int bestFrequency = 0;
+
+        String prefix = prefix(word);
+        IntOpenHashSet checked = new IntOpenHashSet();
+        Set<String> seen = new HashSet<>();
+        List<String> level = List.of(prefix);
+        seen.add(prefix);
+
+        for (int deleted = 0; deleted <= maxEditDistance && !level.isEmpty(); deleted++) {
+            // every term reached from here needs at least `deleted` edits
+            if (deleted > bestDistance) {
+                break;
+            }
+            List<String> next = new ArrayList<>();
+            for (String candidate : level) {
+                int[] ids = deletes.get(Hashing.hash64(candidate));
+                if (ids != null) {
+                    for (int id : ids) {
+                        if (!checked.add(id)) {
+                            continue;
+                        }
+                        String term = terms.get(id);
+                        int frequency = frequencies.getInt(id);
+                        if (frequency == 0 || Math.abs(term.length() - word.length()) > bestDistance) {
+                            continue;
+                        }
+                        int distance = distance(word, term, bestDistance);
+                        if (distance >= 0 && (distance < bestDistance
+                                || (distance == bestDistance && frequency > bestFrequency))) {
+                            bestTerm = term;
+                            bestDistance = distance;
+                            bestFrequency = frequency;
+                        }
+                    }
+                }
+                if (deleted < maxEditDistance && candidate.length() > 1) {
+                    for (int i = 0; i < candidate.length(); i++) {
+                        String shorter = candidate.substring(0, i) + candidate.substring(i + 1);
+                        if (seen.add(shorter)) {
+                            next.add(shorter);
+                        }
+                    }
+                }
+            }
+            level = next;
+        }
+
+        return bestTerm != null ? new Suggestion(bestTerm, bestDistance, bestFrequency) : null;
+    }
+
+    private int register(String term) {
+        int id = terms.size();
+        terms.add(term);
+        frequencies.add(0);
+        termIds.put(term, id);
+        maxTermLength = Math.max(maxTermLength, term.length());
+
+        Set<String> variants = new HashSet<>();
+        String prefix = prefix(term);
+        variants.add(prefix);
+        collectDeletes(prefix, 0, variants);
+        for (String variant : variants) {
+            long key = Hashing.hash64(variant);
+            int[] ids = deletes.get(key);
+            if (ids == null) {
+                deletes.put(key, new int[]{id});
+            } else {
+                int[] grown = Arrays.copyOf(ids, ids.length + 1);
+                grown[ids.length] = id;
+                deletes.put(key, grown);
+            }
+        }
+        return id;
+    }
+
+    private void collectDeletes(String value, int depth, Set<String> variants) {
+        if (depth == maxEditDistance || value.length() <= 1) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            String shorter = value.substring(0, i) + value.substring(i + 1);
+            if (variants.add(shorter)) {
+                collectDeletes(shorter, depth + 1, variants);
+            }
+        }
+    }
+
+    private String prefix(String value) {
+        return value.length() > prefixLength ? value.substring(0, prefixLength) : value;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions),
+     * or -1 as soon as it is known to exceed {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return -1;
+        }
+
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char cb = b.charAt(j - 1);
+                int cost = ca == cb ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return -1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[m] <= max ? previous[m] : -1;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Suggestion {
+        private String term;
+        private int distance;
+        private int frequency;
+    }
+}
@@ -0,0 +1,499 @@
+package kz.readhub.content_engine_service.service.trending;
+
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.get.GetResult;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
+import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.constant.ElasticIndices;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.ScoredId;
+import kz.readhub.content_engine_service.service.index.DocumentIdMap;
+import kz.readhub.content_engine_service.service.ingestion.IngestionListener;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+import kz.readhub.content_engine_service.service.snapshot.Snapshottable;
+import kz.readhub.content_engine_service.util.ScoredHeap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trending books: exponentially decayed activity scores, updated from CDC ingestion.
+ * <p>
+ * Each change of a book counts as an update event, and growth of its lifetime {@code downloadCount} since
+ * the previous change counts as that many download events. Events happen at the time the change was
+ * written to the CDC topic, so replaying the topic rebuilds the scores the history had rather than counting
+ * it all as happening now. Changes whose version is not newer than the last one seen for the book are
+ * skipped, so redelivered records count once. A book's score is
+ * {@code sum(weight * exp(-lambda * (now - t)))} over its events. It is kept as the logarithm of the
+ * undecayed sum {@code sum(weight * exp(lambda * t))}, measured from a fixed epoch: adding an event is one
+ * log-add-exp, the value never needs to be decayed, and ordering by it is ordering by the current score.
+ * <p>
+ * The top books are published into {@link BookDocument#getTrendingScore()} every {@code publishInterval}.
+ * Because the published value only changes when a book has new events, a publish rewrites just the books
+ * whose value changed or that left the top list. Documents are rewritten whole with their current
+ * version and {@code external_gte}, so a concurrent CDC write always wins.
+ */
+@Slf4j
+@Service
+public class TrendingService implements IngestionListener, Snapshottable {
+
+    /**
+     * 2025-01-01T00:00:00Z; log scores grow by {@code lambda} per second from here.
+     */
+    private static final long EPOCH_SECONDS = 1_735_689_600L;
+    private static final String[] NO_CATEGORIES = new String[0];
+
+    private final ReactiveElasticsearchClient elasticsearchClient;
+    private final DocumentIdMap documentIdMap;
+    private final ContentEngineProperties.Trending settings;
+    private final double lambda;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Int2DoubleOpenHashMap logScores = new Int2DoubleOpenHashMap();
+    private final Int2IntOpenHashMap lastDownloads = new Int2IntOpenHashMap();
+    private final Int2LongOpenHashMap lastVersions = new Int2LongOpenHashMap();
+    private final Int2ObjectOpenHashMap<String[]> categories = new Int2ObjectOpenHashMap<>();
+    private final Int2DoubleOpenHashMap published = new Int2DoubleOpenHashMap();
+    private final AtomicBoolean publishing = new AtomicBoolean();
+    private final Counter publishedCounter;
+
+    private Disposable publisher;
+
+    public TrendingService(ReactiveElasticsearchClient elasticsearchClient,
+                           DocumentIdMap documentIdMap,
+                           ContentEngineProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.documentIdMap = documentIdMap;
+        this.settings = properties.getTrending();
+        this.lambda = Math.log(2) / settings.getHalfLife().toSeconds();
+        this.publishedCounter = meterRegistry.counter("content.trending.published");
+        Gauge.builder("content.trending.size", this, TrendingService::size)
+                .description("Books with a trending score")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        Duration interval = settings.getPublishInterval();
+        publisher = Flux.interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> publish()
+                        .onErrorResume(error -> {
+                            log.warn("Failed to publish trending scores: {}", error.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (publisher != null) {
+            publisher.dispose();
+        }
+    }
+
+    @Override
+    public void onIndexed(List<BookChange> changes) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        double now = secondsSinceEpoch();
+        lock.writeLock().lock();
+        try {
+            for (BookChange change : changes) {
+                Long version = change.getDocument() != null ? change.getDocument().getVersion() : null;
+                if (change.isDelete()) {
+                    int id = documentIdMap.get(change.getBookId());
+                    if (id >= 0 && isNewer(id, version)) {
+                        logScores.remove(id);
+                        lastDownloads.remove(id);
+                        categories.remove(id);
+                    }
+                    continue;
+                }
+
+                BookDocument document = change.getDocument();
+                int id = documentIdMap.getOrAssign(change.getBookId());
+                if (!isNewer(id, version)) {
+                    continue;
+                }
+                double weight = settings.getUpdateWeight();
+                if (lastDownloads.containsKey(id)) {
+                    int downloads = document.getDownloadCount() - lastDownloads.get(id);
+                    weight += Math.max(0, downloads) * settings.getDownloadWeight();
+                }
+                lastDownloads.put(id, document.getDownloadCount());
+                if (weight > 0) {
+                    double event = Math.log(weight) + lambda * Math.min(now, secondsOf(change, now));
+                    logScores.put(id, logScores.containsKey(id) ? logAddExp(logScores.get(id), event) : event);
+                    categories.put(id, categoriesOf(document));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records {@code version} as the book's latest if it is newer than the last one seen; changes without
+     * a version are always applied.
+     */
+    private boolean isNewer(int id, Long version) {
+        if (version == null) {
+            return true;
+        }
+        if (lastVersions.containsKey(id) && lastVersions.get(id) >= version) {
+            return false;
+        }
+        lastVersions.put(id, version.longValue());
+        return true;
+    }
+
+    private static double secondsOf(BookChange change, double now) {
+        return change.getTimestamp() != null
+                ? change.getTimestamp().toEpochMilli() / 1000.0 - EPOCH_SECONDS
+                : now;
+    }
+
+    @Override
+    public String snapshotSection() {
+        return "trending";
+    }
+
+    @Override
+    public String snapshotFingerprint() {
+        return "enabled=" + settings.isEnabled() + ",halfLife=" + settings.getHalfLife() + ",versions=true";
+    }
+
+    /**
+     * Writes log scores, download counts, versions, categories and the published top list. Log scores are
+     * measured from the fixed epoch, so they stay valid however long the service was down.
+     */
+    @Override
+    public void writeSnapshot(SnapshotOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            writeScores(out, logScores);
+            out.writeInt(lastDownloads.size());
+            for (Int2IntMap.Entry entry : lastDownloads.int2IntEntrySet()) {
+                out.writeInt(entry.getIntKey());
+                out.writeInt(entry.getIntValue());
+            }
+            out.writeInt(lastVersions.size());
+            for (Int2LongMap.Entry entry : lastVersions.int2LongEntrySet()) {
+                out.writeInt(entry.getIntKey());
+                out.writeLong(entry.getLongValue());
+            }
+            out.writeInt(categories.size());
+            for (Int2ObjectMap.Entry<String[]> entry : categories.int2ObjectEntrySet()) {
+                out.writeInt(entry.getIntKey());
+                out.writeStrings(entry.getValue());
+            }
+            writeScores(out, published);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(SnapshotInput in) throws IOException {
+        lock.writeLock().lock();
+        try {
+            readScores(in, logScores);
+            int downloads = in.readInt();
+            for (int i = 0; i < downloads; i++) {
+                lastDownloads.put(in.readInt(), in.readInt());
+            }
+            int versions = in.readInt();
+            for (int i = 0; i < versions; i++) {
+                lastVersions.put(in.readInt(), in.readLong());
+            }
+            int categorized = in.readInt();
+            for (int i = 0; i < categorized; i++) {
+                categories.put(in.readInt(), in.readStrings());
+            }
+            readScores(in, published);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void writeScores(SnapshotOutput out, Int2DoubleOpenHashMap scores) throws IOException {
+        out.writeInt(scores.size());
+        for (Int2DoubleMap.Entry entry : scores.int2DoubleEntrySet()) {
+            out.writeInt(entry.getIntKey());
+            out.writeDouble(entry.getDoubleValue());
+        }
+    }
+
+    private static void readScores(SnapshotInput in, Int2DoubleOpenHashMap scores) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            scores.put(in.readInt(), in.readDouble());
+        }
+    }
+
+    /**
+     * Copies the last published score into documents about to be indexed, so CDC writes keep it.
+     */
+    public void annotate(List<BookChange> changes) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            for (BookChange change : changes) {
+                if (!change.isDelete()) {
+                    int id = documentIdMap.get(change.getBookId());
+                    change.getDocument().setTrendingScore(id >= 0 && published.containsKey(id) ? published.get(id) : null);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets what was published, so the next publish writes the whole top list again;
+     * used after the index has been rebuilt.
+     */
+    public void resetPublished() {
+        lock.writeLock().lock();
+        try {
+            published.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Books with the highest current scores, optionally in one category; scores are current decayed values.
+     */
+    public List<ScoredId> trending(String category, int k) {
+        if (!settings.isEnabled()) {
+            return List.of();
+        }
+
+        String wanted = category != null && !category.isBlank() ? category.trim().toLowerCase(Locale.ROOT) : null;
+        double now = lambda * secondsSinceEpoch();
+        ScoredHeap top = ScoredHeap.minHeap(k);
+        lock.readLock().lock();
+        try {
+            for (Int2DoubleMap.Entry entry : logScores.int2DoubleEntrySet()) {
+                if (wanted == null || contains(categories.get(entry.getIntKey()), wanted)) {
+                    top.offer(entry.getIntKey(), (float) (entry.getDoubleValue() - now), k);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int count = top.size();
+        int[] ids = new int[count];
+        float[] logs = new float[count];
+        top.drainDescending(ids, logs);
+        List<ScoredId> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String bookId = documentIdMap.bookId(ids[i]);
+            if (bookId != null) {
+                results.add(new ScoredId(bookId, Math.exp(logs[i])));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Writes the top-list scores that changed since the previous publish to the index.
+     */
+    Mono<Void> publish() {
+        if (!publishing.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+
+        Map<String, Double> updates = nextPublication();
+        if (updates.isEmpty()) {
+            publishing.set(false);
+            return Mono.empty();
+        }
+        return write(updates)
+                .doFinally(signal -> publishing.set(false));
+    }
+
+    /**
+     * Drops books whose score decayed below {@code minScore} and records the current top list as published.
+     * Returns the scores that changed since the previous publish, and {@code null} for books that left the
+     * top list.
+     */
+    Map<String, Double> nextPublication() {
+        Map<String, Double> updates = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            prune(lambda * secondsSinceEpoch() + Math.log(settings.getMinScore()));
+
+            Int2DoubleOpenHashMap top = topLogScores(settings.getPublishSize());
+            for (Int2DoubleMap.Entry entry : top.int2DoubleEntrySet()) {
+                double previous = published.containsKey(entry.getIntKey()) ? published.get(entry.getIntKey()) : Double.NaN;
+                if (previous != entry.getDoubleValue()) {
+                    updates.put(documentIdMap.bookId(entry.getIntKey()), entry.getDoubleValue());
+                }
+            }
+            for (int id : published.keySet()) {
+                if (!top.containsKey(id)) {
+                    updates.put(documentIdMap.bookId(id), null);
+                }
+            }
+            published.clear();
+            published.putAll(top);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        updates.remove(null);
+        return updates;
+    }
+
+    private Mono<Void> write(Map<String, Double> updates) {
+        List<String> ids = new ArrayList<>(updates.keySet());
+        return Mono.defer(() -> elasticsearchClient.mget(mget -> mget.index(ElasticIndices.BOOKS).ids(ids), BookDocument.class))
+                .flatMap(response -> {
+                    List<BulkOperation> operations = new ArrayList<>();
+                    for (MultiGetResponseItem<BookDocument> item : response.docs()) {
+                        if (!item.isResult() || !item.result().found() || item.result().source() == null) {
+                            continue;
+                        }
+                        GetResult<BookDocument> result = item.result();
+                        BookDocument document = result.source();
+                        document.setTrendingScore(updates.get(result.id()));
+                        operations.add(BulkOperation.of(op -> op.index(index -> index
+                                .index(ElasticIndices.BOOKS)
+                                .id(result.id())
+                                .document(document)
+                                .version(result.version())
+                                .versionType(VersionType.ExternalGte))));
+                    }
+                    if (operations.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    return Mono.defer(() -> elasticsearchClient.bulk(BulkRequest.of(bulk -> bulk.operations(operations))));
+                })
+                .doOnNext(response -> {
+                    long written = response.items().stream().filter(item -> item.error() == null).count();
+                    long stale = response.items().stream().filter(item -> item.status() == 409).count();
+                    publishedCounter.increment(written);
+                    log.debug("Published {} trending scores ({} superseded by newer writes)", written, stale);
+                    logFailures(response.items());
+                })
+                .doOnError(error -> resetPublished())
+                .then();
+    }
+
+    private void logFailures(List<BulkResponseItem> items) {
+        items.stream()
+                .filter(item -> item.error() != null && item.status() != 409)
+                .findFirst()
+                .ifPresent(item -> log.warn("Failed to publish trending score of {}: {}", item.id(), item.error().reason()));
+    }
+
+    private Int2DoubleOpenHashMap topLogScores(int k) {
+        ScoredHeap heap = ScoredHeap.minHeap(k);
+        double now = lambda * secondsSinceEpoch();
+        for (Int2DoubleMap.Entry entry : logScores.int2DoubleEntrySet()) {
+            heap.offer(entry.getIntKey(), (float) (entry.getDoubleValue() - now), k);
+        }
+        Int2DoubleOpenHashMap top = new Int2DoubleOpenHashMap(heap.size());
+        while (!heap.isEmpty()) {
+            int id = heap.pop();
+            top.put(id, logScores.get(id));
+        }
+        return top;
+    }
+
+    private void prune(double threshold) {
+        IntArrayList expired = new IntArrayList();
+        for (Int2DoubleMap.Entry entry : logScores.int2DoubleEntrySet()) {
+            if (entry.getDoubleValue() < threshold) {
+                expired.add(entry.getIntKey());
+            }
+        }
+        for (int i = 0; i < expired.size(); i++) {
+            logScores.remove(expired.getInt(i));
+            categories.remove(expired.getInt(i));
+        }
+    }
+
+    private static double logAddExp(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    private static String[] categoriesOf(BookDocument document) {
+        if (document.getCategories() == null || document.getCategories().isEmpty()) {
+            return NO_CATEGORIES;
+        }
+        return document.getCategories().stream()
+                .map(category -> category.toLowerCase(Locale.ROOT))
+                .toArray(String[]::new);
+    }
+
+    private static boolean contains(String[] values, String wanted) {
+        if (values != null) {
+            for (String value : values) {
+                if (value.equals(wanted)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static double secondsSinceEpoch() {
+        return System.currentTimeMillis() / 1000.0 - EPOCH_SECONDS;
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return logScores.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,729 @@
+package kz.readhub.content_engine_service.service.vector;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+import kz.readhub.content_engine_service.util.ScoredHeap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical Navigable Small World graph for approximate nearest-neighbour search
+ * (Malkov &amp; Yashunin, 2016) over unit-length vectors scored by dot product.
+ * <p>
+ * Vectors are kept off-heap in a {@link VectorStore}; adjacency lists are plain int arrays. When the graph
+ * runs on a lossy store, an optional full-precision store re-scores the best {@code rescoreFactor * k}
+ * candidates of each query exactly.
+ * Each node carries an integer label supplied by the caller; labels may be sparse, as when the index holds
+ * one shard of the books. Updating a label with a different vector appends a new node and tombstones the old
+ * one: tombstoned nodes still route searches but never appear in results. {@link #compact()} rebuilds the graph
+ * from the live nodes to reclaim them; an update with an unchanged vector leaves the graph alone.
+ * Searches run concurrently under a read lock, mutations are serialized under the write lock. A compaction
+ * builds the new graph beside this one and holds the write lock only to swap it in.
+ */
+public final class HnswIndex {
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private VectorStore vectors;
+    private VectorStore exact;
+    private final int rescoreFactor;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<VisitedSet> visited = ThreadLocal.withInitial(VisitedSet::new);
+
+    /**
+     * links[node][level] = {count, neighbour...}
+     */
+    private int[][][] links = new int[1024][][];
+    private int[] labels = new int[1024];
+    private Int2IntOpenHashMap labelToNode = new Int2IntOpenHashMap();
+    private BitSet deleted = new BitSet();
+    private int nodeCount;
+    private int liveCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    /**
+     * Mutations made while a compaction builds its graph, replayed onto it before the swap; {@code null}
+     * when no compaction runs.
+     */
+    private List<Mutation> journal;
+    private boolean closed;
+
+    public HnswIndex(int dimension, int m, int efConstruction, int pageSize) {
+        this(new OffHeapVectorStore(dimension, pageSize), null, m, efConstruction, 1);
+    }
+
+    /**
+     * @param vectors       store the graph is built and searched on
+     * @param exact         full-precision copies used to re-score candidates, or {@code null}
+     * @param rescoreFactor candidates re-scored per requested result
+     */
+    public HnswIndex(VectorStore vectors, VectorStore exact, int m, int efConstruction, int rescoreFactor) {
+        if (exact != null && exact.dimension() != vectors.dimension()) {
+            throw new IllegalArgumentException("Rescoring store has a different dimension");
+        }
+        this.dimension = vectors.dimension();
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.vectors = vectors;
+        this.exact = exact;
+        this.rescoreFactor = Math.max(1, rescoreFactor);
+        labelToNode.defaultReturnValue(-1);
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removed or replaced nodes the graph and its stores still hold.
+     */
+    public int tombstones() {
+        lock.readLock().lock();
+        try {
+            return nodeCount - liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return vectors.offHeapBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            closed = true;
+            vectors.close();
+            if (exact != null) {
+                exact.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(int label) {
+        lock.readLock().lock();
+        try {
+            return nodeOf(label) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the vector stored for the label, or {@code null} when absent.
+     */
+    public float[] vectorOf(int label) {
+        lock.readLock().lock();
+        try {
+            int node = nodeOf(label);
+            return node >= 0 ? (exact != null ? exact.get(node) : vectors.get(node)) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the graph, tombstones included, and its vector stores, so a restored index answers exactly
+     * like this one without rebuilding a single link.
+     */
+    public void writeTo(SnapshotOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(nodeCount);
+            out.writeInt(liveCount);
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            for (int node = 0; node < nodeCount; node++) {
+                out.writeInt(labels[node]);
+                out.writeInt(links[node].length);
+                for (int[] level : links[node]) {
+                    out.writeInts(level, 1, level[0] + 1);
+                }
+            }
+            out.writeLongs(deleted.toLongArray());
+            vectors.writeTo(out);
+            if (exact != null) {
+                exact.writeTo(out);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Restores a graph written by {@link #writeTo(SnapshotOutput)} into this empty index.
+     */
+    public void readFrom(SnapshotInput in) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (nodeCount > 0) {
+                throw new IllegalStateException("Index is not empty");
+            }
+            int nodes = in.readInt();
+            int live = in.readInt();
+            int entry = in.readInt();
+            int topLevel = in.readInt();
+            ensureCapacity(nodes);
+            for (int node = 0; node < nodes; node++) {
+                labels[node] = in.readInt();
+                int levels = in.readInt();
+                links[node] = new int[levels][];
+                for (int l = 0; l < levels; l++) {
+                    int[] neighbours = in.readInts();
+                    int[] list = new int[Math.max((l == 0 ? maxM0 : m), neighbours.length) + 1];
+                    list[0] = neighbours.length;
+                    System.arraycopy(neighbours, 0, list, 1, neighbours.length);
+                    links[node][l] = list;
+                }
+            }
+            deleted.or(BitSet.valueOf(in.readLongs()));
+            vectors.readFrom(in);
+            if (exact != null) {
+                exact.readFrom(in);
+            }
+            if (vectors.size() != nodes || (exact != null && exact.size() != nodes)) {
+                throw new IOException("Snapshot has " + nodes + " nodes but " + vectors.size() + " vectors");
+            }
+
+            for (int node = 0; node < nodes; node++) {
+                if (!deleted.get(node)) {
+                    labelToNode.put(labels[node], node);
+                }
+            }
+            nodeCount = nodes;
+            liveCount = live;
+            entryPoint = entry;
+            maxLevel = topLevel;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces the vector of a label. The vector is normalized in place; a label whose stored
+     * vector already matches it is left as is.
+     */
+    public void upsert(int label, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected dimension " + dimension + " but got " + vector.length);
+        }
+        if (!normalize(vector)) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            int previous = nodeOf(label);
+            if (previous >= 0 && (exact != null ? exact : vectors).matches(previous, vector)) {
+                return;
+            }
+            replace(label, vector);
+            if (journal != null) {
+                journal.add(new Mutation(label, vector.clone()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int label) {
+        lock.writeLock().lock();
+        try {
+            if (nodeOf(label) >= 0) {
+                delete(label);
+                if (journal != null) {
+                    journal.add(new Mutation(label, null));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the graph and its stores from the live nodes, dropping every tombstone. Vectors are re-inserted
+     * from the full-precision store when there is one, at the cost of one insertion per live node.
+     * <p>
+     * The live vectors are copied under the read lock and the new graph is built from the copy without any
+     * lock, so searches and mutations carry on meanwhile. Mutations made during the build are journaled and
+     * replayed onto the new graph under the write lock, which is held only for that and the swap. Compactions
+     * of one index must not overlap.
+     */
+    public void compact() {
+        int[] liveLabels;
+        float[][] liveVectors;
+        HnswIndex rebuilt;
+        lock.readLock().lock();
+        try {
+            if (liveCount == nodeCount || closed) {
+                return;
+            }
+            liveLabels = new int[liveCount];
+            liveVectors = new float[liveCount][];
+            int count = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                if (!deleted.get(node)) {
+                    liveLabels[count] = labels[node];
+                    liveVectors[count] = exact != null ? exact.get(node) : vectors.get(node);
+                    count++;
+                }
+            }
+            rebuilt = new HnswIndex(vectors.createEmpty(), exact != null ? exact.createEmpty() : null,
+                    m, efConstruction, rescoreFactor);
+            journal = new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        boolean swapped = false;
+        try {
+            rebuilt.ensureCapacity(liveLabels.length);
+            for (int i = 0; i < liveLabels.length; i++) {
+                rebuilt.insert(liveLabels[i], liveVectors[i]);
+            }
+            swapped = swap(rebuilt);
+        } finally {
+            if (!swapped) {
+                lock.writeLock().lock();
+                try {
+                    journal = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                rebuilt.close();
+            }
+        }
+    }
+
+    /**
+     * Replays the journal onto the rebuilt graph and takes over its state; returns {@code false} when this
+     * index was closed meanwhile.
+     */
+    private boolean swap(HnswIndex rebuilt) {
+        VectorStore oldVectors;
+        VectorStore oldExact;
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            for (Mutation mutation : journal) {
+                if (mutation.vector != null) {
+                    rebuilt.replace(mutation.label, mutation.vector);
+                } else if (rebuilt.nodeOf(mutation.label) >= 0) {
+                    rebuilt.delete(mutation.label);
+                }
+            }
+            journal = null;
+
+            oldVectors = vectors;
+            oldExact = exact;
+            vectors = rebuilt.vectors;
+            exact = rebuilt.exact;
+            links = rebuilt.links;
+            labels = rebuilt.labels;
+            labelToNode = rebuilt.labelToNode;
+            deleted = rebuilt.deleted;
+            nodeCount = rebuilt.nodeCount;
+            liveCount = rebuilt.liveCount;
+            entryPoint = rebuilt.entryPoint;
+            maxLevel = rebuilt.maxLevel;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        oldVectors.close();
+        if (oldExact != null) {
+            oldExact.close();
+        }
+        return true;
+    }
+
+    /**
+     * Approximate k nearest neighbours of the query.
+     *
+     * @param query     query vector, normalized in place
+     * @param k         number of results
+     * @param efSearch  size of the dynamic candidate list; higher is slower and more accurate
+     * @param exclude   label to leave out of the results, or -1
+     * @param outLabels receives result labels by descending similarity
+     * @param outScores receives cosine similarities
+     * @return number of results written
+     */
+    public int search(float[] query, int k, int efSearch, int exclude, int[] outLabels, float[] outScores) {
+        if (query.length != dimension || !normalize(query)) {
+            return 0;
+        }
+
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return 0;
+            }
+
+            int current = entryPoint;
+            float currentScore = vectors.dot(query, current);
+            for (int level = maxLevel; level > 0; level--) {
+                boolean changed = true;
+                while (changed) {
+                    changed = false;
+                    int[] neighbours = neighbours(current, level);
+                    for (int i = 1; i <= neighbours[0]; i++) {
+                        float score = vectors.dot(query, neighbours[i]);
+                        if (score > currentScore) {
+                            currentScore = score;
+                            current = neighbours[i];
+                            changed = true;
+                        }
+                    }
+                }
+            }
+
+            int ef = Math.max(efSearch, k + (exclude >= 0 ? 1 : 0));
+            ScoredHeap found = searchLayer(query, current, ef, 0, true);
+            ScoredHeap results = exact != null ? rescore(query, found, k, exclude) : ScoredHeap.minHeap(k);
+            while (!found.isEmpty()) {
+                float score = found.topScore();
+                int label = labels[found.pop()];
+                if (label != exclude) {
+                    results.offer(label, score, k);
+                }
+            }
+
+            int count = results.size();
+            results.drainDescending(outLabels, outScores);
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-scores the best candidates against full-precision vectors and empties {@code found}.
+     */
+    private ScoredHeap rescore(float[] query, ScoredHeap found, int k, int exclude) {
+        int count = found.size();
+        int[] nodes = new int[count];
+        float[] approximate = new float[count];
+        found.drainDescending(nodes, approximate);
+
+        int candidates = Math.min(count, k * rescoreFactor + (exclude >= 0 ? 1 : 0));
+        ScoredHeap results = ScoredHeap.minHeap(k);
+        for (int i = 0; i < candidates; i++) {
+            int label = labels[nodes[i]];
+            if (label != exclude) {
+                results.offer(label, exact.dot(query, nodes[i]), k);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Exact k nearest neighbours by scanning every live vector; used to measure recall.
+     * Scores come from the full-precision store when there is one.
+     */
+    public int exactSearch(float[] query, int k, int exclude, int[] outLabels, float[] outScores) {
+        if (query.length != dimension || !normalize(query)) {
+            return 0;
+        }
+
+        lock.readLock().lock();
+        try {
+            VectorStore store = exact != null ? exact : vectors;
+            ScoredHeap results = ScoredHeap.minHeap(k);
+            for (int node = 0; node < nodeCount; node++) {
+                if (!deleted.get(node) && labels[node] != exclude) {
+                    results.offer(labels[node], store.dot(query, node), k);
+                }
+            }
+            int count = results.size();
+            results.drainDescending(outLabels, outScores);
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void replace(int label, float[] vector) {
+        int previous = nodeOf(label);
+        if (previous >= 0) {
+            tombstone(previous);
+        }
+        insert(label, vector);
+    }
+
+    private void delete(int label) {
+        tombstone(nodeOf(label));
+        labelToNode.remove(label);
+    }
+
+    private void insert(int label, float[] vector) {
+        int node = vectors.add(vector);
+        if (exact != null) {
+            exact.add(vector);
+        }
+        int level = randomLevel();
+        ensureCapacity(node + 1);
+
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[(l == 0 ? maxM0 : m) + 1];
+        }
+        labels[node] = label;
+        labelToNode.put(label, node);
+        nodeCount++;
+        liveCount++;
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int current = entryPoint;
+        float currentScore = vectors.dot(node, current);
+        for (int l = maxLevel; l > level; l--) {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                int[] neighbours = neighbours(current, l);
+                for (int i = 1; i <= neighbours[0]; i++) {
+                    float score = vectors.dot(node, neighbours[i]);
+                    if (score > currentScore) {
+                        currentScore = score;
+                        current = neighbours[i];
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            ScoredHeap candidates = searchLayer(vector, current, efConstruction, l, false);
+            int maxConnections = l == 0 ? maxM0 : m;
+            int[] selected = selectNeighbours(candidates, m);
+
+            int[] own = links[node][l];
+            for (int neighbour : selected) {
+                own[++own[0]] = neighbour;
+                connect(neighbour, node, l, maxConnections);
+            }
+            if (selected.length > 0) {
+                current = selected[0];
+            }
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * Beam search within one layer. Returns a min-heap of the best {@code ef} nodes found.
+     */
+    private ScoredHeap searchLayer(float[] query, int start, int ef, int level, boolean skipDeleted) {
+        VisitedSet seen = visited.get();
+        seen.reset(nodeCount);
+
+        ScoredHeap candidates = ScoredHeap.maxHeap(ef * 2);
+        ScoredHeap results = ScoredHeap.minHeap(ef + 1);
+
+        float startScore = vectors.dot(query, start);
+        seen.add(start);
+        candidates.push(start, startScore);
+        if (!skipDeleted || !deleted.get(start)) {
+            results.push(start, startScore);
+        }
+
+        while (!candidates.isEmpty()) {
+            float candidateScore = candidates.topScore();
+            if (results.size() >= ef && candidateScore < results.topScore()) {
+                break;
+            }
+            int candidate = candidates.pop();
+
+            int[] neighbours = neighbours(candidate, level);
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int neighbour = neighbours[i];
+                if (!seen.add(neighbour)) {
+                    continue;
+                }
+                float score = vectors.dot(query, neighbour);
+                if (results.size() < ef || score > results.topScore()) {
+                    candidates.push(neighbour, score);
+                    if (!skipDeleted || !deleted.get(neighbour)) {
+                        results.push(neighbour, score);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Neighbour selection heuristic: a candidate is kept only if it is closer to the new node than to
+     * every neighbour kept so far, which spreads links across clusters.
+     */
+    private int[] selectNeighbours(ScoredHeap candidates, int maxCount) {
+        int count = candidates.size();
+        int[] ids = new int[count];
+        float[] scores = new float[count];
+        candidates.drainDescending(ids, scores);
+
+        int[] selected = new int[Math.min(maxCount, count)];
+        int selectedCount = 0;
+        for (int i = 0; i < count && selectedCount < selected.length; i++) {
+            boolean keep = true;
+            for (int j = 0; j < selectedCount; j++) {
+                if (vectors.dot(ids[i], selected[j]) > scores[i]) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[selectedCount++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(selected, selectedCount);
+    }
+
+    private void connect(int from, int to, int level, int maxConnections) {
+        int[] list = links[from][level];
+        if (list[0] < maxConnections) {
+            list[++list[0]] = to;
+            return;
+        }
+
+        ScoredHeap candidates = ScoredHeap.minHeap(maxConnections + 1);
+        candidates.push(to, vectors.dot(from, to));
+        for (int i = 1; i <= list[0]; i++) {
+            candidates.push(list[i], vectors.dot(from, list[i]));
+        }
+        int[] selected = selectNeighbours(candidates, maxConnections);
+        list[0] = selected.length;
+        System.arraycopy(selected, 0, list, 1, selected.length);
+    }
+
+    private int[] neighbours(int node, int level) {
+        int[][] nodeLinks = links[node];
+        return level < nodeLinks.length ? nodeLinks[level] : EMPTY;
+    }
+
+    private void tombstone(int node) {
+        if (!deleted.get(node)) {
+            deleted.set(node);
+            liveCount--;
+        }
+    }
+
+    private int nodeOf(int label) {
+        return labelToNode.get(label);
+    }
+
+    private int randomLevel() {
+        return (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+    }
+
+    private void ensureCapacity(int nodes) {
+        if (nodes > links.length) {
+            int capacity = Math.max(nodes, links.length * 2);
+            links = Arrays.copyOf(links, capacity);
+            labels = Arrays.copyOf(labels, capacity);
+        }
+    }
+
+    private static boolean normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0 || Double.isNaN(norm)) {
+            return false;
+        }
+        float inverse = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= inverse;
+        }
+        return true;
+    }
+
+    private static final int[] EMPTY = {0};
+
+    /**
+     * A journaled upsert, or a removal when {@code vector} is {@code null}.
+     */
+    private static final class Mutation {
+
+        private final int label;
+        private final float[] vector;
+
+        private Mutation(int label, float[] vector) {
+            this.label = label;
+            this.vector = vector;
+        }
+    }
+
+    /**
+     * Visited marks reused across searches on the same thread; a generation counter avoids clearing.
+     */
+    private static final class VisitedSet {
+
+        private int[] marks = new int[1024];
+        private int generation;
+
+        void reset(int capacity) {
+            if (capacity > marks.length) {
+                marks = new int[Math.max(capacity, marks.length * 2)];
+                generation = 0;
+            }
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        boolean add(int node) {
+            if (marks[node] == generation) {
+                return false;
+            }
+            marks[node] = generation;
+            return true;
+        }
+    }
+}
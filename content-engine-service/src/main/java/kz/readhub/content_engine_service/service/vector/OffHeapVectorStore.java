@@ -0,0 +1,208 @@
+package kz.readhub.content_engine_service.service.vector;
+
+import kz.readhub.content_engine_service.exception.ContentEngineException;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-dimension float vectors stored outside the Java heap.
+ * Vectors live in direct buffers of {@code pageSize} vectors each, so a vector is always contiguous
+ * and the store grows page by page without copying existing data.
+ * <p>
+ * When opened on a file, pages are memory-mapped from it instead: the operating system keeps only the
+ * pages being read resident, which suits full-precision copies that are touched for a few vectors per query.
+ * The file is scratch space, truncated on open. {@link #createEmpty()} alternates between the file and a
+ * {@code .next} sibling, so a store and the one replacing it never share a file.
+ */
+public final class OffHeapVectorStore implements VectorStore {
+
+    private static final String NEXT_SUFFIX = ".next";
+
+    private final int dimension;
+    private final int pageSize;
+    private final Path path;
+    private final FileChannel file;
+    private final List<FloatBuffer> pages = new ArrayList<>();
+    private int size;
+
+    public OffHeapVectorStore(int dimension, int pageSize) {
+        this.dimension = dimension;
+        this.pageSize = pageSize;
+        this.path = null;
+        this.file = null;
+    }
+
+    public OffHeapVectorStore(int dimension, int pageSize, Path path) {
+        this.dimension = dimension;
+        this.pageSize = pageSize;
+        this.path = path;
+        try {
+            this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new ContentEngineException("Failed to open vector file " + path, e);
+        }
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int add(float[] vector) {
+        int slot = size;
+        int pageIndex = slot / pageSize;
+        if (pageIndex == pages.size()) {
+            pages.add(allocatePage(pageIndex)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer());
+        }
+        pages.get(pageIndex).put((slot % pageSize) * dimension, vector, 0, dimension);
+        size++;
+        return slot;
+    }
+
+    @Override
+    public float dot(float[] query, int slot) {
+        FloatBuffer page = pages.get(slot / pageSize);
+        int offset = (slot % pageSize) * dimension;
+        float sum = 0f;
+        for (int i = 0; i < dimension; i++) {
+            sum += query[i] * page.get(offset + i);
+        }
+        return sum;
+    }
+
+    @Override
+    public float dot(int slotA, int slotB) {
+        FloatBuffer pageA = pages.get(slotA / pageSize);
+        FloatBuffer pageB = pages.get(slotB / pageSize);
+        int offsetA = (slotA % pageSize) * dimension;
+        int offsetB = (slotB % pageSize) * dimension;
+        float sum = 0f;
+        for (int i = 0; i < dimension; i++) {
+            sum += pageA.get(offsetA + i) * pageB.get(offsetB + i);
+        }
+        return sum;
+    }
+
+    @Override
+    public float[] get(int slot) {
+        float[] vector = new float[dimension];
+        pages.get(slot / pageSize).get((slot % pageSize) * dimension, vector, 0, dimension);
+        return vector;
+    }
+
+    @Override
+    public boolean matches(int slot, float[] vector) {
+        FloatBuffer page = pages.get(slot / pageSize);
+        int offset = (slot % pageSize) * dimension;
+        for (int i = 0; i < dimension; i++) {
+            if (page.get(offset + i) != vector[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Unmaps every page; a backing file is truncated, so it shrinks back to the vectors added afterwards.
+     */
+    @Override
+    public void clear() {
+        pages.clear();
+        size = 0;
+        if (file != null) {
+            try {
+                file.truncate(0);
+            } catch (IOException e) {
+                throw new ContentEngineException("Failed to truncate vector file", e);
+            }
+        }
+    }
+
+    @Override
+    public VectorStore createEmpty() {
+        if (path == null) {
+            return new OffHeapVectorStore(dimension, pageSize);
+        }
+        String name = path.getFileName().toString();
+        String sibling = name.endsWith(NEXT_SUFFIX) ? name.substring(0, name.length() - NEXT_SUFFIX.length())
+                : name + NEXT_SUFFIX;
+        return new OffHeapVectorStore(dimension, pageSize, path.resolveSibling(sibling));
+    }
+
+    @Override
+    public void writeTo(SnapshotOutput out) throws IOException {
+        out.writeInt(size);
+        for (int slot = 0; slot < size; slot++) {
+            FloatBuffer page = pages.get(slot / pageSize);
+            int offset = (slot % pageSize) * dimension;
+            for (int i = 0; i < dimension; i++) {
+                out.writeFloat(page.get(offset + i));
+            }
+        }
+    }
+
+    @Override
+    public void readFrom(SnapshotInput in) throws IOException {
+        if (size > 0) {
+            throw new IllegalStateException("Vector store is not empty");
+        }
+        int count = in.readInt();
+        float[] vector = new float[dimension];
+        for (int slot = 0; slot < count; slot++) {
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = in.readFloat();
+            }
+            add(vector);
+        }
+    }
+
+    @Override
+    public long offHeapBytes() {
+        return file != null ? 0 : pageBytes() * pages.size();
+    }
+
+    @Override
+    public void close() {
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                throw new ContentEngineException("Failed to close vector file", e);
+            }
+        }
+    }
+
+    private ByteBuffer allocatePage(int pageIndex) {
+        if (file == null) {
+            return ByteBuffer.allocateDirect((int) pageBytes());
+        }
+        try {
+            return file.map(FileChannel.MapMode.READ_WRITE, pageIndex * pageBytes(), pageBytes());
+        } catch (IOException e) {
+            throw new ContentEngineException("Failed to map vector page " + pageIndex, e);
+        }
+    }
+
+    private long pageBytes() {
+        return (long) pageSize * dimension * Float.BYTES;
+    }
+}
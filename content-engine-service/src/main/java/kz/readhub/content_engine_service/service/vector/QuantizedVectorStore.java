@@ -0,0 +1,164 @@
+package kz.readhub.content_engine_service.service.vector;
+
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+import kz.readhub.content_engine_service.util.ScalarQuantizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Int8 scalar-quantized vectors stored outside the Java heap, a quarter of the size of {@link OffHeapVectorStore}.
+ * <p>
+ * Each slot holds the {@link ScalarQuantizer} encoding followed by the sum of its codes. With
+ * {@code value = offset + scale * code}, a dot product with a float query is
+ * {@code scale * sum(q * code) + offset * sum(q)}, and between two stored vectors it expands into an integer
+ * code product plus the code sums, so scoring never reconstructs floats.
+ */
+public final class QuantizedVectorStore implements VectorStore {
+
+    private final int dimension;
+    private final int pageSize;
+    private final int recordBytes;
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private int size;
+
+    public QuantizedVectorStore(int dimension, int pageSize) {
+        this.dimension = dimension;
+        this.pageSize = pageSize;
+        this.recordBytes = ScalarQuantizer.encodedLength(dimension) + Integer.BYTES;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int add(float[] vector) {
+        int slot = size;
+        int pageIndex = slot / pageSize;
+        if (pageIndex == pages.size()) {
+            pages.add(ByteBuffer.allocateDirect(pageSize * recordBytes));
+        }
+        ByteBuffer page = pages.get(pageIndex);
+        int offset = (slot % pageSize) * recordBytes;
+        int codeSum = ScalarQuantizer.encode(vector, page, offset);
+        page.putInt(offset + recordBytes - Integer.BYTES, codeSum);
+        size++;
+        return slot;
+    }
+
+    @Override
+    public float dot(float[] query, int slot) {
+        ByteBuffer page = pages.get(slot / pageSize);
+        int offset = (slot % pageSize) * recordBytes;
+        float scale = page.getFloat(offset);
+        float shift = page.getFloat(offset + Float.BYTES);
+        int codes = offset + ScalarQuantizer.HEADER_BYTES;
+
+        float codeDot = 0f;
+        float querySum = 0f;
+        for (int i = 0; i < dimension; i++) {
+            float q = query[i];
+            codeDot += q * (page.get(codes + i) & 0xFF);
+            querySum += q;
+        }
+        return scale * codeDot + shift * querySum;
+    }
+
+    @Override
+    public float dot(int slotA, int slotB) {
+        ByteBuffer pageA = pages.get(slotA / pageSize);
+        ByteBuffer pageB = pages.get(slotB / pageSize);
+        int offsetA = (slotA % pageSize) * recordBytes;
+        int offsetB = (slotB % pageSize) * recordBytes;
+        int codesA = offsetA + ScalarQuantizer.HEADER_BYTES;
+        int codesB = offsetB + ScalarQuantizer.HEADER_BYTES;
+
+        long codeDot = 0;
+        for (int i = 0; i < dimension; i++) {
+            codeDot += (pageA.get(codesA + i) & 0xFF) * (pageB.get(codesB + i) & 0xFF);
+        }
+
+        float scaleA = pageA.getFloat(offsetA);
+        float shiftA = pageA.getFloat(offsetA + Float.BYTES);
+        float scaleB = pageB.getFloat(offsetB);
+        float shiftB = pageB.getFloat(offsetB + Float.BYTES);
+        int sumA = pageA.getInt(offsetA + recordBytes - Integer.BYTES);
+        int sumB = pageB.getInt(offsetB + recordBytes - Integer.BYTES);
+        return scaleA * scaleB * codeDot
+                + scaleA * shiftB * sumA
+                + shiftA * scaleB * sumB
+                + dimension * shiftA * shiftB;
+    }
+
+    @Override
+    public float[] get(int slot) {
+        float[] vector = new float[dimension];
+        ScalarQuantizer.decode(pages.get(slot / pageSize), (slot % pageSize) * recordBytes, vector);
+        return vector;
+    }
+
+    /**
+     * Compares encodings, so vectors that quantize to the same codes match.
+     */
+    @Override
+    public boolean matches(int slot, float[] vector) {
+        ByteBuffer encoded = ByteBuffer.allocate(ScalarQuantizer.encodedLength(dimension));
+        ScalarQuantizer.encode(vector, encoded, 0);
+        return encoded.equals(pages.get(slot / pageSize).slice((slot % pageSize) * recordBytes, encoded.capacity()));
+    }
+
+    @Override
+    public void clear() {
+        pages.clear();
+        size = 0;
+    }
+
+    @Override
+    public VectorStore createEmpty() {
+        return new QuantizedVectorStore(dimension, pageSize);
+    }
+
+    /**
+     * Copies the used part of every page byte for byte; codes are not re-quantized on restore.
+     */
+    @Override
+    public void writeTo(SnapshotOutput out) throws IOException {
+        out.writeInt(size);
+        for (int pageIndex = 0; pageIndex < pages.size(); pageIndex++) {
+            out.writeBytes(pages.get(pageIndex).duplicate().position(0).limit(usedBytes(pageIndex, size)));
+        }
+    }
+
+    @Override
+    public void readFrom(SnapshotInput in) throws IOException {
+        if (size > 0) {
+            throw new IllegalStateException("Vector store is not empty");
+        }
+        int count = in.readInt();
+        for (int pageIndex = 0; pageIndex * pageSize < count; pageIndex++) {
+            ByteBuffer page = ByteBuffer.allocateDirect(pageSize * recordBytes);
+            in.readBytes(page.duplicate().limit(usedBytes(pageIndex, count)));
+            pages.add(page);
+        }
+        size = count;
+    }
+
+    private int usedBytes(int pageIndex, int slots) {
+        return Math.min(pageSize, slots - pageIndex * pageSize) * recordBytes;
+    }
+
+    @Override
+    public long offHeapBytes() {
+        return (long) pages.size() * pageSize * recordBytes;
+    }
+}
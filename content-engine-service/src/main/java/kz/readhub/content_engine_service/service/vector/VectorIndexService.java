@@ -0,0 +1,351 @@
+package kz.readhub.content_engine_service.service.vector;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.exception.ContentEngineException;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.ScoredId;
+import kz.readhub.content_engine_service.service.index.DocumentIdMap;
+import kz.readhub.content_engine_service.service.ingestion.IngestionListener;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+import kz.readhub.content_engine_service.service.snapshot.Snapshottable;
+import kz.readhub.content_engine_service.util.Hashing;
+import kz.readhub.content_engine_service.util.ScoredHeap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Approximate nearest-neighbour search over book embeddings, kept in process and updated from CDC ingestion.
+ * A sample of queries is replayed as an exact scan in the background to report recall.
+ * <p>
+ * Books are split over {@code shards} independent HNSW graphs by a hash of the book id. The count comes
+ * from configuration alone, so a snapshot restores on a host with any number of cores. A query runs on
+ * every shard in parallel on a dedicated pool sized to the shard count, each shard collects its own top k,
+ * and the shard results are merged into the global top k. Latency follows the size of one shard rather
+ * than of the whole index, and writes to different shards do not contend.
+ * <p>
+ * By default the graphs run on int8-quantized vectors; full-precision copies for re-scoring the best
+ * candidates live in memory-mapped scratch files, so resident memory is about a quarter of float storage.
+ * <p>
+ * Graphs are snapshotted link for link, so a warm restart does not re-run a single insertion.
+ * <p>
+ * Changes that leave a book's embedding as it was do not touch its graph. A graph whose tombstones reach
+ * {@code compactionThreshold} of its nodes is rebuilt from its live vectors after the batch that crossed it,
+ * on a dedicated thread: ingestion only schedules the rebuild, so it never holds up the batch or the
+ * snapshot that waits for it, and the shard keeps serving searches and taking writes until the rebuilt
+ * graph is swapped in.
+ */
+@Slf4j
+@Service
+public class VectorIndexService implements IngestionListener, Snapshottable {
+
+    private static final String EXACT_VECTORS_FILE = "vectors-%d.f32";
+    private static final int COMPACTION_MIN_TOMBSTONES = 1024;
+
+    private final ContentEngineProperties.Vector settings;
+    private final DocumentIdMap documentIdMap;
+    private final HnswIndex[] shards;
+    private final Scheduler searchScheduler;
+    private final Scheduler compactionScheduler;
+    private final Set<HnswIndex> compacting = ConcurrentHashMap.newKeySet();
+    private final Timer searchTimer;
+    private final DistributionSummary recall;
+
+    public VectorIndexService(ContentEngineProperties properties,
+                              DocumentIdMap documentIdMap,
+                              MeterRegistry meterRegistry) {
+        this.settings = properties.getVector();
+        this.documentIdMap = documentIdMap;
+        this.shards = new HnswIndex[Math.max(1, settings.getShards())];
+        for (int shard = 0; shard < shards.length; shard++) {
+            shards[shard] = createIndex(settings, shard);
+        }
+        this.searchScheduler = Schedulers.newParallel("vector-search", shards.length);
+        this.compactionScheduler = Schedulers.newSingle("vector-compaction");
+        this.searchTimer = Timer.builder("content.vector.search")
+                .description("Approximate nearest-neighbour query latency")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.recall = DistributionSummary.builder("content.vector.recall")
+                .description("Recall of sampled queries against an exact scan")
+                .publishPercentiles(0.05, 0.5)
+                .register(meterRegistry);
+        Gauge.builder("content.vector.size", this, VectorIndexService::size)
+                .description("Vectors in the index")
+                .register(meterRegistry);
+        Gauge.builder("content.vector.offheap.bytes", this, VectorIndexService::offHeapBytes)
+                .description("Off-heap memory reserved for vectors")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static HnswIndex createIndex(ContentEngineProperties.Vector settings, int shard) {
+        if (!settings.isQuantized()) {
+            return new HnswIndex(settings.getDimension(), settings.getM(), settings.getEfConstruction(), settings.getPageSize());
+        }
+
+        VectorStore exact = null;
+        if (settings.isEnabled() && settings.isRescore()) {
+            Path directory = Path.of(settings.getDirectory());
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new ContentEngineException("Failed to create vector directory " + directory, e);
+            }
+            exact = new OffHeapVectorStore(settings.getDimension(), settings.getPageSize(),
+                    directory.resolve(String.format(EXACT_VECTORS_FILE, shard)));
+        }
+        return new HnswIndex(new QuantizedVectorStore(settings.getDimension(), settings.getPageSize()), exact,
+                settings.getM(), settings.getEfConstruction(), settings.getRescoreFactor());
+    }
+
+    @PreDestroy
+    public void stop() {
+        compactionScheduler.dispose();
+        searchScheduler.dispose();
+        for (HnswIndex shard : shards) {
+            shard.close();
+        }
+    }
+
+    @Override
+    public void onIndexed(List<BookChange> changes) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        Set<HnswIndex> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (BookChange change : changes) {
+            HnswIndex shard = shardOf(change.getBookId());
+            if (change.isDelete()) {
+                int id = documentIdMap.get(change.getBookId());
+                if (id >= 0) {
+                    shard.remove(id);
+                    touched.add(shard);
+                }
+                continue;
+            }
+
+            float[] embedding = change.getDocument().getEmbedding();
+            if (embedding == null || embedding.length != settings.getDimension()) {
+                continue;
+            }
+            shard.upsert(documentIdMap.getOrAssign(change.getBookId()), embedding.clone());
+            touched.add(shard);
+        }
+
+        for (HnswIndex shard : touched) {
+            compactIfNeeded(shard);
+        }
+    }
+
+    private void compactIfNeeded(HnswIndex shard) {
+        int tombstones = shard.tombstones();
+        int nodes = tombstones + shard.size();
+        if (tombstones < COMPACTION_MIN_TOMBSTONES || tombstones < settings.getCompactionThreshold() * nodes
+                || !compacting.add(shard)) {
+            return;
+        }
+        compactionScheduler.schedule(() -> {
+            long start = System.nanoTime();
+            try {
+                shard.compact();
+                log.info("Compacted vector shard: dropped {} of {} nodes in {} ms",
+                        tombstones, nodes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (RuntimeException e) {
+                log.error("Failed to compact vector shard", e);
+            } finally {
+                compacting.remove(shard);
+            }
+        });
+    }
+
+    @Override
+    public String snapshotSection() {
+        return "vectors";
+    }
+
+    @Override
+    public String snapshotFingerprint() {
+        return "enabled=" + settings.isEnabled()
+                + ",dimension=" + settings.getDimension()
+                + ",shards=" + settings.getShards()
+                + ",m=" + settings.getM()
+                + ",quantized=" + settings.isQuantized()
+                + ",rescore=" + settings.isRescore();
+    }
+
+    @Override
+    public void writeSnapshot(SnapshotOutput out) throws IOException {
+        for (HnswIndex shard : shards) {
+            shard.writeTo(out);
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(SnapshotInput in) throws IOException {
+        for (HnswIndex shard : shards) {
+            shard.readFrom(in);
+        }
+    }
+
+    public Mono<List<ScoredId>> search(float[] vector, int k, Integer efSearch) {
+        return search(vector, k, efSearch, -1);
+    }
+
+    /**
+     * Books closest to the given book's embedding, excluding the book itself.
+     * Empty when the book has no indexed embedding.
+     */
+    public Mono<List<ScoredId>> similar(String bookId, int k, Integer efSearch) {
+        return Mono.defer(() -> {
+            int id = documentIdMap.get(bookId);
+            float[] vector = id >= 0 ? shardOf(bookId).vectorOf(id) : null;
+            return vector != null ? search(vector, k, efSearch, id) : Mono.just(List.<ScoredId>of());
+        });
+    }
+
+    /**
+     * Stored embedding of a book, or {@code null} when it is not indexed.
+     */
+    public float[] vectorOf(String bookId) {
+        int id = documentIdMap.get(bookId);
+        return id >= 0 ? shardOf(bookId).vectorOf(id) : null;
+    }
+
+    private Mono<List<ScoredId>> search(float[] vector, int k, Integer efSearch, int exclude) {
+        if (vector.length != settings.getDimension()) {
+            return Mono.error(new IllegalArgumentException("Vector dimension must be " + settings.getDimension()));
+        }
+
+        int ef = Math.min(efSearch != null ? efSearch : settings.getEfSearch(), settings.getMaxEfSearch());
+        float[] query = vector.clone();
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Flux.range(0, shards.length)
+                    .flatMap(shard -> Mono.fromCallable(() -> searchShard(shards[shard], query, k, ef, exclude))
+                            .subscribeOn(searchScheduler), shards.length)
+                    .reduceWith(() -> ScoredHeap.minHeap(k), (merged, hits) -> {
+                        for (int i = 0; i < hits.count; i++) {
+                            merged.offer(hits.labels[i], hits.scores[i], k);
+                        }
+                        return merged;
+                    })
+                    .map(merged -> {
+                        int count = merged.size();
+                        int[] labels = new int[count];
+                        float[] scores = new float[count];
+                        merged.drainDescending(labels, scores);
+                        searchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        sampleRecall(query, k, exclude, labels, count);
+                        return toScoredIds(labels, scores, count);
+                    });
+        });
+    }
+
+    private static ShardHits searchShard(HnswIndex shard, float[] query, int k, int ef, int exclude) {
+        int[] labels = new int[k];
+        float[] scores = new float[k];
+        int count = shard.search(query.clone(), k, ef, exclude, labels, scores);
+        return new ShardHits(labels, scores, count);
+    }
+
+    private void sampleRecall(float[] vector, int k, int exclude, int[] approximate, int approximateCount) {
+        if (approximateCount == 0 || ThreadLocalRandom.current().nextDouble() >= settings.getRecallSampleRate()) {
+            return;
+        }
+
+        Schedulers.boundedElastic().schedule(() -> {
+            ScoredHeap exact = ScoredHeap.minHeap(k);
+            for (HnswIndex shard : shards) {
+                ShardHits hits = new ShardHits(new int[k], new float[k], 0);
+                hits.count = shard.exactSearch(vector.clone(), k, exclude, hits.labels, hits.scores);
+                for (int i = 0; i < hits.count; i++) {
+                    exact.offer(hits.labels[i], hits.scores[i], k);
+                }
+            }
+            int exactCount = exact.size();
+            if (exactCount == 0) {
+                return;
+            }
+            int[] expected = new int[exactCount];
+            exact.drainDescending(expected, new float[exactCount]);
+
+            int hits = 0;
+            for (int i = 0; i < exactCount; i++) {
+                for (int j = 0; j < approximateCount; j++) {
+                    if (expected[i] == approximate[j]) {
+                        hits++;
+                        break;
+                    }
+                }
+            }
+            recall.record((double) hits / exactCount);
+        });
+    }
+
+    private List<ScoredId> toScoredIds(int[] labels, float[] scores, int count) {
+        List<ScoredId> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String bookId = documentIdMap.bookId(labels[i]);
+            if (bookId != null) {
+                results.add(new ScoredId(bookId, scores[i]));
+            }
+        }
+        return results;
+    }
+
+    private HnswIndex shardOf(String bookId) {
+        return shards[(int) Long.remainderUnsigned(Hashing.hash64(bookId), shards.length)];
+    }
+
+    private int size() {
+        int size = 0;
+        for (HnswIndex shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    private long offHeapBytes() {
+        long bytes = 0;
+        for (HnswIndex shard : shards) {
+            bytes += shard.offHeapBytes();
+        }
+        return bytes;
+    }
+
+    private static final class ShardHits {
+
+        private final int[] labels;
+        private final float[] scores;
+        private int count;
+
+        private ShardHits(int[] labels, float[] scores, int count) {
+            this.labels = labels;
+            this.scores = scores;
+            this.count = count;
+        }
+    }
+}
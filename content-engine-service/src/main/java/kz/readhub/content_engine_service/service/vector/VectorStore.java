@@ -0,0 +1,67 @@
+package kz.readhub.content_engine_service.service.vector;
+
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+
+import java.io.IOException;
+
+/**
+ * Append-only store of fixed-dimension vectors addressed by slot, scored by dot product.
+ * Implementations are not thread-safe; callers coordinate access.
+ */
+public interface VectorStore {
+
+    int dimension();
+
+    int size();
+
+    /**
+     * Appends a vector and returns its slot.
+     */
+    int add(float[] vector);
+
+    float dot(float[] query, int slot);
+
+    float dot(int slotA, int slotB);
+
+    /**
+     * Returns a copy of the vector in a slot, reconstructed when the store is lossy.
+     */
+    float[] get(int slot);
+
+    /**
+     * Whether a slot holds exactly what {@link #add(float[])} would store for the vector.
+     */
+    boolean matches(int slot, float[] vector);
+
+    /**
+     * Drops every vector; slots are handed out from zero again.
+     */
+    void clear();
+
+    /**
+     * Creates an empty store of the same kind and layout, independent of this one.
+     */
+    VectorStore createEmpty();
+
+    /**
+     * Bytes held outside the Java heap.
+     */
+    long offHeapBytes();
+
+    /**
+     * Writes every stored vector in its encoded form.
+     */
+    void writeTo(SnapshotOutput out) throws IOException;
+
+    /**
+     * Appends the vectors written by {@link #writeTo(SnapshotOutput)}; the store must be empty.
+     */
+    void readFrom(SnapshotInput in) throws IOException;
+
+    /**
+     * Releases file resources; the store must not be used afterwards.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,45 @@
+package kz.readhub.content_engine_service.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * JSON form of embeddings: a base64 string of the {@link ScalarQuantizer} encoding rather than an array of
+ * floats, several times smaller in {@code _source} and on the wire. Float arrays written
+ * before the change are still read.
+ */
+public final class EmbeddingJsonCodec {
+
+    private EmbeddingJsonCodec() {
+    }
+
+    public static class Serializer extends JsonSerializer<float[]> {
+
+        @Override
+        public void serialize(float[] value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeBinary(ScalarQuantizer.encode(value));
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<float[]> {
+
+        @Override
+        public float[] deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                try {
+                    return ScalarQuantizer.decode(parser.getBinaryValue());
+                } catch (IllegalArgumentException e) {
+                    return (float[]) context.handleWeirdStringValue(float[].class, parser.getText(), e.getMessage());
+                }
+            }
+            return context.readValue(parser, float[].class);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package kz.readhub.content_engine_service.util;
+
+/**
+ * Fast, deterministic 64-bit hashing of strings. Results are stable across JVMs and restarts,
+ * unlike {@link String#hashCode()} mixed with a per-process seed.
+ */
+public final class Hashing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashing() {
+    }
+
+    public static long hash64(CharSequence value) {
+        return hash64(value, 0L);
+    }
+
+    public static long hash64(CharSequence value, long seed) {
+        long hash = FNV_OFFSET ^ seed;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix64(hash);
+    }
+
+    /**
+     * Murmur3 finalizer: spreads every input bit over the whole word.
+     */
+    public static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,80 @@
+package kz.readhub.content_engine_service.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Int8 scalar quantization with a per-vector scale and offset.
+ * <p>
+ * Each component is mapped linearly from {@code [min, max]} of its vector onto the codes {@code 0..255},
+ * so {@code value ~ offset + scale * code}. The encoded form is {@code [scale][offset][code...]} with
+ * big-endian floats: {@code 8 + dimension} bytes instead of {@code 4 * dimension}.
+ */
+public final class ScalarQuantizer {
+
+    public static final int HEADER_BYTES = 2 * Float.BYTES;
+    private static final int LEVELS = 255;
+
+    private ScalarQuantizer() {
+    }
+
+    public static int encodedLength(int dimension) {
+        return HEADER_BYTES + dimension;
+    }
+
+    public static byte[] encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedLength(vector.length));
+        encode(vector, buffer, 0);
+        return buffer.array();
+    }
+
+    /**
+     * Writes the encoded vector at {@code position} of the buffer and returns the sum of its codes.
+     */
+    public static int encode(float[] vector, ByteBuffer target, int position) {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (float value : vector) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        if (vector.length == 0) {
+            min = 0;
+            max = 0;
+        }
+
+        float scale = (max - min) / LEVELS;
+        float inverse = scale > 0 ? 1 / scale : 0;
+        target.putFloat(position, scale);
+        target.putFloat(position + Float.BYTES, min);
+
+        int codeSum = 0;
+        int codes = position + HEADER_BYTES;
+        for (int i = 0; i < vector.length; i++) {
+            int code = Math.min(LEVELS, Math.max(0, Math.round((vector[i] - min) * inverse)));
+            target.put(codes + i, (byte) code);
+            codeSum += code;
+        }
+        return codeSum;
+    }
+
+    public static float[] decode(byte[] encoded) {
+        if (encoded.length < HEADER_BYTES) {
+            throw new IllegalArgumentException("Quantized vector is shorter than its header");
+        }
+        float[] vector = new float[encoded.length - HEADER_BYTES];
+        decode(ByteBuffer.wrap(encoded), 0, vector);
+        return vector;
+    }
+
+    /**
+     * Reads an encoded vector at {@code position} of the buffer into {@code target}.
+     */
+    public static void decode(ByteBuffer source, int position, float[] target) {
+        float scale = source.getFloat(position);
+        float offset = source.getFloat(position + Float.BYTES);
+        int codes = position + HEADER_BYTES;
+        for (int i = 0; i < target.length; i++) {
+            target[i] = offset + scale * (source.get(codes + i) & 0xFF);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package kz.readhub.content_engine_service.util;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of (int id, float score) pairs kept in parallel primitive arrays, so the hot search paths
+ * never box. A min-heap keeps the worst of the retained results at the top, which makes it the natural
+ * bounded top-k collector; a max-heap yields the best candidate first.
+ */
+public final class ScoredHeap {
+
+    private final boolean minHeap;
+    private int[] ids;
+    private float[] scores;
+    private int size;
+
+    private ScoredHeap(int initialCapacity, boolean minHeap) {
+        int capacity = Math.max(initialCapacity, 4);
+        this.minHeap = minHeap;
+        this.ids = new int[capacity];
+        this.scores = new float[capacity];
+    }
+
+    public static ScoredHeap minHeap(int initialCapacity) {
+        return new ScoredHeap(initialCapacity, true);
+    }
+
+    public static ScoredHeap maxHeap(int initialCapacity) {
+        return new ScoredHeap(initialCapacity, false);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int topId() {
+        return ids[0];
+    }
+
+    public float topScore() {
+        return scores[0];
+    }
+
+    public void push(int id, float score) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        ids[size] = id;
+        scores[size] = score;
+        siftUp(size++);
+    }
+
+    /**
+     * Offers a result to a bounded min-heap: it is kept only while fewer than {@code k} results are held
+     * or when it beats the current worst one.
+     *
+     * @return whether the result was retained
+     */
+    public boolean offer(int id, float score, int k) {
+        if (size < k) {
+            push(id, score);
+            return true;
+        }
+        if (score > scores[0]) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0);
+            return true;
+        }
+        return false;
+    }
+
+    public int pop() {
+        int top = ids[0];
+        size--;
+        if (size > 0) {
+            ids[0] = ids[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Drains the heap into arrays ordered by descending score.
+     */
+    public void drainDescending(int[] outIds, float[] outScores) {
+        int count = size;
+        if (minHeap) {
+            for (int i = count - 1; i >= 0; i--) {
+                outScores[i] = scores[0];
+                outIds[i] = pop();
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                outScores[i] = scores[0];
+                outIds[i] = pop();
+            }
+        }
+    }
+
+    private boolean before(int a, int b) {
+        return minHeap ? scores[a] < scores[b] : scores[a] > scores[b];
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(index, parent)) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int right = left + 1;
+            int best = right < size && before(right, left) ? right : left;
+            if (!before(best, index)) {
+                return;
+            }
+            swap(index, best);
+            index = best;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
@@ -0,0 +1,114 @@
+package kz.readhub.content_engine_service.route.handler;
+
+import jakarta.validation.Validation;
+import kz.readhub.content_engine_service.config.BeanConfig;
+import kz.readhub.content_engine_service.mapper.ContentRequestMapper;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.SearchRequest;
+import kz.readhub.content_engine_service.route.RouteConfiguration;
+import kz.readhub.content_engine_service.service.ContentEngineService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RequestHandler streaming search results as newline-delimited JSON.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("RequestHandler Tests")
+class RequestHandlerTest {
+
+    @Mock
+    private ContentEngineService contentEngineService;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        RequestHandler handler = new RequestHandler(contentEngineService,
+                new ContentRequestMapper(new BeanConfig().modelMapper()),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        client = WebTestClient.bindToRouterFunction(new RouteConfiguration().searchRoutes(handler)).build();
+    }
+
+    @Nested
+    @DisplayName("Stream Search Tests")
+    class StreamSearchTests {
+
+        @Test
+        @DisplayName("Should write one JSON book per line")
+        void shouldStreamNdjson() {
+            // Given
+            when(contentEngineService.stream(any(SearchRequest.class))).thenReturn(Flux.just(book("a"), book("b")));
+
+            // When
+            String body = client.post()
+                    .uri("/search/stream")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"query\":\"dune\"}")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                    .expectBody(String.class)
+                    .returnResult()
+                    .getResponseBody();
+
+            // Then
+            assertThat(body.lines()).hasSize(2);
+            assertThat(body.lines().toList().get(0)).startsWith("{").contains("\"id\":\"a\"");
+            assertThat(body.lines().toList().get(1)).startsWith("{").contains("\"id\":\"b\"");
+            ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+            verify(contentEngineService).stream(request.capture());
+            assertThat(request.getValue().getQuery()).isEqualTo("dune");
+        }
+
+        @Test
+        @DisplayName("Should reject a cursor, which only applies to paged search")
+        void shouldRejectCursor() {
+            // When & Then
+            client.post()
+                    .uri("/search/stream")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"query\":\"dune\",\"cursor\":\"abc\"}")
+                    .exchange()
+                    .expectStatus().isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo("cursor is not supported when streaming");
+            verify(contentEngineService, never()).stream(any(SearchRequest.class));
+        }
+
+        @Test
+        @DisplayName("Should reject an invalid request before streaming")
+        void shouldRejectInvalidRequest() {
+            // When & Then
+            client.post()
+                    .uri("/search/stream")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"minRating\":7}")
+                    .exchange()
+                    .expectStatus().isBadRequest();
+            verify(contentEngineService, never()).stream(any(SearchRequest.class));
+        }
+    }
+
+    private static BookDocument book(String id) {
+        return BookDocument.builder().id(id).title("Book " + id).build();
+    }
+}
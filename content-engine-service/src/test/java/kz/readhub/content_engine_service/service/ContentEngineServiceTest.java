@@ -0,0 +1,391 @@
+package kz.readhub.content_engine_service.service;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch.core.MgetRequest;
+import co.elastic.clients.elasticsearch.core.MgetResponse;
+import co.elastic.clients.elasticsearch.core.OpenPointInTimeResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.get.GetResult;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
+import co.elastic.clients.util.ObjectBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.SearchCursor;
+import kz.readhub.content_engine_service.model.SearchRequest;
+import kz.readhub.content_engine_service.model.SearchResult;
+import kz.readhub.content_engine_service.service.facet.FacetService;
+import kz.readhub.content_engine_service.service.fallback.ElasticLatencyGuard;
+import kz.readhub.content_engine_service.service.fallback.FallbackIndexService;
+import kz.readhub.content_engine_service.service.query.QueryPlanCache;
+import kz.readhub.content_engine_service.service.related.RelatedBooksService;
+import kz.readhub.content_engine_service.service.search.BookQueryBuilder;
+import kz.readhub.content_engine_service.service.search.HybridRanker;
+import kz.readhub.content_engine_service.service.search.SearchCursorCodec;
+import kz.readhub.content_engine_service.service.search.SearchResultCache;
+import kz.readhub.content_engine_service.service.spelling.SpellingService;
+import kz.readhub.content_engine_service.service.trending.TrendingService;
+import kz.readhub.content_engine_service.service.vector.VectorIndexService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ContentEngineService paging, with Elasticsearch mocked at the client.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("ContentEngineService Tests")
+class ContentEngineServiceTest {
+
+    @Mock
+    private ReactiveElasticsearchClient elasticsearchClient;
+
+    @Mock
+    private QueryPlanCache queryPlans;
+
+    @Mock
+    private HybridRanker hybridRanker;
+
+    @Mock
+    private FallbackIndexService fallbackIndex;
+
+    @Mock
+    private ElasticLatencyGuard latencyGuard;
+
+    @Mock
+    private VectorIndexService vectorIndexService;
+
+    @Mock
+    private SpellingService spellingService;
+
+    @Mock
+    private RelatedBooksService relatedBooksService;
+
+    @Mock
+    private TrendingService trendingService;
+
+    @Mock
+    private FacetService facetService;
+
+    private final List<co.elastic.clients.elasticsearch.core.SearchRequest> searches = new ArrayList<>();
+    private final List<SearchResponse<BookDocument>> responses = new ArrayList<>();
+
+    private ContentEngineProperties properties;
+    private SearchCursorCodec cursorCodec;
+    private ContentEngineService contentEngineService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        properties = new ContentEngineProperties();
+        cursorCodec = new SearchCursorCodec(new ObjectMapper());
+        contentEngineService = new ContentEngineService(
+                elasticsearchClient,
+                new BookQueryBuilder(properties),
+                queryPlans,
+                cursorCodec,
+                new SearchResultCache(properties, new SimpleMeterRegistry()),
+                hybridRanker,
+                fallbackIndex,
+                latencyGuard,
+                vectorIndexService,
+                spellingService,
+                relatedBooksService,
+                trendingService,
+                facetService,
+                properties);
+
+        OpenPointInTimeResponse pit = mock(OpenPointInTimeResponse.class);
+        when(pit.id()).thenReturn("pit-1");
+        when(elasticsearchClient.openPointInTime(any(Function.class))).thenReturn(Mono.just(pit));
+        when(elasticsearchClient.closePointInTime(any(Function.class))).thenReturn(Mono.empty());
+        when(elasticsearchClient.search(any(Function.class), eq(BookDocument.class))).thenAnswer(invocation -> {
+            Function<co.elastic.clients.elasticsearch.core.SearchRequest.Builder,
+                    ObjectBuilder<co.elastic.clients.elasticsearch.core.SearchRequest>> fn = invocation.getArgument(0);
+            searches.add(fn.apply(new co.elastic.clients.elasticsearch.core.SearchRequest.Builder()).build());
+            return Mono.just(responses.remove(0));
+        });
+        when(elasticsearchClient.mget(any(Function.class), eq(BookDocument.class))).thenAnswer(invocation -> {
+            Function<MgetRequest.Builder, ObjectBuilder<MgetRequest>> fn = invocation.getArgument(0);
+            List<String> ids = fn.apply(new MgetRequest.Builder()).build().ids();
+            return Mono.just(mgetResponse(ids.stream().map(ContentEngineServiceTest::book).toArray(BookDocument[]::new)));
+        });
+    }
+
+    @Nested
+    @DisplayName("Cached First Page Tests")
+    class CachedFirstPageTests {
+
+        @Test
+        @DisplayName("Should page on from a cached first page")
+        void shouldPageOnFromCachedFirstPage() {
+            // Given
+            SearchRequest request = new SearchRequest();
+            request.setQuery("dune");
+            request.setSize(2);
+            responses.add(searchResponse(null,
+                    hit(book("a"), 3.0, FieldValue.of(3.0), FieldValue.of("a")),
+                    hit(book("b"), 2.0, FieldValue.of(2.0), FieldValue.of("b"))));
+            responses.add(searchResponse(null,
+                    hit(book("c"), 1.0, FieldValue.of(1.0), FieldValue.of("c"))));
+
+            StepVerifier.create(contentEngineService.search(request))
+                    .assertNext(page -> assertThat(page.getNextCursor()).isNotNull())
+                    .verifyComplete();
+
+            // When
+            SearchResult cached = contentEngineService.search(request).block();
+
+            // Then
+            assertThat(searches).hasSize(1);
+            assertThat(cached.getDocuments()).extracting(BookDocument::getId).containsExactly("a", "b");
+            SearchCursor cursor = cursorCodec.decode(cached.getNextCursor());
+            assertThat(cursor.getPitId()).isNull();
+            assertThat(cursor.getSearchAfter()).containsExactly(2.0, "b");
+
+            request.setCursor(cached.getNextCursor());
+            StepVerifier.create(contentEngineService.search(request))
+                    .assertNext(page -> {
+                        assertThat(page.getDocuments()).extracting(BookDocument::getId).containsExactly("c");
+                        assertThat(page.getNextCursor()).isNull();
+                    })
+                    .verifyComplete();
+
+            assertThat(searches.get(0).pit()).isNull();
+            co.elastic.clients.elasticsearch.core.SearchRequest next = searches.get(1);
+            assertThat(next.pit()).isNull();
+            assertThat(next.index()).containsExactly("books");
+            assertThat(next.searchAfter()).hasSameSizeAs(next.sort());
+            assertThat(next.sort().get(next.sort().size() - 1).field().field()).isEqualTo("id");
+        }
+    }
+
+    @Nested
+    @DisplayName("Point-In-Time Tests")
+    class PointInTimeTests {
+
+        @Test
+        @DisplayName("Should not open a point-in-time unless the request asks for one")
+        void shouldNotOpenPointInTimeByDefault() {
+            // Given
+            SearchRequest request = new SearchRequest();
+            request.setQuery("dune");
+            request.setSize(1);
+            responses.add(searchResponse(null, hit(book("a"), 3.0, FieldValue.of(3.0), FieldValue.of("a"))));
+
+            // When
+            SearchResult page = contentEngineService.search(request).block();
+
+            // Then
+            assertThat(page.getNextCursor()).isNotNull();
+            assertThat(searches.get(0).pit()).isNull();
+            verify(elasticsearchClient, never()).openPointInTime(any(Function.class));
+        }
+
+        @Test
+        @DisplayName("Should read every page from the requested point-in-time and close it after the last one")
+        void shouldPageThroughRequestedPointInTime() {
+            // Given
+            SearchRequest request = new SearchRequest();
+            request.setQuery("dune");
+            request.setSize(1);
+            request.setPointInTime(true);
+            responses.add(searchResponse("pit-1",
+                    hit(book("a"), 3.0, FieldValue.of(3.0), FieldValue.of("a"), FieldValue.of(11L))));
+            responses.add(searchResponse("pit-1"));
+
+            // When
+            SearchResult first = contentEngineService.search(request).block();
+            request.setCursor(first.getNextCursor());
+            SearchResult last = contentEngineService.search(request).block();
+
+            // Then
+            assertThat(cursorCodec.decode(first.getNextCursor()).getPitId()).isEqualTo("pit-1");
+            assertThat(searches.get(1).pit().id()).isEqualTo("pit-1");
+            assertThat(searches.get(1).searchAfter()).hasSize(3);
+            assertThat(last.getNextCursor()).isNull();
+            verify(elasticsearchClient).closePointInTime(any(Function.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Re-Ranked Window Tests")
+    class RerankedWindowTests {
+
+        @Test
+        @DisplayName("Should page through one re-ranked window, then continue in Elasticsearch order")
+        void shouldPageThroughRerankedWindow() {
+            // Given
+            properties.getRanking().setWindowSize(3);
+            when(hybridRanker.isEnabled()).thenReturn(true);
+            when(hybridRanker.rerank(anyString(), any(SearchResult.class))).thenAnswer(invocation -> {
+                SearchResult window = invocation.getArgument(1);
+                List<BookDocument> reversed = new ArrayList<>(window.getDocuments());
+                Collections.reverse(reversed);
+                return window.toBuilder().documents(reversed).scores(new double[reversed.size()]).build();
+            });
+            SearchRequest request = new SearchRequest();
+            request.setQuery("dune");
+            request.setSize(1);
+            responses.add(searchResponse(null,
+                    hit(book("a"), 3.0, FieldValue.of(3.0), FieldValue.of("a")),
+                    hit(book("b"), 2.0, FieldValue.of(2.0), FieldValue.of("b")),
+                    hit(book("c"), 1.0, FieldValue.of(1.0), FieldValue.of("c"))));
+            responses.add(searchResponse(null,
+                    hit(book("d"), 0.5, FieldValue.of(0.5), FieldValue.of("d"))));
+
+            // When
+            List<String> ids = new ArrayList<>();
+            String cursor = null;
+            for (int page = 0; page < 4; page++) {
+                request.setCursor(cursor);
+                SearchResult result = contentEngineService.search(request).block();
+                result.getDocuments().forEach(document -> ids.add(document.getId()));
+                cursor = result.getNextCursor();
+            }
+
+            // Then
+            assertThat(ids).containsExactly("c", "b", "a", "d");
+            assertThat(searches).hasSize(2);
+            assertThat(searches.get(0).size()).isEqualTo(3);
+            assertThat(searches.get(1).size()).isEqualTo(1);
+            assertThat(searches.get(1).searchAfter()).hasSize(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Stream Tests")
+    class StreamTests {
+
+        @Test
+        @DisplayName("Should stream every page from one point-in-time and close it after the short page")
+        void shouldStreamAllPages() {
+            // Given
+            properties.getSearch().setStreamPageSize(2);
+            SearchRequest request = new SearchRequest();
+            request.setQuery("dune");
+            responses.add(searchResponse("pit-2",
+                    hit(book("a"), 3.0, FieldValue.of(3.0), FieldValue.of("a"), FieldValue.of(11L)),
+                    hit(book("b"), 2.0, FieldValue.of(2.0), FieldValue.of("b"), FieldValue.of(12L))));
+            responses.add(searchResponse("pit-2",
+                    hit(book("c"), 1.0, FieldValue.of(1.0), FieldValue.of("c"), FieldValue.of(13L))));
+
+            // When & Then
+            StepVerifier.create(contentEngineService.stream(request).map(BookDocument::getId))
+                    .expectNext("a", "b", "c")
+                    .verifyComplete();
+            assertThat(searches).hasSize(2);
+            assertThat(searches.get(0).pit().id()).isEqualTo("pit-1");
+            assertThat(searches.get(0).searchAfter()).isEmpty();
+            assertThat(searches.get(1).pit().id()).isEqualTo("pit-2");
+            assertThat(searches.get(1).searchAfter()).hasSize(3);
+            verify(elasticsearchClient).closePointInTime(any(Function.class));
+        }
+
+        @Test
+        @DisplayName("Should close the point-in-time when the client stops reading")
+        void shouldClosePointInTimeOnCancel() {
+            // Given
+            properties.getSearch().setStreamPageSize(2);
+            SearchRequest request = new SearchRequest();
+            request.setQuery("dune");
+            for (int page = 0; page < 2; page++) {
+                responses.add(searchResponse("pit-1",
+                        hit(book("a"), 3.0, FieldValue.of(3.0), FieldValue.of("a"), FieldValue.of(11L)),
+                        hit(book("b"), 2.0, FieldValue.of(2.0), FieldValue.of("b"), FieldValue.of(12L))));
+            }
+
+            // When & Then
+            StepVerifier.create(contentEngineService.stream(request), 1)
+                    .expectNextCount(1)
+                    .thenCancel()
+                    .verify();
+            verify(elasticsearchClient).closePointInTime(any(Function.class));
+        }
+
+        @Test
+        @DisplayName("Should close the point-in-time when a page fails")
+        void shouldClosePointInTimeOnError() {
+            // Given
+            SearchRequest request = new SearchRequest();
+            request.setQuery("dune");
+            doReturn(Mono.error(new IllegalStateException("search failed")))
+                    .when(elasticsearchClient).search(any(Function.class), eq(BookDocument.class));
+
+            // When & Then
+            StepVerifier.create(contentEngineService.stream(request))
+                    .verifyError(IllegalStateException.class);
+            verify(elasticsearchClient).closePointInTime(any(Function.class));
+        }
+    }
+
+    private static BookDocument book(String id) {
+        return BookDocument.builder().id(id).title("Book " + id).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Hit<BookDocument> hit(BookDocument document, double score, FieldValue... sort) {
+        Hit<BookDocument> hit = mock(Hit.class);
+        when(hit.source()).thenReturn(document);
+        when(hit.score()).thenReturn(score);
+        when(hit.sort()).thenReturn(List.of(sort));
+        return hit;
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    private static SearchResponse<BookDocument> searchResponse(String pitId, Hit<BookDocument>... hits) {
+        HitsMetadata<BookDocument> metadata = mock(HitsMetadata.class);
+        when(metadata.hits()).thenReturn(List.of(hits));
+        SearchResponse<BookDocument> response = mock(SearchResponse.class);
+        when(response.hits()).thenReturn(metadata);
+        when(response.pitId()).thenReturn(pitId);
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MgetResponse<BookDocument> mgetResponse(BookDocument... documents) {
+        List<MultiGetResponseItem<BookDocument>> items = new ArrayList<>();
+        for (BookDocument document : documents) {
+            GetResult<BookDocument> result = mock(GetResult.class);
+            when(result.id()).thenReturn(document.getId());
+            when(result.found()).thenReturn(true);
+            when(result.source()).thenReturn(document);
+            MultiGetResponseItem<BookDocument> item = mock(MultiGetResponseItem.class);
+            when(item.isResult()).thenReturn(true);
+            when(item.result()).thenReturn(result);
+            items.add(item);
+        }
+        MgetResponse<BookDocument> response = mock(MgetResponse.class);
+        when(response.docs()).thenReturn(items);
+        return response;
+    }
+}
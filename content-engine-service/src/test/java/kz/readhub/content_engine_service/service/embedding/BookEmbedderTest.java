@@ -0,0 +1,127 @@
+package kz.readhub.content_engine_service.service.embedding;
+
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.BookDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for BookEmbedder vectors and fingerprints.
+ */
+@DisplayName("BookEmbedder Tests")
+class BookEmbedderTest {
+
+    private BookEmbedder bookEmbedder;
+    private BookDocument dune;
+    private BookDocument messiah;
+    private BookDocument pride;
+
+    @BeforeEach
+    void setUp() {
+        bookEmbedder = new BookEmbedder(new ContentEngineProperties());
+        dune = book("Dune", "A desert planet, spice and a noble family fighting for power",
+                List.of("scifi", "desert"), List.of("Science Fiction"));
+        messiah = book("Dune Messiah", "The desert planet Arrakis and its emperor twelve years later",
+                List.of("scifi", "desert"), List.of("Science Fiction"));
+        pride = book("Pride and Prejudice", "Manners and marriage among the landed gentry of England",
+                List.of("romance"), List.of("Classics"));
+    }
+
+    @Nested
+    @DisplayName("Embed Tests")
+    class EmbedTests {
+
+        @Test
+        @DisplayName("Should produce deterministic unit-length vectors")
+        void shouldProduceUnitVectors() {
+            // When
+            float[] vector = bookEmbedder.embed(dune);
+
+            // Then
+            assertThat(vector).hasSize(bookEmbedder.dimension());
+            assertThat(dot(vector, vector)).isCloseTo(1f, within(1e-5f));
+            assertThat(bookEmbedder.embed(dune.toBuilder().build())).containsExactly(vector);
+        }
+
+        @Test
+        @DisplayName("Should place related books closer than unrelated ones")
+        void shouldPlaceRelatedBooksCloser() {
+            // When
+            float[] duneVector = bookEmbedder.embed(dune);
+
+            // Then
+            assertThat(dot(duneVector, bookEmbedder.embed(messiah)))
+                    .isGreaterThan(dot(duneVector, bookEmbedder.embed(pride)) + 0.5f);
+        }
+
+        @Test
+        @DisplayName("Should embed query text into the same space as books")
+        void shouldEmbedQueryText() {
+            // When
+            float[] query = bookEmbedder.embedText("desert planet spice");
+
+            // Then
+            assertThat(dot(query, bookEmbedder.embed(dune)))
+                    .isGreaterThan(dot(query, bookEmbedder.embed(pride)));
+        }
+
+        @Test
+        @DisplayName("Should return no vector for text without indexable tokens")
+        void shouldReturnNullWithoutTokens() {
+            assertThat(bookEmbedder.embed(book("The", "of and the", null, null))).isNull();
+            assertThat(bookEmbedder.embedText("  ")).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Fingerprint Tests")
+    class FingerprintTests {
+
+        @Test
+        @DisplayName("Should change the fingerprint only with embedded fields")
+        void shouldFingerprintEmbeddedFields() {
+            // Given
+            long fingerprint = bookEmbedder.fingerprint(dune);
+
+            // Then
+            assertThat(bookEmbedder.fingerprint(dune.toBuilder().averageRating(4.5f).downloadCount(10).build()))
+                    .isEqualTo(fingerprint);
+            assertThat(bookEmbedder.fingerprint(dune.toBuilder().title("Dune II").build())).isNotEqualTo(fingerprint);
+            assertThat(bookEmbedder.fingerprint(dune.toBuilder().tags(List.of("scifi")).build()))
+                    .isNotEqualTo(fingerprint);
+        }
+
+        @Test
+        @DisplayName("Should keep tags and categories apart")
+        void shouldSeparateTagsFromCategories() {
+            BookDocument tagged = book("Dune", null, List.of("scifi"), null);
+            BookDocument categorized = book("Dune", null, null, List.of("scifi"));
+
+            assertThat(bookEmbedder.fingerprint(tagged)).isNotEqualTo(bookEmbedder.fingerprint(categorized));
+        }
+    }
+
+    private static BookDocument book(String title, String description, List<String> tags, List<String> categories) {
+        return BookDocument.builder()
+                .title(title)
+                .description(description)
+                .tags(tags)
+                .categories(categories)
+                .build();
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,142 @@
+package kz.readhub.content_engine_service.service.facet;
+
+import kz.readhub.content_engine_service.model.FacetCount;
+import kz.readhub.content_engine_service.model.FacetResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for FacetIndex filtering and disjunctive counts.
+ */
+@DisplayName("FacetIndex Tests")
+class FacetIndexTest {
+
+    private FacetIndex facetIndex;
+
+    @BeforeEach
+    void setUp() {
+        facetIndex = new FacetIndex();
+        facetIndex.put(1, values(List.of("fiction"), List.of("scifi"), "en", "4-5"));
+        facetIndex.put(2, values(List.of("fiction"), List.of("fantasy"), "en", "3-4"));
+        facetIndex.put(3, values(List.of("history"), List.of(), "ru", "4-5"));
+        facetIndex.put(4, values(List.of("fiction", "history"), List.of("scifi"), "ru", "4-5"));
+    }
+
+    @Nested
+    @DisplayName("Count Tests")
+    class CountTests {
+
+        @Test
+        @DisplayName("Should count every value without filters, most first")
+        void shouldCountWithoutFilters() {
+            // When
+            FacetResult result = facetIndex.counts(Map.of(), 10);
+
+            // Then
+            assertThat(result.getTotal()).isEqualTo(4);
+            assertThat(result.getFacets().get("category"))
+                    .containsExactly(new FacetCount("fiction", 3), new FacetCount("history", 2));
+            assertThat(result.getFacets().get("tag"))
+                    .containsExactly(new FacetCount("scifi", 2), new FacetCount("fantasy", 1));
+            assertThat(result.getFacets().get("language"))
+                    .containsExactly(new FacetCount("en", 2), new FacetCount("ru", 2));
+        }
+
+        @Test
+        @DisplayName("Should count a filtered facet without its own filter")
+        void shouldCountDisjunctively() {
+            // When
+            FacetResult result = facetIndex.counts(Map.of(Facet.CATEGORY, List.of("history")), 10);
+
+            // Then
+            assertThat(result.getTotal()).isEqualTo(2);
+            assertThat(result.getFacets().get("category"))
+                    .containsExactly(new FacetCount("fiction", 3), new FacetCount("history", 2));
+            assertThat(result.getFacets().get("tag")).containsExactly(new FacetCount("scifi", 1));
+            assertThat(result.getFacets().get("rating")).containsExactly(new FacetCount("4-5", 2));
+        }
+
+        @Test
+        @DisplayName("Should intersect filters across facets")
+        void shouldIntersectAcrossFacets() {
+            // When
+            FacetResult result = facetIndex.counts(Map.of(
+                    Facet.CATEGORY, List.of("history"),
+                    Facet.LANGUAGE, List.of(" EN ")), 10);
+
+            // Then
+            assertThat(result.getTotal()).isZero();
+            assertThat(result.getFacets().get("category")).containsExactly(new FacetCount("fiction", 2));
+            assertThat(result.getFacets().get("language")).containsExactly(new FacetCount("ru", 2));
+        }
+
+        @Test
+        @DisplayName("Should unite values within a facet and select nothing for unknown values")
+        void shouldUniteValuesWithinFacet() {
+            assertThat(facetIndex.counts(Map.of(Facet.TAG, List.of("scifi", "fantasy")), 10).getTotal())
+                    .isEqualTo(3);
+            assertThat(facetIndex.counts(Map.of(Facet.TAG, List.of("horror")), 10).getTotal()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should keep only the most frequent values")
+        void shouldLimitValues() {
+            assertThat(facetIndex.counts(Map.of(), 1).getFacets().get("category"))
+                    .containsExactly(new FacetCount("fiction", 3));
+        }
+    }
+
+    @Nested
+    @DisplayName("Update Tests")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should forget a removed document and its empty values")
+        void shouldRemoveDocument() {
+            // When
+            facetIndex.remove(2);
+
+            // Then
+            assertThat(facetIndex.size()).isEqualTo(3);
+            assertThat(facetIndex.counts(Map.of(), 10).getFacets().get("tag"))
+                    .containsExactly(new FacetCount("scifi", 2));
+            assertThat(facetIndex.valueCount()).isEqualTo(6);
+        }
+
+        @Test
+        @DisplayName("Should replace the values of a document put again")
+        void shouldReplaceDocument() {
+            // When
+            facetIndex.put(1, values(List.of("history"), List.of("scifi"), "en", "4-5"));
+
+            // Then
+            assertThat(facetIndex.size()).isEqualTo(4);
+            assertThat(facetIndex.counts(Map.of(), 10).getFacets().get("category"))
+                    .containsExactly(new FacetCount("history", 3), new FacetCount("fiction", 2));
+        }
+
+        @Test
+        @DisplayName("Should band ratings by whole stars")
+        void shouldBandRatings() {
+            assertThat(Facet.ratingBand(0f)).isEqualTo("0-1");
+            assertThat(Facet.ratingBand(3.7f)).isEqualTo("3-4");
+            assertThat(Facet.ratingBand(5f)).isEqualTo("4-5");
+        }
+    }
+
+    private static String[][] values(List<String> categories, List<String> tags, String language, String rating) {
+        return new String[][]{
+                categories.toArray(String[]::new),
+                tags.toArray(String[]::new),
+                {language},
+                {rating}
+        };
+    }
+}
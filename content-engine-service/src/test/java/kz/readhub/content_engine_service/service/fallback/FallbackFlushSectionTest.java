@@ -0,0 +1,82 @@
+package kz.readhub.content_engine_service.service.fallback;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for FallbackFlushSection flushing the fallback memtable with every snapshot.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FallbackFlushSection Tests")
+class FallbackFlushSectionTest {
+
+    @Mock
+    private ObjectProvider<FallbackIndexService> fallbackIndex;
+
+    @Mock
+    private FallbackIndexService index;
+
+    private FallbackFlushSection section;
+
+    @BeforeEach
+    void setUp() {
+        section = new FallbackFlushSection(fallbackIndex);
+        when(fallbackIndex.getIfAvailable()).thenReturn(index);
+    }
+
+    @Nested
+    @DisplayName("Write Tests")
+    class WriteTests {
+
+        @Test
+        @DisplayName("Should flush the memtable while the snapshot is written")
+        void shouldFlushMemTable() throws IOException {
+            // Given
+            when(index.isEnabled()).thenReturn(true);
+
+            // When
+            section.writeSnapshot(null);
+
+            // Then
+            verify(index).flushMemTable();
+        }
+
+        @Test
+        @DisplayName("Should fail the snapshot when the flush fails")
+        void shouldFailSnapshotOnFlushFailure() throws IOException {
+            // Given
+            when(index.isEnabled()).thenReturn(true);
+            doThrow(new IOException("disk full")).when(index).flushMemTable();
+
+            // When & Then
+            assertThatThrownBy(() -> section.writeSnapshot(null)).isInstanceOf(IOException.class);
+        }
+
+        @Test
+        @DisplayName("Should leave a disabled index alone")
+        void shouldSkipDisabledIndex() throws IOException {
+            // Given
+            when(index.isEnabled()).thenReturn(false);
+
+            // When
+            section.writeSnapshot(null);
+
+            // Then
+            verify(index, never()).flushMemTable();
+        }
+    }
+}
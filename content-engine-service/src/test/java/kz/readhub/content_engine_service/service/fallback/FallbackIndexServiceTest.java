@@ -0,0 +1,206 @@
+package kz.readhub.content_engine_service.service.fallback;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.SearchRequest;
+import kz.readhub.content_engine_service.model.SearchResult;
+import kz.readhub.content_engine_service.service.index.DocumentIdMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for FallbackIndexService persisting, merging and reopening segments.
+ */
+@DisplayName("FallbackIndexService Tests")
+class FallbackIndexServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private ContentEngineProperties properties;
+    private final List<FallbackIndexService> opened = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new ContentEngineProperties();
+        properties.getFallback().setDirectory(directory.toString());
+        properties.getFallback().setMaintenanceInterval(Duration.ofHours(1));
+        properties.getFallback().setFlushInterval(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(FallbackIndexService::stop);
+    }
+
+    @Nested
+    @DisplayName("Flush Tests")
+    class FlushTests {
+
+        @Test
+        @DisplayName("Should find flushed books after reopening the index")
+        void shouldReopenFlushedSegment() {
+            // Given
+            FallbackIndexService index = open();
+            index.onIndexed(List.of(upsert("book-1", "Dune"), upsert("book-2", "Dune Messiah")));
+            index.flush();
+            index.stop();
+            opened.remove(index);
+
+            // When
+            FallbackIndexService reopened = open();
+
+            // Then
+            assertThat(bookIds(reopened, "dune")).containsExactlyInAnyOrder("book-1", "book-2");
+            assertThat(bookIds(reopened, "messiah")).containsExactly("book-2");
+        }
+
+        @Test
+        @DisplayName("Should serve the memtable before it is flushed")
+        void shouldSearchMemTable() {
+            // Given
+            FallbackIndexService index = open();
+
+            // When
+            index.onIndexed(List.of(upsert("book-1", "Solaris")));
+
+            // Then
+            assertThat(bookIds(index, "solaris")).containsExactly("book-1");
+            assertThat(segmentFiles()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Merge Tests")
+    class MergeTests {
+
+        @Test
+        @DisplayName("Should keep deletes and replacements through a merge and a reopen")
+        void shouldKeepDeletesThroughMergeAndReopen() {
+            // Given
+            properties.getFallback().setMaxSegments(1);
+            properties.getFallback().setMergeFactor(3);
+            FallbackIndexService index = open();
+            index.onIndexed(List.of(upsert("book-1", "Foundation"), upsert("book-2", "Foundation and Empire"),
+                    upsert("book-3", "Second Foundation")));
+            index.flush();
+            index.onIndexed(List.of(delete("book-2")));
+            index.flush();
+            index.onIndexed(List.of(upsert("book-3", "Foundation and Earth")));
+            index.flush();
+            assertThat(segmentFiles()).isEqualTo(3);
+
+            // When
+            index.merge();
+            index.stop();
+            opened.remove(index);
+            FallbackIndexService reopened = open();
+
+            // Then
+            assertThat(segmentFiles()).isEqualTo(1);
+            assertThat(bookIds(reopened, "foundation")).containsExactlyInAnyOrder("book-1", "book-3");
+            assertThat(bookIds(reopened, "empire")).isEmpty();
+            assertThat(bookIds(reopened, "second")).isEmpty();
+            assertThat(bookIds(reopened, "earth")).containsExactly("book-3");
+        }
+
+        @Test
+        @DisplayName("Should answer searches completely while a merge runs")
+        void shouldSearchDuringMerge() throws InterruptedException {
+            // Given
+            int segments = 12;
+            int booksPerSegment = 200;
+            properties.getFallback().setMaxSegments(1);
+            properties.getFallback().setMergeFactor(segments);
+            FallbackIndexService index = open();
+            for (int segment = 0; segment < segments; segment++) {
+                List<BookChange> changes = new ArrayList<>();
+                for (int book = 0; book < booksPerSegment; book++) {
+                    changes.add(upsert("book-" + segment + "-" + book, "Common Title " + segment));
+                }
+                index.onIndexed(changes);
+                index.flush();
+            }
+            int total = segments * booksPerSegment;
+
+            // When
+            Thread merge = new Thread(index::merge);
+            int searches = 0;
+            List<Integer> incomplete = new ArrayList<>();
+            merge.start();
+            while (merge.isAlive() || searches == 0) {
+                int found = search(index, "common", total).getDocuments().size();
+                if (found != total) {
+                    incomplete.add(found);
+                }
+                searches++;
+            }
+            merge.join();
+
+            // Then
+            assertThat(incomplete).isEmpty();
+            assertThat(segmentFiles()).isEqualTo(1);
+            assertThat(search(index, "common", total).getDocuments()).hasSize(total);
+        }
+    }
+
+    private FallbackIndexService open() {
+        FallbackIndexService index = new FallbackIndexService(properties, new DocumentIdMap(),
+                new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+        index.start();
+        opened.add(index);
+        return index;
+    }
+
+    private static List<String> bookIds(FallbackIndexService index, String query) {
+        return search(index, query, 10).getDocuments().stream()
+                .map(BookDocument::getId)
+                .toList();
+    }
+
+    private static SearchResult search(FallbackIndexService index, String query, int size) {
+        SearchRequest request = new SearchRequest();
+        request.setQuery(query);
+        return index.search(request, null, size).block();
+    }
+
+    private long segmentFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).count();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static BookChange upsert(String bookId, String title) {
+        return BookChange.builder()
+                .type(BookChange.Type.UPSERT)
+                .bookId(bookId)
+                .document(BookDocument.builder().id(bookId).title(title).build())
+                .build();
+    }
+
+    private static BookChange delete(String bookId) {
+        return BookChange.builder()
+                .type(BookChange.Type.DELETE)
+                .bookId(bookId)
+                .build();
+    }
+}
@@ -0,0 +1,211 @@
+package kz.readhub.content_engine_service.service.ingestion;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for AdaptiveBulkController limiting concurrent bulk requests and sizing them on feedback.
+ */
+@DisplayName("AdaptiveBulkController Tests")
+class AdaptiveBulkControllerTest {
+
+    private ContentEngineProperties properties;
+    private ContentEngineProperties.Ingestion settings;
+    private AdaptiveBulkController controller;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ContentEngineProperties();
+        settings = properties.getIngestion();
+        settings.setBulkSize(500);
+        settings.setInitialConcurrency(2);
+        settings.setTargetLatency(Duration.ofMillis(200));
+        controller = new AdaptiveBulkController(properties, new SimpleMeterRegistry());
+    }
+
+    @Nested
+    @DisplayName("Concurrency Tests")
+    class ConcurrencyTests {
+
+        @Test
+        @DisplayName("Should run no more requests at once than the concurrency limit")
+        void shouldQueueBeyondLimit() {
+            // Given
+            AtomicInteger started = new AtomicInteger();
+            List<Sinks.One<BulkResult>> pending = new ArrayList<>();
+            List<Disposable> subscriptions = new ArrayList<>();
+
+            // When
+            for (int i = 0; i < 3; i++) {
+                subscriptions.add(controller.execute(() -> {
+                    started.incrementAndGet();
+                    Sinks.One<BulkResult> response = Sinks.one();
+                    pending.add(response);
+                    return response.asMono();
+                }, 10).subscribe());
+            }
+
+            // Then
+            assertThat(started).hasValue(2);
+            pending.get(0).tryEmitValue(result(0));
+            assertThat(started).hasValue(3);
+            subscriptions.forEach(Disposable::dispose);
+        }
+
+        @Test
+        @DisplayName("Should free the slot of a failed request")
+        void shouldReleaseSlotOnFailure() {
+            // Given
+            settings.setInitialConcurrency(1);
+            controller = new AdaptiveBulkController(properties, new SimpleMeterRegistry());
+
+            // When
+            StepVerifier.create(controller.execute(() -> Mono.error(new IllegalStateException("boom")), 10))
+                    .verifyError(IllegalStateException.class);
+
+            // Then
+            StepVerifier.create(controller.execute(() -> Mono.just(result(0)), 10))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should report saturation while more requests wait than can run")
+        void shouldSaturateOnLongQueue() {
+            // Given
+            settings.setInitialConcurrency(1);
+            controller = new AdaptiveBulkController(properties, new SimpleMeterRegistry());
+            List<Disposable> subscriptions = new ArrayList<>();
+            assertThat(controller.isSaturated()).isFalse();
+
+            // When
+            for (int i = 0; i < 3; i++) {
+                subscriptions.add(controller.execute(Mono::never, 10).subscribe());
+            }
+
+            // Then
+            assertThat(controller.isSaturated()).isTrue();
+            subscriptions.forEach(Disposable::dispose);
+            assertThat(controller.isSaturated()).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Sizing Tests")
+    class SizingTests {
+
+        @Test
+        @DisplayName("Should grow the bulk size after a fast full request")
+        void shouldGrowAfterFastFullRequest() {
+            // When
+            controller.execute(() -> Mono.just(result(0)), 500).block();
+
+            // Then
+            assertThat(controller.bulkSize()).isEqualTo(600);
+        }
+
+        @Test
+        @DisplayName("Should keep the bulk size after a request that was not full")
+        void shouldKeepSizeAfterPartialRequest() {
+            // When
+            controller.execute(() -> Mono.just(result(0)), 10).block();
+
+            // Then
+            assertThat(controller.bulkSize()).isEqualTo(500);
+        }
+
+        @Test
+        @DisplayName("Should halve the bulk size and hold fetching after rejections")
+        void shouldBackOffOnRejections() {
+            // Given
+            pastDecreaseInterval();
+
+            // When
+            controller.execute(() -> Mono.just(result(3)), 500).block();
+
+            // Then
+            assertThat(controller.bulkSize()).isEqualTo(250);
+            assertThat(controller.isSaturated()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should back off once for slow requests that complete together")
+        void shouldBackOffOncePerInterval() {
+            // Given
+            settings.setInitialConcurrency(4);
+            settings.setTargetLatency(Duration.ofMillis(20));
+            controller = new AdaptiveBulkController(properties, new SimpleMeterRegistry());
+            pastDecreaseInterval();
+
+            // When
+            Mono.when(slowRequest(), slowRequest(), slowRequest(), slowRequest()).block();
+
+            // Then
+            assertThat(controller.bulkSize()).isEqualTo(250);
+        }
+
+        @Test
+        @DisplayName("Should never shrink below the minimum bulk size")
+        void shouldRespectMinimumBulkSize() {
+            // Given
+            settings.setMinBulkSize(400);
+
+            // When
+            for (int i = 0; i < 2; i++) {
+                pastDecreaseInterval();
+                controller.execute(() -> Mono.just(result(1)), 500).block();
+            }
+
+            // Then
+            assertThat(controller.bulkSize()).isEqualTo(400);
+        }
+
+        @Test
+        @DisplayName("Should keep the configured bulk size when not adaptive")
+        void shouldKeepSizeWhenNotAdaptive() {
+            // Given
+            settings.setAdaptive(false);
+            controller = new AdaptiveBulkController(properties, new SimpleMeterRegistry());
+
+            // When
+            controller.execute(() -> Mono.just(result(3)), 500).block();
+
+            // Then
+            assertThat(controller.bulkSize()).isEqualTo(500);
+            assertThat(controller.maxBatchSize()).isEqualTo(500);
+            assertThat(controller.isSaturated()).isFalse();
+        }
+    }
+
+    private Mono<BulkResult> slowRequest() {
+        return controller.execute(() -> Mono.delay(Duration.ofMillis(50)).thenReturn(result(0)), 500);
+    }
+
+    /**
+     * Decreases are spaced by the target latency, counted from construction and from the last decrease.
+     */
+    private void pastDecreaseInterval() {
+        LockSupport.parkNanos(settings.getTargetLatency().plusMillis(20).toNanos());
+    }
+
+    private static BulkResult result(int rejected) {
+        return new BulkResult(10, 0, 1, rejected, Map.of());
+    }
+}
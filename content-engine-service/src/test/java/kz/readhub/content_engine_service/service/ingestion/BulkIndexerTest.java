@@ -0,0 +1,268 @@
+package kz.readhub.content_engine_service.service.ingestion;
+
+import co.elastic.clients.elasticsearch._types.ErrorCause;
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.constant.ElasticIndices;
+import kz.readhub.content_engine_service.exception.ContentEngineException;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for BulkIndexer retrying rejected items, reporting failures and mirroring into a shadow index.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("BulkIndexer Tests")
+class BulkIndexerTest {
+
+    private static final String SHADOW_INDEX = "books_20240101000000";
+
+    @Mock
+    private ReactiveElasticsearchClient elasticsearchClient;
+
+    private final List<BulkRequest> requests = new ArrayList<>();
+    private final List<BulkResponse> responses = new ArrayList<>();
+    private ContentEngineProperties properties;
+    private BulkIndexer bulkIndexer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ContentEngineProperties();
+        properties.getIngestion().setMaxRetries(2);
+        properties.getIngestion().setRetryBackoff(Duration.ofMillis(1));
+        bulkIndexer = new BulkIndexer(elasticsearchClient, properties);
+
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenAnswer(invocation -> {
+            requests.add(invocation.getArgument(0));
+            return Mono.just(responses.remove(0));
+        });
+    }
+
+    @Nested
+    @DisplayName("Retry Tests")
+    class RetryTests {
+
+        @Test
+        @DisplayName("Should resend only the items rejected with 429")
+        void shouldRetryRejectedItems() {
+            // Given
+            responses.add(response(item("book-1", 201), item("book-2", 429)));
+            responses.add(response(item("book-2", 201)));
+
+            // When & Then
+            StepVerifier.create(bulkIndexer.index(List.of(upsert("book-1", 1L), upsert("book-2", 1L))))
+                    .assertNext(result -> {
+                        assertThat(result.getSucceeded()).isEqualTo(2);
+                        assertThat(result.getFailed()).isZero();
+                        assertThat(result.getRejected()).isEqualTo(1);
+                    })
+                    .verifyComplete();
+            assertThat(requests).hasSize(2);
+            assertThat(requests.get(1).operations()).extracting(operation -> operation.index().id())
+                    .containsExactly("book-2");
+        }
+
+        @Test
+        @DisplayName("Should fail once items are still rejected after the last retry")
+        void shouldFailAfterMaxRetries() {
+            // Given
+            for (int i = 0; i < 3; i++) {
+                responses.add(response(item("book-1", 503)));
+            }
+
+            // When & Then
+            StepVerifier.create(bulkIndexer.index(List.of(upsert("book-1", 1L))))
+                    .verifyError(ContentEngineException.class);
+            assertThat(requests).hasSize(3);
+        }
+
+        @Test
+        @DisplayName("Should treat a version conflict as a stale change already applied")
+        void shouldSkipVersionConflicts() {
+            // Given
+            responses.add(response(item("book-1", 409)));
+
+            // When & Then
+            StepVerifier.create(bulkIndexer.index(List.of(upsert("book-1", 1L))))
+                    .assertNext(result -> {
+                        assertThat(result.getSucceeded()).isEqualTo(1);
+                        assertThat(result.getFailed()).isZero();
+                        assertThat(result.getFailures()).isEmpty();
+                    })
+                    .verifyComplete();
+        }
+    }
+
+    @Nested
+    @DisplayName("Request Tests")
+    class RequestTests {
+
+        @Test
+        @DisplayName("Should write versioned changes with external versioning")
+        void shouldUseExternalVersions() {
+            // Given
+            responses.add(response(item("book-1", 201), item("book-2", 200)));
+
+            // When
+            bulkIndexer.index(List.of(upsert("book-1", 7L), delete("book-2", 8L))).block();
+
+            // Then
+            List<BulkOperation> operations = requests.get(0).operations();
+            assertThat(operations.get(0).index().version()).isEqualTo(7L);
+            assertThat(operations.get(0).index().versionType()).isEqualTo(VersionType.External);
+            assertThat(operations.get(1).delete().version()).isEqualTo(8L);
+            assertThat(operations.get(1).delete().versionType()).isEqualTo(VersionType.External);
+        }
+
+        @Test
+        @DisplayName("Should write unversioned changes without a version")
+        void shouldOmitMissingVersions() {
+            // Given
+            responses.add(response(item("book-1", 201)));
+
+            // When
+            bulkIndexer.index(List.of(upsert("book-1", null))).block();
+
+            // Then
+            BulkOperation operation = requests.get(0).operations().get(0);
+            assertThat(operation.index().version()).isNull();
+            assertThat(operation.index().versionType()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Shadow Write Tests")
+    class ShadowWriteTests {
+
+        @Test
+        @DisplayName("Should mirror every change into the shadow index in the same request")
+        void shouldMirrorIntoShadowIndex() {
+            // Given
+            bulkIndexer.startShadowWrites(SHADOW_INDEX);
+            responses.add(response(item("book-1", 201), item("book-1", 201)));
+
+            // When
+            bulkIndexer.index(List.of(upsert("book-1", 1L))).block();
+
+            // Then
+            assertThat(requests.get(0).operations()).extracting(operation -> operation.index().index())
+                    .containsExactly(ElasticIndices.BOOKS, SHADOW_INDEX);
+        }
+
+        @Test
+        @DisplayName("Should report failures by book id for the primary index only")
+        void shouldReportPrimaryFailuresOnly() {
+            // Given
+            bulkIndexer.startShadowWrites(SHADOW_INDEX);
+            responses.add(response(failure("book-1"), failure("book-1"), item("book-2", 201), failure("book-2")));
+
+            // When & Then
+            StepVerifier.create(bulkIndexer.index(List.of(upsert("book-1", 1L), upsert("book-2", 1L))))
+                    .assertNext(result -> {
+                        assertThat(result.getFailed()).isEqualTo(3);
+                        assertThat(result.getFailures())
+                                .containsExactly(Map.entry("book-1", "mapper_parsing_exception: bad title"));
+                    })
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should hand out each mirrored delete once")
+        void shouldDrainShadowDeletes() {
+            // Given
+            bulkIndexer.startShadowWrites(SHADOW_INDEX);
+            responses.add(response(item("book-1", 200), item("book-1", 200)));
+            BookChange delete = delete("book-1", 2L);
+            bulkIndexer.index(List.of(delete)).block();
+
+            // When
+            List<BookChange> drained = bulkIndexer.drainShadowDeletes();
+
+            // Then
+            assertThat(drained).containsExactly(delete);
+            assertThat(bulkIndexer.drainShadowDeletes()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should stop mirroring once shadow writes stop")
+        void shouldStopMirroring() {
+            // Given
+            bulkIndexer.startShadowWrites(SHADOW_INDEX);
+            bulkIndexer.stopShadowWrites();
+            responses.add(response(item("book-1", 201)));
+
+            // When
+            bulkIndexer.index(List.of(upsert("book-1", 1L))).block();
+
+            // Then
+            assertThat(requests.get(0).operations()).hasSize(1);
+        }
+    }
+
+    private static BookChange upsert(String bookId, Long version) {
+        return BookChange.builder()
+                .type(BookChange.Type.UPSERT)
+                .bookId(bookId)
+                .document(BookDocument.builder().id(bookId).version(version).build())
+                .build();
+    }
+
+    private static BookChange delete(String bookId, Long version) {
+        return BookChange.builder()
+                .type(BookChange.Type.DELETE)
+                .bookId(bookId)
+                .document(BookDocument.builder().id(bookId).version(version).build())
+                .build();
+    }
+
+    private static BulkResponse response(BulkResponseItem... items) {
+        boolean errors = List.of(items).stream().anyMatch(item -> item.error() != null);
+        return BulkResponse.of(bulk -> bulk.errors(errors).took(5).items(List.of(items)));
+    }
+
+    private static BulkResponseItem item(String bookId, int status) {
+        return BulkResponseItem.of(item -> {
+            item.operationType(OperationType.Index).index(ElasticIndices.BOOKS).id(bookId).status(status);
+            if (status >= 300) {
+                item.error(ErrorCause.of(error -> error.type("rejected").reason("status " + status)));
+            }
+            return item;
+        });
+    }
+
+    private static BulkResponseItem failure(String bookId) {
+        return BulkResponseItem.of(item -> item
+                .operationType(OperationType.Index)
+                .index(ElasticIndices.BOOKS)
+                .id(bookId)
+                .status(400)
+                .error(ErrorCause.of(error -> error.type("mapper_parsing_exception").reason("bad title"))));
+    }
+}
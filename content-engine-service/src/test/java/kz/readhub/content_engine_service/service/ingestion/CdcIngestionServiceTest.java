@@ -0,0 +1,281 @@
+package kz.readhub.content_engine_service.service.ingestion;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.readhub.book_management_service.avro.BookEvent;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.mapper.BookEventMapper;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.service.embedding.EmbeddingService;
+import kz.readhub.content_engine_service.service.trending.TrendingService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverPartition;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CdcIngestionService partition handling across consumer group rebalances.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("CdcIngestionService Tests")
+class CdcIngestionServiceTest {
+
+    private static final String TOPIC = "book-cdc-events";
+    private static final int PARTITIONS = 100;
+
+    @Mock
+    private ReceiverOptions<String, BookEvent> receiverOptions;
+
+    @Mock
+    private BookEventMapper bookEventMapper;
+
+    @Mock
+    private EmbeddingService embeddingService;
+
+    @Mock
+    private TrendingService trendingService;
+
+    @Mock
+    private BulkIndexer bulkIndexer;
+
+    @Mock
+    private DeadLetterPublisher deadLetterPublisher;
+
+    @Mock
+    private ObjectProvider<IngestionListener> listeners;
+
+    private final AtomicInteger books = new AtomicInteger();
+    private ContentEngineProperties properties;
+    private CdcIngestionService ingestionService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        properties = new ContentEngineProperties();
+        properties.getIngestion().setAdaptive(false);
+        properties.getIngestion().setBulkSize(10);
+        ingestionService = new CdcIngestionService(receiverOptions, bookEventMapper, embeddingService,
+                trendingService, new AdaptiveBulkController(properties, new SimpleMeterRegistry()), bulkIndexer,
+                deadLetterPublisher, new IngestionCheckpoint(), listeners, properties, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(ingestionService, "scheduler", Schedulers.immediate());
+
+        when(bookEventMapper.toChange(any())).thenAnswer(invocation -> BookChange.builder()
+                .type(BookChange.Type.UPSERT)
+                .bookId("book-" + books.incrementAndGet())
+                .document(BookDocument.builder().build())
+                .build());
+        when(embeddingService.embed(anyList())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(bulkIndexer.index(anyList())).thenReturn(Mono.just(BulkResult.empty()));
+        when(listeners.orderedStream()).thenAnswer(invocation -> Stream.empty());
+        when(deadLetterPublisher.publish(anyMap(), anyMap())).thenReturn(Mono.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingestionService.stop();
+    }
+
+    @Nested
+    @DisplayName("Rebalance Tests")
+    class RebalanceTests {
+
+        @Test
+        @DisplayName("Should keep consuming every partition across repeated rebalances")
+        void shouldKeepConsumingAcrossRebalances() {
+            // Given
+            Sinks.Many<ReceiverRecord<String, BookEvent>> received = Sinks.many().unicast().onBackpressureBuffer();
+            Disposable subscription = ingestionService.process(received.asFlux()).subscribe();
+            List<ReceiverPartition> assignment = new ArrayList<>();
+            for (int partition = 0; partition < PARTITIONS; partition++) {
+                assignment.add(receiverPartition(new TopicPartition(TOPIC, partition)));
+            }
+
+            // When
+            List<ReceiverOffset> offsets = new ArrayList<>();
+            for (int generation = 0; generation < 5; generation++) {
+                ingestionService.onAssigned(assignment);
+                for (ReceiverPartition partition : assignment) {
+                    ReceiverRecord<String, BookEvent> record = record(partition.topicPartition(), generation);
+                    offsets.add(record.receiverOffset());
+                    received.tryEmitNext(record);
+                }
+                ingestionService.onRevoked(assignment);
+            }
+
+            // Then
+            offsets.forEach(offset -> verify(offset).acknowledge());
+            subscription.dispose();
+        }
+
+        @Test
+        @DisplayName("Should drop records of a partition that is no longer assigned")
+        void shouldDropRecordsOfRevokedPartition() {
+            // Given
+            Sinks.Many<ReceiverRecord<String, BookEvent>> received = Sinks.many().unicast().onBackpressureBuffer();
+            Disposable subscription = ingestionService.process(received.asFlux()).subscribe();
+            ReceiverPartition partition = receiverPartition(new TopicPartition(TOPIC, 0));
+            ingestionService.onAssigned(List.of(partition));
+            ingestionService.onRevoked(List.of(partition));
+
+            // When
+            ReceiverRecord<String, BookEvent> stale = record(partition.topicPartition(), 0);
+            received.tryEmitNext(stale);
+            ingestionService.onAssigned(List.of(partition));
+            ReceiverRecord<String, BookEvent> fresh = record(partition.topicPartition(), 1);
+            received.tryEmitNext(fresh);
+            ingestionService.onRevoked(List.of(partition));
+
+            // Then
+            verify(stale.receiverOffset(), never()).acknowledge();
+            verify(fresh.receiverOffset()).acknowledge();
+            subscription.dispose();
+        }
+    }
+
+    @Nested
+    @DisplayName("Batching Tests")
+    class BatchingTests {
+
+        @Test
+        @DisplayName("Should hold timed-out batches while a bulk request outlasts the max wait")
+        void shouldSurviveBulkSlowerThanMaxWait() {
+            // Given
+            properties.getIngestion().setBulkMaxWait(Duration.ofMillis(5));
+            when(bulkIndexer.index(anyList()))
+                    .thenAnswer(invocation -> Mono.delay(Duration.ofMillis(50)).thenReturn(BulkResult.empty()));
+            Sinks.Many<ReceiverRecord<String, BookEvent>> received = Sinks.many().unicast().onBackpressureBuffer();
+            ReceiverPartition partition = receiverPartition(new TopicPartition(TOPIC, 0));
+            ingestionService.onAssigned(List.of(partition));
+            List<ReceiverRecord<String, BookEvent>> records = new ArrayList<>();
+            for (int offset = 0; offset < 20; offset++) {
+                records.add(record(partition.topicPartition(), offset));
+            }
+
+            // When & Then
+            StepVerifier.create(ingestionService.process(received.asFlux()))
+                    .then(() -> {
+                        for (ReceiverRecord<String, BookEvent> record : records) {
+                            received.tryEmitNext(record);
+                            LockSupport.parkNanos(Duration.ofMillis(5).toNanos());
+                        }
+                        received.tryEmitComplete();
+                    })
+                    .thenConsumeWhile(result -> true)
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(10));
+            verify(records.get(records.size() - 1).receiverOffset()).acknowledge();
+        }
+    }
+
+    @Nested
+    @DisplayName("Failure Tests")
+    class FailureTests {
+
+        @Test
+        @DisplayName("Should dead-letter failed changes and notify listeners only of accepted ones")
+        @SuppressWarnings("unchecked")
+        void shouldDeadLetterFailedChanges() {
+            // Given
+            IngestionListener listener = mock(IngestionListener.class);
+            when(listeners.orderedStream()).thenAnswer(invocation -> Stream.of(listener));
+            when(bulkIndexer.index(anyList())).thenReturn(Mono.just(
+                    new BulkResult(2, 1, 5, 0, Map.of("book-2", "mapper_parsing_exception: bad field"))));
+            ReceiverPartition partition = receiverPartition(new TopicPartition(TOPIC, 0));
+            ingestionService.onAssigned(List.of(partition));
+            List<ReceiverRecord<String, BookEvent>> records = new ArrayList<>();
+            for (int offset = 0; offset < 3; offset++) {
+                records.add(record(partition.topicPartition(), offset));
+            }
+
+            // When
+            StepVerifier.create(ingestionService.process(Flux.fromIterable(records)))
+                    .expectNextCount(1)
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(10));
+
+            // Then
+            ArgumentCaptor<List<BookChange>> notified = ArgumentCaptor.forClass(List.class);
+            verify(listener).onIndexed(notified.capture());
+            assertThat(notified.getValue()).extracting(BookChange::getBookId).containsExactly("book-1", "book-3");
+            Map<String, ConsumerRecord<String, BookEvent>> deadLetters = Map.of("book-2", records.get(1));
+            verify(deadLetterPublisher).publish(deadLetters, Map.of("book-2", "mapper_parsing_exception: bad field"));
+            verify(records.get(2).receiverOffset()).acknowledge();
+        }
+
+        @Test
+        @DisplayName("Should not acknowledge a batch whose dead letters could not be written")
+        void shouldNotAcknowledgeWhenDeadLetteringFails() {
+            // Given
+            when(bulkIndexer.index(anyList())).thenReturn(Mono.just(
+                    new BulkResult(0, 1, 5, 0, Map.of("book-1", "mapper_parsing_exception: bad field"))));
+            when(deadLetterPublisher.publish(anyMap(), anyMap()))
+                    .thenReturn(Mono.error(new IllegalStateException("broker down")));
+            ReceiverPartition partition = receiverPartition(new TopicPartition(TOPIC, 0));
+            ingestionService.onAssigned(List.of(partition));
+            ReceiverRecord<String, BookEvent> record = record(partition.topicPartition(), 0);
+
+            // When
+            StepVerifier.create(ingestionService.process(Flux.just(record)))
+                    .expectError(IllegalStateException.class)
+                    .verify(Duration.ofSeconds(10));
+
+            // Then
+            verify(record.receiverOffset(), never()).acknowledge();
+        }
+    }
+
+    private static ReceiverPartition receiverPartition(TopicPartition topicPartition) {
+        ReceiverPartition partition = mock(ReceiverPartition.class);
+        when(partition.topicPartition()).thenReturn(topicPartition);
+        return partition;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ReceiverRecord<String, BookEvent> record(TopicPartition partition, long offset) {
+        ReceiverOffset receiverOffset = mock(ReceiverOffset.class);
+        when(receiverOffset.topicPartition()).thenReturn(partition);
+        when(receiverOffset.offset()).thenReturn(offset);
+        ReceiverRecord<String, BookEvent> record = mock(ReceiverRecord.class);
+        when(record.receiverOffset()).thenReturn(receiverOffset);
+        return record;
+    }
+}
@@ -0,0 +1,106 @@
+package kz.readhub.content_engine_service.service.ingestion;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.kafka.receiver.ReceiverPartition;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for IngestionCheckpoint positioning of assigned partitions.
+ */
+@DisplayName("IngestionCheckpoint Tests")
+class IngestionCheckpointTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("book-cdc-events", 0);
+
+    private IngestionCheckpoint checkpoint;
+    private ReceiverPartition partition;
+
+    @BeforeEach
+    void setUp() {
+        checkpoint = new IngestionCheckpoint();
+        partition = mock(ReceiverPartition.class);
+        when(partition.topicPartition()).thenReturn(PARTITION);
+    }
+
+    @Nested
+    @DisplayName("Position Tests")
+    class PositionTests {
+
+        @Test
+        @DisplayName("Should resume a returning partition from the offset applied here, not the committed one")
+        void shouldResumeFromAppliedOffset() {
+            // Given
+            checkpoint.resumeFrom(Map.of(), false);
+            when(partition.position()).thenReturn(10L);
+            checkpoint.position(partition);
+            verify(partition, never()).seek(anyLong());
+            checkpoint.applied(PARTITION, 15);
+
+            // When
+            checkpoint.position(partition);
+
+            // Then
+            verify(partition).seek(15L);
+        }
+
+        @Test
+        @DisplayName("Should seek to the snapshot offset on every assignment until more is applied")
+        void shouldSeekToSnapshotOffset() {
+            // Given
+            checkpoint.resumeFrom(Map.of(PARTITION, 7L), true);
+
+            // When
+            checkpoint.position(partition);
+            checkpoint.position(partition);
+
+            // Then
+            verify(partition, times(2)).seek(7L);
+            verify(partition, never()).seekToBeginning();
+        }
+
+        @Test
+        @DisplayName("Should replay an uncovered partition from the beginning only once")
+        void shouldReplayUncoveredPartitionOnce() {
+            // Given
+            checkpoint.resumeFrom(Map.of(), true);
+            when(partition.position()).thenReturn(0L);
+
+            // When
+            checkpoint.position(partition);
+            checkpoint.position(partition);
+
+            // Then
+            verify(partition).seekToBeginning();
+            verify(partition).seek(0L);
+        }
+
+        @Test
+        @DisplayName("Should report the offsets applied so far to a snapshot")
+        void shouldHoldAppliedOffsets() {
+            // Given
+            checkpoint.resumeFrom(Map.of(PARTITION, 3L), false);
+            checkpoint.applied(PARTITION, 9);
+            checkpoint.applied(PARTITION, 5);
+
+            // When
+            Map<TopicPartition, Long> offsets = checkpoint.hold();
+            checkpoint.release();
+
+            // Then
+            assertThat(offsets).containsEntry(PARTITION, 9L);
+        }
+    }
+}
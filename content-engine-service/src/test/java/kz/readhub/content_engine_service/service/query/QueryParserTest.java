@@ -0,0 +1,129 @@
+package kz.readhub.content_engine_service.service.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for QueryParser precedence, normalization and error reporting.
+ */
+@DisplayName("QueryParser Tests")
+class QueryParserTest {
+
+    private static final int MAX_CLAUSES = 64;
+
+    private static String canonical(String text) {
+        return QueryParser.parse(text, MAX_CLAUSES).canonical();
+    }
+
+    @Nested
+    @DisplayName("Precedence Tests")
+    class PrecedenceTests {
+
+        @Test
+        @DisplayName("Should bind AND tighter than OR")
+        void shouldBindAndTighterThanOr() {
+            assertThat(canonical("tag:scifi OR tag:fantasy AND rating>4"))
+                    .isEqualTo("OR(AND(rating>4,tag:\"fantasy\"),tag:\"scifi\")");
+        }
+
+        @Test
+        @DisplayName("Should let parentheses override precedence")
+        void shouldGroupWithParentheses() {
+            assertThat(canonical("(tag:scifi OR tag:fantasy) AND rating>4"))
+                    .isEqualTo("AND(OR(tag:\"fantasy\",tag:\"scifi\"),rating>4)");
+        }
+
+        @Test
+        @DisplayName("Should bind NOT and '-' to the next operand only")
+        void shouldBindNegationTightest() {
+            assertThat(canonical("NOT tag:horror tag:scifi"))
+                    .isEqualTo("AND(NOT(tag:\"horror\"),tag:\"scifi\")");
+            assertThat(canonical("-tag:horror tag:scifi"))
+                    .isEqualTo(canonical("NOT tag:horror tag:scifi"));
+            assertThat(canonical("NOT NOT tag:horror")).isEqualTo("tag:\"horror\"");
+        }
+
+        @Test
+        @DisplayName("Should treat lower-case operators and unknown fields as words")
+        void shouldTreatLowerCaseOperatorsAsWords() {
+            assertThat(canonical("war and peace")).isEqualTo("words:\"and peace war\"");
+            assertThat(canonical("foo:bar")).isEqualTo("words:\"foo:bar\"");
+        }
+    }
+
+    @Nested
+    @DisplayName("Normalization Tests")
+    class NormalizationTests {
+
+        @Test
+        @DisplayName("Should give equivalent queries one canonical form")
+        void shouldNormalizeEquivalentQueries() {
+            assertThat(canonical("Dune OR messiah")).isEqualTo(canonical("messiah dune"));
+            assertThat(canonical("rating>=4 AND tag:scifi AND tag:scifi"))
+                    .isEqualTo(canonical("tag:scifi (rating>=4.0)"));
+            assertThat(canonical("title:\"dune\"")).isEqualTo(canonical("title:Dune"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Error Tests")
+    class ErrorTests {
+
+        @Test
+        @DisplayName("Should report an unterminated quote at its opening position")
+        void shouldRejectUnterminatedQuote() {
+            assertThatThrownBy(() -> canonical("dune \"desert planet"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid query at position 6: unterminated quote");
+        }
+
+        @Test
+        @DisplayName("Should reject groups nested deeper than the limit")
+        void shouldRejectDeepNesting() {
+            assertThat(canonical("(".repeat(32) + "dune" + ")".repeat(32))).isEqualTo("words:\"dune\"");
+            assertThatThrownBy(() -> canonical("(".repeat(33) + "dune" + ")".repeat(33)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("nested deeper than 32 levels");
+            assertThatThrownBy(() -> canonical("NOT ".repeat(33) + "dune"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("nested deeper than 32 levels");
+        }
+
+        @Test
+        @DisplayName("Should reject more clauses than allowed")
+        void shouldRejectTooManyClauses() {
+            assertThat(QueryParser.parse("dune tag:scifi", 2).canonical()).isNotBlank();
+            assertThatThrownBy(() -> QueryParser.parse("dune tag:scifi rating>4", 2))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("more than 2 clauses");
+        }
+
+        @Test
+        @DisplayName("Should reject misplaced operators and parentheses")
+        void shouldRejectMalformedStructure() {
+            assertThatThrownBy(() -> canonical("AND dune"))
+                    .hasMessageContaining("AND without a left operand");
+            assertThatThrownBy(() -> canonical("(dune"))
+                    .hasMessageContaining("missing ')'");
+            assertThatThrownBy(() -> canonical("dune)"))
+                    .hasMessage("Invalid query at position 5: unexpected ')'");
+            assertThatThrownBy(() -> canonical("dune OR"))
+                    .hasMessageContaining("expected a search term");
+        }
+
+        @Test
+        @DisplayName("Should reject values that do not fit the field")
+        void shouldRejectInvalidValues() {
+            assertThatThrownBy(() -> canonical("rating>high"))
+                    .hasMessage("Invalid query at position 1: 'high' is not a number");
+            assertThatThrownBy(() -> canonical("tag>3"))
+                    .hasMessageContaining("'tag' is not numeric");
+            assertThatThrownBy(() -> canonical("author:"))
+                    .hasMessageContaining("missing value for 'author'");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package kz.readhub.content_engine_service.service.query;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for QueryPlanCache lookups by text and by canonical form.
+ */
+@DisplayName("QueryPlanCache Tests")
+class QueryPlanCacheTest {
+
+    private ContentEngineProperties properties;
+    private MeterRegistry meterRegistry;
+    private QueryPlanCache queryPlanCache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ContentEngineProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        queryPlanCache = new QueryPlanCache(properties, meterRegistry);
+    }
+
+    @Nested
+    @DisplayName("Plan Tests")
+    class PlanTests {
+
+        @Test
+        @DisplayName("Should return no plan for a blank query")
+        void shouldReturnNullForBlankQuery() {
+            assertThat(queryPlanCache.plan(null)).isNull();
+            assertThat(queryPlanCache.plan("   ")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should reuse the plan of a repeated query text")
+        void shouldReuseRepeatedText() {
+            // Given
+            QueryPlan first = queryPlanCache.plan("tag:scifi rating>4");
+
+            // When
+            QueryPlan second = queryPlanCache.plan("tag:scifi rating>4");
+
+            // Then
+            assertThat(second).isSameAs(first);
+            assertThat(count("hit")).isEqualTo(1);
+            assertThat(count("compiled")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should share one plan between equivalent query texts")
+        void shouldShareEquivalentPlans() {
+            // Given
+            QueryPlan first = queryPlanCache.plan("tag:scifi AND rating>4");
+
+            // When
+            QueryPlan second = queryPlanCache.plan("rating>4.0 tag:scifi tag:scifi");
+
+            // Then
+            assertThat(second).isSameAs(first);
+            assertThat(second.getCanonical()).isEqualTo("AND(rating>4,tag:\"scifi\")");
+            assertThat(count("shared")).isEqualTo(1);
+            assertThat(count("compiled")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should keep different queries apart")
+        void shouldSeparateDifferentQueries() {
+            // When
+            QueryPlan scifi = queryPlanCache.plan("tag:scifi");
+            QueryPlan fantasy = queryPlanCache.plan("tag:fantasy");
+
+            // Then
+            assertThat(scifi).isNotEqualTo(fantasy);
+            assertThat(count("compiled")).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should fail on a malformed query and cache nothing for it")
+        void shouldRejectMalformedQuery() {
+            // When & Then
+            assertThatThrownBy(() -> queryPlanCache.plan("(tag:scifi"))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> queryPlanCache.plan("(tag:scifi"))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThat(count("hit")).isZero();
+        }
+
+        @Test
+        @DisplayName("Should apply the configured clause limit")
+        void shouldApplyClauseLimit() {
+            // Given
+            properties.getQueryLanguage().setMaxClauses(2);
+            QueryPlanCache limited = new QueryPlanCache(properties, new SimpleMeterRegistry());
+
+            // When & Then
+            assertThat(limited.plan("tag:scifi rating>4")).isNotNull();
+            assertThatThrownBy(() -> limited.plan("tag:scifi rating>4 dune"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("more than 2 clauses");
+        }
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("content.query.plans", "result", result).count();
+    }
+}
@@ -0,0 +1,262 @@
+package kz.readhub.content_engine_service.service.reindex;
+
+import co.elastic.clients.elasticsearch.indices.GetAliasResponse;
+import co.elastic.clients.elasticsearch.indices.UpdateAliasesRequest;
+import co.elastic.clients.elasticsearch.indices.get_alias.IndexAliases;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
+import co.elastic.clients.util.ObjectBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.mapper.BookEventMapper;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.ReindexStatus;
+import kz.readhub.content_engine_service.service.embedding.EmbeddingService;
+import kz.readhub.content_engine_service.service.ingestion.BulkIndexer;
+import kz.readhub.content_engine_service.service.ingestion.BulkResult;
+import kz.readhub.content_engine_service.service.search.SearchResultCache;
+import kz.readhub.content_engine_service.service.trending.TrendingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchIndicesClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ReindexService loading the catalog into a new index and moving the alias onto it.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("ReindexService Tests")
+class ReindexServiceTest {
+
+    private static final String PREVIOUS_INDEX = "books_20240101000000";
+    private static final String CATALOG = """
+            {"id":"book-1","title":"Dune"}
+            {"id":"book-2","title":"Solaris"}
+            {"id":"book-3","title":"Foundation"}
+            """;
+
+    @Mock
+    private ReactiveElasticsearchClient elasticsearchClient;
+
+    @Mock
+    private ReactiveElasticsearchIndicesClient indices;
+
+    @Mock
+    private BulkIndexer bulkIndexer;
+
+    @Mock
+    private EmbeddingService embeddingService;
+
+    @Mock
+    private SearchResultCache resultCache;
+
+    @Mock
+    private TrendingService trendingService;
+
+    private ContentEngineProperties properties;
+    private final List<BookChange> shadowDeletes = List.of(BookChange.builder()
+            .type(BookChange.Type.DELETE)
+            .bookId("book-9")
+            .build());
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        properties = new ContentEngineProperties();
+        properties.getReindex().setBulkSize(2);
+
+        GetAliasResponse aliases = mock(GetAliasResponse.class);
+        when(aliases.result()).thenReturn(Map.of(PREVIOUS_INDEX, mock(IndexAliases.class)));
+
+        when(elasticsearchClient.indices()).thenReturn(indices);
+        when(indices.create(any(Function.class))).thenReturn(Mono.empty());
+        when(indices.putSettings(any(Function.class))).thenReturn(Mono.empty());
+        when(indices.refresh(any(Function.class))).thenReturn(Mono.empty());
+        when(indices.getAlias(any(Function.class))).thenReturn(Mono.just(aliases));
+        when(indices.exists(any(Function.class))).thenReturn(Mono.just(new BooleanResponse(false)));
+        when(indices.updateAliases(any(Function.class))).thenReturn(Mono.empty());
+        when(indices.delete(any(Function.class))).thenReturn(Mono.empty());
+
+        when(embeddingService.embedDocuments(anyList())).thenReturn(Mono.empty());
+        when(bulkIndexer.index(anyString(), anyList())).thenAnswer(invocation -> {
+            List<BookChange> batch = invocation.getArgument(1);
+            return Mono.just(new BulkResult(batch.size(), 0, 1, 0, Map.of()));
+        });
+        when(bulkIndexer.drainShadowDeletes()).thenReturn(shadowDeletes);
+    }
+
+    @Nested
+    @DisplayName("Success Tests")
+    class SuccessTests {
+
+        @Test
+        @DisplayName("Should load the catalog, re-apply shadow deletes and move the alias to the new index")
+        void shouldMoveAliasToLoadedIndex() {
+            // Given
+            ReindexService reindexService = newService(catalog(CATALOG));
+
+            // When
+            String target = reindexService.start().getIndex();
+            ReindexStatus status = awaitFinished(reindexService);
+
+            // Then
+            assertThat(status.getState()).isEqualTo(ReindexStatus.State.COMPLETED);
+            assertThat(status.getLoaded()).isEqualTo(3);
+            assertThat(status.getFailed()).isZero();
+            assertThat(status.getPreviousIndex()).isEqualTo(PREVIOUS_INDEX);
+            verify(bulkIndexer).startShadowWrites(target);
+            verify(bulkIndexer).index(target, shadowDeletes);
+            verify(bulkIndexer).stopShadowWrites();
+            verify(resultCache).invalidateAll();
+            verify(trendingService).resetPublished();
+            verify(indices, never()).delete(any(Function.class));
+
+            List<Action> actions = aliasActions();
+            assertThat(actions).hasSize(2);
+            assertThat(actions.get(0).isAdd()).isTrue();
+            assertThat(actions.get(0).add().index()).isEqualTo(target);
+            assertThat(actions.get(1).isRemove()).isTrue();
+            assertThat(actions.get(1).remove().index()).isEqualTo(PREVIOUS_INDEX);
+        }
+
+        @Test
+        @DisplayName("Should delete the previous index once the alias has moved when configured to")
+        void shouldDeletePreviousIndex() {
+            // Given
+            properties.getReindex().setDeletePrevious(true);
+            ReindexService reindexService = newService(catalog(CATALOG));
+
+            // When
+            reindexService.start();
+            ReindexStatus status = awaitFinished(reindexService);
+
+            // Then
+            assertThat(status.getState()).isEqualTo(ReindexStatus.State.COMPLETED);
+            verify(indices, timeout(1000)).delete(any(Function.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Failure Tests")
+    class FailureTests {
+
+        @Test
+        @DisplayName("Should stop shadow writes and drop the new index when loading fails")
+        void shouldCleanUpAfterFailedLoad() {
+            // Given
+            when(bulkIndexer.index(anyString(), anyList()))
+                    .thenReturn(Mono.error(new IllegalStateException("bulk rejected")));
+            ReindexService reindexService = newService(catalog(CATALOG));
+
+            // When
+            reindexService.start();
+            ReindexStatus status = awaitFinished(reindexService);
+
+            // Then
+            assertThat(status.getState()).isEqualTo(ReindexStatus.State.FAILED);
+            assertThat(status.getError()).isEqualTo("bulk rejected");
+            verify(bulkIndexer).stopShadowWrites();
+            verify(indices).delete(any(Function.class));
+            verify(indices, never()).updateAliases(any(Function.class));
+            verify(resultCache, never()).invalidateAll();
+        }
+    }
+
+    @Nested
+    @DisplayName("Start Tests")
+    class StartTests {
+
+        @Test
+        @DisplayName("Should reject a second reindex while one is running")
+        void shouldRejectConcurrentReindex() {
+            // Given
+            ReindexService reindexService = newService(request -> Mono.never());
+            reindexService.start();
+
+            // When & Then
+            assertThatThrownBy(reindexService::start)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("already running");
+            assertThat(reindexService.status().getState()).isEqualTo(ReindexStatus.State.LOADING);
+        }
+
+        @Test
+        @DisplayName("Should allow a new reindex after a failed one")
+        void shouldRestartAfterFailure() {
+            // Given
+            ReindexService reindexService = newService(request -> Mono.just(ClientResponse
+                    .create(HttpStatus.SERVICE_UNAVAILABLE)
+                    .build()));
+            reindexService.start();
+            assertThat(awaitFinished(reindexService).getState()).isEqualTo(ReindexStatus.State.FAILED);
+
+            // When
+            ReindexStatus restarted = reindexService.start();
+
+            // Then
+            assertThat(restarted.getState()).isEqualTo(ReindexStatus.State.CREATING_INDEX);
+        }
+    }
+
+    private ReindexService newService(ExchangeFunction catalog) {
+        return new ReindexService(elasticsearchClient, bulkIndexer, embeddingService, new BookEventMapper(),
+                resultCache, trendingService, new ObjectMapper(), properties,
+                WebClient.builder().exchangeFunction(catalog));
+    }
+
+    private static ExchangeFunction catalog(String ndjson) {
+        return request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE)
+                .body(ndjson)
+                .build());
+    }
+
+    private static ReindexStatus awaitFinished(ReindexService reindexService) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (reindexService.status().isRunning() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(Duration.ofMillis(5).toNanos());
+        }
+        return reindexService.status();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Action> aliasActions() {
+        ArgumentCaptor<Function<UpdateAliasesRequest.Builder, ObjectBuilder<UpdateAliasesRequest>>> captor =
+                ArgumentCaptor.forClass(Function.class);
+        verify(indices).updateAliases(captor.capture());
+        return captor.getValue().apply(new UpdateAliasesRequest.Builder()).build().actions();
+    }
+}
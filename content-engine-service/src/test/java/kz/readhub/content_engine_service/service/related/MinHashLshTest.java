@@ -0,0 +1,126 @@
+package kz.readhub.content_engine_service.service.related;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for MinHashLsh candidate lookup and Jaccard scoring.
+ */
+@DisplayName("MinHashLsh Tests")
+class MinHashLshTest {
+
+    private static final int K = 5;
+
+    private MinHashLsh lsh;
+    private final int[] ids = new int[K];
+    private final float[] scores = new float[K];
+
+    @BeforeEach
+    void setUp() {
+        lsh = new MinHashLsh(32, 3);
+        lsh.put(1, range(0, 20));
+        lsh.put(2, range(1, 21));
+        lsh.put(3, range(3, 23));
+        lsh.put(4, range(1000, 1020));
+    }
+
+    @Nested
+    @DisplayName("Related Tests")
+    class RelatedTests {
+
+        @Test
+        @DisplayName("Should find similar sets, most similar first")
+        void shouldFindSimilarSets() {
+            // When
+            int count = lsh.related(1, K, 1000, 0.1f, ids, scores);
+
+            // Then
+            assertThat(count).isEqualTo(2);
+            assertThat(ids[0]).isEqualTo(2);
+            assertThat(scores[0]).isCloseTo(19f / 21, within(1e-6f));
+            assertThat(ids[1]).isEqualTo(3);
+            assertThat(scores[1]).isCloseTo(17f / 23, within(1e-6f));
+        }
+
+        @Test
+        @DisplayName("Should drop candidates below the minimum similarity")
+        void shouldApplyMinimumSimilarity() {
+            assertThat(lsh.related(1, K, 1000, 0.8f, ids, scores)).isEqualTo(1);
+            assertThat(ids[0]).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should return at most k results")
+        void shouldLimitResults() {
+            assertThat(lsh.related(1, 1, 1000, 0.1f, ids, scores)).isEqualTo(1);
+            assertThat(ids[0]).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should find nothing for an unknown id or a dissimilar set")
+        void shouldFindNothingUnrelated() {
+            assertThat(lsh.related(99, K, 1000, 0.1f, ids, scores)).isZero();
+            assertThat(lsh.related(4, K, 1000, 0.1f, ids, scores)).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Update Tests")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should stop returning removed sets")
+        void shouldRemoveSet() {
+            // When
+            lsh.remove(2);
+
+            // Then
+            assertThat(lsh.size()).isEqualTo(3);
+            assertThat(lsh.related(1, K, 1000, 0.1f, ids, scores)).isEqualTo(1);
+            assertThat(ids[0]).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should replace a set and remove it when put empty")
+        void shouldReplaceSet() {
+            // When
+            lsh.put(4, range(0, 20));
+
+            // Then
+            assertThat(lsh.related(1, 1, 1000, 0.1f, ids, scores)).isEqualTo(1);
+            assertThat(ids[0]).isEqualTo(4);
+            assertThat(scores[0]).isEqualTo(1f);
+
+            // When
+            lsh.put(4, new long[0]);
+
+            // Then
+            assertThat(lsh.size()).isEqualTo(3);
+            assertThat(lsh.related(4, K, 1000, 0.1f, ids, scores)).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Jaccard Tests")
+    class JaccardTests {
+
+        @Test
+        @DisplayName("Should compute the Jaccard similarity of sorted sets")
+        void shouldComputeJaccard() {
+            assertThat(MinHashLsh.jaccard(new long[]{1, 2, 3}, new long[]{2, 3, 4})).isEqualTo(0.5f);
+            assertThat(MinHashLsh.jaccard(new long[]{1, 2}, new long[]{3, 4})).isZero();
+            assertThat(MinHashLsh.jaccard(new long[0], new long[0])).isZero();
+        }
+    }
+
+    private static long[] range(long from, long to) {
+        return LongStream.range(from, to).map(value -> value * 0x9E3779B97F4A7C15L).toArray();
+    }
+}
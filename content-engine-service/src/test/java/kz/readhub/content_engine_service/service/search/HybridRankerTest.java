@@ -0,0 +1,278 @@
+package kz.readhub.content_engine_service.service.search;
+
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.SearchResult;
+import kz.readhub.content_engine_service.service.embedding.BookEmbedder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for HybridRanker blending text, vector and popularity signals over a window of hits.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("HybridRanker Tests")
+class HybridRankerTest {
+
+    private static final float[] QUERY_VECTOR = {1f, 0f};
+
+    @Mock
+    private BookEmbedder embedder;
+
+    private ContentEngineProperties.Ranking ranking;
+    private HybridRanker hybridRanker;
+
+    @BeforeEach
+    void setUp() {
+        ContentEngineProperties properties = new ContentEngineProperties();
+        ranking = properties.getRanking();
+        hybridRanker = new HybridRanker(embedder, properties);
+        when(embedder.embedText(anyString())).thenReturn(QUERY_VECTOR);
+    }
+
+    @Nested
+    @DisplayName("Normalisation Tests")
+    class NormalisationTests {
+
+        @Test
+        @DisplayName("Should scale text scores to the best hit of the window")
+        void shouldScaleTextToBestHit() {
+            // Given
+            onlyWeights(1, 0, 0);
+            SearchResult window = window(List.of(book("a"), book("b"), book("c")), 4, 8, 2);
+
+            // When
+            SearchResult ranked = hybridRanker.rerank("dune", window);
+
+            // Then
+            assertThat(ids(ranked)).containsExactly("b", "a", "c");
+            assertThat(ranked.getScores()).containsExactly(1.0, 0.5, 0.25);
+        }
+
+        @Test
+        @DisplayName("Should score text zero when no hit has a positive text score")
+        void shouldNotDivideByZero() {
+            // Given
+            onlyWeights(1, 0, 0);
+
+            // When
+            SearchResult ranked = hybridRanker.rerank("dune", window(List.of(book("a"), book("b")), 0, 0));
+
+            // Then
+            assertThat(ranked.getScores()).containsExactly(0.0, 0.0);
+        }
+
+        @Test
+        @DisplayName("Should clamp the cosine to [0, 1] and score missing or mismatched embeddings zero")
+        void shouldClampCosine() {
+            // Given
+            onlyWeights(0, 1, 0);
+            List<BookDocument> books = List.of(
+                    book("opposite", new float[]{-1f, 0f}),
+                    book("missing", null),
+                    book("mismatched", new float[]{1f, 0f, 0f}),
+                    book("same", new float[]{1f, 0f}),
+                    book("diagonal", new float[]{0.6f, 0.8f}));
+
+            // When
+            SearchResult ranked = hybridRanker.rerank("dune", window(books, 1, 1, 1, 1, 1));
+
+            // Then
+            assertThat(ids(ranked)).containsExactly("same", "diagonal", "opposite", "missing", "mismatched");
+            assertThat(ranked.getScores()[0]).isEqualTo(1.0);
+            assertThat(ranked.getScores()[1]).isCloseTo(0.6, within(1e-6));
+            assertThat(ranked.getScores()).endsWith(0.0, 0.0, 0.0);
+        }
+
+        @Test
+        @DisplayName("Should saturate popularity at the reference and halve it for unrated books")
+        void shouldScalePopularity() {
+            // Given
+            onlyWeights(0, 0, 1);
+            ranking.setPopularityReference(1_000);
+            List<BookDocument> books = List.of(
+                    popular("unknown", 0, 0, 5f),
+                    popular("unrated", 1_000_000, 0, 0f),
+                    popular("rated", 1_000_000, 0, 5f),
+                    popular("capped", 1_000_000, 0, 9f));
+
+            // When
+            SearchResult ranked = hybridRanker.rerank("dune", window(books, 1, 1, 1, 1));
+
+            // Then
+            assertThat(ids(ranked)).containsExactly("rated", "capped", "unrated", "unknown");
+            assertThat(ranked.getScores()).containsExactly(1.0, 1.0, 0.5, 0.0);
+        }
+
+        @Test
+        @DisplayName("Should weigh the signals by the configured weights")
+        void shouldBlendWeightedSignals() {
+            // Given
+            onlyWeights(1, 0.5, 0);
+            List<BookDocument> books = List.of(
+                    book("text", new float[]{0f, 1f}),
+                    book("similar", new float[]{1f, 0f}));
+
+            // When
+            SearchResult ranked = hybridRanker.rerank("dune", window(books, 10, 6));
+
+            // Then
+            assertThat(ids(ranked)).containsExactly("similar", "text");
+            assertThat(ranked.getScores()[0]).isCloseTo(0.6 + 0.5, within(1e-9));
+            assertThat(ranked.getScores()[1]).isCloseTo(1.0, within(1e-9));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tie Tests")
+    class TieTests {
+
+        @Test
+        @DisplayName("Should keep Elasticsearch order between equal scores")
+        void shouldKeepOrderOfTies() {
+            // Given
+            onlyWeights(0, 0, 1);
+            ranking.setReviewWeight(10);
+            List<BookDocument> books = List.of(
+                    popular("low", 1, 0, 5f),
+                    popular("reviewed", 0, 1, 5f),
+                    popular("downloaded", 10, 0, 5f),
+                    popular("top", 100, 0, 5f));
+
+            // When
+            SearchResult ranked = hybridRanker.rerank("dune", window(books, 1, 1, 1, 1));
+
+            // Then
+            assertThat(ids(ranked)).containsExactly("top", "reviewed", "downloaded", "low");
+        }
+
+        @Test
+        @DisplayName("Should give the same order when ranking the same window again")
+        void shouldBeDeterministic() {
+            // Given
+            SearchResult window = tiedWindow(40);
+
+            // When
+            SearchResult first = hybridRanker.rerank("dune", window);
+            SearchResult second = hybridRanker.rerank("dune", window);
+
+            // Then
+            assertThat(ids(second)).isEqualTo(ids(first));
+            assertThat(second.getScores()).containsExactly(first.getScores());
+        }
+
+        @Test
+        @DisplayName("Should return a window of fewer than two hits untouched")
+        void shouldSkipSingleHit() {
+            // Given
+            SearchResult window = window(List.of(book("a")), 3);
+
+            // When & Then
+            assertThat(hybridRanker.rerank("dune", window)).isSameAs(window);
+        }
+    }
+
+    @Nested
+    @DisplayName("Window Paging Tests")
+    class WindowPagingTests {
+
+        @Test
+        @DisplayName("Should neither repeat nor skip a book across pages cut from separately ranked windows")
+        void shouldPageThroughWindowOnce() {
+            // Given
+            SearchResult window = tiedWindow(40);
+            int pageSize = 7;
+
+            // When
+            List<String> paged = new ArrayList<>();
+            for (int offset = 0; offset < 40; offset += pageSize) {
+                List<String> ranked = ids(hybridRanker.rerank("dune", window));
+                paged.addAll(ranked.subList(offset, Math.min(40, offset + pageSize)));
+            }
+
+            // Then
+            assertThat(paged).doesNotHaveDuplicates().hasSize(40);
+            assertThat(paged).isEqualTo(ids(hybridRanker.rerank("dune", window)));
+        }
+
+        @Test
+        @DisplayName("Should keep the window's cursor and total so pages continue after it")
+        void shouldKeepWindowCursor() {
+            // Given
+            SearchResult window = tiedWindow(10).toBuilder()
+                    .nextCursor("after-window")
+                    .totalHits(250L)
+                    .build();
+
+            // When
+            SearchResult ranked = hybridRanker.rerank("dune", window);
+
+            // Then
+            assertThat(ranked.getNextCursor()).isEqualTo("after-window");
+            assertThat(ranked.getTotalHits()).isEqualTo(250L);
+            assertThat(ranked.getDocuments()).hasSize(10);
+            assertThat(ranked.getScores()).hasSize(10);
+        }
+    }
+
+    private void onlyWeights(double text, double vector, double popularity) {
+        ranking.setTextWeight(text);
+        ranking.setVectorWeight(vector);
+        ranking.setPopularityWeight(popularity);
+    }
+
+    /**
+     * A window where many books share a blended score: text scores repeat every five hits and no book has
+     * an embedding or downloads.
+     */
+    private static SearchResult tiedWindow(int count) {
+        List<BookDocument> books = IntStream.range(0, count).mapToObj(i -> book("book-" + i)).toList();
+        double[] scores = IntStream.range(0, count).mapToDouble(i -> 1 + i % 5).toArray();
+        return window(books, scores);
+    }
+
+    private static SearchResult window(List<BookDocument> books, double... textScores) {
+        return SearchResult.builder()
+                .documents(books)
+                .scores(textScores)
+                .build();
+    }
+
+    private static List<String> ids(SearchResult result) {
+        return result.getDocuments().stream().map(BookDocument::getId).toList();
+    }
+
+    private static BookDocument book(String id) {
+        return BookDocument.builder().id(id).build();
+    }
+
+    private static BookDocument book(String id, float[] embedding) {
+        return BookDocument.builder().id(id).embedding(embedding).build();
+    }
+
+    private static BookDocument popular(String id, int downloads, int reviews, float rating) {
+        return BookDocument.builder()
+                .id(id)
+                .downloadCount(downloads)
+                .reviewCount(reviews)
+                .averageRating(rating)
+                .build();
+    }
+}
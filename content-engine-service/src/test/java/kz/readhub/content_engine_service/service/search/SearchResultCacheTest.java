@@ -0,0 +1,198 @@
+package kz.readhub.content_engine_service.service.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.SearchRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for SearchResultCache invalidation by term, by book id and by generation.
+ */
+@DisplayName("SearchResultCache Tests")
+class SearchResultCacheTest {
+
+    private ContentEngineProperties properties;
+    private SearchResultCache searchResultCache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ContentEngineProperties();
+        searchResultCache = new SearchResultCache(properties, new SimpleMeterRegistry());
+    }
+
+    @Nested
+    @DisplayName("Term Invalidation Tests")
+    class TermInvalidationTests {
+
+        @Test
+        @DisplayName("Should drop pages whose query shares a term with an indexed book")
+        void shouldInvalidateByQueryTerm() {
+            // Given
+            SearchCacheKey dune = cached(query("Dune Messiah"), "book-1");
+            SearchCacheKey foundation = cached(query("foundation"), "book-2");
+
+            // When
+            searchResultCache.onIndexed(List.of(upsert("book-3", document("Children of Dune"), null)));
+
+            // Then
+            assertThat(searchResultCache.get(dune)).isNull();
+            assertThat(searchResultCache.get(foundation)).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should drop pages matching the previous version of a book")
+        void shouldInvalidateByPreviousTerm() {
+            // Given
+            SearchCacheKey dune = cached(query("dune"), "book-1");
+
+            // When
+            searchResultCache.onIndexed(List.of(upsert("book-3", document("Arrakis"), document("Dune"))));
+
+            // Then
+            assertThat(searchResultCache.get(dune)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should drop filter-only pages by their filter values")
+        void shouldInvalidateByFilterValue() {
+            // Given
+            SearchRequest scifi = new SearchRequest();
+            scifi.setTags(List.of("scifi"));
+            SearchRequest romance = new SearchRequest();
+            romance.setTags(List.of("romance"));
+            SearchCacheKey scifiKey = cached(scifi, "book-1");
+            SearchCacheKey romanceKey = cached(romance, "book-2");
+            BookDocument tagged = document("Hyperion").toBuilder().tags(List.of("scifi")).build();
+
+            // When
+            searchResultCache.onIndexed(List.of(upsert("book-3", tagged, null)));
+
+            // Then
+            assertThat(searchResultCache.get(scifiKey)).isNull();
+            assertThat(searchResultCache.get(romanceKey)).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should drop pages without terms on any change")
+        void shouldInvalidateMatchAnyOnEveryChange() {
+            // Given
+            SearchCacheKey everything = cached(new SearchRequest(), "book-1");
+
+            // When
+            searchResultCache.onIndexed(List.of(upsert("book-9", document("Unrelated"), null)));
+
+            // Then
+            assertThat(searchResultCache.get(everything)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Book Invalidation Tests")
+    class BookInvalidationTests {
+
+        @Test
+        @DisplayName("Should drop pages holding a changed book even without a shared term")
+        void shouldInvalidateByBookId() {
+            // Given
+            SearchCacheKey dune = cached(query("dune"), "book-1", "book-2");
+            SearchCacheKey foundation = cached(query("foundation"), "book-3");
+
+            // When
+            searchResultCache.onIndexed(List.of(BookChange.builder()
+                    .type(BookChange.Type.DELETE)
+                    .bookId("book-2")
+                    .build()));
+
+            // Then
+            assertThat(searchResultCache.get(dune)).isNull();
+            assertThat(searchResultCache.get(foundation)).isNotNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Generation Tests")
+    class GenerationTests {
+
+        @Test
+        @DisplayName("Should not store a page read before an invalidation")
+        void shouldSkipStalePut() {
+            // Given
+            SearchCacheKey key = SearchCacheKey.of(query("dune"), null, 10);
+            long readStamp = searchResultCache.readStamp();
+            searchResultCache.onIndexed(List.of(upsert("book-9", document("Unrelated"), null)));
+
+            // When
+            searchResultCache.put(key, readStamp, new String[]{"book-1"}, new double[]{1.0}, null, 1L);
+
+            // Then
+            assertThat(searchResultCache.get(key)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should clear everything for a batch at the threshold")
+        void shouldInvalidateAllForLargeBatch() {
+            // Given
+            properties.getSearchCache().setFullInvalidationThreshold(2);
+            SearchCacheKey foundation = cached(query("foundation"), "book-1");
+
+            // When
+            searchResultCache.onIndexed(List.of(
+                    upsert("book-8", document("Unrelated"), null),
+                    upsert("book-9", document("Unrelated"), null)));
+
+            // Then
+            assertThat(searchResultCache.get(foundation)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should keep pages when caching is disabled")
+        void shouldIgnoreChangesWhenDisabled() {
+            // Given
+            properties.getSearchCache().setEnabled(false);
+            SearchCacheKey dune = cached(query("dune"), "book-1");
+
+            // When
+            searchResultCache.onIndexed(List.of(upsert("book-1", document("Dune"), null)));
+
+            // Then
+            assertThat(searchResultCache.get(dune)).isNotNull();
+        }
+    }
+
+    private SearchCacheKey cached(SearchRequest request, String... ids) {
+        SearchCacheKey key = SearchCacheKey.of(request, null, 10);
+        double[] scores = new double[ids.length];
+        searchResultCache.put(key, searchResultCache.readStamp(), ids, scores, List.of(1.0, ids[ids.length - 1]),
+                (long) ids.length);
+        assertThat(searchResultCache.get(key)).isNotNull();
+        return key;
+    }
+
+    private static SearchRequest query(String text) {
+        SearchRequest request = new SearchRequest();
+        request.setQuery(text);
+        return request;
+    }
+
+    private static BookDocument document(String title) {
+        return BookDocument.builder().title(title).build();
+    }
+
+    private static BookChange upsert(String id, BookDocument document, BookDocument previous) {
+        return BookChange.builder()
+                .type(BookChange.Type.UPSERT)
+                .bookId(id)
+                .document(document.toBuilder().id(id).build())
+                .previous(previous)
+                .build();
+    }
+}
@@ -0,0 +1,207 @@
+package kz.readhub.content_engine_service.service.snapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.exception.ContentEngineException;
+import kz.readhub.content_engine_service.service.ingestion.IngestionCheckpoint;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for SnapshotService writing, restoring and rejecting snapshots.
+ */
+@DisplayName("SnapshotService Tests")
+class SnapshotServiceTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("book-cdc-events", 3);
+
+    @TempDir
+    Path directory;
+
+    private ContentEngineProperties properties;
+    private final List<SnapshotService> started = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new ContentEngineProperties();
+        properties.getSnapshot().setDirectory(directory.toString());
+        properties.getSnapshot().setInterval(Duration.ofHours(1));
+
+        IngestionCheckpoint checkpoint = new IngestionCheckpoint();
+        checkpoint.resumeFrom(Map.of(PARTITION, 42L), false);
+        new SnapshotService(properties, provider(new CounterSection("counter", "dimension=384", 7)), checkpoint,
+                new SimpleMeterRegistry()).write();
+    }
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(SnapshotService::stop);
+    }
+
+    @Nested
+    @DisplayName("Restore Tests")
+    class RestoreTests {
+
+        @Test
+        @DisplayName("Should restore every section and resume from the covered offsets")
+        void shouldRestoreSnapshot() {
+            // Given
+            CounterSection section = new CounterSection("counter", "dimension=384", 0);
+            IngestionCheckpoint checkpoint = new IngestionCheckpoint();
+
+            // When
+            start(checkpoint, section);
+
+            // Then
+            assertThat(section.value).isEqualTo(7);
+            assertThat(offsets(checkpoint)).containsEntry(PARTITION, 42L);
+        }
+
+        @Test
+        @DisplayName("Should ignore a section written with different settings")
+        void shouldIgnoreFingerprintMismatch() {
+            // Given
+            CounterSection section = new CounterSection("counter", "dimension=768", 0);
+            IngestionCheckpoint checkpoint = new IngestionCheckpoint();
+
+            // When
+            start(checkpoint, section);
+
+            // Then
+            assertThat(section.value).isZero();
+            assertThat(offsets(checkpoint)).isEmpty();
+            assertThat(directory.resolve("snapshot.bin")).exists();
+        }
+
+        @Test
+        @DisplayName("Should ignore a snapshot with a different set of sections")
+        void shouldIgnoreSectionMismatch() {
+            // Given
+            CounterSection counter = new CounterSection("counter", "dimension=384", 0);
+            CounterSection extra = new CounterSection("extra", "", 0);
+            IngestionCheckpoint checkpoint = new IngestionCheckpoint();
+
+            // When
+            start(checkpoint, counter, extra);
+
+            // Then
+            assertThat(counter.value).isZero();
+            assertThat(offsets(checkpoint)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should move a snapshot aside and fail when a section does not restore cleanly")
+        void shouldFailOnBrokenSection() {
+            // Given
+            CounterSection section = new CounterSection("counter", "dimension=384", 0) {
+                @Override
+                public void restoreSnapshot(SnapshotInput in) {
+                    // leaves the section unread
+                }
+            };
+            SnapshotService snapshotService = new SnapshotService(properties, provider(section),
+                    new IngestionCheckpoint(), new SimpleMeterRegistry());
+
+            // When & Then
+            assertThatThrownBy(snapshotService::start)
+                    .isInstanceOf(ContentEngineException.class)
+                    .hasMessageContaining("Failed to restore snapshot");
+            assertThat(directory.resolve("snapshot.bin")).doesNotExist();
+            assertThat(directory.resolve("snapshot.bin.failed")).exists();
+        }
+
+        @Test
+        @DisplayName("Should ignore a truncated snapshot")
+        void shouldIgnoreTruncatedSnapshot() throws IOException {
+            // Given
+            Path file = directory.resolve("snapshot.bin");
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+            CounterSection section = new CounterSection("counter", "dimension=384", 0);
+            IngestionCheckpoint checkpoint = new IngestionCheckpoint();
+
+            // When
+            start(checkpoint, section);
+
+            // Then
+            assertThat(section.value).isZero();
+            assertThat(offsets(checkpoint)).isEmpty();
+        }
+    }
+
+    private void start(IngestionCheckpoint checkpoint, Snapshottable... sections) {
+        SnapshotService snapshotService = new SnapshotService(properties, provider(sections), checkpoint,
+                new SimpleMeterRegistry());
+        snapshotService.start();
+        started.add(snapshotService);
+    }
+
+    private static Map<TopicPartition, Long> offsets(IngestionCheckpoint checkpoint) {
+        try {
+            return checkpoint.hold();
+        } finally {
+            checkpoint.release();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<Snapshottable> provider(Snapshottable... sections) {
+        ObjectProvider<Snapshottable> provider = mock(ObjectProvider.class);
+        when(provider.orderedStream()).thenAnswer(invocation -> Stream.of(sections));
+        return provider;
+    }
+
+    private static class CounterSection implements Snapshottable {
+
+        private final String name;
+        private final String fingerprint;
+        long value;
+
+        CounterSection(String name, String fingerprint, long value) {
+            this.name = name;
+            this.fingerprint = fingerprint;
+            this.value = value;
+        }
+
+        @Override
+        public String snapshotSection() {
+            return name;
+        }
+
+        @Override
+        public String snapshotFingerprint() {
+            return fingerprint;
+        }
+
+        @Override
+        public void writeSnapshot(SnapshotOutput out) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        public void restoreSnapshot(SnapshotInput in) throws IOException {
+            value = in.readLong();
+        }
+    }
+}
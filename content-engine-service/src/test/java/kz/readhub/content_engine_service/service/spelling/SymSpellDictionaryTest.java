@@ -0,0 +1,124 @@
+package kz.readhub.content_engine_service.service.spelling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for SymSpellDictionary lookups and edit distances.
+ */
+@DisplayName("SymSpellDictionary Tests")
+class SymSpellDictionaryTest {
+
+    private SymSpellDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new SymSpellDictionary(2, 7);
+        dictionary.add("dune", 3);
+        dictionary.add("cat", 5);
+        dictionary.add("car", 10);
+        dictionary.add("encyclopedia", 1);
+    }
+
+    @Nested
+    @DisplayName("Lookup Tests")
+    class LookupTests {
+
+        @Test
+        @DisplayName("Should return a known word as itself")
+        void shouldReturnKnownWord() {
+            SymSpellDictionary.Suggestion suggestion = dictionary.lookup("dune");
+
+            assertThat(suggestion.getTerm()).isEqualTo("dune");
+            assertThat(suggestion.getDistance()).isZero();
+            assertThat(suggestion.getFrequency()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should correct transpositions, deletions and insertions")
+        void shouldCorrectEdits() {
+            assertThat(dictionary.lookup("dnue").getTerm()).isEqualTo("dune");
+            assertThat(dictionary.lookup("dnue").getDistance()).isEqualTo(1);
+            assertThat(dictionary.lookup("dun").getTerm()).isEqualTo("dune");
+            assertThat(dictionary.lookup("duune").getTerm()).isEqualTo("dune");
+            assertThat(dictionary.lookup("dunnes").getDistance()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should find terms whose edits lie beyond the prefix")
+        void shouldCorrectBeyondPrefix() {
+            SymSpellDictionary.Suggestion suggestion = dictionary.lookup("encyclopaedia");
+
+            assertThat(suggestion.getTerm()).isEqualTo("encyclopedia");
+            assertThat(suggestion.getDistance()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should prefer the more frequent term at equal distance")
+        void shouldBreakTiesByFrequency() {
+            assertThat(dictionary.lookup("caz").getTerm()).isEqualTo("car");
+        }
+
+        @Test
+        @DisplayName("Should suggest nothing beyond the edit distance")
+        void shouldSuggestNothingWhenTooFar() {
+            assertThat(dictionary.lookup("foundation")).isNull();
+            assertThat(dictionary.lookup("duxxxe")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should never suggest a term whose frequency dropped to zero")
+        void shouldSkipZeroFrequency() {
+            // When
+            dictionary.add("dune", -3);
+
+            // Then
+            assertThat(dictionary.frequency("dune")).isZero();
+            assertThat(dictionary.size()).isEqualTo(4);
+            assertThat(dictionary.lookup("dnue")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should not register a term on a negative first delta")
+        void shouldIgnoreUnknownRemoval() {
+            // When
+            dictionary.add("hyperion", -1);
+
+            // Then
+            assertThat(dictionary.termId("hyperion")).isEqualTo(-1);
+            assertThat(dictionary.size()).isEqualTo(4);
+        }
+    }
+
+    @Nested
+    @DisplayName("Distance Tests")
+    class DistanceTests {
+
+        @Test
+        @DisplayName("Should count an adjacent transposition as one edit")
+        void shouldCountTranspositionAsOneEdit() {
+            assertThat(SymSpellDictionary.distance("form", "from", 2)).isEqualTo(1);
+            assertThat(SymSpellDictionary.distance("kitten", "sitting", 3)).isEqualTo(3);
+            assertThat(SymSpellDictionary.distance("same", "same", 0)).isZero();
+        }
+
+        @Test
+        @DisplayName("Should give up once the distance exceeds the maximum")
+        void shouldStopBeyondMaximum() {
+            assertThat(SymSpellDictionary.distance("kitten", "sitting", 2)).isEqualTo(-1);
+            assertThat(SymSpellDictionary.distance("a", "abcd", 2)).isEqualTo(-1);
+        }
+
+        @Test
+        @DisplayName("Should require a prefix longer than the edit distance")
+        void shouldRejectShortPrefix() {
+            assertThatThrownBy(() -> new SymSpellDictionary(2, 2))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
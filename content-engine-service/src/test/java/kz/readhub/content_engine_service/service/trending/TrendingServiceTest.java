@@ -0,0 +1,227 @@
+package kz.readhub.content_engine_service.service.trending;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.ScoredId;
+import kz.readhub.content_engine_service.service.index.DocumentIdMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for TrendingService scoring CDC changes by their event time and publishing the top list.
+ */
+@DisplayName("TrendingService Tests")
+class TrendingServiceTest {
+
+    private ContentEngineProperties properties;
+    private TrendingService trendingService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ContentEngineProperties();
+        properties.getTrending().setHalfLife(Duration.ofHours(6));
+        properties.getTrending().setUpdateWeight(0.1);
+        properties.getTrending().setDownloadWeight(1.0);
+        properties.getTrending().setMinScore(0.01);
+        trendingService = newService();
+    }
+
+    @Nested
+    @DisplayName("Decay Tests")
+    class DecayTests {
+
+        @Test
+        @DisplayName("Should score a change written now at its full weight")
+        void shouldScoreRecentChangeAtFullWeight() {
+            // When
+            trendingService.onIndexed(List.of(change("book-1", 1L, 0, Instant.now())));
+
+            // Then
+            assertThat(score("book-1")).isCloseTo(0.1, within(1e-3));
+        }
+
+        @Test
+        @DisplayName("Should decay a change by its record timestamp")
+        void shouldDecayByRecordTimestamp() {
+            // When
+            trendingService.onIndexed(List.of(change("book-1", 1L, 0, Instant.now().minus(Duration.ofHours(12)))));
+
+            // Then
+            assertThat(score("book-1")).isCloseTo(0.025, within(1e-3));
+        }
+
+        @Test
+        @DisplayName("Should count downloads since the previous change")
+        void shouldCountDownloadGrowth() {
+            // Given
+            Instant now = Instant.now();
+
+            // When
+            trendingService.onIndexed(List.of(change("book-1", 1L, 10, now), change("book-1", 2L, 13, now)));
+
+            // Then
+            assertThat(score("book-1")).isCloseTo(0.1 + 0.1 + 3.0, within(1e-3));
+        }
+    }
+
+    @Nested
+    @DisplayName("Replay Tests")
+    class ReplayTests {
+
+        @Test
+        @DisplayName("Should not count a replayed history as trending now")
+        void shouldNotTrendReplayedHistory() {
+            // Given
+            Instant monthAgo = Instant.now().minus(Duration.ofDays(30));
+
+            // When
+            trendingService.onIndexed(List.of(
+                    change("book-1", 1L, 0, monthAgo),
+                    change("book-1", 2L, 5000, monthAgo.plusSeconds(60))));
+
+            // Then
+            assertThat(trendingService.nextPublication()).isEmpty();
+            assertThat(trendingService.trending(null, 10)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should count a redelivered change once")
+        void shouldCountRedeliveredChangeOnce() {
+            // Given
+            BookChange change = change("book-1", 1L, 0, Instant.now());
+
+            // When
+            trendingService.onIndexed(List.of(change));
+            trendingService.onIndexed(List.of(change));
+
+            // Then
+            assertThat(score("book-1")).isCloseTo(0.1, within(1e-3));
+        }
+
+        @Test
+        @DisplayName("Should not let an older download count regress the last one seen")
+        void shouldIgnoreOlderDownloadCount() {
+            // Given
+            Instant now = Instant.now();
+            trendingService.onIndexed(List.of(change("book-1", 1L, 10, now), change("book-1", 3L, 20, now)));
+
+            // When
+            trendingService.onIndexed(List.of(change("book-1", 2L, 15, now), change("book-1", 4L, 20, now)));
+
+            // Then
+            assertThat(score("book-1")).isCloseTo(0.1 + 10.1 + 0.1, within(1e-3));
+        }
+
+        @Test
+        @DisplayName("Should ignore an upsert older than a delete")
+        void shouldIgnoreUpsertOlderThanDelete() {
+            // Given
+            Instant now = Instant.now();
+            trendingService.onIndexed(List.of(change("book-1", 1L, 0, now)));
+            trendingService.onIndexed(List.of(BookChange.builder()
+                    .type(BookChange.Type.DELETE)
+                    .bookId("book-1")
+                    .document(BookDocument.builder().id("book-1").version(3L).build())
+                    .timestamp(now)
+                    .build()));
+
+            // When
+            trendingService.onIndexed(List.of(change("book-1", 2L, 0, now)));
+
+            // Then
+            assertThat(trendingService.trending(null, 10)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Publish Tests")
+    class PublishTests {
+
+        @Test
+        @DisplayName("Should publish the whole top list the first time")
+        void shouldPublishTopList() {
+            // Given
+            Instant now = Instant.now();
+            trendingService.onIndexed(List.of(change("book-1", 1L, 0, now), change("book-2", 1L, 0, now)));
+
+            // When
+            Map<String, Double> updates = trendingService.nextPublication();
+
+            // Then
+            assertThat(updates).containsOnlyKeys("book-1", "book-2");
+        }
+
+        @Test
+        @DisplayName("Should publish only books whose score changed")
+        void shouldPublishChangedScores() {
+            // Given
+            Instant now = Instant.now();
+            trendingService.onIndexed(List.of(change("book-1", 1L, 0, now), change("book-2", 1L, 0, now)));
+            trendingService.nextPublication();
+
+            // When
+            trendingService.onIndexed(List.of(change("book-2", 2L, 0, now)));
+            Map<String, Double> updates = trendingService.nextPublication();
+
+            // Then
+            assertThat(updates).containsOnlyKeys("book-2");
+            assertThat(trendingService.nextPublication()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should clear books that left the top list")
+        void shouldClearBooksLeavingTopList() {
+            // Given
+            properties.getTrending().setPublishSize(1);
+            trendingService = newService();
+            Instant now = Instant.now();
+            trendingService.onIndexed(List.of(change("book-1", 1L, 0, now), change("book-2", 1L, 0, now.minusSeconds(60))));
+            assertThat(trendingService.nextPublication()).containsOnlyKeys("book-1");
+
+            // When
+            trendingService.onIndexed(List.of(change("book-2", 2L, 10, now)));
+            Map<String, Double> updates = trendingService.nextPublication();
+
+            // Then
+            assertThat(updates).containsOnlyKeys("book-1", "book-2");
+            assertThat(updates.get("book-1")).isNull();
+            assertThat(updates.get("book-2")).isNotNull();
+        }
+    }
+
+    private TrendingService newService() {
+        return new TrendingService(mock(ReactiveElasticsearchClient.class), new DocumentIdMap(), properties,
+                new SimpleMeterRegistry());
+    }
+
+    private double score(String bookId) {
+        return trendingService.trending(null, 10).stream()
+                .filter(scored -> scored.getId().equals(bookId))
+                .mapToDouble(ScoredId::getScore)
+                .findFirst()
+                .orElse(0);
+    }
+
+    private static BookChange change(String bookId, long version, int downloads, Instant timestamp) {
+        return BookChange.builder()
+                .type(BookChange.Type.UPSERT)
+                .bookId(bookId)
+                .document(BookDocument.builder().id(bookId).version(version).downloadCount(downloads).build())
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,368 @@
+package kz.readhub.content_engine_service.service.vector;
+
+import kz.readhub.content_engine_service.service.snapshot.SnapshotInput;
+import kz.readhub.content_engine_service.service.snapshot.SnapshotOutput;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for HnswIndex updates, tombstones and compaction.
+ */
+@DisplayName("HnswIndex Tests")
+class HnswIndexTest {
+
+    private static final int DIMENSION = 16;
+    private static final int BOOKS = 200;
+
+    private float[][] vectors;
+
+    @BeforeEach
+    void setUp() {
+        SplittableRandom random = new SplittableRandom(7);
+        vectors = new float[2 * BOOKS][DIMENSION];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < DIMENSION; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Upsert Tests")
+    class UpsertTests {
+
+        @Test
+        @DisplayName("Should leave the graph alone when the vector is unchanged")
+        void shouldSkipUnchangedVector() {
+            // Given
+            HnswIndex index = new HnswIndex(DIMENSION, 8, 100, 64);
+            index.upsert(1, vectors[0].clone());
+
+            // When
+            index.upsert(1, vectors[0].clone());
+
+            // Then
+            assertThat(index.size()).isEqualTo(1);
+            assertThat(index.tombstones()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should skip unchanged vectors on a quantized store with rescoring")
+        void shouldSkipUnchangedQuantizedVector() {
+            // Given
+            HnswIndex index = quantizedIndex();
+            index.upsert(1, vectors[0].clone());
+
+            // When
+            index.upsert(1, vectors[0].clone());
+            index.upsert(1, vectors[1].clone());
+
+            // Then
+            assertThat(index.size()).isEqualTo(1);
+            assertThat(index.tombstones()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Search Tests")
+    class SearchTests {
+
+        @Test
+        @DisplayName("Should find nearly all of the exact top-k neighbours")
+        void shouldMatchExactSearch() {
+            // Given
+            HnswIndex index = new HnswIndex(DIMENSION, 8, 100, 64);
+            for (int label = 0; label < 2 * BOOKS; label++) {
+                index.upsert(label, vectors[label].clone());
+            }
+            SplittableRandom random = new SplittableRandom(13);
+            int k = 10;
+
+            // When
+            int found = 0;
+            for (int query = 0; query < 20; query++) {
+                float[] vector = new float[DIMENSION];
+                for (int i = 0; i < DIMENSION; i++) {
+                    vector[i] = (float) random.nextGaussian();
+                }
+                int[] labels = new int[k];
+                float[] scores = new float[k];
+                int count = index.search(vector.clone(), k, 64, -1, labels, scores);
+                Set<Integer> exact = exactTopK(normalized(vector), k);
+                for (int i = 0; i < count; i++) {
+                    if (exact.contains(labels[i])) {
+                        found++;
+                    }
+                }
+            }
+
+            // Then
+            assertThat(found / (20.0 * k)).isGreaterThanOrEqualTo(0.9);
+        }
+
+        @Test
+        @DisplayName("Should return results best first and leave out the excluded label")
+        void shouldOrderResultsAndExcludeLabel() {
+            // Given
+            HnswIndex index = new HnswIndex(DIMENSION, 8, 100, 64);
+            for (int label = 0; label < BOOKS; label++) {
+                index.upsert(label, vectors[label].clone());
+            }
+            int[] labels = new int[5];
+            float[] scores = new float[5];
+
+            // When
+            int count = index.search(vectors[7].clone(), 5, 64, 7, labels, scores);
+
+            // Then
+            assertThat(count).isEqualTo(5);
+            assertThat(labels).doesNotContain(7);
+            for (int i = 1; i < count; i++) {
+                assertThat(scores[i]).isLessThanOrEqualTo(scores[i - 1]);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Compaction Tests")
+    class CompactionTests {
+
+        @Test
+        @DisplayName("Should drop tombstones and keep answering for live labels")
+        void shouldCompactTombstones() {
+            // Given
+            HnswIndex index = new HnswIndex(DIMENSION, 8, 100, 64);
+            for (int label = 0; label < BOOKS; label++) {
+                index.upsert(label, vectors[label].clone());
+            }
+            for (int label = 0; label < BOOKS / 2; label++) {
+                index.upsert(label, vectors[BOOKS + label].clone());
+            }
+            index.remove(BOOKS - 1);
+            assertThat(index.tombstones()).isEqualTo(BOOKS / 2 + 1);
+
+            // When
+            index.compact();
+
+            // Then
+            assertThat(index.tombstones()).isZero();
+            assertThat(index.size()).isEqualTo(BOOKS - 1);
+            assertThat(index.contains(BOOKS - 1)).isFalse();
+            assertThat(nearest(index, vectors[BOOKS / 2])).isEqualTo(BOOKS / 2);
+            assertThat(nearest(index, vectors[BOOKS + 1])).isEqualTo(1);
+            assertThat(index.vectorOf(0)).containsExactly(normalized(vectors[BOOKS]));
+        }
+
+        @Test
+        @DisplayName("Should rebuild a quantized graph from its full-precision vectors")
+        void shouldCompactQuantizedIndex() {
+            // Given
+            HnswIndex index = quantizedIndex();
+            for (int label = 0; label < BOOKS; label++) {
+                index.upsert(label, vectors[label].clone());
+            }
+            for (int label = 0; label < BOOKS; label += 2) {
+                index.remove(label);
+            }
+
+            // When
+            index.compact();
+
+            // Then
+            assertThat(index.tombstones()).isZero();
+            assertThat(index.size()).isEqualTo(BOOKS / 2);
+            for (int label = 1; label < BOOKS; label += 2) {
+                assertThat(nearest(index, vectors[label])).isEqualTo(label);
+            }
+        }
+
+        @Test
+        @DisplayName("Should do nothing without tombstones")
+        void shouldNotRebuildWithoutTombstones() {
+            // Given
+            HnswIndex index = new HnswIndex(DIMENSION, 8, 100, 64);
+            index.upsert(3, vectors[3].clone());
+
+            // When
+            index.compact();
+
+            // Then
+            assertThat(index.size()).isEqualTo(1);
+            assertThat(nearest(index, vectors[3])).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should keep serving and keep mutations made while the graph is rebuilt")
+        void shouldKeepMutationsDuringRebuild() throws InterruptedException {
+            // Given
+            CountDownLatch building = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            HnswIndex index = new HnswIndex(
+                    new GatedStore(new OffHeapVectorStore(DIMENSION, 64), building, release, false), null, 8, 100, 1);
+            for (int label = 0; label < BOOKS; label++) {
+                index.upsert(label, vectors[label].clone());
+            }
+            for (int label = 0; label < BOOKS / 2; label++) {
+                index.remove(label);
+            }
+            Thread compaction = new Thread(index::compact);
+            compaction.start();
+            assertThat(building.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // When
+            index.upsert(BOOKS - 1, vectors[BOOKS].clone());
+            index.remove(BOOKS - 2);
+            index.upsert(0, vectors[BOOKS + 1].clone());
+            int duringRebuild = nearest(index, vectors[BOOKS / 2]);
+            release.countDown();
+            compaction.join(10_000);
+
+            // Then
+            assertThat(duringRebuild).isEqualTo(BOOKS / 2);
+            assertThat(index.size()).isEqualTo(BOOKS / 2);
+            assertThat(index.tombstones()).isEqualTo(2);
+            assertThat(index.contains(BOOKS - 2)).isFalse();
+            assertThat(nearest(index, vectors[BOOKS])).isEqualTo(BOOKS - 1);
+            assertThat(nearest(index, vectors[BOOKS + 1])).isZero();
+            assertThat(nearest(index, vectors[BOOKS / 2 + 1])).isEqualTo(BOOKS / 2 + 1);
+        }
+    }
+
+    private static HnswIndex quantizedIndex() {
+        return new HnswIndex(new QuantizedVectorStore(DIMENSION, 64), new OffHeapVectorStore(DIMENSION, 64),
+                8, 100, 3);
+    }
+
+    /**
+     * Store whose empty copies stop on their first vector until released, holding a compaction mid-build.
+     */
+    private static final class GatedStore implements VectorStore {
+
+        private final VectorStore delegate;
+        private final CountDownLatch building;
+        private final CountDownLatch release;
+        private boolean gated;
+
+        private GatedStore(VectorStore delegate, CountDownLatch building, CountDownLatch release, boolean gated) {
+            this.delegate = delegate;
+            this.building = building;
+            this.release = release;
+            this.gated = gated;
+        }
+
+        @Override
+        public int add(float[] vector) {
+            if (gated) {
+                gated = false;
+                building.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return delegate.add(vector);
+        }
+
+        @Override
+        public VectorStore createEmpty() {
+            return new GatedStore(delegate.createEmpty(), building, release, true);
+        }
+
+        @Override
+        public int dimension() {
+            return delegate.dimension();
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public float dot(float[] query, int slot) {
+            return delegate.dot(query, slot);
+        }
+
+        @Override
+        public float dot(int slotA, int slotB) {
+            return delegate.dot(slotA, slotB);
+        }
+
+        @Override
+        public float[] get(int slot) {
+            return delegate.get(slot);
+        }
+
+        @Override
+        public boolean matches(int slot, float[] vector) {
+            return delegate.matches(slot, vector);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public long offHeapBytes() {
+            return delegate.offHeapBytes();
+        }
+
+        @Override
+        public void writeTo(SnapshotOutput out) throws IOException {
+            delegate.writeTo(out);
+        }
+
+        @Override
+        public void readFrom(SnapshotInput in) throws IOException {
+            delegate.readFrom(in);
+        }
+    }
+
+    private static int nearest(HnswIndex index, float[] query) {
+        int[] labels = new int[1];
+        float[] scores = new float[1];
+        int count = index.search(query.clone(), 1, 64, -1, labels, scores);
+        return count > 0 ? labels[0] : -1;
+    }
+
+    private Set<Integer> exactTopK(float[] query, int k) {
+        Integer[] labels = new Integer[vectors.length];
+        float[] scores = new float[vectors.length];
+        for (int label = 0; label < vectors.length; label++) {
+            labels[label] = label;
+            float[] vector = normalized(vectors[label]);
+            for (int i = 0; i < DIMENSION; i++) {
+                scores[label] += query[i] * vector[i];
+            }
+        }
+        Arrays.sort(labels, (a, b) -> Float.compare(scores[b], scores[a]));
+        return new HashSet<>(Arrays.asList(labels).subList(0, k));
+    }
+
+    private static float[] normalized(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float inverse = (float) (1 / Math.sqrt(norm));
+        float[] result = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            result[i] = vector[i] * inverse;
+        }
+        return result;
+    }
+}
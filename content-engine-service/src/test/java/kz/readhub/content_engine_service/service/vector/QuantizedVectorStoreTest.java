@@ -0,0 +1,107 @@
+package kz.readhub.content_engine_service.service.vector;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for QuantizedVectorStore scoring against full-precision vectors.
+ */
+@DisplayName("QuantizedVectorStore Tests")
+class QuantizedVectorStoreTest {
+
+    private static final int DIMENSION = 64;
+    private static final int VECTORS = 10;
+
+    private float[][] vectors;
+    private QuantizedVectorStore store;
+
+    @BeforeEach
+    void setUp() {
+        SplittableRandom random = new SplittableRandom(5);
+        vectors = new float[VECTORS][DIMENSION];
+        store = new QuantizedVectorStore(DIMENSION, 3);
+        for (float[] vector : vectors) {
+            double norm = 0;
+            for (int i = 0; i < DIMENSION; i++) {
+                vector[i] = (float) random.nextGaussian();
+                norm += vector[i] * vector[i];
+            }
+            for (int i = 0; i < DIMENSION; i++) {
+                vector[i] /= (float) Math.sqrt(norm);
+            }
+            store.add(vector);
+        }
+    }
+
+    @Nested
+    @DisplayName("Scoring Tests")
+    class ScoringTests {
+
+        @Test
+        @DisplayName("Should score a float query close to the exact dot product")
+        void shouldApproximateQueryDot() {
+            for (int slot = 0; slot < VECTORS; slot++) {
+                assertThat(store.dot(vectors[0], slot)).isCloseTo(dot(vectors[0], vectors[slot]), within(0.02f));
+            }
+        }
+
+        @Test
+        @DisplayName("Should score two stored vectors like their decoded forms")
+        void shouldScoreStoredPairsLikeDecoded() {
+            for (int slot = 1; slot < VECTORS; slot++) {
+                float decoded = dot(store.get(0), store.get(slot));
+                assertThat(store.dot(0, slot)).isCloseTo(decoded, within(1e-4f));
+                assertThat(store.dot(0, slot)).isCloseTo(dot(vectors[0], vectors[slot]), within(0.02f));
+            }
+        }
+
+        @Test
+        @DisplayName("Should decode vectors spread over several pages")
+        void shouldDecodeAcrossPages() {
+            assertThat(store.size()).isEqualTo(VECTORS);
+            for (int slot = 0; slot < VECTORS; slot++) {
+                assertThat(store.get(slot)).containsExactly(vectors[slot], within(0.01f));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Match Tests")
+    class MatchTests {
+
+        @Test
+        @DisplayName("Should match the stored vector and nothing else")
+        void shouldMatchStoredVector() {
+            assertThat(store.matches(4, vectors[4].clone())).isTrue();
+            assertThat(store.matches(4, vectors[5])).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should forget every vector on clear")
+        void shouldClear() {
+            // When
+            store.clear();
+            int slot = store.add(vectors[7]);
+
+            // Then
+            assertThat(slot).isZero();
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.matches(0, vectors[7])).isTrue();
+        }
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,230 @@
+package kz.readhub.content_engine_service.service.vector;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.readhub.content_engine_service.config.ContentEngineProperties;
+import kz.readhub.content_engine_service.model.BookChange;
+import kz.readhub.content_engine_service.model.BookDocument;
+import kz.readhub.content_engine_service.model.ScoredId;
+import kz.readhub.content_engine_service.service.index.DocumentIdMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for VectorIndexService spreading books over shards and merging the per-shard results.
+ */
+@DisplayName("VectorIndexService Tests")
+class VectorIndexServiceTest {
+
+    private static final int DIMENSION = 16;
+    private static final int BOOKS = 300;
+
+    private final List<VectorIndexService> opened = new ArrayList<>();
+    private ContentEngineProperties properties;
+    private float[][] vectors;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ContentEngineProperties();
+        properties.getVector().setDimension(DIMENSION);
+        properties.getVector().setM(8);
+        properties.getVector().setEfConstruction(100);
+        properties.getVector().setEfSearch(400);
+        properties.getVector().setPageSize(64);
+        properties.getVector().setQuantized(false);
+        properties.getVector().setRecallSampleRate(0);
+
+        SplittableRandom random = new SplittableRandom(11);
+        vectors = new float[BOOKS][DIMENSION];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < DIMENSION; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(VectorIndexService::stop);
+    }
+
+    @Nested
+    @DisplayName("Sharding Tests")
+    class ShardingTests {
+
+        @Test
+        @DisplayName("Should merge the shard results into the global top k, best first")
+        void shouldMergeShardResults() {
+            // Given
+            VectorIndexService index = open(4);
+            index.onIndexed(upserts());
+            float[] query = vectors[42];
+
+            // When & Then
+            StepVerifier.create(index.search(query, 10, null))
+                    .assertNext(results -> {
+                        assertThat(results).extracting(ScoredId::getId).containsExactlyElementsOf(exactTopK(query, 10));
+                        assertThat(results).isSortedAccordingTo(
+                                Comparator.comparingDouble(ScoredId::getScore).reversed());
+                    })
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should return the same neighbours whatever the shard count")
+        void shouldMatchSingleShard() {
+            // Given
+            VectorIndexService single = open(1);
+            VectorIndexService sharded = open(8);
+            single.onIndexed(upserts());
+            sharded.onIndexed(upserts());
+
+            // When
+            List<String> expected = ids(single.search(vectors[7], 10, null).block());
+            List<String> actual = ids(sharded.search(vectors[7], 10, null).block());
+
+            // Then
+            assertThat(actual).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("Should return every book when k exceeds what a single shard holds")
+        void shouldFillTopKAcrossShards() {
+            // Given
+            VectorIndexService index = open(8);
+            index.onIndexed(upserts().subList(0, 20));
+
+            // When & Then
+            StepVerifier.create(index.search(vectors[0], 20, null))
+                    .assertNext(results -> assertThat(results).hasSize(20))
+                    .verifyComplete();
+        }
+    }
+
+    @Nested
+    @DisplayName("Update Tests")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should leave a deleted book out of every shard's results")
+        void shouldDropDeletedBook() {
+            // Given
+            VectorIndexService index = open(4);
+            index.onIndexed(upserts());
+
+            // When
+            index.onIndexed(List.of(BookChange.builder().type(BookChange.Type.DELETE).bookId(bookId(42)).build()));
+
+            // Then
+            assertThat(ids(index.search(vectors[42], 10, null).block())).doesNotContain(bookId(42));
+            assertThat(index.vectorOf(bookId(42))).isNull();
+        }
+
+        @Test
+        @DisplayName("Should find similar books without the book itself")
+        void shouldExcludeBookFromSimilar() {
+            // Given
+            VectorIndexService index = open(4);
+            index.onIndexed(upserts());
+
+            // When
+            List<String> similar = ids(index.similar(bookId(42), 10, null).block());
+
+            // Then
+            assertThat(similar).hasSize(10).doesNotContain(bookId(42));
+            assertThat(similar).isEqualTo(exactTopK(vectors[42], 11).subList(1, 11));
+        }
+
+        @Test
+        @DisplayName("Should reject a query of the wrong dimension")
+        void shouldRejectWrongDimension() {
+            // Given
+            VectorIndexService index = open(4);
+
+            // When & Then
+            StepVerifier.create(index.search(new float[DIMENSION + 1], 10, null))
+                    .verifyError(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Snapshot Tests")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("Should fingerprint the configured shard count")
+        void shouldFingerprintShardCount() {
+            // When
+            String four = open(4).snapshotFingerprint();
+            String eight = open(8).snapshotFingerprint();
+
+            // Then
+            assertThat(four).contains("shards=4");
+            assertThat(four).isNotEqualTo(eight);
+        }
+    }
+
+    private VectorIndexService open(int shards) {
+        properties.getVector().setShards(shards);
+        VectorIndexService index = new VectorIndexService(properties, new DocumentIdMap(), new SimpleMeterRegistry());
+        opened.add(index);
+        return index;
+    }
+
+    private List<BookChange> upserts() {
+        List<BookChange> changes = new ArrayList<>();
+        for (int book = 0; book < BOOKS; book++) {
+            changes.add(BookChange.builder()
+                    .type(BookChange.Type.UPSERT)
+                    .bookId(bookId(book))
+                    .document(BookDocument.builder().id(bookId(book)).embedding(vectors[book].clone()).build())
+                    .build());
+        }
+        return changes;
+    }
+
+    private List<String> exactTopK(float[] query, int k) {
+        float[] normalizedQuery = normalized(query);
+        double[] scores = new double[BOOKS];
+        for (int book = 0; book < BOOKS; book++) {
+            float[] vector = normalized(vectors[book]);
+            for (int i = 0; i < DIMENSION; i++) {
+                scores[book] += normalizedQuery[i] * vector[i];
+            }
+        }
+        return IntStream.range(0, BOOKS).boxed()
+                .sorted((a, b) -> Double.compare(scores[b], scores[a]))
+                .limit(k)
+                .map(VectorIndexServiceTest::bookId)
+                .toList();
+    }
+
+    private static List<String> ids(List<ScoredId> results) {
+        return results.stream().map(ScoredId::getId).toList();
+    }
+
+    private static String bookId(int book) {
+        return "book-" + book;
+    }
+
+    private static float[] normalized(float[] vector) {
+        double norm = Math.sqrt(IntStream.range(0, vector.length).mapToDouble(i -> vector[i] * vector[i]).sum());
+        float[] result = Arrays.copyOf(vector, vector.length);
+        for (int i = 0; i < result.length; i++) {
+            result[i] /= (float) norm;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,111 @@
+package kz.readhub.content_engine_service.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for ScalarQuantizer encoding and round-trip error.
+ */
+@DisplayName("ScalarQuantizer Tests")
+class ScalarQuantizerTest {
+
+    private static final int DIMENSION = 384;
+
+    @Nested
+    @DisplayName("Round-Trip Tests")
+    class RoundTripTests {
+
+        @Test
+        @DisplayName("Should stay within half a quantization step of every component")
+        void shouldBoundRoundTripError() {
+            // Given
+            SplittableRandom random = new SplittableRandom(11);
+            for (int trial = 0; trial < 100; trial++) {
+                float[] vector = new float[DIMENSION];
+                float min = Float.POSITIVE_INFINITY;
+                float max = Float.NEGATIVE_INFINITY;
+                for (int i = 0; i < DIMENSION; i++) {
+                    vector[i] = (float) random.nextGaussian() * (trial + 1) / 10;
+                    min = Math.min(min, vector[i]);
+                    max = Math.max(max, vector[i]);
+                }
+
+                // When
+                float[] decoded = ScalarQuantizer.decode(ScalarQuantizer.encode(vector));
+
+                // Then
+                float tolerance = (max - min) / 255 / 2 + Math.ulp(max - min) * 4;
+                for (int i = 0; i < DIMENSION; i++) {
+                    assertThat(decoded[i]).isCloseTo(vector[i], within(tolerance));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should restore the minimum exactly and a constant vector without loss")
+        void shouldRestoreExactValues() {
+            // Given
+            float[] vector = {-0.5f, 0.25f, 0.75f};
+            float[] constant = {0.3f, 0.3f, 0.3f};
+
+            // When
+            float[] decoded = ScalarQuantizer.decode(ScalarQuantizer.encode(vector));
+            float[] decodedConstant = ScalarQuantizer.decode(ScalarQuantizer.encode(constant));
+
+            // Then
+            assertThat(decoded[0]).isEqualTo(-0.5f);
+            assertThat(decoded[2]).isCloseTo(0.75f, within(1e-6f));
+            assertThat(decodedConstant).containsExactly(constant);
+        }
+
+        @Test
+        @DisplayName("Should round-trip an empty vector")
+        void shouldRoundTripEmptyVector() {
+            assertThat(ScalarQuantizer.decode(ScalarQuantizer.encode(new float[0]))).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Encoding Tests")
+    class EncodingTests {
+
+        @Test
+        @DisplayName("Should use one byte per component plus the header")
+        void shouldEncodeCompactly() {
+            assertThat(ScalarQuantizer.encode(new float[DIMENSION])).hasSize(ScalarQuantizer.encodedLength(DIMENSION));
+            assertThat(ScalarQuantizer.encodedLength(DIMENSION)).isEqualTo(DIMENSION + 8);
+        }
+
+        @Test
+        @DisplayName("Should write at a buffer position and return the code sum")
+        void shouldEncodeAtPosition() {
+            // Given
+            float[] vector = {0f, 1f, 0.2f};
+            ByteBuffer buffer = ByteBuffer.allocate(4 + ScalarQuantizer.encodedLength(vector.length));
+
+            // When
+            int codeSum = ScalarQuantizer.encode(vector, buffer, 4);
+
+            // Then
+            assertThat(codeSum).isEqualTo(255 + 51);
+            float[] decoded = new float[vector.length];
+            ScalarQuantizer.decode(buffer, 4, decoded);
+            assertThat(decoded).containsExactly(new float[]{0f, 1f, 0.2f}, within(1f / 255));
+        }
+
+        @Test
+        @DisplayName("Should reject input shorter than the header")
+        void shouldRejectTruncatedInput() {
+            assertThatThrownBy(() -> ScalarQuantizer.decode(new byte[ScalarQuantizer.HEADER_BYTES - 1]))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
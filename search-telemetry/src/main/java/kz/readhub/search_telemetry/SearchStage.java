@@ -0,0 +1,39 @@
+package kz.readhub.search_telemetry;
+
+import java.util.Locale;
+
+/**
+ * Consecutive stages of a search request, in the order they run. Stages a service does not have are
+ * simply never ended and stay out of its metrics.
+ */
+public enum SearchStage {
+
+    /**
+     * Reading, validating and mapping the request.
+     */
+    PARSE,
+
+    /**
+     * Compiling the query and building the backend request.
+     */
+    PLAN,
+
+    /**
+     * The search backend or a cache in front of it, until the last result is read.
+     */
+    BACKEND,
+
+    /**
+     * Re-ranking the results and building suggestions.
+     */
+    RERANK,
+
+    /**
+     * Writing what remains of the response body.
+     */
+    SERIALIZE;
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
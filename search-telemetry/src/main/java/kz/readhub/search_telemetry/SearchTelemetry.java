@@ -0,0 +1,99 @@
+package kz.readhub.search_telemetry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records finished {@link SearchTrace}s: a percentile histogram per stage and search shape, one for the
+ * whole request, and a bounded log of the slowest recent searches with their stage breakdown. Meter names
+ * start with {@link SearchTelemetryProperties#getMetricPrefix()}.
+ */
+@Slf4j
+public class SearchTelemetry {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final SearchTelemetryProperties settings;
+    private final MeterRegistry meterRegistry;
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+
+    public SearchTelemetry(SearchTelemetryProperties settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public SearchTrace start() {
+        return SearchTrace.start();
+    }
+
+    /**
+     * Charges the remaining time to {@link SearchStage#SERIALIZE} and records the trace.
+     */
+    public void complete(SearchTrace trace) {
+        if (trace.lastMark() != trace.startNanos()) {
+            trace.end(SearchStage.SERIALIZE);
+        }
+        long totalNanos = System.nanoTime() - trace.startNanos();
+
+        Map<String, Double> stages = new LinkedHashMap<>();
+        for (SearchStage stage : SearchStage.values()) {
+            long nanos = trace.stageNanos(stage);
+            if (nanos > 0) {
+                timer(settings.getMetricPrefix() + ".stage", "Search latency per stage", trace)
+                        .tag("stage", stage.tag())
+                        .register(meterRegistry)
+                        .record(nanos, TimeUnit.NANOSECONDS);
+                stages.put(stage.tag(), nanos / NANOS_PER_MILLI);
+            }
+        }
+        timer(settings.getMetricPrefix() + ".latency", "Search latency", trace)
+                .register(meterRegistry)
+                .record(totalNanos, TimeUnit.NANOSECONDS);
+
+        if (totalNanos >= settings.getSlowQueryThreshold().toNanos()) {
+            SlowQuery slowQuery = SlowQuery.builder()
+                    .timestamp(Instant.now())
+                    .shape(trace.shape())
+                    .query(trace.description())
+                    .totalMillis(totalNanos / NANOS_PER_MILLI)
+                    .stages(stages)
+                    .hits(trace.hits())
+                    .build();
+            log.info("Slow search {} ms [{}] {} stages={} hits={}", Math.round(slowQuery.getTotalMillis()),
+                    slowQuery.getShape(), slowQuery.getQuery(), stages, slowQuery.getHits());
+            synchronized (slowQueries) {
+                if (slowQueries.size() >= settings.getSlowQueryLogSize()) {
+                    slowQueries.removeLast();
+                }
+                slowQueries.addFirst(slowQuery);
+            }
+        }
+    }
+
+    /**
+     * Recent slow searches, newest first.
+     */
+    public List<SlowQuery> slowQueries() {
+        synchronized (slowQueries) {
+            return Collections.unmodifiableList(new ArrayList<>(slowQueries));
+        }
+    }
+
+    private static Timer.Builder timer(String name, String description, SearchTrace trace) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(trace.tags())
+                .publishPercentileHistogram();
+    }
+}
@@ -0,0 +1,29 @@
+package kz.readhub.search_telemetry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Registers search telemetry in any service that has this module on its classpath.
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(SearchTelemetryProperties.class)
+public class SearchTelemetryAutoConfiguration {
+
+    @Bean
+    public SearchTelemetry searchTelemetry(SearchTelemetryProperties settings, MeterRegistry meterRegistry) {
+        return new SearchTelemetry(settings, meterRegistry);
+    }
+
+    @Bean
+    public SearchTraceFilter searchTraceFilter(SearchTelemetry telemetry, SearchTelemetryProperties settings) {
+        return new SearchTraceFilter(telemetry, settings);
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(SearchTelemetry telemetry) {
+        return new SlowQueryEndpoint(telemetry);
+    }
+}
@@ -0,0 +1,34 @@
+package kz.readhub.search_telemetry;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for search latency telemetry and the slow-query log.
+ */
+@Data
+@ConfigurationProperties(prefix = "readhub.search.telemetry")
+public class SearchTelemetryProperties {
+
+    /**
+     * Prefix of the timer names: {@code <prefix>.stage} and {@code <prefix>.latency}.
+     */
+    private String metricPrefix = "search";
+
+    /**
+     * Path of the search endpoint; {@code POST}s to it are traced.
+     */
+    private String searchPath = "/search";
+
+    /**
+     * Searches at least this slow are logged and kept for the {@code slowqueries} actuator endpoint.
+     */
+    private Duration slowQueryThreshold = Duration.ofMillis(500);
+
+    /**
+     * Most recent slow searches kept.
+     */
+    private int slowQueryLogSize = 100;
+}
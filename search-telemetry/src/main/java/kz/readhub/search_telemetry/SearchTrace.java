@@ -0,0 +1,118 @@
+package kz.readhub.search_telemetry;
+
+import io.micrometer.core.instrument.Tags;
+import reactor.util.context.ContextView;
+
+import java.util.function.Supplier;
+
+/**
+ * Stage timings of one search request, carried in the Reactor context by {@link SearchTraceFilter}.
+ * <p>
+ * Stages run one after another, so each {@link #end(SearchStage)} charges the time since the previous
+ * mark to the given stage. Code outside a traced request gets a no-op trace and need not check.
+ */
+public final class SearchTrace {
+
+    private static final SearchTrace NOOP = new SearchTrace(false);
+
+    private final boolean recording;
+    private final long startNanos;
+    private final long[] stageNanos = new long[SearchStage.values().length];
+    private volatile long lastMark;
+    private volatile String shape = "unknown";
+    private volatile String sort = "unknown";
+    private volatile Supplier<String> description;
+    private volatile long hits = -1;
+
+    private SearchTrace(boolean recording) {
+        this.recording = recording;
+        this.startNanos = System.nanoTime();
+        this.lastMark = startNanos;
+    }
+
+    static SearchTrace start() {
+        return new SearchTrace(true);
+    }
+
+    /**
+     * The trace of the current request, or a no-op trace outside one.
+     */
+    public static SearchTrace of(ContextView context) {
+        return context.getOrDefault(SearchTrace.class, NOOP);
+    }
+
+    /**
+     * Charges the time since the previous mark to {@code stage}.
+     */
+    public void end(SearchStage stage) {
+        if (!recording) {
+            return;
+        }
+        long now = System.nanoTime();
+        stageNanos[stage.ordinal()] += now - lastMark;
+        lastMark = now;
+    }
+
+    /**
+     * Describes the kind of search for the timer tags, so it must come from a small fixed set.
+     * For searches that always come back in the same order.
+     */
+    public void shape(String shape) {
+        shape(shape, "default");
+    }
+
+    /**
+     * Describes the kind of search and its sort order for the timer tags, so both values must come from
+     * a small fixed set.
+     */
+    public void shape(String shape, String sort) {
+        if (recording) {
+            this.shape = shape;
+            this.sort = sort;
+        }
+    }
+
+    /**
+     * The normalized query, built only if the search turns out slow.
+     */
+    public void describe(Supplier<String> description) {
+        if (recording) {
+            this.description = description;
+        }
+    }
+
+    public void hits(long hits) {
+        if (recording) {
+            this.hits = hits;
+        }
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    long lastMark() {
+        return lastMark;
+    }
+
+    long stageNanos(SearchStage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    String shape() {
+        return shape + " " + sort;
+    }
+
+    Tags tags() {
+        return Tags.of("shape", shape, "sort", sort);
+    }
+
+    String description() {
+        Supplier<String> supplier = description;
+        return supplier != null ? supplier.get() : null;
+    }
+
+    Long hits() {
+        return hits >= 0 ? hits : null;
+    }
+}
@@ -0,0 +1,32 @@
+package kz.readhub.search_telemetry;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Starts a {@link SearchTrace} for every {@code POST} to the search path and records it once the response
+ * is written.
+ */
+@RequiredArgsConstructor
+public class SearchTraceFilter implements WebFilter {
+
+    private final SearchTelemetry telemetry;
+    private final SearchTelemetryProperties settings;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (exchange.getRequest().getMethod() != HttpMethod.POST
+                || !settings.getSearchPath().equals(exchange.getRequest().getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+
+        SearchTrace trace = telemetry.start();
+        return chain.filter(exchange)
+                .doFinally(signal -> telemetry.complete(trace))
+                .contextWrite(context -> context.put(SearchTrace.class, trace));
+    }
+}
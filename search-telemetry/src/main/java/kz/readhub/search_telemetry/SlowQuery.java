@@ -0,0 +1,26 @@
+package kz.readhub.search_telemetry;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A search that took longer than the slow-query threshold. {@code stages} maps each stage that ran to
+ * its duration in milliseconds.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowQuery {
+    private Instant timestamp;
+    private String shape;
+    private String query;
+    private double totalMillis;
+    private Map<String, Double> stages;
+    private Long hits;
+}
@@ -0,0 +1,22 @@
+package kz.readhub.search_telemetry;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/slowqueries}: the most recent searches over the slow-query threshold, newest first.
+ */
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final SearchTelemetry telemetry;
+
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return telemetry.slowQueries();
+    }
+}
@@ -0,0 +1,29 @@
+package kz.readhub.search_telemetry;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Fingerprint of a search for the slow-query log: lower-cased, with quoted phrases and numbers replaced
+ * by {@code ?} and whitespace collapsed, so that searches differing only in their literals read the same
+ * and user-typed phrases are not kept verbatim.
+ */
+public final class SlowQueryText {
+
+    private static final Pattern QUOTED = Pattern.compile("\"[^\"]*\"?");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+(?:[.,]\\d+)*\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SlowQueryText() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        normalized = QUOTED.matcher(normalized).replaceAll("?");
+        normalized = NUMBER.matcher(normalized).replaceAll("?");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,151 @@
+package kz.readhub.search_telemetry;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for search stage timers, the slow-query log and its query fingerprints.
+ */
+@DisplayName("SearchTelemetry Tests")
+class SearchTelemetryTest {
+
+    private SearchTelemetryProperties settings;
+    private SimpleMeterRegistry meterRegistry;
+    private SearchTelemetry telemetry;
+
+    @BeforeEach
+    void setUp() {
+        settings = new SearchTelemetryProperties();
+        settings.setMetricPrefix("books.search");
+        settings.setSlowQueryThreshold(Duration.ZERO);
+        settings.setSlowQueryLogSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        telemetry = new SearchTelemetry(settings, meterRegistry);
+    }
+
+    @Nested
+    @DisplayName("Recording Tests")
+    class RecordingTests {
+
+        @Test
+        @DisplayName("Should time each stage that ran under the configured prefix")
+        void shouldRecordStageTimers() {
+            // Given
+            SearchTrace trace = telemetry.start();
+            trace.shape("text/first");
+            trace.end(SearchStage.PARSE);
+            trace.end(SearchStage.BACKEND);
+
+            // When
+            telemetry.complete(trace);
+
+            // Then
+            assertThat(meterRegistry.find("books.search.stage").tag("stage", "parse").tag("shape", "text/first")
+                    .tag("sort", "default").timer()).isNotNull();
+            assertThat(meterRegistry.find("books.search.stage").tag("stage", "serialize").timer()).isNotNull();
+            assertThat(meterRegistry.find("books.search.stage").tag("stage", "rerank").timer()).isNull();
+            Timer latency = meterRegistry.find("books.search.latency").timer();
+            assertThat(latency).isNotNull();
+            assertThat(latency.count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should keep only the most recent slow searches, newest first")
+        void shouldBoundSlowQueryLog() {
+            // Given
+            for (String query : List.of("first", "second", "third")) {
+                SearchTrace trace = telemetry.start();
+                trace.shape("text/first", "relevance");
+                trace.describe(() -> query);
+                trace.hits(3);
+
+                // When
+                telemetry.complete(trace);
+            }
+
+            // Then
+            List<SlowQuery> slowQueries = telemetry.slowQueries();
+            assertThat(slowQueries).extracting(SlowQuery::getQuery).containsExactly("third", "second");
+            assertThat(slowQueries.get(0).getShape()).isEqualTo("text/first relevance");
+            assertThat(slowQueries.get(0).getHits()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should not log searches under the threshold")
+        void shouldSkipFastSearches() {
+            // Given
+            settings.setSlowQueryThreshold(Duration.ofMinutes(1));
+            SearchTrace trace = telemetry.start();
+            trace.describe(() -> "fast");
+
+            // When
+            telemetry.complete(trace);
+
+            // Then
+            assertThat(telemetry.slowQueries()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Filter Tests")
+    class FilterTests {
+
+        @Test
+        @DisplayName("Should trace POSTs to the search path only")
+        void shouldTraceSearchRequests() {
+            // Given
+            SearchTraceFilter filter = new SearchTraceFilter(telemetry, settings);
+            MockServerWebExchange search = MockServerWebExchange.from(MockServerHttpRequest.post("/search"));
+            MockServerWebExchange other = MockServerWebExchange.from(MockServerHttpRequest.get("/search"));
+
+            // When
+            StepVerifier.create(filter.filter(search, exchange -> Mono.deferContextual(context -> {
+                        SearchTrace.of(context).describe(() -> "traced");
+                        return Mono.empty();
+                    })))
+                    .verifyComplete();
+            StepVerifier.create(filter.filter(other, exchange -> Mono.deferContextual(context -> {
+                        SearchTrace.of(context).describe(() -> "untraced");
+                        return Mono.empty();
+                    })))
+                    .verifyComplete();
+
+            // Then
+            assertThat(telemetry.slowQueries()).extracting(SlowQuery::getQuery).containsExactly("traced");
+        }
+    }
+
+    @Nested
+    @DisplayName("Query Text Tests")
+    class QueryTextTests {
+
+        @Test
+        @DisplayName("Should lower-case and replace quoted phrases and numbers")
+        void shouldStripLiterals() {
+            assertThat(SlowQueryText.normalize("  Tolkien \"The Hobbit\"   1937 ")).isEqualTo("tolkien ? ?");
+            assertThat(SlowQueryText.normalize("rating >= 4.5 AND \"unterminated")).isEqualTo("rating >= ? and ?");
+        }
+
+        @Test
+        @DisplayName("Should give the same fingerprint to searches differing only in literals")
+        void shouldGroupByFingerprint() {
+            assertThat(SlowQueryText.normalize("Dune 1965"))
+                    .isEqualTo(SlowQueryText.normalize("dune  2021"));
+            assertThat(SlowQueryText.normalize(null)).isEmpty();
+            assertThat(SlowQueryText.normalize("   ")).isEmpty();
+        }
+    }
+}